@@ -0,0 +1,522 @@
+package com.viper.demo.Cache;
+
+import com.viper.demo.Monitor.LogMarkers;
+import com.viper.demo.Pojo.UserGrants;
+import com.viper.demo.Utils.CircuitBreaker;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 用户授权信息缓存
+ *
+ * SA-Token每次执行@SaCheckPermission或@SaCheckRole校验都会调用StpInterface，
+ * 没有缓存时每个受保护的请求都要查询一次数据库
+ * 该缓存按用户ID保存UserGrants，在有效期内直接返回，过期后由调用方提供的加载函数重新加载
+ *
+ * 缓存策略：
+ * - 过期时间：写入后ttl-seconds秒过期（默认60秒），到期后的第一次访问同步重新加载
+ * - 容量上限：超过max-size时先清理过期条目，仍然已满则本次不写入缓存（只查库，不淘汰他人）
+ * - 主动失效：用户信息修改、删除时由UserServiceImpl调用evict()（同时删除可降级使用的旧数据）
+ * - 失效代数：evict()先递增该用户所在分段的代数再删除条目，同步加载前记下代数，
+ *   加载完成时代数已变化则不写入缓存；否则在事务提交前开始、evict()之后才结束的加载
+ *   会把修改前的授权信息重新缓存一个ttl（例如已删除的管理员仍保留admin角色）
+ *   代数按用户ID分段（GENERATION_STRIPES个），不随用户数增长；同一分段其他用户的失效只会让本次加载不写入缓存
+ * - 加载异常：不缓存失败结果
+ * - 只读访问：peek()只返回已缓存的条目，从不加载（RequestPriority在并发限制之前调用，不能查询数据库）
+ *
+ * 提前刷新（refresh-ahead）：
+ * 条目的年龄超过ttl * refresh-ahead-ratio后再被访问时，仍然直接返回当前值，
+ * 同时把重新加载提交到后台线程池，刷新完成后替换缓存条目；
+ * 活跃用户的条目在过期前就被刷新，不会让某个请求同步承担查库的耗时，不活跃用户的条目照常过期
+ * - 同一用户同时只有一个刷新任务，线程池和队列有界，队列已满时放弃本次刷新（条目到期后同步加载）
+ * - 刷新同样经过熔断器，失败时保留当前值
+ * - 刷新期间条目被evict()时丢弃刷新结果，不会把修改前的授权信息写回缓存
+ *
+ * 数据库故障降级：
+ * 加载函数外包一层熔断器（CircuitBreaker），连续失败或连续慢调用后熔断，熔断期间不再调用加载函数，
+ * 请求不会阻塞到JDBC超时；熔断持续一段时间后放行一次试探调用，成功即自动恢复
+ * - 熔断中或加载失败时，返回该用户过期但未超过max-stale-seconds的旧授权信息（降级）
+ * - 没有可用的旧数据时抛出预分配的GrantCache.UnavailableException，StpInterfaceImpl按无权限处理（失败时拒绝）
+ * - 过期条目保留到max-stale-seconds后才会被容量清理删除
+ *
+ * 配置项（application.properties）：
+ * - demo.grant-cache.enabled：是否启用，关闭后每次都调用加载函数（不经过熔断器）
+ * - demo.grant-cache.ttl-seconds：过期时间（秒）
+ * - demo.grant-cache.max-size：最多缓存的用户数
+ * - demo.grant-cache.max-stale-seconds：降级时允许使用的旧数据的最大年龄（秒，从加载时算起）
+ * - demo.grant-cache.breaker.failure-threshold：连续失败多少次后熔断
+ * - demo.grant-cache.breaker.open-seconds：熔断持续时间（秒）
+ * - demo.grant-cache.breaker.slow-call-millis：慢调用阈值（毫秒），超过该耗时的加载也计为失败
+ * - demo.grant-cache.refresh-ahead-ratio：条目年龄达到ttl的该比例后访问即触发后台刷新，0表示关闭
+ * - demo.grant-cache.refresh-threads：后台刷新线程数
+ *
+ * 监控指标（实现MeterBinder，由Spring Boot自动注册）：
+ * - grant.cache.requests{result=hit|miss}：缓存命中/未命中次数
+ * - grant.cache.requests{result=stale}：降级返回旧授权信息的次数
+ * - grant.cache.requests{result=unavailable}：无法加载且没有可用旧数据的次数
+ * - grant.cache.size：当前缓存的用户数
+ * - grant.breaker.state{state=closed|open|half_open}：熔断器当前状态（当前状态为1，其余为0）
+ * - grant.breaker.opened：熔断次数
+ * - grant.breaker.not_permitted：熔断期间未调用加载函数的次数
+ * - grant.cache.refresh：后台刷新成功的次数和耗时
+ * - grant.cache.refresh.failures{reason=error|rejected}：刷新失败次数（加载异常、线程池已满）
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+@Slf4j
+@Component
+public class GrantCache implements MeterBinder {
+
+    /**
+     * 后台刷新队列容量
+     */
+    private static final int REFRESH_QUEUE_CAPACITY = 1024;
+
+    /**
+     * 失效代数的分段数（2的幂）
+     */
+    private static final int GENERATION_STRIPES = 1024;
+
+    /**
+     * 是否启用缓存
+     */
+    private final boolean enabled;
+
+    /**
+     * 过期时间（纳秒）
+     */
+    private final long ttlNanos;
+
+    /**
+     * 最多缓存的用户数
+     */
+    private final int maxSize;
+
+    /**
+     * 降级时旧数据的最大年龄（纳秒），不小于ttlNanos
+     */
+    private final long maxStaleNanos;
+
+    /**
+     * 加载函数的熔断器
+     */
+    private final CircuitBreaker breaker;
+
+    /**
+     * 条目年龄超过该值（纳秒）后访问即触发后台刷新，关闭时为Long.MAX_VALUE
+     */
+    private final long refreshAheadNanos;
+
+    /**
+     * 后台刷新使用的线程池
+     */
+    private final Executor refreshExecutor;
+
+    /**
+     * 正在刷新的用户ID，保证同一用户同时只有一个刷新任务
+     */
+    private final Set<Integer> refreshing = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 用户ID -> 缓存条目
+     */
+    private final Map<Integer, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * 按用户ID分段的失效代数，evict()和clear()时递增
+     */
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    /**
+     * 命中次数
+     */
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * 未命中次数（包括过期后重新加载和缓存关闭时的直接加载）
+     */
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * 降级返回旧数据的次数
+     */
+    private final LongAdder staleHits = new LongAdder();
+
+    /**
+     * 无法加载且没有可用旧数据的次数
+     */
+    private final LongAdder unavailable = new LongAdder();
+
+    /**
+     * 刷新成功次数
+     */
+    private final LongAdder refreshes = new LongAdder();
+
+    /**
+     * 刷新成功的累计耗时（纳秒）
+     */
+    private final LongAdder refreshNanos = new LongAdder();
+
+    /**
+     * 刷新时加载函数抛出异常的次数
+     */
+    private final LongAdder refreshErrors = new LongAdder();
+
+    /**
+     * 线程池已满、放弃刷新的次数
+     */
+    private final LongAdder refreshRejected = new LongAdder();
+
+    /**
+     * 创建不降级、不提前刷新的缓存（过期即重新加载，熔断器使用默认参数）
+     */
+    public GrantCache(boolean enabled, long ttlSeconds, int maxSize) {
+        this(enabled, ttlSeconds, maxSize, ttlSeconds,
+                new CircuitBreaker(5, TimeUnit.SECONDS.toNanos(10), TimeUnit.SECONDS.toNanos(1)));
+    }
+
+    @Autowired
+    public GrantCache(@Value("${demo.grant-cache.enabled:true}") boolean enabled,
+                      @Value("${demo.grant-cache.ttl-seconds:60}") long ttlSeconds,
+                      @Value("${demo.grant-cache.max-size:10000}") int maxSize,
+                      @Value("${demo.grant-cache.max-stale-seconds:600}") long maxStaleSeconds,
+                      @Value("${demo.grant-cache.breaker.failure-threshold:5}") int failureThreshold,
+                      @Value("${demo.grant-cache.breaker.open-seconds:10}") long openSeconds,
+                      @Value("${demo.grant-cache.breaker.slow-call-millis:1000}") long slowCallMillis,
+                      @Value("${demo.grant-cache.refresh-ahead-ratio:0.8}") double refreshAheadRatio,
+                      @Value("${demo.grant-cache.refresh-threads:2}") int refreshThreads) {
+        this(enabled, ttlSeconds, maxSize, maxStaleSeconds, new CircuitBreaker(failureThreshold,
+                        TimeUnit.SECONDS.toNanos(openSeconds), TimeUnit.MILLISECONDS.toNanos(slowCallMillis)),
+                refreshAheadRatio, newRefreshExecutor(refreshThreads));
+    }
+
+    public GrantCache(boolean enabled, long ttlSeconds, int maxSize, long maxStaleSeconds, CircuitBreaker breaker) {
+        this(enabled, ttlSeconds, maxSize, maxStaleSeconds, breaker, 0, null);
+    }
+
+    /**
+     * 创建缓存
+     *
+     * @param refreshAheadRatio 提前刷新的年龄比例，不在(0, 1)之间时关闭提前刷新
+     * @param refreshExecutor 后台刷新线程池，关闭提前刷新时可以为null
+     */
+    public GrantCache(boolean enabled, long ttlSeconds, int maxSize, long maxStaleSeconds, CircuitBreaker breaker,
+                      double refreshAheadRatio, Executor refreshExecutor) {
+        this.enabled = enabled;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.maxSize = maxSize;
+        this.maxStaleNanos = TimeUnit.SECONDS.toNanos(Math.max(ttlSeconds, maxStaleSeconds));
+        this.breaker = breaker;
+        boolean refreshAhead = refreshAheadRatio > 0 && refreshAheadRatio < 1 && refreshExecutor != null;
+        this.refreshAheadNanos = refreshAhead ? (long) (ttlNanos * refreshAheadRatio) : Long.MAX_VALUE;
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    /**
+     * 创建后台刷新线程池：固定线程数、有界队列，队列已满时抛出RejectedExecutionException
+     * 线程为守护线程，不阻止JVM退出
+     */
+    private static ExecutorService newRefreshExecutor(int threads) {
+        AtomicInteger sequence = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(REFRESH_QUEUE_CAPACITY), runnable -> {
+                    Thread thread = new Thread(runnable, "grant-refresh-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * 获取用户的授权信息，缓存未命中或已过期时调用加载函数
+     *
+     * 熔断中或加载失败时降级返回未超过最大年龄的旧数据
+     * 条目需要提前刷新时，加载函数还会在后台线程中被调用一次
+     *
+     * @param userId 用户ID
+     * @param loader 加载函数，通常会查询数据库
+     * @return 用户授权信息
+     * @throws UnavailableException 熔断中且没有可用的旧数据
+     * @throws RuntimeException 加载函数抛出的异常（没有可用的旧数据时原样抛出）
+     */
+    public UserGrants get(Integer userId, Function<Integer, UserGrants> loader) {
+        return get(userId, loader, System.nanoTime());
+    }
+
+    UserGrants get(Integer userId, Function<Integer, UserGrants> loader, long now) {
+        if (!enabled) {
+            misses.increment();
+            return loader.apply(userId);
+        }
+        Entry entry = entries.get(userId);
+        if (entry != null && now - entry.loadedAt() < ttlNanos) {
+            hits.increment();
+            if (now - entry.loadedAt() >= refreshAheadNanos) {
+                refreshAsync(userId, entry, loader);
+            }
+            return entry.grants();
+        }
+        if (!breaker.tryAcquirePermission()) {
+            UserGrants stale = stale(entry, now);
+            if (stale == null) {
+                throw UnavailableException.INSTANCE;
+            }
+            return stale;
+        }
+        misses.increment();
+        long generation = generations.get(stripe(userId));
+        UserGrants grants;
+        try {
+            grants = loader.apply(userId);
+        } catch (RuntimeException e) {
+            breaker.onFailure();
+            UserGrants stale = stale(entry, now);
+            if (stale == null) {
+                throw e;
+            }
+            return stale;
+        }
+        breaker.onSuccess(System.nanoTime() - now);
+        if (entries.size() >= maxSize && !entries.containsKey(userId)) {
+            removeExpired(now);
+            if (entries.size() >= maxSize) {
+                return grants;
+            }
+        }
+        // 加载期间被evict()时保留evict()之后的状态，本次结果只返回给调用方
+        entries.compute(userId, (id, current) ->
+                generations.get(stripe(id)) == generation ? new Entry(grants, now) : current);
+        return grants;
+    }
+
+    private static int stripe(Integer userId) {
+        return userId.hashCode() & (GENERATION_STRIPES - 1);
+    }
+
+    /**
+     * 只读取缓存，不调用加载函数、不经过熔断器、不触发提前刷新
+     *
+     * 供准入判断等不能查询数据库的场景使用；过期但未超过max-stale-seconds的条目同样返回，
+     * 不计入命中/未命中统计
+     *
+     * @param userId 用户ID
+     * @return 缓存的授权信息，缓存关闭、未缓存或已超过最大年龄时返回null
+     */
+    public UserGrants peek(Integer userId) {
+        return peek(userId, System.nanoTime());
+    }
+
+    UserGrants peek(Integer userId, long now) {
+        if (!enabled || userId == null) {
+            return null;
+        }
+        Entry entry = entries.get(userId);
+        return entry != null && now - entry.loadedAt() < maxStaleNanos ? entry.grants() : null;
+    }
+
+    /**
+     * 把条目的重新加载提交到后台线程池，同一用户已有刷新任务时直接返回
+     */
+    private void refreshAsync(Integer userId, Entry entry, Function<Integer, UserGrants> loader) {
+        if (!refreshing.add(userId)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> refresh(userId, entry, loader));
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(userId);
+            refreshRejected.increment();
+        }
+    }
+
+    /**
+     * 后台刷新：重新加载并替换条目，条目在此期间被替换或删除时丢弃结果
+     */
+    private void refresh(Integer userId, Entry entry, Function<Integer, UserGrants> loader) {
+        try {
+            if (!breaker.tryAcquirePermission()) {
+                return;
+            }
+            long start = System.nanoTime();
+            UserGrants grants;
+            try {
+                grants = loader.apply(userId);
+            } catch (RuntimeException e) {
+                breaker.onFailure();
+                refreshErrors.increment();
+                log.warn(LogMarkers.SAMPLED, "授权信息后台刷新失败，继续使用当前缓存 userId={}", userId, e);
+                return;
+            }
+            long duration = System.nanoTime() - start;
+            breaker.onSuccess(duration);
+            refreshes.increment();
+            refreshNanos.add(duration);
+            entries.replace(userId, entry, new Entry(grants, start));
+        } finally {
+            refreshing.remove(userId);
+        }
+    }
+
+    /**
+     * 降级：返回未超过最大年龄的旧数据
+     *
+     * @return 旧授权信息，没有或已超过最大年龄时返回null（计为一次不可用）
+     */
+    private UserGrants stale(Entry entry, long now) {
+        if (entry != null && now - entry.loadedAt() < maxStaleNanos) {
+            staleHits.increment();
+            return entry.grants();
+        }
+        unavailable.increment();
+        return null;
+    }
+
+    /**
+     * 熔断器当前状态
+     *
+     * @return 熔断器状态
+     */
+    public CircuitBreaker.State breakerState() {
+        return breaker.getState();
+    }
+
+    /**
+     * 使某个用户的缓存失效
+     *
+     * @param userId 用户ID，为null时忽略
+     */
+    public void evict(Integer userId) {
+        if (userId != null) {
+            // 先递增代数再删除：删除之后才结束的加载一定能看到新的代数
+            generations.incrementAndGet(stripe(userId));
+            entries.remove(userId);
+        }
+    }
+
+    /**
+     * 停止后台刷新线程池，未执行的刷新任务直接丢弃
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (refreshExecutor instanceof ExecutorService service) {
+            service.shutdownNow();
+        }
+    }
+
+    /**
+     * 清空全部缓存
+     */
+    public void clear() {
+        for (int i = 0; i < GENERATION_STRIPES; i++) {
+            generations.incrementAndGet(i);
+        }
+        entries.clear();
+    }
+
+    /**
+     * 当前缓存的用户数（包含尚未清理的过期条目）
+     *
+     * @return 缓存条目数
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("grant.cache.requests", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .description("授权信息缓存命中次数")
+                .register(registry);
+        FunctionCounter.builder("grant.cache.requests", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .description("授权信息缓存未命中次数")
+                .register(registry);
+        FunctionCounter.builder("grant.cache.requests", staleHits, LongAdder::sum)
+                .tag("result", "stale")
+                .description("熔断或加载失败时降级返回旧授权信息的次数")
+                .register(registry);
+        FunctionCounter.builder("grant.cache.requests", unavailable, LongAdder::sum)
+                .tag("result", "unavailable")
+                .description("无法加载且没有可用旧数据的次数")
+                .register(registry);
+        Gauge.builder("grant.cache.size", entries, Map::size)
+                .description("当前缓存的用户数")
+                .register(registry);
+        for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+            Gauge.builder("grant.breaker.state", breaker, b -> b.getState() == state ? 1 : 0)
+                    .tag("state", state.name().toLowerCase())
+                    .description("授权信息加载熔断器的当前状态")
+                    .register(registry);
+        }
+        FunctionCounter.builder("grant.breaker.opened", breaker, CircuitBreaker::getOpenCount)
+                .description("授权信息加载熔断次数")
+                .register(registry);
+        FunctionCounter.builder("grant.breaker.not_permitted", breaker, CircuitBreaker::getNotPermittedCount)
+                .description("熔断期间未调用加载函数的次数")
+                .register(registry);
+        FunctionTimer.builder("grant.cache.refresh", this,
+                        cache -> cache.refreshes.sum(), cache -> cache.refreshNanos.sum(), TimeUnit.NANOSECONDS)
+                .description("授权信息后台刷新成功的次数和耗时")
+                .register(registry);
+        FunctionCounter.builder("grant.cache.refresh.failures", refreshErrors, LongAdder::sum)
+                .tag("reason", "error")
+                .description("后台刷新时加载授权信息失败的次数")
+                .register(registry);
+        FunctionCounter.builder("grant.cache.refresh.failures", refreshRejected, LongAdder::sum)
+                .tag("reason", "rejected")
+                .description("刷新线程池已满、放弃刷新的次数")
+                .register(registry);
+    }
+
+    /**
+     * 清理超过降级最大年龄的条目（过期但仍可降级使用的条目保留）
+     */
+    private void removeExpired(long now) {
+        entries.values().removeIf(entry -> now - entry.loadedAt() >= maxStaleNanos);
+    }
+
+    /**
+     * 缓存条目：授权信息及其加载时间
+     */
+    private record Entry(UserGrants grants, long loadedAt) {
+    }
+
+    /**
+     * 授权信息暂不可用（熔断中且没有可用的旧数据），无堆栈
+     */
+    public static final class UnavailableException extends RuntimeException {
+
+        /**
+         * 共享实例
+         */
+        public static final UnavailableException INSTANCE = new UnavailableException();
+
+        private UnavailableException() {
+            super("授权信息暂不可用：数据库访问已熔断", null, false, false);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.viper.demo.Cache;
+
+import cn.dev33.satoken.session.SaSession;
+import cn.dev33.satoken.stp.StpUtil;
+import com.viper.demo.Pojo.CachedUser;
+import com.viper.demo.Pojo.UserProfile;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 会话资料快照存储
+ *
+ * 登录时已经查到了用户的全部资料，该类把不含密码的资料快照保存在SA-Token的账号会话（Account-Session）中，
+ * /auth/userInfo 和 /user/profile 直接从会话读取，不再每次查询数据库
+ *
+ * 每个在线用户都有一份快照，会话中保存的是紧凑的CachedUser（基本类型字段、epoch毫秒时间），
+ * 而不是带装箱整数和两个Date对象的UserProfile，读取时再转换为UserProfile
+ *
+ * 快照的生命周期：
+ * - 写入：AuthController.doLogin登录成功后调用store()
+ * - 读取：UserServiceImpl.findProfileById优先读取快照，没有快照时查询数据库（回退）
+ * - 刷新：UserServiceImpl.update/updateProfile提交后调用refresh()，只在会话已存在时写入，
+ *   不会用updateTime更早的资料替换更新的快照
+ * - 删除：UserServiceImpl.deleteById调用evict()；注销、踢下线时会话随之销毁
+ *
+ * 回退查询的场景：
+ * - 快照功能上线前登录的会话
+ * - 无状态签名令牌模式等没有账号会话的情况
+ * - 回退查到资料后，如果会话存在且仍然没有快照，会顺便补写快照（fill()），之后的请求不再回退；
+ *   回退查询期间并发的资料修改已经写入了更新的快照时不覆盖，快照没有过期时间，写错会一直保留到重新登录
+ *
+ * 注意：快照只在通过UserService修改资料时刷新，绕过应用直接修改数据库时，
+ * 已登录用户看到的资料要到重新登录后才会更新
+ *
+ * 监控指标（实现MeterBinder，由Spring Boot自动注册）：
+ * - user.profile.snapshot.requests{result=hit}：从会话快照返回资料的次数
+ * - user.profile.snapshot.requests{result=fallback}：没有快照、回退查询数据库的次数
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+@Component
+public class ProfileSnapshotStore implements MeterBinder {
+
+    /**
+     * 快照在账号会话中的键
+     */
+    public static final String SESSION_KEY = "profile";
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    /**
+     * 登录成功后写入快照，账号会话不存在时创建
+     *
+     * @param profile 用户资料（不含密码）
+     */
+    public void store(UserProfile profile) {
+        StpUtil.getSessionByLoginId(profile.id()).set(SESSION_KEY, CachedUser.of(profile));
+    }
+
+    /**
+     * 读取用户的资料快照
+     *
+     * @param userId 用户ID
+     * @return 资料快照，没有会话或会话中没有快照时返回null（计为一次回退）
+     */
+    public UserProfile get(Integer userId) {
+        SaSession session = StpUtil.getSessionByLoginId(userId, false);
+        if (session != null && session.get(SESSION_KEY) instanceof CachedUser snapshot) {
+            hits.increment();
+            return snapshot.toProfile();
+        }
+        fallbacks.increment();
+        return null;
+    }
+
+    /**
+     * 用最新的资料刷新快照，只在账号会话存在（用户在线）时写入
+     *
+     * @param profile 最新的用户资料
+     */
+    public void refresh(UserProfile profile) {
+        SaSession session = StpUtil.getSessionByLoginId(profile.id(), false);
+        if (session == null) {
+            return;
+        }
+        CachedUser snapshot = CachedUser.of(profile);
+        if (session.get(SESSION_KEY) instanceof CachedUser current
+                && current.updateTimeMillis() > snapshot.updateTimeMillis()) {
+            return;
+        }
+        session.set(SESSION_KEY, snapshot);
+    }
+
+    /**
+     * 补写快照：只在账号会话存在且其中还没有快照时写入
+     *
+     * 供回退查询使用：查询期间并发的修改可能已经刷新了快照，回退查到的资料不能覆盖它
+     *
+     * @param profile 回退查询到的用户资料
+     */
+    public void fill(UserProfile profile) {
+        SaSession session = StpUtil.getSessionByLoginId(profile.id(), false);
+        if (session != null) {
+            session.setByNull(SESSION_KEY, CachedUser.of(profile));
+        }
+    }
+
+    /**
+     * 删除用户的资料快照
+     *
+     * @param userId 用户ID
+     */
+    public void evict(Integer userId) {
+        SaSession session = StpUtil.getSessionByLoginId(userId, false);
+        if (session != null) {
+            session.delete(SESSION_KEY);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("user.profile.snapshot.requests", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .description("从会话快照返回用户资料的次数")
+                .register(registry);
+        FunctionCounter.builder("user.profile.snapshot.requests", fallbacks, LongAdder::sum)
+                .tag("result", "fallback")
+                .description("没有会话快照、回退查询数据库的次数")
+                .register(registry);
+    }
+}
@@ -0,0 +1,138 @@
+package com.viper.demo.Cache;
+
+import com.viper.demo.Utils.SignedTokenCodec;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 签名令牌作废列表
+ *
+ * 自包含签名令牌（见SignedTokenCodec）在过期前始终能通过签名校验，
+ * 注销和踢下线需要在服务端记录"哪些令牌已经不能再用"，该类用两种紧凑的记录实现：
+ *
+ * 1. 单个令牌作废（注销）：令牌ID -> 过期时间
+ *    令牌过期后记录即可删除，列表大小只与"有效期内被注销的令牌数"有关
+ * 2. 按用户批量作废（踢下线、删除用户）：用户ID -> 权限版本
+ *    版本号递增后，所有携带旧版本的令牌一次性失效，每个用户只占一条记录
+ *
+ * 注意事项：
+ * - 记录保存在当前进程内存中，应用重启后丢失；多节点部署时需要把作废事件广播到所有节点
+ * - 过期的单令牌记录在写入新记录时顺带清理，不需要定时任务
+ *
+ * 监控指标（实现MeterBinder，由Spring Boot自动注册）：
+ * - satoken.revocation.size{type=token}：单令牌作废记录数
+ * - satoken.revocation.size{type=user}：批量作废的用户数
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+@Component
+public class TokenRevocationList implements MeterBinder {
+
+    /**
+     * 两次清理过期记录的最小间隔（秒）
+     */
+    private static final long PURGE_INTERVAL_SECONDS = 60;
+
+    /**
+     * 令牌ID -> 令牌过期时间（Unix时间戳，秒）
+     */
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+
+    /**
+     * 用户ID -> 当前权限版本，没有记录的用户版本为0
+     */
+    private final Map<String, Long> permissionVersions = new ConcurrentHashMap<>();
+
+    /**
+     * 上次清理的时间（秒）
+     */
+    private volatile long lastPurgeSeconds;
+
+    /**
+     * 获取用户当前的权限版本，签发令牌时写入令牌
+     *
+     * @param loginId 登录标识
+     * @return 权限版本，从未被批量作废过的用户为0
+     */
+    public long currentVersion(String loginId) {
+        return permissionVersions.getOrDefault(loginId, 0L);
+    }
+
+    /**
+     * 作废单个令牌（注销）
+     *
+     * @param claims 令牌内容
+     */
+    public void revoke(SignedTokenCodec.Claims claims) {
+        long now = System.currentTimeMillis() / 1000;
+        if (claims.expiresAtSeconds() > now) {
+            revokedTokens.put(claims.tokenId(), claims.expiresAtSeconds());
+        }
+        purgeExpired(now);
+    }
+
+    /**
+     * 作废某个用户已签发的全部令牌（踢下线、删除用户）
+     *
+     * @param loginId 登录标识
+     */
+    public void revokeAll(String loginId) {
+        permissionVersions.merge(loginId, 1L, Long::sum);
+    }
+
+    /**
+     * 判断令牌是否已被注销
+     *
+     * @param claims 令牌内容
+     * @return 已注销返回true
+     */
+    public boolean isRevoked(SignedTokenCodec.Claims claims) {
+        return revokedTokens.containsKey(claims.tokenId());
+    }
+
+    /**
+     * 判断令牌是否因用户被踢下线而失效
+     *
+     * @param claims 令牌内容
+     * @return 令牌的权限版本低于用户当前版本时返回true
+     */
+    public boolean isKickedOut(SignedTokenCodec.Claims claims) {
+        return claims.permissionVersion() < currentVersion(claims.loginId());
+    }
+
+    /**
+     * 单令牌作废记录数
+     *
+     * @return 记录数（可能包含尚未清理的过期记录）
+     */
+    public int revokedTokenCount() {
+        return revokedTokens.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("satoken.revocation.size", revokedTokens, Map::size)
+                .tag("type", "token")
+                .description("已注销且尚未过期的签名令牌数")
+                .register(registry);
+        Gauge.builder("satoken.revocation.size", permissionVersions, Map::size)
+                .tag("type", "user")
+                .description("被批量作废过令牌的用户数")
+                .register(registry);
+    }
+
+    private void purgeExpired(long now) {
+        if (now - lastPurgeSeconds < PURGE_INTERVAL_SECONDS) {
+            return;
+        }
+        lastPurgeSeconds = now;
+        revokedTokens.values().removeIf(expiresAt -> expiresAt <= now);
+    }
+}
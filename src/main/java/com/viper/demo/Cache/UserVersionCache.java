@@ -0,0 +1,260 @@
+package com.viper.demo.Cache;
+
+import com.viper.demo.Pojo.UserListVersion;
+import com.viper.demo.Pojo.UserProfile;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 用户资料版本号缓存
+ *
+ * 个人资料和用户列表接口支持HTTP条件请求（ETag/Last-Modified），
+ * 版本号取自用户的updateTime。该缓存保存最近一次查询到的版本号，
+ * 客户端携带的If-None-Match与缓存的版本一致时，接口无需查询数据库即可返回304
+ *
+ * 缓存内容：
+ * - 个人资料：用户ID -> updateTime毫秒值，由接口在查询资料后写入
+ * - 用户列表：用户总数和最新更新时间（UserListVersion），未命中时调用加载函数做一次聚合查询
+ *
+ * 缓存策略：
+ * - 过期时间：写入后ttl-seconds秒过期（默认60秒），用于兜底绕过UserService直接修改数据库的情况
+ * - 容量上限：超过max-size时先清理过期条目，仍然已满则本次不写入缓存
+ * - 主动失效：用户注册、修改、删除时由UserServiceImpl调用evict()，同时清除列表版本
+ * - 失效代数：evict()递增代数，条目记录写入时依据的代数，代数不一致的条目视为未命中；
+ *   调用方在查询数据库之前读取代数（profileGeneration()），提交前读到的旧版本在evict()之后写入也不会被使用，
+ *   否则客户端会在ttl内拿着旧的ETag得到304
+ *   个人资料的代数按用户ID分段（GENERATION_STRIPES个），同一分段其他用户的失效只会多一次未命中
+ *
+ * 配置项（application.properties）：
+ * - demo.version-cache.enabled：是否启用，关闭后每次都查询数据库再做条件判断
+ * - demo.version-cache.ttl-seconds：过期时间（秒）
+ * - demo.version-cache.max-size：最多缓存的用户数
+ *
+ * 监控指标（实现MeterBinder，由Spring Boot自动注册）：
+ * - user.version.cache.requests{type=profile|list, result=hit|miss}：缓存命中/未命中次数
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+@Component
+public class UserVersionCache implements MeterBinder {
+
+    /**
+     * 个人资料失效代数的分段数（2的幂）
+     */
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final int maxSize;
+
+    /**
+     * 用户ID -> 个人资料版本号
+     */
+    private final Map<Integer, Entry> profiles = new ConcurrentHashMap<>();
+
+    /**
+     * 用户列表版本，失效时为null
+     */
+    private volatile ListEntry list;
+
+    /**
+     * 按用户ID分段的个人资料失效代数
+     */
+    private final AtomicLongArray profileGenerations = new AtomicLongArray(GENERATION_STRIPES);
+
+    /**
+     * 用户列表的失效代数
+     */
+    private final AtomicLong listGeneration = new AtomicLong();
+
+    private final LongAdder profileHits = new LongAdder();
+    private final LongAdder profileMisses = new LongAdder();
+    private final LongAdder listHits = new LongAdder();
+    private final LongAdder listMisses = new LongAdder();
+
+    public UserVersionCache(@Value("${demo.version-cache.enabled:true}") boolean enabled,
+                            @Value("${demo.version-cache.ttl-seconds:60}") long ttlSeconds,
+                            @Value("${demo.version-cache.max-size:10000}") int maxSize) {
+        this.enabled = enabled;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * 计算用户资料的版本号
+     *
+     * @param profile 用户资料
+     * @return updateTime的毫秒值，未设置时退回createTime，都没有时为0
+     */
+    public static long versionOf(UserProfile profile) {
+        if (profile.updateTime() != null) {
+            return profile.updateTime().getTime();
+        }
+        return profile.createTime() != null ? profile.createTime().getTime() : 0L;
+    }
+
+    /**
+     * 个人资料的实体标签
+     *
+     * ETag包含用户ID，同一浏览器切换账号后不会误用其他用户的缓存
+     *
+     * @param userId 用户ID
+     * @param version 资料版本号
+     * @return ETag值（不含引号），如user-1-1704067200000
+     */
+    public static String profileEtag(Integer userId, long version) {
+        return "user-" + userId + "-" + version;
+    }
+
+    /**
+     * 获取缓存的个人资料版本号（不查询数据库）
+     *
+     * @param userId 用户ID
+     * @return 版本号，未缓存或已过期时返回null
+     */
+    public Long getProfileVersion(Integer userId) {
+        if (!enabled) {
+            profileMisses.increment();
+            return null;
+        }
+        Entry entry = profiles.get(userId);
+        if (entry != null && System.nanoTime() - entry.loadedAt() < ttlNanos
+                && entry.generation() == profileGenerations.get(stripe(userId))) {
+            profileHits.increment();
+            return entry.version();
+        }
+        profileMisses.increment();
+        return null;
+    }
+
+    /**
+     * 个人资料的当前失效代数，在查询数据库之前读取，写入版本号时原样传回
+     *
+     * @param userId 用户ID
+     * @return 失效代数
+     */
+    public long profileGeneration(Integer userId) {
+        return profileGenerations.get(stripe(userId));
+    }
+
+    /**
+     * 写入个人资料版本号
+     *
+     * 查询期间该用户被evict()时（代数已变化）不写入
+     *
+     * @param userId 用户ID
+     * @param version 从数据库查询到的资料版本号
+     * @param generation 查询数据库之前读取的profileGeneration()
+     */
+    public void putProfileVersion(Integer userId, long version, long generation) {
+        if (!enabled || userId == null || generation != profileGenerations.get(stripe(userId))) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (profiles.size() >= maxSize && !profiles.containsKey(userId)) {
+            profiles.values().removeIf(entry -> now - entry.loadedAt() >= ttlNanos);
+            if (profiles.size() >= maxSize) {
+                return;
+            }
+        }
+        profiles.put(userId, new Entry(version, now, generation));
+    }
+
+    /**
+     * 获取用户列表版本，缓存未命中或已过期时调用加载函数
+     *
+     * @param loader 加载函数，通常是一次聚合查询
+     * @return 用户列表版本
+     */
+    public UserListVersion getListVersion(Supplier<UserListVersion> loader) {
+        if (!enabled) {
+            listMisses.increment();
+            return loader.get();
+        }
+        long now = System.nanoTime();
+        long generation = listGeneration.get();
+        ListEntry entry = list;
+        if (entry != null && now - entry.loadedAt() < ttlNanos && entry.generation() == generation) {
+            listHits.increment();
+            return entry.version();
+        }
+        listMisses.increment();
+        UserListVersion version = loader.get();
+        // 加载期间被evict()时条目带着旧代数，写入后也不会命中
+        list = new ListEntry(version, now, generation);
+        return version;
+    }
+
+    /**
+     * 用户数据发生变化后使缓存失效
+     *
+     * 任意用户的变化都会改变列表版本，因此列表版本总是一并清除
+     *
+     * @param userId 发生变化的用户ID，为null时只清除列表版本（如新用户保存前尚无ID）
+     */
+    public void evict(Integer userId) {
+        if (userId != null) {
+            profileGenerations.incrementAndGet(stripe(userId));
+            profiles.remove(userId);
+        }
+        listGeneration.incrementAndGet();
+        list = null;
+    }
+
+    /**
+     * 清空全部缓存
+     */
+    public void clear() {
+        for (int i = 0; i < GENERATION_STRIPES; i++) {
+            profileGenerations.incrementAndGet(i);
+        }
+        profiles.clear();
+        listGeneration.incrementAndGet();
+        list = null;
+    }
+
+    private static int stripe(Integer userId) {
+        return userId.hashCode() & (GENERATION_STRIPES - 1);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        register(registry, "profile", "hit", profileHits);
+        register(registry, "profile", "miss", profileMisses);
+        register(registry, "list", "hit", listHits);
+        register(registry, "list", "miss", listMisses);
+    }
+
+    private static void register(MeterRegistry registry, String type, String result, LongAdder counter) {
+        FunctionCounter.builder("user.version.cache.requests", counter, LongAdder::sum)
+                .tag("type", type)
+                .tag("result", result)
+                .description("用户资料版本号缓存请求次数")
+                .register(registry);
+    }
+
+    /**
+     * 个人资料版本号、写入时间和查询前读取的失效代数
+     */
+    private record Entry(long version, long loadedAt, long generation) {
+    }
+
+    /**
+     * 列表版本、加载时间和加载前读取的失效代数
+     */
+    private record ListEntry(UserListVersion version, long loadedAt, long generation) {
+    }
+}
@@ -1,11 +1,13 @@
 package com.viper.demo.Config;
 
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
 import com.viper.demo.Pojo.User;
 import com.viper.demo.Service.UserService;
+import com.viper.demo.Utils.PasswordUtil;
 
 import java.util.Date;
 
@@ -24,6 +26,7 @@ import java.util.Date;
  * @version 1.0
  * @since 2024
  */
+@Slf4j
 @Component
 public class DataInitializer implements CommandLineRunner {
 
@@ -63,7 +66,7 @@ public class DataInitializer implements CommandLineRunner {
 
             // 设置用户基本信息
             admin.setUsername("admin");                    // 用户名：admin
-            admin.setPassword("123456");                   // 密码：123456（注意：实际项目中应该使用加密密码）
+            admin.setPassword(PasswordUtil.hashPassword("123456"));  // 密码：123456（保存PBKDF2哈希）
             admin.setEmail("admin@example.com");           // 邮箱地址
             admin.setPhone("13800138000");                 // 手机号码
 
@@ -76,9 +79,9 @@ public class DataInitializer implements CommandLineRunner {
             userService.save(admin);
 
             // 输出创建成功的提示信息
-            System.out.println("✅ 数据初始化：创建管理员用户成功 -> 用户名: admin, 密码: 123456");
+            log.info("数据初始化：创建管理员用户成功 username=admin");
         } else {
-            System.out.println("ℹ️  数据初始化：管理员用户已存在，跳过创建");
+            log.info("数据初始化：管理员用户已存在，跳过创建");
         }
     }
 
@@ -95,7 +98,7 @@ public class DataInitializer implements CommandLineRunner {
 
             // 设置用户基本信息
             test.setUsername("test");                      // 用户名：test
-            test.setPassword("123456");                    // 密码：123456（注意：实际项目中应该使用加密密码）
+            test.setPassword(PasswordUtil.hashPassword("123456"));   // 密码：123456（保存PBKDF2哈希）
             test.setEmail("test@example.com");             // 邮箱地址
             test.setPhone("13800138001");                  // 手机号码
 
@@ -108,9 +111,9 @@ public class DataInitializer implements CommandLineRunner {
             userService.save(test);
 
             // 输出创建成功的提示信息
-            System.out.println("✅ 数据初始化：创建测试用户成功 -> 用户名: test, 密码: 123456");
+            log.info("数据初始化：创建测试用户成功 username=test");
         } else {
-            System.out.println("ℹ️  数据初始化：测试用户已存在，跳过创建");
+            log.info("数据初始化：测试用户已存在，跳过创建");
         }
     }
 }
@@ -0,0 +1,34 @@
+package com.viper.demo.Config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Jackson序列化配置类
+ *
+ * 接口响应统一使用不可变record DTO（LoginResponse、LoginStatus等），
+ * 属性集合在编译期固定，Jackson会为每个类型缓存一次解析好的序列化器
+ *
+ * 在此基础上注册Blackbird模块：
+ * - 使用LambdaMetafactory生成属性访问器，替代反射调用getter
+ * - Spring Boot会把容器中的Module Bean自动注册到全局ObjectMapper
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * 注册Blackbird模块
+     *
+     * @return Blackbird Jackson模块
+     */
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
@@ -0,0 +1,46 @@
+package com.viper.demo.Config;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 监控指标配置类
+ *
+ * Spring Boot只能按指标名前缀开启百分位直方图，而HTTP请求指标统一名为http.server.requests
+ * 这里通过MeterFilter只为 /auth/** 接口开启直方图，其他接口保持默认配置，
+ * 避免每个接口都产生几十个直方图桶的时间序列
+ *
+ * 其他认证指标见 AuthMetrics、GrantCache、MonitoredTokenDao
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * 为认证接口的HTTP请求指标开启百分位直方图
+     *
+     * @return 指标过滤器，Spring Boot会自动应用到MeterRegistry
+     */
+    @Bean
+    public MeterFilter authEndpointHistogram() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                String uri = id.getTag("uri");
+                if ("http.server.requests".equals(id.getName()) && uri != null && uri.startsWith("/auth/")) {
+                    return DistributionStatisticConfig.builder()
+                            .percentilesHistogram(true)
+                            .build()
+                            .merge(config);
+                }
+                return config;
+            }
+        };
+    }
+}
@@ -0,0 +1,57 @@
+package com.viper.demo.Config;
+
+import cn.dev33.satoken.interceptor.SaInterceptor;
+import com.viper.demo.Handler.ConcurrencyLimitInterceptor;
+import com.viper.demo.Handler.FastRejectInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * SA-Token拦截器配置类
+ *
+ * 注册SA-Token的注解拦截器，使Controller上的@SaCheckLogin、@SaCheckRole、
+ * @SaCheckPermission注解真正生效；校验失败抛出的异常由GlobalExceptionHandler统一处理
+ *
+ * 拦截器顺序：
+ * 1. ConcurrencyLimitInterceptor：按接口分组的自适应并发限制，过载时直接返回503，
+ *    可通过 demo.concurrency-limit.enabled=false 关闭
+ * 2. FastRejectInterceptor：未登录请求快速拒绝（无堆栈），可通过 demo.auth.fast-reject=false 关闭
+ * 3. SaInterceptor：完整的注解校验（登录、角色、权限）
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+@Configuration
+public class SaTokenConfig implements WebMvcConfigurer {
+
+    /**
+     * 是否启用未登录请求快速拒绝
+     */
+    @Value("${demo.auth.fast-reject:true}")
+    private boolean fastReject;
+
+    /**
+     * 接口并发限制拦截器，切片测试等未加载该Bean时不注册
+     */
+    @Autowired
+    private ObjectProvider<ConcurrencyLimitInterceptor> concurrencyLimitInterceptor;
+
+    /**
+     * 注册拦截器
+     *
+     * @param registry 拦截器注册表
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        concurrencyLimitInterceptor.ifAvailable(interceptor -> registry.addInterceptor(interceptor).addPathPatterns("/**"));
+        if (fastReject) {
+            registry.addInterceptor(new FastRejectInterceptor()).addPathPatterns("/**");
+        }
+        registry.addInterceptor(new SaInterceptor()).addPathPatterns("/**");
+    }
+}
@@ -0,0 +1,19 @@
+package com.viper.demo.Config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * 定时任务配置类
+ *
+ * 开启@Scheduled注解支持，用于后台维护任务（如UserArchiver定期归档已删除用户）
+ * 各任务是否执行由各自的enabled配置项控制
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,115 @@
+package com.viper.demo.Config;
+
+import cn.dev33.satoken.exception.NotLoginException;
+import cn.dev33.satoken.stp.StpLogic;
+import cn.dev33.satoken.stp.StpUtil;
+import com.viper.demo.Cache.TokenRevocationList;
+import com.viper.demo.Utils.SignedTokenCodec;
+
+/**
+ * 无状态签名令牌模式的StpLogic
+ *
+ * 默认的StpLogic把 token -> loginId 的映射保存在Token存储中，
+ * isLogin()和每个@SaCheckLogin接口都要查询一次存储；多节点部署时存储在Redis等外部服务，
+ * 每个请求都会多一次网络往返
+ *
+ * 该实现改为签发自包含的HMAC签名令牌（见SignedTokenCodec），验证完全在进程内完成：
+ * - login(id)：签发令牌并写入当前响应，不写Token存储
+ * - getLoginIdNotHandle(token)：校验签名、过期时间和作废列表，不查询Token存储
+ * - logout()：把当前令牌加入作废列表
+ * - kickout(id)：递增用户的权限版本，该用户已签发的令牌全部失效
+ *
+ * 由StatelessTokenConfig在 demo.auth.stateless.enabled=true 时注册，
+ * SA-Token的Spring Boot集成会自动用它替换StpUtil的默认实现，Controller代码无需改动
+ *
+ * 限制：
+ * - 没有服务端会话，getSession()等依赖Token存储的功能不适用于该模式
+ * - 令牌有效期固定为签发时确定的过期时间，不支持续签和active-timeout
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+public class StatelessStpLogic extends StpLogic {
+
+    private final SignedTokenCodec codec;
+    private final TokenRevocationList revocations;
+    private final long timeoutSeconds;
+
+    /**
+     * 创建无状态StpLogic
+     *
+     * @param codec 签名令牌编解码器
+     * @param revocations 令牌作废列表
+     * @param timeoutSeconds 令牌有效期（秒）
+     */
+    public StatelessStpLogic(SignedTokenCodec codec, TokenRevocationList revocations, long timeoutSeconds) {
+        super(StpUtil.TYPE);
+        this.codec = codec;
+        this.revocations = revocations;
+        this.timeoutSeconds = timeoutSeconds;
+    }
+
+    /**
+     * 签发签名令牌并写入当前请求的上下文和响应（Cookie/响应头按SA-Token配置处理）
+     *
+     * 之后在同一请求中调用getTokenValue()即可拿到新令牌
+     *
+     * @param id 登录标识
+     */
+    @Override
+    public void login(Object id) {
+        String loginId = String.valueOf(id);
+        long expiresAt = System.currentTimeMillis() / 1000 + timeoutSeconds;
+        setTokenValue(codec.issue(loginId, expiresAt, revocations.currentVersion(loginId)));
+    }
+
+    /**
+     * 从签名令牌中解析登录标识，不访问Token存储
+     *
+     * 返回值沿用SA-Token的约定：
+     * - 签名无效或已注销：null，SA-Token按无效令牌处理
+     * - 已过期：NotLoginException.TOKEN_TIMEOUT
+     * - 用户已被踢下线：NotLoginException.KICK_OUT
+     *
+     * @param tokenValue 令牌
+     * @return 登录标识或SA-Token约定的异常标记
+     */
+    @Override
+    public String getLoginIdNotHandle(String tokenValue) {
+        SignedTokenCodec.Claims claims = codec.verify(tokenValue);
+        if (claims == null || revocations.isRevoked(claims)) {
+            return null;
+        }
+        if (claims.expiresAtSeconds() <= System.currentTimeMillis() / 1000) {
+            return NotLoginException.TOKEN_TIMEOUT;
+        }
+        if (revocations.isKickedOut(claims)) {
+            return NotLoginException.KICK_OUT;
+        }
+        return claims.loginId();
+    }
+
+    /**
+     * 注销当前令牌：加入作废列表后再执行默认的清理（Cookie等）
+     */
+    @Override
+    public void logout() {
+        SignedTokenCodec.Claims claims = codec.verify(getTokenValue());
+        if (claims != null) {
+            revocations.revoke(claims);
+        }
+        super.logout();
+    }
+
+    /**
+     * 踢下线：递增用户的权限版本，使该用户已签发的全部令牌失效
+     *
+     * @param loginId 登录标识
+     */
+    @Override
+    public void kickout(Object loginId) {
+        revocations.revokeAll(String.valueOf(loginId));
+        super.kickout(loginId);
+    }
+}
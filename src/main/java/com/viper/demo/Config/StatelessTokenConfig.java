@@ -0,0 +1,52 @@
+package com.viper.demo.Config;
+
+import cn.dev33.satoken.stp.StpLogic;
+import com.viper.demo.Cache.TokenRevocationList;
+import com.viper.demo.Utils.SignedTokenCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+
+/**
+ * 无状态签名令牌模式配置
+ *
+ * demo.auth.stateless.enabled=true 时注册StatelessStpLogic，
+ * SA-Token的Spring Boot集成检测到StpLogic类型的Bean后会自动替换StpUtil的默认实现
+ *
+ * 配置项（application.properties）：
+ * - demo.auth.stateless.enabled：是否启用，默认false（使用Token存储）
+ * - demo.auth.stateless.secret：HMAC密钥，至少32字节；多节点部署时必须配置且各节点一致
+ * - demo.auth.stateless.timeout-seconds：令牌有效期（秒）
+ *
+ * 未配置密钥时启动时随机生成一个，仅适合单节点演示，重启后已签发的令牌全部失效
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "demo.auth.stateless.enabled", havingValue = "true")
+public class StatelessTokenConfig {
+
+    @Bean
+    public StpLogic statelessStpLogic(@Value("${demo.auth.stateless.secret:}") String secret,
+                                      @Value("${demo.auth.stateless.timeout-seconds:86400}") long timeoutSeconds,
+                                      TokenRevocationList revocations) {
+        byte[] key;
+        if (secret == null || secret.isBlank()) {
+            log.warn("未配置demo.auth.stateless.secret，使用随机密钥，重启或多节点部署时令牌无法互通");
+            key = new byte[SignedTokenCodec.MIN_SECRET_LENGTH];
+            new SecureRandom().nextBytes(key);
+        } else {
+            key = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        log.info("已启用无状态签名令牌模式 timeoutSeconds={}", timeoutSeconds);
+        return new StatelessStpLogic(new SignedTokenCodec(key), revocations, timeoutSeconds);
+    }
+}
@@ -1,10 +1,17 @@
 package com.viper.demo.Config;
 
 import cn.dev33.satoken.stp.StpInterface;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import com.viper.demo.Pojo.User;
+import com.viper.demo.Cache.GrantCache;
+import com.viper.demo.Monitor.AuthMetrics;
+import com.viper.demo.Monitor.Jfr.PermissionCheckEvent;
+import com.viper.demo.Monitor.Jfr.RoleCheckEvent;
+import com.viper.demo.Monitor.LogMarkers;
+import com.viper.demo.Pojo.AccountStatus;
+import com.viper.demo.Pojo.UserGrants;
 import com.viper.demo.Service.UserService;
 
 import java.util.ArrayList;
@@ -38,7 +45,8 @@ import java.util.List;
  *
  * 注意事项：
  * 1. 此类必须标注@Component注解，让Spring管理
- * 2. 权限和角色的获取应该尽量高效，避免复杂的数据库查询
+ * 2. 权限和角色的获取应该尽量高效，避免复杂的数据库查询（结果由GrantCache缓存）
+ *    数据库故障时GrantCache熔断并降级返回旧的授权信息，没有旧数据时返回空列表（拒绝访问）
  * 3. 异常处理要完善，避免影响正常的权限验证流程
  * 4. 实际项目中可以结合数据库设计更复杂的权限模型
  *
@@ -46,6 +54,7 @@ import java.util.List;
  * @version 1.0
  * @since 2024
  */
+@Slf4j
 @Component
 public class StpInterfaceImpl implements StpInterface {
 
@@ -56,6 +65,18 @@ public class StpInterfaceImpl implements StpInterface {
     @Autowired
     private UserService userService;
 
+    /**
+     * 用户授权信息缓存，避免每次权限校验都查询数据库
+     */
+    @Autowired
+    private GrantCache grantCache;
+
+    /**
+     * 认证业务指标，记录缓存未命中时加载授权信息的耗时
+     */
+    @Autowired
+    private AuthMetrics authMetrics;
+
     /**
      * 获取指定账号的权限码集合
      *
@@ -72,43 +93,41 @@ public class StpInterfaceImpl implements StpInterface {
      */
     @Override
     public List<String> getPermissionList(Object loginId, String loginType) {
-        // 初始化权限列表
-        List<String> permissionList = new ArrayList<>();
+        // JFR权限解析事件，未开启录制时不产生任何开销
+        PermissionCheckEvent event = new PermissionCheckEvent();
+        event.begin();
 
         try {
             // 将登录ID转换为整数类型的用户ID
             Integer userId = Integer.parseInt(loginId.toString());
 
-            // 根据用户ID查询用户信息
-            User user = userService.findById(userId);
-
-            if (user != null && (user.getIsDelete() == null || user.getIsDelete() == 0)) {
-                // 为所有正常用户分配基础权限
-                permissionList.add("user:info");        // 查看个人信息权限
-                permissionList.add("user:update");      // 更新个人信息权限
-
-                // 根据用户名分配特殊权限（实际项目中可以基于角色表或权限表）
-                if ("admin".equals(user.getUsername())) {
-                    // 管理员用户的额外权限
-                    permissionList.add("user:delete");      // 删除用户权限
-                    permissionList.add("user:list");        // 查看用户列表权限
-                    permissionList.add("admin:dashboard");  // 管理面板访问权限
-                    permissionList.add("admin:kickout");    // 踢人下线权限
+            // 优先读取缓存，未命中时查询账号状态并同时计算权限和角色
+            // 提前刷新时加载函数在后台线程执行，只有当前线程同步加载才算本次解析未命中
+            Thread caller = Thread.currentThread();
+            List<String> permissions = grantCache.get(userId, id -> {
+                if (Thread.currentThread() == caller) {
+                    event.cacheMiss();
                 }
-
-                // 这里可以扩展更多的权限分配逻辑
-                // 例如：根据用户的部门、职位、VIP等级等分配不同权限
-            }
+                return loadGrants(id);
+            }).permissions();
+            event.complete("resolved", loginId, permissions.size());
+            return permissions;
         } catch (NumberFormatException e) {
             // 登录ID格式错误
-            System.err.println("权限获取失败：登录ID格式错误 - " + loginId);
+            log.warn(LogMarkers.SAMPLED, "权限获取失败：登录ID格式错误 loginId={}", loginId);
+            event.complete("invalid_login_id", loginId, 0);
+        } catch (GrantCache.UnavailableException e) {
+            // 数据库访问已熔断且没有可用的旧授权信息，按无权限处理
+            log.warn(LogMarkers.SAMPLED, "权限获取失败：授权信息暂不可用 loginId={}", loginId);
+            event.complete("unavailable", loginId, 0);
         } catch (Exception e) {
             // 其他异常，记录日志但不影响系统运行
-            System.err.println("权限获取异常：" + e.getMessage());
-            e.printStackTrace();
+            // 数据库故障时每个请求都会触发，按采样比例记录
+            log.error(LogMarkers.SAMPLED, "权限获取异常 loginId={}", loginId, e);
+            event.complete("error", loginId, 0);
         }
 
-        return permissionList;
+        return new ArrayList<>();
     }
 
     /**
@@ -132,41 +151,82 @@ public class StpInterfaceImpl implements StpInterface {
      */
     @Override
     public List<String> getRoleList(Object loginId, String loginType) {
-        // 初始化角色列表
-        List<String> roleList = new ArrayList<>();
+        // JFR角色解析事件，未开启录制时不产生任何开销
+        RoleCheckEvent event = new RoleCheckEvent();
+        event.begin();
 
         try {
             // 将登录ID转换为整数类型的用户ID
             Integer userId = Integer.parseInt(loginId.toString());
 
-            // 根据用户ID查询用户信息
-            User user = userService.findById(userId);
-
-            if (user != null && (user.getIsDelete() == null || user.getIsDelete() == 0)) {
-                // 根据用户名分配角色（实际项目中可以基于用户角色关联表）
-                if ("admin".equals(user.getUsername())) {
-                    // 管理员角色
-                    roleList.add("admin");
-                } else {
-                    // 普通用户角色
-                    roleList.add("user");
+            // 优先读取缓存，未命中时查询账号状态并同时计算权限和角色
+            // 提前刷新时加载函数在后台线程执行，只有当前线程同步加载才算本次解析未命中
+            Thread caller = Thread.currentThread();
+            List<String> roles = grantCache.get(userId, id -> {
+                if (Thread.currentThread() == caller) {
+                    event.cacheMiss();
                 }
-
-                // 这里可以扩展更多的角色分配逻辑
-                // 例如：
-                // - 根据用户的VIP等级添加"vip"角色
-                // - 根据用户的部门添加"finance"、"hr"等角色
-                // - 根据用户的认证状态添加"verified"角色
-            }
+                return loadGrants(id);
+            }).roles();
+            event.complete("resolved", loginId, roles.size());
+            return roles;
         } catch (NumberFormatException e) {
             // 登录ID格式错误
-            System.err.println("角色获取失败：登录ID格式错误 - " + loginId);
+            log.warn(LogMarkers.SAMPLED, "角色获取失败：登录ID格式错误 loginId={}", loginId);
+            event.complete("invalid_login_id", loginId, 0);
+        } catch (GrantCache.UnavailableException e) {
+            // 数据库访问已熔断且没有可用的旧授权信息，按无权限处理
+            log.warn(LogMarkers.SAMPLED, "角色获取失败：授权信息暂不可用 loginId={}", loginId);
+            event.complete("unavailable", loginId, 0);
         } catch (Exception e) {
             // 其他异常，记录日志但不影响系统运行
-            System.err.println("角色获取异常：" + e.getMessage());
-            e.printStackTrace();
+            // 数据库故障时每个请求都会触发，按采样比例记录
+            log.error(LogMarkers.SAMPLED, "角色获取异常 loginId={}", loginId, e);
+            event.complete("error", loginId, 0);
+        }
+
+        return new ArrayList<>();
+    }
+
+    /**
+     * 查询账号状态并计算用户的权限和角色
+     *
+     * 权限和角色都只依赖用户名和删除标记，因此一次查询同时计算两者，
+     * 结果由GrantCache缓存，权限校验和角色校验共用同一个缓存条目
+     *
+     * @param userId 用户ID
+     * @return 用户授权信息，用户不存在或已删除时返回 {@link UserGrants#NONE}
+     */
+    private UserGrants loadGrants(Integer userId) {
+        // 根据用户ID查询账号状态（只包含用户名和删除标记）
+        AccountStatus status = authMetrics.grantsLoad().record(() -> userService.findAccountStatus(userId));
+        if (status == null || status.deleted()) {
+            return UserGrants.NONE;
+        }
+
+        List<String> permissionList = new ArrayList<>();
+        List<String> roleList = new ArrayList<>();
+
+        // 为所有正常用户分配基础权限
+        permissionList.add("user:info");        // 查看个人信息权限
+        permissionList.add("user:update");      // 更新个人信息权限
+
+        // 根据用户名分配特殊权限和角色（实际项目中可以基于角色表或权限表）
+        if ("admin".equals(status.username())) {
+            // 管理员用户的额外权限
+            permissionList.add("user:delete");      // 删除用户权限
+            permissionList.add("user:list");        // 查看用户列表权限
+            permissionList.add("admin:dashboard");  // 管理面板访问权限
+            permissionList.add("admin:kickout");    // 踢人下线权限
+            // 管理员角色
+            roleList.add("admin");
+        } else {
+            // 普通用户角色
+            roleList.add("user");
         }
 
-        return roleList;
+        // 这里可以扩展更多的权限和角色分配逻辑
+        // 例如：根据用户的部门、职位、VIP等级等分配不同权限，添加"vip"、"verified"等角色
+        return new UserGrants(permissionList, roleList);
     }
 }
@@ -0,0 +1,410 @@
+package com.viper.demo.Config;
+
+import com.viper.demo.Utils.PasswordUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 合成用户数据生成器
+ *
+ * DataInitializer只创建admin和test两个账户，本地无法复现生产环境的数据量
+ * 该类在启用synthetic-data配置文件时随应用启动执行，向当前数据源（默认配置为MySQL）的user表批量写入N个合成用户，
+ * 供性能测试在真实规模的表上运行
+ *
+ * H2只是测试依赖（pom.xml中scope为test），打包后的应用里没有H2驱动：
+ * SyntheticUserGeneratorTest通过application-test.properties的内存库（jdbc:h2:mem:testdb;NON_KEYWORDS=USER）运行该生成器，
+ * user是H2的关键字，URL中必须带NON_KEYWORDS=USER
+ *
+ * 运行方式：
+ * ```bash
+ * # 随应用启动生成，生成后应用继续运行
+ * java -jar demo-0.0.1-SNAPSHOT.jar --spring.profiles.active=synthetic-data --demo.synthetic-data.users=1000000
+ *
+ * # 命令行模式：不启动Web服务器，生成完成后退出
+ * java -jar demo-0.0.1-SNAPSHOT.jar --spring.profiles.active=synthetic-data --spring.main.web-application-type=none \
+ *      --demo.synthetic-data.users=5000000 --demo.synthetic-data.exit-on-finish=true
+ * ```
+ *
+ * 数据分布：
+ * - 用户名：按真实频率加权的姓氏拼音/名字拼音或英文名，加分隔符和全局序号（保证唯一），如 wang.fang1000123
+ * - 邮箱：用户名@常见邮箱域名（按国内用户的使用比例加权）
+ * - 手机号：真实号段前缀 + 8位序号置换，按phone-ratio的比例填写，其余为NULL
+ * - 注册时间：分布在最近years年内，越近的时间用户越多（模拟用户增长）
+ * - 删除标记：按deleted-ratio的比例逻辑删除，删除时间（update_time）在注册之后
+ * - 密码：所有用户共用一个预先计算的PBKDF2哈希（逐个计算百万级哈希需要数小时），
+ *   明文为demo.synthetic-data.password，可以直接用于登录压测
+ *
+ * 写入方式：
+ * - producers个生产者线程并行执行，每个线程使用独立的数据库连接
+ * - 线程从共享的序号计数器领取一段序号（batch-size个），生成后通过JDBC批处理插入并提交
+ * - 每段数据的随机数种子由seed和起始序号决定，相同参数生成相同的数据，与线程调度无关
+ * - 序号从user表和user_archive表中最大的ID之后开始：归档会把ID最大的已删除用户移出user表，
+ *   只看user表会重新使用已归档用户的序号；重复执行不会生成重复的用户名
+ * - MySQL需要在连接URL中加上rewriteBatchedStatements=true，批处理才会合并为多行INSERT
+ *
+ * 执行期间每隔report-interval-seconds输出一次进度，结束时输出总行数和每秒写入行数
+ *
+ * 配置项（application.properties）：
+ * - demo.synthetic-data.users：生成的用户数
+ * - demo.synthetic-data.producers：生产者线程数
+ * - demo.synthetic-data.batch-size：每批插入的行数（一批一个事务）
+ * - demo.synthetic-data.deleted-ratio：逻辑删除用户的比例（0~1）
+ * - demo.synthetic-data.phone-ratio：填写手机号的用户比例（0~1）
+ * - demo.synthetic-data.years：注册时间分布的年数
+ * - demo.synthetic-data.seed：随机数种子
+ * - demo.synthetic-data.password：所有合成用户的登录密码
+ * - demo.synthetic-data.report-interval-seconds：进度输出间隔（秒）
+ * - demo.synthetic-data.exit-on-finish：生成完成后是否退出应用（命令行模式）
+ *
+ * 注意：仅用于开发和性能测试环境
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+@Slf4j
+@Component
+@Profile("synthetic-data")
+public class SyntheticUserGenerator implements CommandLineRunner {
+
+    /**
+     * 插入语句，列名遵循JPA默认命名策略（驼峰转下划线）
+     */
+    private static final String INSERT_SQL = "INSERT INTO user "
+            + "(username, password, email, phone, is_delete, create_time, update_time) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    /**
+     * 常见姓氏拼音，按人口比例加权（权重约为每千人中的人数）
+     */
+    private static final String[] SURNAMES = {
+            "wang", "li", "zhang", "liu", "chen", "yang", "huang", "zhao", "wu", "zhou",
+            "xu", "sun", "ma", "zhu", "hu", "guo", "he", "lin", "gao", "luo"};
+    private static final int[] SURNAME_WEIGHTS = {
+            72, 72, 69, 54, 45, 31, 23, 22, 21, 20,
+            17, 15, 14, 13, 12, 11, 10, 10, 10, 8};
+
+    /**
+     * 常见名字拼音
+     */
+    private static final String[] GIVEN_NAMES = {
+            "wei", "fang", "na", "min", "jing", "li", "qiang", "lei", "jun", "yang",
+            "yong", "yan", "jie", "tao", "ming", "chao", "xiuying", "xia", "ping", "gang",
+            "hao", "yu", "xin", "yi", "zihan", "haoran", "yuxuan", "ziyi", "chen", "bo"};
+
+    /**
+     * 常见英文名
+     */
+    private static final String[] ENGLISH_NAMES = {
+            "kevin", "jack", "tony", "leo", "eric", "david", "alex", "sam", "tom", "vincent",
+            "lucy", "amy", "emma", "grace", "cindy", "linda", "coco", "sunny", "ivy", "anna"};
+
+    /**
+     * 用户名中姓名与序号之间的分隔符，空字符串最常见
+     */
+    private static final String[] SEPARATORS = {"", "", "", "_", "."};
+
+    /**
+     * 邮箱域名，按使用比例加权
+     */
+    private static final String[] EMAIL_DOMAINS = {
+            "qq.com", "163.com", "gmail.com", "126.com", "outlook.com", "foxmail.com", "sina.com", "hotmail.com"};
+    private static final int[] EMAIL_DOMAIN_WEIGHTS = {30, 20, 15, 10, 8, 7, 5, 5};
+
+    /**
+     * 手机号段前缀（移动、联通、电信）
+     */
+    private static final String[] PHONE_PREFIXES = {
+            "134", "135", "136", "137", "138", "139", "150", "151", "152", "157", "158", "159",
+            "182", "183", "187", "188", "130", "131", "132", "155", "156", "185", "186",
+            "133", "153", "177", "180", "181", "189", "199"};
+
+    /**
+     * 手机号后8位的置换乘数（与10^8互质，不同序号得到不同的后8位）
+     */
+    private static final long PHONE_MULTIPLIER = 48_271L;
+    private static final long PHONE_SPACE = 100_000_000L;
+
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    private final int users;
+    private final int producers;
+    private final int batchSize;
+    private final double deletedRatio;
+    private final double phoneRatio;
+    private final long spanMillis;
+    private final long seed;
+    private final String password;
+    private final int iterations;
+    private final long reportIntervalSeconds;
+    private final boolean exitOnFinish;
+
+    private final DataSource dataSource;
+    private final ApplicationContext applicationContext;
+
+    /**
+     * 生成结果
+     *
+     * @param rows 写入的用户数
+     * @param deleted 其中逻辑删除的用户数
+     * @param elapsedMillis 耗时（毫秒）
+     * @param rowsPerSecond 每秒写入行数
+     */
+    public record Report(long rows, long deleted, long elapsedMillis, double rowsPerSecond) {
+    }
+
+    public SyntheticUserGenerator(@Value("${demo.synthetic-data.users:1000000}") int users,
+                                  @Value("${demo.synthetic-data.producers:4}") int producers,
+                                  @Value("${demo.synthetic-data.batch-size:1000}") int batchSize,
+                                  @Value("${demo.synthetic-data.deleted-ratio:0.05}") double deletedRatio,
+                                  @Value("${demo.synthetic-data.phone-ratio:0.85}") double phoneRatio,
+                                  @Value("${demo.synthetic-data.years:3}") int years,
+                                  @Value("${demo.synthetic-data.seed:42}") long seed,
+                                  @Value("${demo.synthetic-data.password:123456}") String password,
+                                  @Value("${demo.synthetic-data.iterations:" + PasswordUtil.DEFAULT_ITERATIONS + "}") int iterations,
+                                  @Value("${demo.synthetic-data.report-interval-seconds:5}") long reportIntervalSeconds,
+                                  @Value("${demo.synthetic-data.exit-on-finish:false}") boolean exitOnFinish,
+                                  DataSource dataSource,
+                                  ApplicationContext applicationContext) {
+        this.users = users;
+        this.producers = Math.max(1, producers);
+        this.batchSize = Math.max(1, batchSize);
+        this.deletedRatio = deletedRatio;
+        this.phoneRatio = phoneRatio;
+        this.spanMillis = years * 365L * DAY_MILLIS;
+        this.seed = seed;
+        this.password = password;
+        this.iterations = iterations;
+        this.reportIntervalSeconds = Math.max(1, reportIntervalSeconds);
+        this.exitOnFinish = exitOnFinish;
+        this.dataSource = dataSource;
+        this.applicationContext = applicationContext;
+    }
+
+    /**
+     * 应用启动时生成users个用户，命令行模式下生成完成后退出应用
+     *
+     * @param args 命令行参数（本方法中未使用，配置通过--demo.synthetic-data.*传入）
+     */
+    @Override
+    public void run(String... args) throws Exception {
+        generate(users);
+        if (exitOnFinish) {
+            System.exit(SpringApplication.exit(applicationContext, () -> 0));
+        }
+    }
+
+    /**
+     * 生成并写入count个合成用户
+     *
+     * @param count 用户数
+     * @return 生成结果
+     * @throws SQLException 读取起始序号失败
+     * @throws InterruptedException 等待生产者线程时被中断
+     */
+    public Report generate(int count) throws SQLException, InterruptedException {
+        long baseIndex = nextIndex();
+        String passwordHash = PasswordUtil.hashPassword(password, iterations);
+        long now = System.currentTimeMillis();
+        AtomicLong nextOffset = new AtomicLong();
+        LongAdder inserted = new LongAdder();
+        LongAdder deleted = new LongAdder();
+
+        log.info("合成数据：开始生成 users={} producers={} batchSize={} deletedRatio={} baseIndex={}",
+                count, producers, batchSize, deletedRatio, baseIndex);
+        long start = System.nanoTime();
+        ExecutorService pool = newProducerPool();
+        List<Future<?>> futures = new ArrayList<>(producers);
+        for (int i = 0; i < producers; i++) {
+            futures.add(pool.submit(() -> {
+                produce(count, baseIndex, now, passwordHash, nextOffset, inserted, deleted);
+                return null;
+            }));
+        }
+        pool.shutdown();
+        try {
+            while (!pool.awaitTermination(reportIntervalSeconds, TimeUnit.SECONDS)) {
+                long rows = inserted.sum();
+                log.info("合成数据：进度 rows={}/{} rowsPerSecond={}",
+                        rows, count, Math.round(rows / seconds(System.nanoTime() - start)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("合成数据写入失败，已提交 " + inserted.sum() + " 行", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        Report report = new Report(inserted.sum(), deleted.sum(),
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), inserted.sum() / seconds(elapsedNanos));
+        log.info("合成数据：生成完成 rows={} deleted={} elapsedMs={} rowsPerSecond={}",
+                report.rows(), report.deleted(), report.elapsedMillis(), Math.round(report.rowsPerSecond()));
+        return report;
+    }
+
+    /**
+     * 生产者循环：领取一段序号，生成并批量插入，直到领完
+     */
+    private void produce(int count, long baseIndex, long now, String passwordHash,
+                         AtomicLong nextOffset, LongAdder inserted, LongAdder deleted) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL)) {
+                long offset;
+                while ((offset = nextOffset.getAndAdd(batchSize)) < count && !Thread.currentThread().isInterrupted()) {
+                    long end = Math.min(count, offset + batchSize);
+                    SplittableRandom random = new SplittableRandom(seed * 1_000_003L + offset);
+                    int batchDeleted = 0;
+                    for (long i = offset; i < end; i++) {
+                        if (bindRow(statement, baseIndex + i, random, now, passwordHash)) {
+                            batchDeleted++;
+                        }
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                    connection.commit();
+                    inserted.add(end - offset);
+                    deleted.add(batchDeleted);
+                }
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * 生成一个用户并绑定到插入语句的参数
+     *
+     * @return true表示该用户被逻辑删除
+     */
+    private boolean bindRow(PreparedStatement statement, long index, SplittableRandom random, long now,
+                    String passwordHash) throws SQLException {
+        String username = username(index, random);
+        long createTime = now - (long) (spanMillis * square(random.nextDouble()));
+        boolean isDeleted = random.nextDouble() < deletedRatio;
+        long updateTime = isDeleted || random.nextBoolean()
+                ? createTime + (long) ((now - createTime) * random.nextDouble())
+                : createTime;
+
+        statement.setString(1, username);
+        statement.setString(2, passwordHash);
+        statement.setString(3, username + "@" + pick(EMAIL_DOMAINS, EMAIL_DOMAIN_WEIGHTS, random));
+        if (random.nextDouble() < phoneRatio) {
+            statement.setString(4, phone(index, random));
+        } else {
+            statement.setNull(4, Types.VARCHAR);
+        }
+        statement.setInt(5, isDeleted ? 1 : 0);
+        statement.setTimestamp(6, new Timestamp(createTime));
+        statement.setTimestamp(7, new Timestamp(updateTime));
+        return isDeleted;
+    }
+
+    /**
+     * 用户名：姓名部分 + 分隔符 + 全局序号
+     */
+    static String username(long index, SplittableRandom random) {
+        StringBuilder name = new StringBuilder(24);
+        int style = random.nextInt(10);
+        if (style < 5) {
+            // 姓 + 名，如 zhangwei
+            name.append(pick(SURNAMES, SURNAME_WEIGHTS, random)).append(GIVEN_NAMES[random.nextInt(GIVEN_NAMES.length)]);
+        } else if (style < 8) {
+            // 名 + 姓，如 fang.wang
+            name.append(GIVEN_NAMES[random.nextInt(GIVEN_NAMES.length)])
+                    .append(SEPARATORS[random.nextInt(SEPARATORS.length)])
+                    .append(pick(SURNAMES, SURNAME_WEIGHTS, random));
+        } else {
+            // 英文名，如 kevin
+            name.append(ENGLISH_NAMES[random.nextInt(ENGLISH_NAMES.length)]);
+        }
+        return name.append(SEPARATORS[random.nextInt(SEPARATORS.length)]).append(index).toString();
+    }
+
+    /**
+     * 手机号：号段前缀 + 由序号置换得到的8位数字（序号小于10^8时互不相同）
+     */
+    static String phone(long index, SplittableRandom random) {
+        long suffix = Math.floorMod(index * PHONE_MULTIPLIER, PHONE_SPACE);
+        String digits = Long.toString(suffix);
+        StringBuilder phone = new StringBuilder(11).append(PHONE_PREFIXES[random.nextInt(PHONE_PREFIXES.length)]);
+        for (int i = digits.length(); i < 8; i++) {
+            phone.append('0');
+        }
+        return phone.append(digits).toString();
+    }
+
+    private static String pick(String[] values, int[] weights, SplittableRandom random) {
+        int total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        int r = random.nextInt(total);
+        for (int i = 0; i < values.length; i++) {
+            r -= weights[i];
+            if (r < 0) {
+                return values[i];
+            }
+        }
+        return values[values.length - 1];
+    }
+
+    /**
+     * 本次生成的起始序号：user表和user_archive表中最大ID加1（两张表都为空时为1）
+     */
+    long nextIndex() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT GREATEST("
+                     + "(SELECT COALESCE(MAX(id), 0) FROM user), "
+                     + "(SELECT COALESCE(MAX(id), 0) FROM user_archive))")) {
+            resultSet.next();
+            return resultSet.getLong(1) + 1;
+        }
+    }
+
+    private ExecutorService newProducerPool() {
+        AtomicInteger sequence = new AtomicInteger();
+        return Executors.newFixedThreadPool(producers, runnable -> {
+            Thread thread = new Thread(runnable, "synthetic-data-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static double square(double value) {
+        return value * value;
+    }
+
+    private static double seconds(long nanos) {
+        return Math.max(1e-9, nanos / 1e9);
+    }
+}
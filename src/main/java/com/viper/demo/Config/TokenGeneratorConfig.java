@@ -0,0 +1,41 @@
+package com.viper.demo.Config;
+
+import cn.dev33.satoken.strategy.SaStrategy;
+import com.viper.demo.Utils.TokenGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Token生成器配置
+ *
+ * 用TokenGenerator替换SA-Token默认的Token生成策略（SaStrategy.createToken），
+ * 启用后 sa-token.token-style 不再生效
+ *
+ * 配置项（application.properties）：
+ * - demo.token.generator.enabled：是否启用，默认true；关闭后恢复为token-style指定的风格
+ * - demo.token.generator.shard-prefix：分片前缀，多节点部署时可配置为节点或存储分片编号
+ * - demo.token.generator.random-bytes：随机字节数，默认16（128位），不能更少
+ *
+ * 无状态签名令牌模式（StatelessStpLogic）自行签发令牌，不经过该生成器
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "demo.token.generator.enabled", havingValue = "true", matchIfMissing = true)
+public class TokenGeneratorConfig {
+
+    @Bean
+    public TokenGenerator tokenGenerator(@Value("${demo.token.generator.shard-prefix:}") String shardPrefix,
+                                         @Value("${demo.token.generator.random-bytes:16}") int randomBytes) {
+        TokenGenerator generator = new TokenGenerator(shardPrefix, randomBytes);
+        SaStrategy.instance.createToken = (loginId, loginType) -> generator.next();
+        log.info("已启用自定义Token生成器 shardPrefix='{}' randomBytes={}", shardPrefix, randomBytes);
+        return generator;
+    }
+}
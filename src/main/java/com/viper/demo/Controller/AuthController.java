@@ -1,11 +1,24 @@
 package com.viper.demo.Controller;
 
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import cn.dev33.satoken.stp.StpUtil;
+import com.viper.demo.Cache.ProfileSnapshotStore;
+import com.viper.demo.Cache.UserVersionCache;
+import com.viper.demo.Handler.ConditionalGet;
+import com.viper.demo.Handler.AuthRejectedException;
+import com.viper.demo.Handler.LoginThrottle;
+import com.viper.demo.Monitor.AuthMetrics;
+import com.viper.demo.Monitor.Jfr.KickoutEvent;
+import com.viper.demo.Monitor.Jfr.LoginAttemptEvent;
+import com.viper.demo.Monitor.LogMarkers;
 import com.viper.demo.Pojo.*;
 import com.viper.demo.Service.UserService;
+import com.viper.demo.Utils.PasswordUtil;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -17,9 +30,6 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
-import java.util.HashMap;
-import java.util.Map;
-
 /**
  * 用户认证控制器
  *
@@ -58,11 +68,20 @@ import java.util.Map;
  * @version 1.0
  * @since 2024
  */
+@Slf4j
 @Tag(name = "认证管理", description = "用户认证相关接口，包括登录、注册、注销等功能")
 @RestController
 @RequestMapping("/auth")
 public class AuthController {
 
+    /**
+     * 用户不存在时用于比对的PBKDF2哈希（随机明文，迭代次数与存储的密码相同）
+     *
+     * 已存在的用户要计算一次完整的PBKDF2（默认迭代次数下约100ms），不存在的用户如果立即返回，
+     * 响应时间的差异就能用来枚举用户名；对这个哈希做一次比对，两条路径耗时一致
+     */
+    static final String DUMMY_HASH = PasswordUtil.hashPassword(PasswordUtil.generateSalt());
+
     /**
      * 用户服务层对象，用于处理用户相关的业务逻辑
      * 通过@Autowired注解实现依赖注入
@@ -70,6 +89,30 @@ public class AuthController {
     @Autowired
     private UserService userService;
 
+    /**
+     * 认证业务指标，记录登录和注册各阶段的耗时与结果
+     */
+    @Autowired
+    private AuthMetrics authMetrics;
+
+    /**
+     * 用户资料版本号缓存，用于条件请求（ETag/Last-Modified）的快速判断
+     */
+    @Autowired
+    private UserVersionCache userVersionCache;
+
+    /**
+     * 会话资料快照，登录成功后写入，资料接口直接从会话读取
+     */
+    @Autowired
+    private ProfileSnapshotStore profileSnapshots;
+
+    /**
+     * 登录失败限流，按用户名和客户端IP统计失败次数
+     */
+    @Autowired
+    private LoginThrottle loginThrottle;
+
     /**
      * 用户登录接口
      *
@@ -77,6 +120,7 @@ public class AuthController {
      *
      * 登录流程：
      * 1. 接收并验证登录请求参数（用户名、密码）
+     * 1.5 检查用户名和客户端IP的登录失败次数，超过上限直接拒绝，不查询数据库
      * 2. 根据用户名查询用户信息
      * 3. 验证用户状态（是否被禁用）
      * 4. 验证密码是否正确
@@ -85,6 +129,7 @@ public class AuthController {
      *
      * 安全措施：
      * - 参数非空验证
+     * - 登录失败次数限流（防止暴力破解和撞库）
      * - 用户状态检查（防止已禁用用户登录）
      * - 密码验证（注：当前为明文比较，生产环境需要使用加密密码）
      * - 统一的错误提示（防止用户名枚举攻击）
@@ -97,7 +142,8 @@ public class AuthController {
      * - phone：手机号码
      *
      * @param loginRequest 登录请求对象，包含用户名和密码
-     * @return Result<Map<String, Object>> 登录结果，成功时包含用户信息和token
+     * @param request HTTP请求，用于获取客户端IP
+     * @return Result<LoginResponse> 登录结果，成功时包含用户信息和token
      *
      * @apiNote POST /auth/login
      * @apiExample 请求示例：
@@ -167,65 +213,107 @@ public class AuthController {
         ),
         @ApiResponse(responseCode = "400", description = "请求参数错误"),
         @ApiResponse(responseCode = "401", description = "用户名或密码错误"),
-        @ApiResponse(responseCode = "403", description = "账号已被禁用")
+        @ApiResponse(responseCode = "403", description = "账号已被禁用"),
+        @ApiResponse(responseCode = "429", description = "登录失败次数过多，请稍后再试")
     })
     @PostMapping("/login")
-    public Result<Map<String, Object>> doLogin(@RequestBody LoginRequest loginRequest) {
+    public Result<LoginResponse> doLogin(@RequestBody LoginRequest loginRequest, HttpServletRequest request) {
+        // JFR登录事件，未开启录制时不产生任何开销
+        LoginAttemptEvent event = new LoginAttemptEvent();
+        event.begin();
+
         try {
             // 第一步：参数校验
             if (loginRequest == null) {
+                loginFinished(event, "invalid_request", null, null);
                 return Result.error(400, "请求参数不能为空");
             }
             if (loginRequest.getUsername() == null || loginRequest.getUsername().trim().isEmpty()) {
+                loginFinished(event, "invalid_request", null, null);
                 return Result.error(400, "用户名不能为空");
             }
             if (loginRequest.getPassword() == null || loginRequest.getPassword().trim().isEmpty()) {
+                loginFinished(event, "invalid_request", null, null);
                 return Result.error(400, "密码不能为空");
             }
 
             // 获取并清理输入参数
             String username = loginRequest.getUsername().trim();
             String password = loginRequest.getPassword();
+            String clientIp = request.getRemoteAddr();
+
+            // 失败次数超限时在查询数据库和校验密码之前拒绝
+            if (loginThrottle.isThrottled(username, clientIp)) {
+                loginFinished(event, "throttled", username, null);
+                return Result.error(429, "登录失败次数过多，请稍后再试");
+            }
 
-            // 第二步：根据用户名查询用户信息
-            User user = userService.findByUsername(username);
-            if (user == null) {
-                // 统一错误提示，防止用户名枚举攻击
+            // 第二步：根据用户名查询登录凭证（只包含登录需要的字段）
+            LoginCredential credential = authMetrics.loginLookup()
+                    .record(() -> userService.findLoginCredential(username));
+            if (credential == null) {
+                // 统一错误提示，防止用户名枚举攻击；同样计算一次PBKDF2，响应时间与密码错误一致
+                PasswordUtil.matches(password, DUMMY_HASH);
+                log.info(LogMarkers.SAMPLED, "登录失败：用户不存在 username={}", username);
+                loginThrottle.recordFailure(username, clientIp);
+                loginFinished(event, "unknown_user", username, null);
                 return Result.error(401, "用户名或密码错误");
             }
 
             // 第三步：检查用户账户状态
-            if (user.getIsDelete() != null && user.getIsDelete() == 1) {
+            if (credential.deleted()) {
+                loginFinished(event, "disabled", username, credential.id());
                 return Result.error(403, "账号已被禁用");
             }
 
             // 第四步：验证密码
-            // 注意：这里使用明文比较，实际项目中应该使用加密后的密码比较
-            // 建议使用：PasswordUtil.verifyPassword(password, user.getPassword(), user.getSalt())
-            if (!password.equals(user.getPassword())) {
+            // 同时支持PBKDF2哈希和尚未被PasswordRehashMigrator迁移的历史明文密码
+            boolean matched = authMetrics.loginVerify()
+                    .record(() -> PasswordUtil.matches(password, credential.password()));
+            if (!matched) {
+                log.info(LogMarkers.SAMPLED, "登录失败：密码错误 userId={}", credential.id());
+                loginThrottle.recordFailure(username, clientIp);
+                loginFinished(event, "bad_password", username, credential.id());
                 return Result.error(401, "用户名或密码错误");
             }
 
             // 第五步：执行登录，使用用户ID作为登录标识
-            StpUtil.login(user.getId());
+            authMetrics.loginSession().record(() -> StpUtil.login(credential.id()));
+            loginFinished(event, "success", username, credential.id());
 
-            // 第六步：构建返回数据
-            Map<String, Object> data = new HashMap<>();
-            data.put("token", StpUtil.getTokenValue());    // SA-Token生成的会话令牌
-            data.put("userId", user.getId());              // 用户ID
-            data.put("username", user.getUsername());      // 用户名
-            data.put("email", user.getEmail());            // 邮箱
-            data.put("phone", user.getPhone());            // 手机号
+            // 把不含密码的资料快照写入账号会话，userInfo和profile接口不再查询数据库
+            profileSnapshots.store(credential.toProfile(username));
 
-            return Result.success(data);
+            // 第六步：构建返回数据
+            // 用户名按精确匹配查询，与请求中的用户名一致，无需再从数据库读取
+            return Result.success(new LoginResponse(
+                    StpUtil.getTokenValue(),    // SA-Token生成的会话令牌
+                    credential.id(),            // 用户ID
+                    username,                   // 用户名
+                    credential.email(),         // 邮箱
+                    credential.phone()));       // 手机号
 
         } catch (Exception e) {
             // 记录异常信息，便于调试
-            e.printStackTrace();
+            log.error("登录异常", e);
+            loginFinished(event, "error", null, null);
             return Result.error(500, "登录失败：" + e.getMessage());
         }
     }
 
+    /**
+     * 记录一次登录结果：更新登录结果计数器并提交JFR登录事件
+     *
+     * @param event 登录开始时创建的JFR事件
+     * @param outcome 登录结果
+     * @param username 用户名，参数校验失败时为null
+     * @param loginId 登录ID，查到用户之前为null
+     */
+    private void loginFinished(LoginAttemptEvent event, String outcome, String username, Integer loginId) {
+        authMetrics.loginOutcome(outcome);
+        event.complete(outcome, username, loginId);
+    }
+
     /**
      * 查询用户登录状态接口
      *
@@ -242,7 +330,7 @@ public class AuthController {
      * - 路由守卫中验证用户权限
      * - 自动登录功能的状态检查
      *
-     * @return Result<Map<String, Object>> 包含登录状态的响应对象
+     * @return Result<LoginStatus> 包含登录状态的响应对象
      *
      * @apiNote GET /auth/isLogin
      * @apiExample 响应示例（已登录）：
@@ -265,21 +353,14 @@ public class AuthController {
      * }
      */
     @GetMapping("/isLogin")
-    public Result<Map<String, Object>> isLogin() {
-        // 构建响应数据
-        Map<String, Object> data = new HashMap<>();
-
-        // 检查登录状态
-        boolean loginStatus = StpUtil.isLogin();
-        data.put("isLogin", loginStatus);
-
-        // 如果已登录，返回额外的用户信息
-        if (loginStatus) {
-            data.put("userId", StpUtil.getLoginId());        // 当前登录用户ID
-            data.put("token", StpUtil.getTokenValue());      // 当前会话Token
+    public Result<LoginStatus> isLogin() {
+        // 未登录时直接返回共享的不可变实例
+        if (!StpUtil.isLogin()) {
+            return Result.success(LoginStatus.ANONYMOUS);
         }
 
-        return Result.success(data);
+        // 已登录，返回当前登录用户ID和会话Token
+        return Result.success(new LoginStatus(true, StpUtil.getLoginIdAsInt(), StpUtil.getTokenValue()));
     }
 
     /**
@@ -290,12 +371,12 @@ public class AuthController {
      *
      * 功能说明：
      * - 验证用户登录状态
-     * - 根据登录用户ID查询用户详细信息
-     * - 过滤敏感信息（如密码）后返回
+     * - 根据登录用户ID查询用户资料
+     * - 返回不含密码的UserProfile
      *
      * 安全措施：
-     * - 自动验证登录状态，未登录会抛出异常
-     * - 密码字段会被清空，不返回给前端
+     * - 自动验证登录状态，未登录返回401（不创建带堆栈的异常）
+     * - 响应对象不包含密码字段，不会返回给前端
      * - 只能获取当前登录用户的信息，无法获取其他用户信息
      *
      * 使用场景：
@@ -303,7 +384,12 @@ public class AuthController {
      * - 个人信息编辑页面的数据回显
      * - 用户头像、昵称等信息的显示
      *
-     * @return Result<User> 包含用户信息的响应对象
+     * 条件请求：
+     * - 与GET /user/profile使用相同的ETag和版本号缓存
+     * - 客户端携带If-None-Match且资料未变化时返回304，缓存命中时不查询数据库
+     *
+     * @param webRequest 当前请求，用于条件请求判断
+     * @return Result<UserProfile> 包含用户资料的响应对象，资料未变化时返回null（304）
      *
      * @apiNote GET /auth/userInfo
      * @apiExample 响应示例：
@@ -315,7 +401,6 @@ public class AuthController {
      *     "username": "admin",
      *     "email": "admin@example.com",
      *     "phone": "13800138000",
-     *     "password": null,
      *     "isDelete": 0,
      *     "createTime": "2024-01-01T00:00:00",
      *     "updateTime": "2024-01-01T00:00:00"
@@ -323,31 +408,37 @@ public class AuthController {
      * }
      */
     @GetMapping("/userInfo")
-    public Result<User> getUserInfo() {
-        try {
-            // 第一步：检查用户是否已登录
-            // 如果未登录，SA-Token会抛出NotLoginException异常
-            StpUtil.checkLogin();
-
-            // 第二步：获取当前登录用户的ID
-            Integer userId = StpUtil.getLoginIdAsInt();
-
-            // 第三步：根据用户ID查询用户详细信息
-            User user = userService.findById(userId);
-            if (user == null) {
-                // 理论上不会出现这种情况，除非数据被异常删除
-                return Result.error(404, "用户不存在");
+    public Result<UserProfile> getUserInfo(ServletWebRequest webRequest) {
+        // 第一步：检查登录状态并获取当前登录用户的ID
+        // 未登录时抛出预分配的无堆栈异常，由GlobalExceptionHandler转换为401响应
+        int userId = AuthRejectedException.requireLoginId();
+
+        // 第二步：缓存的版本号与客户端一致时直接返回304，不查询数据库
+        Long cachedVersion = userVersionCache.getProfileVersion(userId);
+        if (cachedVersion != null) {
+            String etag = UserVersionCache.profileEtag(userId, cachedVersion);
+            if (ConditionalGet.clientHasVersion(webRequest, etag)
+                    && ConditionalGet.notModified(webRequest, etag, cachedVersion)) {
+                return null;
             }
+        }
 
-            // 第四步：清空敏感信息，确保密码不会返回给前端
-            user.setPassword(null);
-
-            return Result.success(user);
+        // 第三步：根据用户ID查询用户资料（DTO不包含密码字段），查询前记下失效代数
+        long generation = userVersionCache.profileGeneration(userId);
+        UserProfile profile = userService.findProfileById(userId);
+        if (profile == null) {
+            // 理论上不会出现这种情况，除非数据被异常删除
+            return Result.error(404, "用户不存在");
+        }
 
-        } catch (Exception e) {
-            // 捕获未登录异常或其他异常
-            return Result.error(401, "请先登录");
+        // 第四步：记录版本号并做条件判断，资料未变化时返回304
+        long version = UserVersionCache.versionOf(profile);
+        userVersionCache.putProfileVersion(userId, version, generation);
+        if (ConditionalGet.notModified(webRequest, UserVersionCache.profileEtag(userId, version), version)) {
+            return null;
         }
+
+        return Result.success(profile);
     }
 
     /**
@@ -391,7 +482,7 @@ public class AuthController {
             return Result.success("注销成功");
         } catch (Exception e) {
             // 记录异常信息
-            e.printStackTrace();
+            log.error("注销异常", e);
             return Result.error(500, "注销失败：" + e.getMessage());
         }
     }
@@ -428,7 +519,7 @@ public class AuthController {
      * - message：注册成功提示信息
      *
      * @param registerRequest 注册请求对象，包含用户注册信息
-     * @return Result<Map<String, Object>> 注册结果，成功时包含用户基本信息
+     * @return Result<RegisterResponse> 注册结果，成功时包含用户基本信息
      *
      * @apiNote POST /auth/register
      * @apiExample 请求示例：
@@ -500,19 +591,23 @@ public class AuthController {
         @ApiResponse(responseCode = "400", description = "请求参数错误或用户名/邮箱已存在")
     })
     @PostMapping("/register")
-    public Result<Map<String, Object>> register(@RequestBody RegisterRequest registerRequest) {
+    public Result<RegisterResponse> register(@RequestBody RegisterRequest registerRequest) {
         try {
             // 第一步：参数完整性校验
             if (registerRequest == null) {
+                authMetrics.registerOutcome("invalid_request");
                 return Result.error(400, "请求参数不能为空");
             }
             if (registerRequest.getUsername() == null || registerRequest.getUsername().trim().isEmpty()) {
+                authMetrics.registerOutcome("invalid_request");
                 return Result.error(400, "用户名不能为空");
             }
             if (registerRequest.getPassword() == null || registerRequest.getPassword().trim().isEmpty()) {
+                authMetrics.registerOutcome("invalid_request");
                 return Result.error(400, "密码不能为空");
             }
             if (registerRequest.getEmail() == null || registerRequest.getEmail().trim().isEmpty()) {
+                authMetrics.registerOutcome("invalid_request");
                 return Result.error(400, "邮箱不能为空");
             }
 
@@ -523,41 +618,44 @@ public class AuthController {
             String phone = registerRequest.getPhone();
 
             // 第二步：检查用户名唯一性
-            if (userService.existsByUsername(username)) {
+            if (authMetrics.registerCheck().record(() -> userService.existsByUsername(username))) {
+                authMetrics.registerOutcome("duplicate_username");
                 return Result.error(400, "用户名已存在");
             }
 
             // 第三步：检查邮箱唯一性
-            if (userService.existsByEmail(email)) {
+            if (authMetrics.registerCheck().record(() -> userService.existsByEmail(email))) {
+                authMetrics.registerOutcome("duplicate_email");
                 return Result.error(400, "邮箱已被注册");
             }
 
             // 第四步：创建新用户对象
             User newUser = new User();
             newUser.setUsername(username);
-            newUser.setPassword(password);  // 注意：实际项目中应该使用PasswordUtil.encryptPassword()加密密码
+            newUser.setPassword(PasswordUtil.hashPassword(password));  // 只保存PBKDF2哈希，不保存明文
             newUser.setEmail(email);
             newUser.setPhone(phone);
             // 其他字段（如createTime、updateTime、isDelete）会在Service层自动设置
 
             // 第五步：保存用户到数据库
-            User savedUser = userService.save(newUser);
+            User savedUser = authMetrics.registerSave().record(() -> userService.save(newUser));
             if (savedUser == null) {
+                authMetrics.registerOutcome("error");
                 return Result.error(500, "注册失败");
             }
+            authMetrics.registerOutcome("success");
 
             // 第六步：构建返回数据
-            Map<String, Object> data = new HashMap<>();
-            data.put("userId", savedUser.getId());          // 新用户ID
-            data.put("username", savedUser.getUsername());  // 用户名
-            data.put("email", savedUser.getEmail());        // 邮箱
-            data.put("message", "注册成功");                 // 成功提示
-
-            return Result.success(data);
+            return Result.success(new RegisterResponse(
+                    savedUser.getId(),          // 新用户ID
+                    savedUser.getUsername(),    // 用户名
+                    savedUser.getEmail(),       // 邮箱
+                    "注册成功"));                // 成功提示
 
         } catch (Exception e) {
             // 记录异常信息，便于调试
-            e.printStackTrace();
+            log.error("注册异常", e);
+            authMetrics.registerOutcome("error");
             return Result.error(500, "注册失败：" + e.getMessage());
         }
     }
@@ -605,10 +703,15 @@ public class AuthController {
      */
     @PostMapping("/kickout")
     public Result<String> kickout(@RequestParam Integer userId) {
-        try {
-            // 第一步：检查当前用户是否已登录
-            StpUtil.checkLogin();
+        // 第一步：检查当前用户是否已登录
+        // 未登录时抛出预分配的无堆栈异常，由GlobalExceptionHandler转换为401响应
+        int operatorId = AuthRejectedException.requireLoginId();
 
+        // JFR踢人事件，未开启录制时不产生任何开销
+        KickoutEvent event = new KickoutEvent();
+        event.begin();
+
+        try {
             // 第二步：权限验证（建议启用）
             // 确保只有管理员可以执行踢人操作
             // StpUtil.checkRole("admin");
@@ -617,6 +720,7 @@ public class AuthController {
 
             // 第三步：参数验证
             if (userId == null || userId <= 0) {
+                event.complete("invalid_request", userId, operatorId);
                 return Result.error(400, "用户ID无效");
             }
 
@@ -626,12 +730,14 @@ public class AuthController {
 
             // 可以在这里添加操作日志记录
             // logService.recordKickoutOperation(StpUtil.getLoginIdAsInt(), userId);
+            event.complete("success", userId, operatorId);
 
             return Result.success("操作成功");
 
         } catch (Exception e) {
             // 记录异常信息
-            e.printStackTrace();
+            log.error("强制下线异常 userId={}", userId, e);
+            event.complete("error", userId, operatorId);
             return Result.error(500, "操作失败：" + e.getMessage());
         }
     }
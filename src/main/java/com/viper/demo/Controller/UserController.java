@@ -4,8 +4,16 @@ import cn.dev33.satoken.annotation.SaCheckLogin;
 import cn.dev33.satoken.annotation.SaCheckPermission;
 import cn.dev33.satoken.annotation.SaCheckRole;
 import cn.dev33.satoken.stp.StpUtil;
+import com.viper.demo.Cache.UserVersionCache;
+import com.viper.demo.Handler.ConditionalGet;
+import com.viper.demo.Monitor.SlowQueryLog;
+import com.viper.demo.Pojo.DashboardInfo;
+import com.viper.demo.Pojo.PermissionInfo;
 import com.viper.demo.Pojo.Result;
+import com.viper.demo.Pojo.SlowQuery;
 import com.viper.demo.Pojo.User;
+import com.viper.demo.Pojo.UserListVersion;
+import com.viper.demo.Pojo.UserProfile;
 import com.viper.demo.Service.UserService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -19,10 +27,9 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * 用户管理控制器
@@ -79,6 +86,18 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    /**
+     * 慢SQL日志，为管理员提供最慢语句的查询
+     */
+    @Autowired
+    private SlowQueryLog slowQueryLog;
+
+    /**
+     * 用户资料版本号缓存，用于条件请求（ETag/Last-Modified）的快速判断
+     */
+    @Autowired
+    private UserVersionCache userVersionCache;
+
     /**
      * 获取当前用户个人资料接口
      *
@@ -88,7 +107,7 @@ public class UserController {
      * 功能说明：
      * - 自动获取当前登录用户的ID
      * - 查询并返回用户的详细信息
-     * - 自动过滤敏感信息（密码字段）
+     * - 返回不含密码字段的UserProfile
      * - 只能查看自己的个人资料，无法查看他人信息
      *
      * 权限要求：
@@ -97,15 +116,21 @@ public class UserController {
      *
      * 安全措施：
      * - SA-Token自动验证登录状态
-     * - 密码字段会被清空，不返回给前端
+     * - 响应对象不包含密码字段，不会返回给前端
      * - 基于Token获取用户ID，防止越权访问
      *
+     * 条件请求：
+     * - 响应携带ETag（用户ID + updateTime）和Last-Modified
+     * - 客户端携带If-None-Match且资料未变化时返回304，不返回响应体
+     * - 版本号缓存命中时，304响应不查询数据库（见UserVersionCache）
+     *
      * 使用场景：
      * - 个人中心页面的数据展示
      * - 个人信息编辑页面的数据回显
      * - 用户头像、昵称等信息的获取
      *
-     * @return Result<User> 包含用户个人资料的响应对象
+     * @param webRequest 当前请求，用于条件请求判断
+     * @return Result<UserProfile> 包含用户个人资料的响应对象，资料未变化时返回null（304）
      *
      * @apiNote GET /user/profile
      * @apiExample 响应示例：
@@ -117,7 +142,6 @@ public class UserController {
      *     "username": "testuser",
      *     "email": "test@example.com",
      *     "phone": "13800138000",
-     *     "password": null,
      *     "isDelete": 0,
      *     "createTime": "2024-01-01T00:00:00",
      *     "updateTime": "2024-01-01T00:00:00"
@@ -131,21 +155,36 @@ public class UserController {
     )
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "获取成功"),
+        @ApiResponse(responseCode = "304", description = "资料未变化"),
         @ApiResponse(responseCode = "401", description = "未登录")
     })
     @SaCheckLogin
     @GetMapping("/profile")
-    public Result<User> getUserProfile() {
+    public Result<UserProfile> getUserProfile(ServletWebRequest webRequest) {
         try {
             // 获取当前登录用户的ID
             Integer userId = StpUtil.getLoginIdAsInt();
 
-            // 根据用户ID查询用户信息
-            User user = userService.findById(userId);
-            if (user != null) {
-                // 清空密码字段，确保敏感信息不返回给前端
-                user.setPassword(null);
-                return Result.success(user);
+            // 缓存的版本号与客户端一致时直接返回304，不查询数据库
+            Long cachedVersion = userVersionCache.getProfileVersion(userId);
+            if (cachedVersion != null) {
+                String etag = UserVersionCache.profileEtag(userId, cachedVersion);
+                if (ConditionalGet.clientHasVersion(webRequest, etag)
+                        && ConditionalGet.notModified(webRequest, etag, cachedVersion)) {
+                    return null;
+                }
+            }
+
+            // 根据用户ID查询用户资料（DTO不包含密码字段），查询前记下失效代数
+            long generation = userVersionCache.profileGeneration(userId);
+            UserProfile profile = userService.findProfileById(userId);
+            if (profile != null) {
+                long version = UserVersionCache.versionOf(profile);
+                userVersionCache.putProfileVersion(userId, version, generation);
+                if (ConditionalGet.notModified(webRequest, UserVersionCache.profileEtag(userId, version), version)) {
+                    return null;
+                }
+                return Result.success(profile);
             }
 
             // 理论上不会出现这种情况，除非数据被异常删除
@@ -211,20 +250,12 @@ public class UserController {
             // 获取当前登录用户的ID
             Integer userId = StpUtil.getLoginIdAsInt();
 
-            // 查询当前用户的完整信息
-            User existingUser = userService.findById(userId);
-            if (existingUser == null) {
+            // 只允许更新指定的安全字段
+            // 注意：只写邮箱和手机号两列，不整行保存用户实体，其他字段保持数据库中的当前值
+            if (userService.updateProfile(userId, user.getEmail(), user.getPhone()) == null) {
                 return Result.error(404, "用户不存在");
             }
 
-            // 只允许更新指定的安全字段
-            // 注意：这里只更新邮箱和手机号，其他字段保持不变
-            existingUser.setEmail(user.getEmail());
-            existingUser.setPhone(user.getPhone());
-
-            // 保存更新后的用户信息
-            userService.update(existingUser);
-
             return Result.success("更新成功");
         } catch (Exception e) {
             return Result.error(500, "更新失败：" + e.getMessage());
@@ -239,7 +270,7 @@ public class UserController {
      *
      * 功能说明：
      * - 查询并返回系统中所有用户的信息
-     * - 自动过滤所有用户的敏感信息（密码字段）
+     * - 返回不含密码字段的UserProfile列表
      * - 包含用户的基本信息和状态信息
      * - 支持管理员进行用户管理操作
      *
@@ -252,7 +283,7 @@ public class UserController {
      * - 用户ID、用户名、邮箱、手机号
      * - 用户状态（是否被删除）
      * - 创建时间和更新时间
-     * - 密码字段会被清空，确保安全
+     * - 响应对象不包含密码字段，确保安全
      *
      * 使用场景：
      * - 管理员后台的用户管理页面
@@ -261,10 +292,16 @@ public class UserController {
      *
      * 安全措施：
      * - 基于角色的访问控制
-     * - 敏感信息自动过滤
+     * - 响应对象不包含敏感信息
      * - 只有管理员可以访问
      *
-     * @return Result<List<User>> 包含所有用户信息的响应对象
+     * 条件请求：
+     * - ETag和Last-Modified来自列表的聚合版本（用户总数 + 最新更新时间）
+     * - 列表未变化时返回304，不查询完整列表，也不序列化响应体
+     * - 聚合版本在用户数据变化前一直缓存，命中时304响应不查询数据库
+     *
+     * @param webRequest 当前请求，用于条件请求判断
+     * @return Result<List<UserProfile>> 包含所有用户资料的响应对象，列表未变化时返回null（304）
      *
      * @apiNote GET /user/list
      * @apiExample 响应示例：
@@ -277,7 +314,6 @@ public class UserController {
      *       "username": "admin",
      *       "email": "admin@example.com",
      *       "phone": "13800138000",
-     *       "password": null,
      *       "isDelete": 0,
      *       "createTime": "2024-01-01T00:00:00",
      *       "updateTime": "2024-01-01T00:00:00"
@@ -287,7 +323,6 @@ public class UserController {
      *       "username": "test",
      *       "email": "test@example.com",
      *       "phone": "13800138001",
-     *       "password": null,
      *       "isDelete": 0,
      *       "createTime": "2024-01-01T00:00:00",
      *       "updateTime": "2024-01-01T00:00:00"
@@ -302,18 +337,23 @@ public class UserController {
     )
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "获取成功"),
+        @ApiResponse(responseCode = "304", description = "列表未变化"),
         @ApiResponse(responseCode = "401", description = "未登录"),
         @ApiResponse(responseCode = "403", description = "权限不足，需要admin角色")
     })
     @SaCheckRole("admin")
     @GetMapping("/list")
-    public Result<List<User>> getUserList() {
+    public Result<List<UserProfile>> getUserList(ServletWebRequest webRequest) {
         try {
-            // 查询所有用户信息
-            List<User> users = userService.findAll();
+            // 先用聚合版本做条件判断，列表未变化时不加载完整列表
+            UserListVersion version = userVersionCache.getListVersion(userService::findListVersion);
+            if (ConditionalGet.notModified(webRequest, version.etag(), version.lastModifiedMillis())) {
+                return null;
+            }
 
-            // 清空所有用户的密码字段，确保敏感信息不返回给前端
-            users.forEach(user -> user.setPassword(null));
+            // 查询所有用户资料
+            // 返回的是只读DTO，不包含密码字段，也不会修改受管实体
+            List<UserProfile> users = userService.findAllProfiles();
 
             return Result.success(users);
         } catch (Exception e) {
@@ -431,7 +471,7 @@ public class UserController {
      * - 根据roles数组判断是否显示管理员菜单
      * - 根据权限信息进行页面跳转控制
      *
-     * @return Result<Map<String, Object>> 包含权限和角色信息的响应对象
+     * @return Result<PermissionInfo> 包含权限和角色信息的响应对象
      *
      * @apiNote GET /user/permissions
      * @apiExample 响应示例（管理员用户）：
@@ -457,21 +497,13 @@ public class UserController {
      */
     @SaCheckLogin
     @GetMapping("/permissions")
-    public Result<Map<String, Object>> getUserPermissions() {
+    public Result<PermissionInfo> getUserPermissions() {
         try {
-            // 构建返回数据
-            Map<String, Object> data = new HashMap<>();
-
-            // 获取当前用户的权限列表
-            data.put("permissions", StpUtil.getPermissionList());
-
-            // 获取当前用户的角色列表
-            data.put("roles", StpUtil.getRoleList());
-
-            // 获取当前用户ID
-            data.put("userId", StpUtil.getLoginId());
-
-            return Result.success(data);
+            // 构建返回数据：权限列表、角色列表、当前用户ID
+            return Result.success(new PermissionInfo(
+                    StpUtil.getPermissionList(),
+                    StpUtil.getRoleList(),
+                    StpUtil.getLoginIdAsInt()));
         } catch (Exception e) {
             return Result.error(500, "获取权限信息失败：" + e.getMessage());
         }
@@ -510,7 +542,7 @@ public class UserController {
      * - 系统监控和统计面板
      * - 管理员工作台信息概览
      *
-     * @return Result<Map<String, Object>> 包含控制台信息的响应对象
+     * @return Result<DashboardInfo> 包含控制台信息的响应对象
      *
      * @apiNote GET /user/admin/dashboard
      * @apiExample 响应示例：
@@ -526,28 +558,42 @@ public class UserController {
      */
     @SaCheckRole("admin")
     @GetMapping("/admin/dashboard")
-    public Result<Map<String, Object>> adminDashboard() {
+    public Result<DashboardInfo> adminDashboard() {
         try {
-            // 构建控制台数据
-            Map<String, Object> data = new HashMap<>();
-
-            // 欢迎信息
-            data.put("message", "欢迎进入管理员控制台");
-
-            // 系统用户总数统计
-            data.put("totalUsers", userService.findAll().size());
-
-            // 当前管理员用户ID
-            data.put("currentAdmin", StpUtil.getLoginId());
-
-            // 可以在这里添加更多的统计信息
-            // data.put("onlineUsers", StpUtil.searchTokenValue("", 0, -1, false).size());
-            // data.put("systemStatus", "正常");
-            // data.put("lastLoginTime", new Date());
-
-            return Result.success(data);
+            // 构建控制台数据：欢迎信息、系统用户总数、当前管理员用户ID
+            // 如需更多统计信息（在线用户数、系统状态等），在DashboardInfo中增加字段
+            return Result.success(new DashboardInfo(
+                    "欢迎进入管理员控制台",
+                    userService.countUsers(),
+                    StpUtil.getLoginIdAsInt()));
         } catch (Exception e) {
             return Result.error(500, "获取控制台信息失败：" + e.getMessage());
         }
     }
+
+    /**
+     * 慢SQL查询接口（管理员专用）
+     *
+     * 返回最近记录的慢SQL中耗时最长的若干条（条数由demo.slow-query.top-n配置）
+     * 每条记录包含SQL、绑定参数、耗时、行数，以及发起语句的接口和登录用户，
+     * 用于定位UserRepository中的热点查询，无需接入APM
+     *
+     * 权限要求：
+     * - 用户必须已登录
+     * - 用户必须具有"admin"角色
+     *
+     * @return Result<List<SlowQuery>> 按耗时从高到低排列的慢SQL列表
+     *
+     * @apiNote GET /user/admin/slow-queries
+     */
+    @Operation(
+        summary = "慢SQL列表",
+        description = "获取最近记录的慢SQL中耗时最长的语句，仅管理员可访问",
+        security = @SecurityRequirement(name = "SA-Token")
+    )
+    @SaCheckRole("admin")
+    @GetMapping("/admin/slow-queries")
+    public Result<List<SlowQuery>> slowQueries() {
+        return Result.success(slowQueryLog.slowest());
+    }
 }
@@ -0,0 +1,216 @@
+package com.viper.demo.Handler;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 自适应并发上限（梯度算法）
+ *
+ * 根据响应时间的变化自动调整允许同时处理的请求数：
+ * 数据库变慢时响应时间上升，上限随之下降，多出的请求立即拒绝，而不是在Tomcat线程里排队拖慢所有接口；
+ * 响应时间恢复后上限逐步回升
+ *
+ * 算法（参考Netflix concurrency-limits的Gradient2）：
+ * - 每个采样窗口统计一次平均响应时间，作为短期RTT
+ * - 长期RTT是短期RTT的指数移动平均，代表"正常负载下"的响应时间
+ * - gradient = clamp(TOLERANCE * 长期RTT / 短期RTT, 0.5, 1.0)
+ *   短期RTT明显高于长期RTT时gradient小于1，上限按比例收缩
+ * - 新上限 = 当前上限 * gradient + sqrt(当前上限)，sqrt项为排队余量，使上限在响应时间稳定时缓慢增长
+ * - 新上限与当前上限做平滑（新值占LIMIT_SMOOTHING），并限制在[minLimit, maxLimit]之间；
+ *   gradient取下限0.5时，平滑后每个窗口最多收缩约10%（0.8 + 0.2 * 0.5 = 0.9），
+ *   持续变慢时大约7个窗口才降到一半，突发的慢请求不会让上限骤降
+ * - 窗口内最大并发数不到上限一半时（流量不足，不是瓶颈）不调整上限，避免上限在空闲时无限增长
+ *
+ * 优先级：
+ * 每个请求按RequestPriority只能占用上限的一部分，并发数上升时匿名请求最先被拒绝，其次是普通用户，
+ * 管理员可以用满上限；拒绝次数按优先级分别统计
+ *
+ * 并发设计：
+ * - 请求进入和完成只做原子计数和累加，不加锁
+ * - 每个窗口结束时由一个线程（CAS抢到的）计算新上限，其余线程直接返回
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+public class AdaptiveConcurrencyLimit {
+
+    /**
+     * 短期RTT允许超出长期RTT的比例，超出部分才开始收缩上限
+     */
+    private static final double TOLERANCE = 1.5;
+
+    /**
+     * 长期RTT的平滑系数
+     */
+    private static final double LONG_RTT_SMOOTHING = 0.05;
+
+    /**
+     * 新上限的平滑系数，决定每个窗口最多收缩的比例（约LIMIT_SMOOTHING / 2）
+     */
+    private static final double LIMIT_SMOOTHING = 0.2;
+
+    /**
+     * 单个窗口计算上限所需的最少样本数，样本太少时平均值不可靠
+     */
+    private static final int MIN_SAMPLES = 10;
+
+    private final String group;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long windowNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+    private volatile double longRttNanos;
+
+    private final LongAdder windowRttSum = new LongAdder();
+    private final LongAdder windowSamples = new LongAdder();
+    private final LongAccumulator windowMaxInFlight = new LongAccumulator(Math::max, 0);
+    private final AtomicBoolean updating = new AtomicBoolean();
+    private volatile long windowStart;
+
+    /**
+     * 按优先级（RequestPriority.ordinal()）统计的拒绝次数
+     */
+    private final LongAdder[] rejected = new LongAdder[RequestPriority.values().length];
+
+    /**
+     * 创建自适应并发上限
+     *
+     * @param group 接口分组名称（用于指标标签）
+     * @param initialLimit 初始上限
+     * @param minLimit 最小上限
+     * @param maxLimit 最大上限
+     * @param windowNanos 采样窗口长度（纳秒）
+     */
+    public AdaptiveConcurrencyLimit(String group, int initialLimit, int minLimit, int maxLimit, long windowNanos) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("并发上限范围不合法：[" + minLimit + ", " + maxLimit + "]");
+        }
+        this.group = group;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.windowNanos = windowNanos;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.windowStart = System.nanoTime();
+        for (int i = 0; i < rejected.length; i++) {
+            rejected[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * 尝试占用一个并发名额
+     *
+     * @param priority 请求优先级，决定可以占用上限的多少
+     * @return 当前并发数未达到该优先级的份额时返回true，调用方必须在请求结束后调用release()；
+     *         已达到时返回false（计为该优先级的一次拒绝）
+     */
+    public boolean tryAcquire(RequestPriority priority) {
+        int current = inFlight.incrementAndGet();
+        if (current > priority.admissionLimit(limit)) {
+            inFlight.decrementAndGet();
+            rejected[priority.ordinal()].increment();
+            return false;
+        }
+        windowMaxInFlight.accumulate(current);
+        return true;
+    }
+
+    /**
+     * 释放并发名额并记录本次请求的响应时间
+     *
+     * @param rttNanos 从tryAcquire()成功到请求结束的耗时（纳秒）
+     */
+    public void release(long rttNanos) {
+        release(rttNanos, System.nanoTime());
+    }
+
+    void release(long rttNanos, long nowNanos) {
+        inFlight.decrementAndGet();
+        windowRttSum.add(rttNanos);
+        windowSamples.increment();
+        if (nowNanos - windowStart >= windowNanos && updating.compareAndSet(false, true)) {
+            try {
+                updateLimit(nowNanos);
+            } finally {
+                updating.set(false);
+            }
+        }
+    }
+
+    private void updateLimit(long nowNanos) {
+        long samples = windowSamples.sum();
+        if (samples < MIN_SAMPLES) {
+            return;
+        }
+        double shortRtt = (double) windowRttSum.sumThenReset() / windowSamples.sumThenReset();
+        long maxInFlight = windowMaxInFlight.getThenReset();
+        windowStart = nowNanos;
+
+        double longRtt = longRttNanos == 0
+                ? shortRtt
+                : longRttNanos * (1 - LONG_RTT_SMOOTHING) + shortRtt * LONG_RTT_SMOOTHING;
+        // 负载下降后短期RTT远低于长期RTT，让长期RTT尽快回落，否则之后的变慢要很久才能被发现
+        if (longRtt > shortRtt * 2) {
+            longRtt = shortRtt * 2;
+        }
+        longRttNanos = longRtt;
+
+        double current = limit;
+        if (maxInFlight < current / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / shortRtt));
+        double newLimit = current * gradient + Math.sqrt(current);
+        newLimit = current * (1 - LIMIT_SMOOTHING) + newLimit * LIMIT_SMOOTHING;
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+
+    public String getGroup() {
+        return group;
+    }
+
+    /**
+     * 当前并发上限
+     *
+     * @return 上限（取整）
+     */
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * 正在处理的请求数
+     *
+     * @return 当前并发数
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * 因超过上限被拒绝的请求总数
+     *
+     * @return 拒绝次数
+     */
+    public long getRejected() {
+        long total = 0;
+        for (LongAdder adder : rejected) {
+            total += adder.sum();
+        }
+        return total;
+    }
+
+    /**
+     * 某个优先级因超过份额被拒绝的请求数
+     *
+     * @param priority 请求优先级
+     * @return 拒绝次数
+     */
+    public long getRejected(RequestPriority priority) {
+        return rejected[priority.ordinal()].sum();
+    }
+}
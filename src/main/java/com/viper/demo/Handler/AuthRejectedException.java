@@ -0,0 +1,76 @@
+package com.viper.demo.Handler;
+
+import cn.dev33.satoken.stp.StpUtil;
+
+/**
+ * 认证拒绝异常（无堆栈）
+ *
+ * 用于未登录、权限不足等高频的拒绝场景，由GlobalExceptionHandler统一转换为Result响应
+ *
+ * 性能设计：
+ * - 构造时关闭堆栈填充（writableStackTrace=false），不产生fillInStackTrace开销
+ * - 关闭suppressed异常记录，实例不可变
+ * - 提供预分配的共享实例NOT_LOGIN、NO_PERMISSION，拒绝路径上不再创建任何异常对象
+ *
+ * 注意事项：
+ * - 该异常只表达"请求被拒绝"这一业务结果，不用于排查程序错误
+ * - 由于没有堆栈信息，不要用它包装真正的系统异常
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+public class AuthRejectedException extends RuntimeException {
+
+    /**
+     * 未登录（401）的共享实例
+     */
+    public static final AuthRejectedException NOT_LOGIN = new AuthRejectedException(401, "请先登录");
+
+    /**
+     * 权限不足（403）的共享实例
+     */
+    public static final AuthRejectedException NO_PERMISSION = new AuthRejectedException(403, "权限不足");
+
+    /**
+     * 对应的Result响应状态码
+     */
+    private final int code;
+
+    /**
+     * 创建认证拒绝异常
+     *
+     * @param code Result响应状态码
+     * @param message 返回给前端的提示信息
+     */
+    public AuthRejectedException(int code, String message) {
+        super(message, null, false, false);
+        this.code = code;
+    }
+
+    /**
+     * 获取Result响应状态码
+     *
+     * @return 状态码，如401、403
+     */
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * 获取当前登录用户ID，未登录时抛出预分配的NOT_LOGIN
+     *
+     * 与StpUtil.checkLogin()的区别：
+     * 未登录时不会创建带堆栈的NotLoginException，适合在高频接口中使用
+     *
+     * @return 当前登录用户ID
+     * @throws AuthRejectedException 未登录时抛出NOT_LOGIN
+     */
+    public static int requireLoginId() {
+        Object loginId = StpUtil.getLoginIdDefaultNull();
+        if (loginId == null) {
+            throw NOT_LOGIN;
+        }
+        return Integer.parseInt(loginId.toString());
+    }
+}
@@ -0,0 +1,214 @@
+package com.viper.demo.Handler;
+
+import cn.dev33.satoken.annotation.SaCheckRole;
+import com.viper.demo.Cache.GrantCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 接口并发限制拦截器
+ *
+ * 注册在所有拦截器之前，按接口分组使用AdaptiveConcurrencyLimit限制同时处理的请求数，
+ * 超过上限的请求直接抛出预分配的OverloadException.SHED，由GlobalExceptionHandler返回503，
+ * 不在Tomcat线程池中排队
+ *
+ * 接口分组：
+ * - admin：方法或类上标注了@SaCheckRole("admin")的接口
+ * - auth：/auth 下的接口
+ * - user：/user 下的其他接口
+ * - 其他处理器（Swagger文档、Actuator等）不限制
+ *
+ * 分组之间互不影响：管理接口变慢只会收缩admin分组的上限，登录和个人资料接口照常处理
+ *
+ * 分组内按请求优先级（RequestPriority：admin > 已登录用户 > 匿名）决定拒绝顺序，
+ * 过载时匿名的注册、isLogin轮询最先被拒绝，已登录用户的请求尽量保留；
+ * 优先级只在请求属于受限分组时才判断，且只读取已缓存的授权信息，不会在限流之前查询数据库
+ *
+ * 配置项（application.properties）：
+ * - demo.concurrency-limit.enabled：是否启用
+ * - demo.concurrency-limit.window-millis：上限的调整周期（毫秒）
+ * - demo.concurrency-limit.{auth|user|admin}.initial-limit / min-limit / max-limit：各分组的上限范围
+ *
+ * 监控指标（实现MeterBinder，由Spring Boot自动注册）：
+ * - http.concurrency.limit{group}：分组当前的并发上限
+ * - http.concurrency.inflight{group}：分组正在处理的请求数
+ * - http.concurrency.rejected{group, priority}：分组内各优先级因超过份额被拒绝的请求数
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+@Component
+public class ConcurrencyLimitInterceptor implements HandlerInterceptor, MeterBinder {
+
+    public static final String GROUP_AUTH = "auth";
+    public static final String GROUP_USER = "user";
+    public static final String GROUP_ADMIN = "admin";
+
+    /**
+     * 请求属性：本次请求占用的并发上限对象
+     */
+    private static final String LIMIT_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".limit";
+
+    /**
+     * 请求属性：占用名额的时间（纳秒）
+     */
+    private static final String START_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".start";
+
+    private final boolean enabled;
+
+    /**
+     * 分组名称 -> 并发上限
+     */
+    private final Map<String, AdaptiveConcurrencyLimit> limits = new LinkedHashMap<>();
+
+    /**
+     * 接口方法 -> 所属分组（不限制的接口为空）
+     */
+    private final Map<Method, Optional<AdaptiveConcurrencyLimit>> methodLimits = new ConcurrentHashMap<>();
+
+    /**
+     * 当前请求的优先级判断
+     */
+    private final Supplier<RequestPriority> priorityClassifier;
+
+    @Autowired
+    public ConcurrencyLimitInterceptor(@Value("${demo.concurrency-limit.enabled:true}") boolean enabled,
+                                       @Value("${demo.concurrency-limit.window-millis:1000}") long windowMillis,
+                                       Environment environment,
+                                       GrantCache grantCache) {
+        this(enabled, windowMillis, environment, () -> RequestPriority.current(grantCache));
+    }
+
+    ConcurrencyLimitInterceptor(boolean enabled, long windowMillis, Environment environment,
+                                Supplier<RequestPriority> priorityClassifier) {
+        this.enabled = enabled;
+        this.priorityClassifier = priorityClassifier;
+        long windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        limits.put(GROUP_AUTH, createLimit(environment, GROUP_AUTH, 20, 5, 100, windowNanos));
+        limits.put(GROUP_USER, createLimit(environment, GROUP_USER, 40, 5, 150, windowNanos));
+        limits.put(GROUP_ADMIN, createLimit(environment, GROUP_ADMIN, 5, 2, 20, windowNanos));
+    }
+
+    private static AdaptiveConcurrencyLimit createLimit(Environment environment, String group,
+                                                        int initialLimit, int minLimit, int maxLimit,
+                                                        long windowNanos) {
+        String prefix = "demo.concurrency-limit." + group + ".";
+        return new AdaptiveConcurrencyLimit(group,
+                environment.getProperty(prefix + "initial-limit", Integer.class, initialLimit),
+                environment.getProperty(prefix + "min-limit", Integer.class, minLimit),
+                environment.getProperty(prefix + "max-limit", Integer.class, maxLimit),
+                windowNanos);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!enabled || !(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        AdaptiveConcurrencyLimit limit = limitFor(handlerMethod);
+        if (limit == null) {
+            return true;
+        }
+        if (!limit.tryAcquire(priorityClassifier.get())) {
+            throw OverloadException.SHED;
+        }
+        request.setAttribute(LIMIT_ATTRIBUTE, limit);
+        request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(LIMIT_ATTRIBUTE) instanceof AdaptiveConcurrencyLimit limit
+                && request.getAttribute(START_ATTRIBUTE) instanceof Long start) {
+            request.removeAttribute(LIMIT_ATTRIBUTE);
+            limit.release(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 获取接口所属分组的并发上限（结果会被缓存）
+     *
+     * @param handlerMethod 接口方法
+     * @return 并发上限，不限制的接口返回null
+     */
+    AdaptiveConcurrencyLimit limitFor(HandlerMethod handlerMethod) {
+        return methodLimits.computeIfAbsent(handlerMethod.getMethod(),
+                method -> Optional.ofNullable(resolveGroup(method, handlerMethod.getBeanType())).map(limits::get))
+                .orElse(null);
+    }
+
+    /**
+     * 获取分组的并发上限
+     *
+     * @param group 分组名称
+     * @return 并发上限，分组不存在时返回null
+     */
+    public AdaptiveConcurrencyLimit getLimit(String group) {
+        return limits.get(group);
+    }
+
+    private static String resolveGroup(Method method, Class<?> beanType) {
+        if (requiresAdmin(method) || requiresAdmin(beanType)) {
+            return GROUP_ADMIN;
+        }
+        RequestMapping mapping = AnnotatedElementUtils.findMergedAnnotation(beanType, RequestMapping.class);
+        if (mapping == null || mapping.path().length == 0) {
+            return null;
+        }
+        return switch (mapping.path()[0]) {
+            case "/auth" -> GROUP_AUTH;
+            case "/user" -> GROUP_USER;
+            default -> null;
+        };
+    }
+
+    private static boolean requiresAdmin(AnnotatedElement element) {
+        SaCheckRole checkRole = AnnotatedElementUtils.findMergedAnnotation(element, SaCheckRole.class);
+        return checkRole != null && Arrays.asList(checkRole.value()).contains("admin");
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (AdaptiveConcurrencyLimit limit : limits.values()) {
+            Gauge.builder("http.concurrency.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                    .tag("group", limit.getGroup())
+                    .description("接口分组当前的并发上限")
+                    .register(registry);
+            Gauge.builder("http.concurrency.inflight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                    .tag("group", limit.getGroup())
+                    .description("接口分组正在处理的请求数")
+                    .register(registry);
+            for (RequestPriority priority : RequestPriority.values()) {
+                FunctionCounter.builder("http.concurrency.rejected", limit, l -> l.getRejected(priority))
+                        .tag("group", limit.getGroup())
+                        .tag("priority", priority.name().toLowerCase())
+                        .description("接口分组内该优先级因超过并发份额被拒绝的请求数")
+                        .register(registry);
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.viper.demo.Handler;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+
+/**
+ * HTTP条件GET工具类
+ *
+ * 轮询频繁、内容很少变化的接口（个人资料、用户列表）使用ETag和Last-Modified：
+ * 客户端在后续请求中携带If-None-Match/If-Modified-Since，
+ * 版本未变化时返回304 Not Modified，不生成也不序列化响应体
+ *
+ * 使用方式（Controller方法）：
+ * - 参数中声明ServletWebRequest
+ * - notModified()返回true时直接返回null，Spring MVC会结束请求并输出304
+ * - 同一请求只能调用一次notModified()，第一次调用写入的ETag不会被后续调用覆盖
+ *
+ * 缓存控制：
+ * - 响应携带Cache-Control: private, no-cache
+ * - private：内容与登录用户相关，不允许共享缓存（CDN、代理）保存
+ * - no-cache：浏览器可以保存，但每次使用前都要带着ETag向服务器确认
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+public final class ConditionalGet {
+
+    /**
+     * 条件GET接口统一使用的Cache-Control
+     */
+    public static final String CACHE_CONTROL = "private, no-cache";
+
+    private ConditionalGet() {
+    }
+
+    /**
+     * 判断客户端携带的If-None-Match是否包含指定的ETag
+     *
+     * 只读取请求头，不修改响应，可以在确认版本之前调用任意次，
+     * 用于在查询数据库之前，用缓存的版本号快速判断能否返回304
+     *
+     * @param request 当前请求
+     * @param etag ETag值（不含引号）
+     * @return 客户端已经持有该版本时返回true
+     */
+    public static boolean clientHasVersion(ServletWebRequest request, String etag) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        return ifNoneMatch != null && ifNoneMatch.contains("\"" + etag + "\"");
+    }
+
+    /**
+     * 写入ETag、Last-Modified和Cache-Control，并判断请求的版本是否未变化
+     *
+     * @param request 当前请求
+     * @param etag ETag值（不含引号，由Spring补齐）
+     * @param lastModifiedMillis 最后修改时间（毫秒），不超过0时不写入Last-Modified
+     * @return 未变化时返回true，此时响应状态已被设置为304
+     */
+    public static boolean notModified(ServletWebRequest request, String etag, long lastModifiedMillis) {
+        HttpServletResponse response = request.getResponse();
+        if (response != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        }
+        return request.checkNotModified(etag, lastModifiedMillis);
+    }
+}
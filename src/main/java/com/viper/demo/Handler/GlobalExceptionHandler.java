@@ -0,0 +1,82 @@
+package com.viper.demo.Handler;
+
+import cn.dev33.satoken.exception.NotLoginException;
+import cn.dev33.satoken.exception.NotPermissionException;
+import cn.dev33.satoken.exception.NotRoleException;
+import com.viper.demo.Pojo.Result;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * 全局异常处理器
+ *
+ * 统一把认证和授权相关的异常转换为Result响应，Controller不再需要各自捕获
+ * 与项目现有约定保持一致：HTTP状态码为200，业务状态码放在Result.code中
+ *
+ * 异常映射：
+ * - AuthRejectedException：使用异常自带的状态码和提示信息（无堆栈，高频拒绝路径使用）
+ * - NotLoginException：401 请先登录（SA-Token注解校验或StpUtil.checkLogin抛出）
+ * - NotPermissionException、NotRoleException：403 权限不足
+ * - OverloadException：503 服务繁忙
+ *
+ * 注意事项：
+ * - 这些异常都是预期内的业务结果，不打印堆栈、不写标准错误输出
+ * - 过载拒绝是唯一使用真实HTTP状态码（503 + Retry-After）的情况，
+ *   负载均衡器和HTTP客户端据此重试到其他节点或稍后重试，而不是把它当作成功响应
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+    /**
+     * 处理无堆栈的认证拒绝异常
+     *
+     * @param e 认证拒绝异常
+     * @return 对应状态码的错误响应
+     */
+    @ExceptionHandler(AuthRejectedException.class)
+    public Result<Void> handleAuthRejected(AuthRejectedException e) {
+        return Result.error(e.getCode(), e.getMessage());
+    }
+
+    /**
+     * 处理SA-Token未登录异常
+     *
+     * @param e 未登录异常
+     * @return 401错误响应
+     */
+    @ExceptionHandler(NotLoginException.class)
+    public Result<Void> handleNotLogin(NotLoginException e) {
+        return Result.error(AuthRejectedException.NOT_LOGIN.getCode(), AuthRejectedException.NOT_LOGIN.getMessage());
+    }
+
+    /**
+     * 处理SA-Token权限不足、角色不足异常
+     *
+     * @param e 权限或角色校验异常
+     * @return 403错误响应
+     */
+    @ExceptionHandler({NotPermissionException.class, NotRoleException.class})
+    public Result<Void> handleNoPermission(RuntimeException e) {
+        return Result.error(AuthRejectedException.NO_PERMISSION.getCode(), AuthRejectedException.NO_PERMISSION.getMessage());
+    }
+
+    /**
+     * 处理过载拒绝异常
+     *
+     * @param e 过载拒绝异常
+     * @return HTTP 503响应，带Retry-After响应头
+     */
+    @ExceptionHandler(OverloadException.class)
+    public ResponseEntity<Result<Void>> handleOverload(OverloadException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(OverloadException.RETRY_AFTER_SECONDS))
+                .body(Result.error(HttpStatus.SERVICE_UNAVAILABLE.value(), e.getMessage()));
+    }
+}
@@ -0,0 +1,155 @@
+package com.viper.demo.Handler;
+
+import com.viper.demo.Utils.SlidingWindowSketch;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 登录暴力破解限流
+ *
+ * 撞库、暴力破解会对每次尝试都执行一次凭证查询和密码校验，
+ * 该类按用户名和客户端IP两个维度统计最近一段时间内的登录失败次数，
+ * 超过阈值后AuthController在查询数据库之前直接拒绝
+ *
+ * 计数方式：
+ * - 使用SlidingWindowSketch（滑动窗口Count-Min Sketch，保守更新），内存固定，不随用户名、IP的数量增长
+ * - 只统计"用户不存在"和"密码错误"两种失败；参数错误、账号禁用不计数
+ * - 估算值可能因哈希冲突略微偏大，极少数情况下会提前限流，不会漏放
+ * - 登录成功不清零计数（Count-Min Sketch不支持减法），失败记录随时间窗口自然过期
+ *
+ * 计数矩阵宽度：
+ * 撞库时窗口内会出现大量只失败一两次的不同用户名，宽度不够时所有计数器都会被推到阈值以上，
+ * 随后任何用户名（包括admin）都在校验密码之前被拒绝，限流反而成了拒绝服务
+ * 因此宽度按"窗口内预计的失败总数 / 阈值"计算并留出WIDTH_FACTOR倍余量，而不是固定值：
+ * - 用户名维度：expected-failures * 4 / max-failures-per-username（默认50000 * 4 / 5，取整为65536，约6MB）
+ * - IP维度：expected-failures * 4 / max-failures-per-ip（默认取整为4096，约384KB）
+ * 配合保守更新，5万个不同用户名各失败一次后，无关用户名的估算值仍不超过1
+ * 实际失败数超过expected-failures时误判率随之上升，应按攻击规模调大
+ *
+ * 两个维度的用途：
+ * - 用户名：防止针对单个账号猜密码，阈值较低
+ * - 客户端IP：防止单个来源遍历大量账号，考虑到NAT后多个用户共用出口IP，阈值较高
+ *
+ * 客户端IP取自HttpServletRequest.getRemoteAddr()，部署在反向代理之后时
+ * 需要配置server.forward-headers-strategy，否则所有请求都会被视为来自代理的IP
+ *
+ * 配置项（application.properties）：
+ * - demo.login-throttle.enabled：是否启用
+ * - demo.login-throttle.window-seconds：统计窗口（秒）
+ * - demo.login-throttle.max-failures-per-username：每个用户名在窗口内允许的失败次数
+ * - demo.login-throttle.max-failures-per-ip：每个客户端IP在窗口内允许的失败次数
+ * - demo.login-throttle.expected-failures：窗口内预计的登录失败总数（各用户名、IP合计），决定计数矩阵宽度
+ *
+ * 监控指标（实现MeterBinder，由Spring Boot自动注册）：
+ * - auth.login.throttled{key=username|ip}：因超过失败次数被拒绝的登录请求数
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+@Component
+public class LoginThrottle implements MeterBinder {
+
+    /**
+     * 窗口划分的时间片数量
+     */
+    private static final int SLOTS = 6;
+
+    /**
+     * 计数矩阵宽度相对"预计失败总数 / 阈值"的倍数
+     */
+    private static final int WIDTH_FACTOR = 4;
+
+    /**
+     * 计数矩阵的最小宽度
+     */
+    private static final int MIN_WIDTH = 1024;
+
+    private final boolean enabled;
+    private final int maxFailuresPerUsername;
+    private final int maxFailuresPerIp;
+    private final SlidingWindowSketch usernameFailures;
+    private final SlidingWindowSketch ipFailures;
+
+    private final LongAdder usernameRejections = new LongAdder();
+    private final LongAdder ipRejections = new LongAdder();
+
+    public LoginThrottle(@Value("${demo.login-throttle.enabled:true}") boolean enabled,
+                         @Value("${demo.login-throttle.window-seconds:300}") long windowSeconds,
+                         @Value("${demo.login-throttle.max-failures-per-username:5}") int maxFailuresPerUsername,
+                         @Value("${demo.login-throttle.max-failures-per-ip:50}") int maxFailuresPerIp,
+                         @Value("${demo.login-throttle.expected-failures:50000}") int expectedFailures) {
+        this.enabled = enabled;
+        this.maxFailuresPerUsername = maxFailuresPerUsername;
+        this.maxFailuresPerIp = maxFailuresPerIp;
+        long windowMillis = TimeUnit.SECONDS.toMillis(windowSeconds);
+        this.usernameFailures = new SlidingWindowSketch(windowMillis, SLOTS, width(expectedFailures, maxFailuresPerUsername));
+        this.ipFailures = new SlidingWindowSketch(windowMillis, SLOTS, width(expectedFailures, maxFailuresPerIp));
+    }
+
+    /**
+     * 计数矩阵宽度：明显大于"预计失败总数 / 阈值"，大量不同的键不会把计数器普遍推到阈值
+     */
+    static int width(int expectedFailures, int maxFailures) {
+        long width = (long) expectedFailures * WIDTH_FACTOR / Math.max(1, maxFailures);
+        return (int) Math.min(1 << 24, Math.max(MIN_WIDTH, width));
+    }
+
+    /**
+     * 判断本次登录是否应被拒绝（在查询数据库之前调用）
+     *
+     * @param username 用户名
+     * @param clientIp 客户端IP，未知时为null
+     * @return 用户名或IP在窗口内的失败次数已达到上限时返回true
+     */
+    public boolean isThrottled(String username, String clientIp) {
+        if (!enabled) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        if (usernameFailures.estimate(username, now) >= maxFailuresPerUsername) {
+            usernameRejections.increment();
+            return true;
+        }
+        if (clientIp != null && ipFailures.estimate(clientIp, now) >= maxFailuresPerIp) {
+            ipRejections.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 记录一次登录失败（用户不存在或密码错误）
+     *
+     * @param username 用户名
+     * @param clientIp 客户端IP，未知时为null
+     */
+    public void recordFailure(String username, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        usernameFailures.increment(username, now);
+        if (clientIp != null) {
+            ipFailures.increment(clientIp, now);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("auth.login.throttled", usernameRejections, LongAdder::sum)
+                .tag("key", "username")
+                .description("用户名登录失败次数超限被拒绝的请求数")
+                .register(registry);
+        FunctionCounter.builder("auth.login.throttled", ipRejections, LongAdder::sum)
+                .tag("key", "ip")
+                .description("客户端IP登录失败次数超限被拒绝的请求数")
+                .register(registry);
+    }
+}
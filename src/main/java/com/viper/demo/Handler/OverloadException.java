@@ -0,0 +1,36 @@
+package com.viper.demo.Handler;
+
+/**
+ * 过载拒绝异常（无堆栈）
+ *
+ * 接口分组的并发数达到自适应上限时由ConcurrencyLimitInterceptor抛出，
+ * GlobalExceptionHandler转换为HTTP 503响应
+ *
+ * 与AuthRejectedException相同，关闭堆栈填充并提供预分配的共享实例，
+ * 过载时拒绝路径要尽可能便宜，不能再给已经繁忙的系统增加分配和堆栈开销
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+public class OverloadException extends RuntimeException {
+
+    /**
+     * 并发数超过上限（503）的共享实例
+     */
+    public static final OverloadException SHED = new OverloadException("服务繁忙，请稍后重试");
+
+    /**
+     * 建议客户端重试前等待的秒数（Retry-After响应头）
+     */
+    public static final int RETRY_AFTER_SECONDS = 1;
+
+    /**
+     * 创建过载拒绝异常
+     *
+     * @param message 返回给前端的提示信息
+     */
+    public OverloadException(String message) {
+        super(message, null, false, false);
+    }
+}
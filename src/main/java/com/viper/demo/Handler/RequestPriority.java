@@ -0,0 +1,93 @@
+package com.viper.demo.Handler;
+
+import cn.dev33.satoken.stp.StpUtil;
+import com.viper.demo.Cache.GrantCache;
+import com.viper.demo.Pojo.UserGrants;
+
+/**
+ * 请求优先级
+ *
+ * 过载时按优先级决定先拒绝谁：匿名请求（注册、isLogin轮询等）最先被拒绝，
+ * 已登录用户其次，管理员最后
+ *
+ * 实现方式：每个优先级只能占用并发上限的一部分（admissionShare），
+ * 并发数超过匿名请求的份额后新的匿名请求即被拒绝，剩余名额留给已登录用户和管理员；
+ * 并发数继续上升时普通用户也开始被拒绝，只有管理员可以用满上限
+ *
+ * | 优先级 | 可用份额 |
+ * |--------|---------|
+ * | ADMIN | 100% |
+ * | USER | 90% |
+ * | ANONYMOUS | 50% |
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+public enum RequestPriority {
+
+    /**
+     * 具有admin角色的已登录用户
+     */
+    ADMIN(1.0),
+
+    /**
+     * 已登录的普通用户
+     */
+    USER(0.9),
+
+    /**
+     * 未携带有效Token的请求
+     */
+    ANONYMOUS(0.5);
+
+    private final double admissionShare;
+
+    RequestPriority(double admissionShare) {
+        this.admissionShare = admissionShare;
+    }
+
+    /**
+     * 该优先级允许的最大并发数
+     *
+     * @param limit 当前并发上限
+     * @return 上限乘以份额（向下取整），至少为1
+     */
+    public int admissionLimit(double limit) {
+        return Math.max(1, (int) (limit * admissionShare));
+    }
+
+    /**
+     * 判断当前请求的优先级
+     *
+     * 没有Token时SA-Token直接返回null，不查询Token存储；
+     * 该方法在并发限制生效之前调用，所以角色只从授权缓存中读取（GrantCache.peek），从不查询数据库：
+     * 缓存中没有该用户时按普通用户处理，管理员的第一个请求完成角色校验后即可按ADMIN准入
+     *
+     * @param grantCache 授权信息缓存
+     * @return 当前请求的优先级
+     */
+    public static RequestPriority current(GrantCache grantCache) {
+        return of(StpUtil.getLoginIdDefaultNull(), grantCache);
+    }
+
+    /**
+     * 根据登录ID和已缓存的授权信息判断优先级
+     *
+     * @param loginId 登录ID，未登录时为null
+     * @param grantCache 授权信息缓存
+     * @return 优先级，登录ID格式错误或未缓存时为USER
+     */
+    static RequestPriority of(Object loginId, GrantCache grantCache) {
+        if (loginId == null) {
+            return ANONYMOUS;
+        }
+        UserGrants grants;
+        try {
+            grants = grantCache.peek(Integer.valueOf(loginId.toString()));
+        } catch (NumberFormatException e) {
+            return USER;
+        }
+        return grants != null && grants.roles().contains("admin") ? ADMIN : USER;
+    }
+}
@@ -0,0 +1,382 @@
+package com.viper.demo.Job;
+
+import com.viper.demo.Mapper.PasswordRehashMapper;
+import com.viper.demo.Pojo.JobCheckpoint;
+import com.viper.demo.Pojo.RehashedPassword;
+import com.viper.demo.Pojo.StoredPassword;
+import com.viper.demo.Repository.JobCheckpointRepository;
+import com.viper.demo.Utils.PasswordUtil;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 存储密码的后台迁移任务
+ *
+ * 历史数据的password列保存的是明文，登录时由PasswordUtil.matches兼容两种格式
+ * 该任务在后台把明文逐批替换为PBKDF2哈希（PasswordUtil.hashPassword），迁移期间登录不受影响
+ * 已经是哈希的行会被跳过：旧哈希无法在不知道明文的情况下离线重新计算
+ *
+ * 执行方式：
+ * - 应用启动完成后在一个后台线程中执行（demo.password-rehash.enabled=true时）
+ * - 按主键keyset分页读取，读取不加锁
+ * - 一批中需要迁移的行在固定大小的线程池中并行计算哈希（PBKDF2是CPU密集型操作）
+ * - 一批的结果合并为一条UPDATE写回，与检查点在同一个短事务中提交；
+ *   写回带旧密码作为条件，读取后被修改过的行保持不变
+ * - 检查点保存在job_checkpoint表，应用重启或任务中断后从上次提交的位置继续
+ * - 检查点走完后再从头补扫一遍仍是明文的行（password NOT LIKE '$pbkdf2-sha256$%'），
+ *   不依赖检查点单调前进：已迁移的行之后仍可能被整行保存实体的旧代码或手工修复写回明文；
+ *   补扫不推进检查点，没有明文时只有一次全表扫描
+ *
+ * 自适应限流：
+ * 每批结束后根据进程CPU使用率和本批的数据库耗时调整批间暂停：
+ * - CPU使用率超过max-cpu-load，或数据库耗时超过max-db-latency-millis：暂停时间翻倍（不超过上限）
+ * - 否则暂停时间减半，逐步回到pause-millis
+ * 业务高峰时迁移自动让路，空闲时尽快完成
+ *
+ * 配置项（application.properties）：
+ * - demo.password-rehash.enabled：启动后是否自动执行
+ * - demo.password-rehash.batch-size：每批读取的行数
+ * - demo.password-rehash.threads：计算哈希的线程数
+ * - demo.password-rehash.iterations：PBKDF2迭代次数
+ * - demo.password-rehash.max-cpu-load：进程CPU使用率目标（0~1）
+ * - demo.password-rehash.max-db-latency-millis：每批数据库耗时目标（毫秒）
+ * - demo.password-rehash.pause-millis：批间的基础暂停时间（毫秒）
+ *
+ * 监控指标（实现MeterBinder，由Spring Boot自动注册）：
+ * - password.rehash.rows：处理的行数，按result区分：
+ *   rehashed（已迁移）、skipped（已是哈希）、conflict（读取后密码被修改，未覆盖）
+ * - password.rehash.throttled：因CPU或数据库耗时超过目标而延长暂停的次数
+ * - password.rehash.running：是否正在迁移（1/0）
+ * - password.rehash.position：已提交的检查点位置（用户ID）
+ * - password.rehash.rate：当前（或最近一次）迁移的速度（行/秒）
+ * - password.rehash.pause：当前的批间暂停时间（毫秒）
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+@Slf4j
+@Component
+public class PasswordRehashMigrator implements MeterBinder {
+
+    /**
+     * 检查点中的任务名称
+     */
+    static final String JOB_NAME = "password-rehash";
+
+    /**
+     * 限流时批间暂停的上限是基础暂停时间的多少倍
+     */
+    private static final int MAX_PAUSE_FACTOR = 64;
+
+    /**
+     * 基础暂停时间为0时，限流使用的最小暂停时间（毫秒）
+     */
+    private static final long MIN_THROTTLE_PAUSE_MILLIS = 10;
+
+    private final boolean enabled;
+    private final int batchSize;
+    private final int threads;
+    private final int iterations;
+    private final double maxCpuLoad;
+    private final long maxDbLatencyMillis;
+    private final long pauseMillis;
+    private final long maxPauseMillis;
+
+    private final PasswordRehashMapper rehashMapper;
+    private final JobCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final LongAdder rehashedRows = new LongAdder();
+    private final LongAdder skippedRows = new LongAdder();
+    private final LongAdder conflictRows = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+
+    /**
+     * 已提交的检查点位置
+     */
+    private volatile int position;
+
+    /**
+     * 本次迁移已迁移的行数（只由执行迁移的线程访问）
+     */
+    private int runRows;
+
+    /**
+     * 当前（或最近一次）迁移的速度（行/秒）
+     */
+    private volatile double rowsPerSecond;
+
+    /**
+     * 当前的批间暂停时间（毫秒）
+     */
+    private volatile long currentPauseMillis;
+
+    /**
+     * 应用关闭时置为true，迁移在当前批提交后结束
+     */
+    private volatile boolean stopping;
+
+    private volatile Thread worker;
+
+    public PasswordRehashMigrator(@Value("${demo.password-rehash.enabled:true}") boolean enabled,
+                                  @Value("${demo.password-rehash.batch-size:200}") int batchSize,
+                                  @Value("${demo.password-rehash.threads:2}") int threads,
+                                  @Value("${demo.password-rehash.iterations:" + PasswordUtil.DEFAULT_ITERATIONS + "}") int iterations,
+                                  @Value("${demo.password-rehash.max-cpu-load:0.6}") double maxCpuLoad,
+                                  @Value("${demo.password-rehash.max-db-latency-millis:200}") long maxDbLatencyMillis,
+                                  @Value("${demo.password-rehash.pause-millis:50}") long pauseMillis,
+                                  PasswordRehashMapper rehashMapper,
+                                  JobCheckpointRepository checkpointRepository,
+                                  PlatformTransactionManager transactionManager) {
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.threads = Math.max(1, threads);
+        this.iterations = iterations;
+        this.maxCpuLoad = maxCpuLoad;
+        this.maxDbLatencyMillis = maxDbLatencyMillis;
+        this.pauseMillis = pauseMillis;
+        this.maxPauseMillis = Math.max(pauseMillis, MIN_THROTTLE_PAUSE_MILLIS) * MAX_PAUSE_FACTOR;
+        this.currentPauseMillis = pauseMillis;
+        this.rehashMapper = rehashMapper;
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * 应用启动完成后在后台线程中开始迁移，不阻塞启动
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        Thread thread = new Thread(this::runToCompletion, "password-rehash");
+        thread.setDaemon(true);
+        worker = thread;
+        thread.start();
+    }
+
+    /**
+     * 应用关闭时停止迁移，已提交的批次和检查点保留，下次启动后继续
+     */
+    @PreDestroy
+    public void stop() {
+        stopping = true;
+        Thread thread = worker;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * 从检查点开始迁移，直到处理完user表中的所有行，然后补扫检查点之前仍是明文的行
+     *
+     * @return 本次迁移的行数，已有迁移在执行时返回0
+     */
+    public int runToCompletion() {
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        runRows = 0;
+        rowsPerSecond = 0;
+        currentPauseMillis = pauseMillis;
+        ExecutorService hashPool = newHashPool();
+        try {
+            position = checkpointRepository.findById(JOB_NAME)
+                    .map(JobCheckpoint::getPosition)
+                    .orElse(0);
+            migrate(hashPool, false, start);
+            migrate(hashPool, true, start);
+            if (runRows > 0) {
+                log.info("密码迁移完成 rehashed={} position={} elapsedMs={} rowsPerSecond={}",
+                        runRows, position, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                        Math.round(rowsPerSecond));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.info("密码迁移已停止 rehashed={} position={}", runRows, position);
+        } catch (RuntimeException e) {
+            log.warn("密码迁移失败，下次启动后从检查点继续 position={} rehashed={}", position, runRows, e);
+        } finally {
+            hashPool.shutdownNow();
+            running.set(false);
+        }
+        return runRows;
+    }
+
+    /**
+     * 按主键顺序分批迁移
+     *
+     * @param sweep false：从检查点开始读取所有行并推进检查点；true：从头读取仍是明文的行，不推进检查点
+     * @param start 本次迁移的开始时间（纳秒），用于计算速度
+     */
+    private void migrate(ExecutorService hashPool, boolean sweep, long start) throws InterruptedException {
+        int after = sweep ? 0 : position;
+        while (!stopping) {
+            long dbStart = System.nanoTime();
+            List<StoredPassword> rows = sweep
+                    ? rehashMapper.findPlaintextPasswords(after, batchSize)
+                    : rehashMapper.findPasswords(after, batchSize);
+            long dbNanos = System.nanoTime() - dbStart;
+            if (rows.isEmpty()) {
+                break;
+            }
+
+            List<RehashedPassword> hashed = hashAll(hashPool, rows);
+            int last = rows.get(rows.size() - 1).id();
+
+            dbStart = System.nanoTime();
+            Integer updated = transactionTemplate.execute(status -> writeBatch(hashed, sweep ? null : last));
+            dbNanos += System.nanoTime() - dbStart;
+
+            int changed = updated == null ? 0 : updated;
+            rehashedRows.add(changed);
+            conflictRows.add(hashed.size() - changed);
+            skippedRows.add(rows.size() - hashed.size());
+            runRows += changed;
+            after = last;
+            if (!sweep) {
+                position = last;
+            }
+            rowsPerSecond = runRows / Math.max(1e-9, (System.nanoTime() - start) / 1e9);
+            if (rows.size() < batchSize) {
+                break;
+            }
+
+            currentPauseMillis = nextPauseMillis(currentPauseMillis, processCpuLoad(),
+                    TimeUnit.NANOSECONDS.toMillis(dbNanos));
+            if (currentPauseMillis > 0) {
+                Thread.sleep(currentPauseMillis);
+            }
+        }
+    }
+
+    /**
+     * 在线程池中并行计算一批明文密码的哈希，已经是哈希的行跳过
+     */
+    private List<RehashedPassword> hashAll(ExecutorService hashPool, List<StoredPassword> rows)
+            throws InterruptedException {
+        List<Callable<RehashedPassword>> tasks = new ArrayList<>(rows.size());
+        for (StoredPassword row : rows) {
+            if (row.password() != null && !PasswordUtil.isHashed(row.password())) {
+                tasks.add(() -> new RehashedPassword(row.id(), row.password(),
+                        PasswordUtil.hashPassword(row.password(), iterations)));
+            }
+        }
+        List<RehashedPassword> hashed = new ArrayList<>(tasks.size());
+        for (Future<RehashedPassword> future : hashPool.invokeAll(tasks)) {
+            try {
+                hashed.add(future.get());
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("计算密码哈希失败", e.getCause());
+            }
+        }
+        return hashed;
+    }
+
+    /**
+     * 在当前事务中写回一批哈希并推进检查点
+     *
+     * @param last 新的检查点位置，补扫时为null（不推进检查点）
+     * @return 实际更新的行数
+     */
+    private int writeBatch(List<RehashedPassword> hashed, Integer last) {
+        int updated = hashed.isEmpty() ? 0 : rehashMapper.updatePasswords(hashed);
+        if (last != null) {
+            checkpointRepository.save(new JobCheckpoint(JOB_NAME, last, new Date()));
+        }
+        return updated;
+    }
+
+    /**
+     * 根据本批的CPU使用率和数据库耗时计算下一次批间暂停
+     *
+     * @param current 当前暂停时间（毫秒）
+     * @param cpuLoad 进程CPU使用率（0~1），负数表示无法获取，不参与判断
+     * @param dbMillis 本批读取和写回的数据库耗时（毫秒）
+     * @return 下一次暂停时间（毫秒）
+     */
+    long nextPauseMillis(long current, double cpuLoad, long dbMillis) {
+        if (cpuLoad > maxCpuLoad || dbMillis > maxDbLatencyMillis) {
+            throttled.increment();
+            return Math.min(maxPauseMillis, Math.max(current, MIN_THROTTLE_PAUSE_MILLIS) * 2);
+        }
+        return Math.max(pauseMillis, current / 2);
+    }
+
+    private ExecutorService newHashPool() {
+        AtomicInteger sequence = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "password-rehash-hash-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static double processCpuLoad() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean sunOs) {
+            return sunOs.getProcessCpuLoad();
+        }
+        return -1;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("password.rehash.rows", rehashedRows, LongAdder::sum)
+                .tag("result", "rehashed")
+                .description("密码迁移处理的行数")
+                .register(registry);
+        FunctionCounter.builder("password.rehash.rows", skippedRows, LongAdder::sum)
+                .tag("result", "skipped")
+                .description("密码迁移处理的行数")
+                .register(registry);
+        FunctionCounter.builder("password.rehash.rows", conflictRows, LongAdder::sum)
+                .tag("result", "conflict")
+                .description("密码迁移处理的行数")
+                .register(registry);
+        FunctionCounter.builder("password.rehash.throttled", throttled, LongAdder::sum)
+                .description("因CPU或数据库耗时超过目标而延长暂停的次数")
+                .register(registry);
+        Gauge.builder("password.rehash.running", running, r -> r.get() ? 1 : 0)
+                .description("是否正在迁移密码")
+                .register(registry);
+        Gauge.builder("password.rehash.position", this, migrator -> migrator.position)
+                .description("密码迁移已提交的检查点位置（用户ID）")
+                .register(registry);
+        Gauge.builder("password.rehash.rate", this, migrator -> migrator.rowsPerSecond)
+                .description("当前（或最近一次）密码迁移的速度（行/秒）")
+                .register(registry);
+        Gauge.builder("password.rehash.pause", this, migrator -> migrator.currentPauseMillis)
+                .description("当前的批间暂停时间（毫秒）")
+                .register(registry);
+    }
+}
@@ -0,0 +1,235 @@
+package com.viper.demo.Job;
+
+import com.viper.demo.Cache.UserVersionCache;
+import com.viper.demo.Mapper.UserArchiveMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 已删除用户归档任务
+ *
+ * 逻辑删除的用户（is_delete=1）会一直留在user表中，登录等热点查询依赖的索引随之不断增长
+ * 该任务定期把删除时间（update_time）早于保留期的用户移动到user_archive表
+ *
+ * 执行方式：
+ * - 按主键keyset分页，每批最多batch-size行，每批一个短事务：加锁取ID -> 复制到归档表 -> 从user表删除
+ * - 批与批之间暂停，暂停时间取pause-millis和上一批耗时中的较大者：
+ *   数据库变慢时批次耗时变长，暂停也随之变长，归档任务最多占用一个数据库连接一半的时间
+ * - 同一时间只有一次归档在执行，上一次未结束时本次直接跳过
+ * - 某一批失败时结束本次归档（已提交的批次不受影响），下次调度从头重新扫描
+ *
+ * 归档后使UserVersionCache中的用户列表版本失效（用户总数发生了变化）
+ *
+ * 归档表不保存密码：应用启动后的第一次归档先清空此前版本复制到归档表的密码（一条UPDATE），
+ * 成功一次后不再执行
+ *
+ * 配置项（application.properties）：
+ * - demo.user-archive.enabled：是否定期执行
+ * - demo.user-archive.retention-days：删除多少天后归档
+ * - demo.user-archive.batch-size：每批最多归档的行数
+ * - demo.user-archive.pause-millis：批与批之间的最短暂停时间（毫秒）
+ * - demo.user-archive.interval-seconds：两次归档之间的间隔（秒）
+ *
+ * 监控指标（实现MeterBinder，由Spring Boot自动注册）：
+ * - user.archive.rows：累计归档的行数
+ * - user.archive.batches：累计执行的批次数
+ * - user.archive.failures：失败的批次数
+ * - user.archive.running：是否正在归档（1/0）
+ * - user.archive.position：当前（或最近一次）归档已处理到的用户ID
+ * - user.archive.rate：当前（或最近一次）归档的速度（行/秒）
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+@Slf4j
+@Component
+public class UserArchiver implements MeterBinder {
+
+    private final boolean enabled;
+    private final long retentionMillis;
+    private final int batchSize;
+    private final long pauseMillis;
+
+    private final UserArchiveMapper archiveMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final UserVersionCache userVersionCache;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final LongAdder archivedRows = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    /**
+     * 当前（或最近一次）归档已处理到的用户ID
+     */
+    private volatile int position;
+
+    /**
+     * 当前（或最近一次）归档的速度（行/秒）
+     */
+    private volatile double rowsPerSecond;
+
+    /**
+     * 归档表中此前复制的密码是否已经清空
+     */
+    private volatile boolean archivedPasswordsCleared;
+
+    public UserArchiver(@Value("${demo.user-archive.enabled:true}") boolean enabled,
+                        @Value("${demo.user-archive.retention-days:30}") long retentionDays,
+                        @Value("${demo.user-archive.batch-size:500}") int batchSize,
+                        @Value("${demo.user-archive.pause-millis:200}") long pauseMillis,
+                        UserArchiveMapper archiveMapper,
+                        PlatformTransactionManager transactionManager,
+                        UserVersionCache userVersionCache) {
+        this.enabled = enabled;
+        this.retentionMillis = TimeUnit.DAYS.toMillis(retentionDays);
+        this.batchSize = batchSize;
+        this.pauseMillis = pauseMillis;
+        this.archiveMapper = archiveMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.userVersionCache = userVersionCache;
+    }
+
+    /**
+     * 定期执行归档（启动后延迟一个间隔再执行第一次，避免与启动时的初始化抢占数据库）
+     */
+    @Scheduled(initialDelayString = "${demo.user-archive.interval-seconds:3600}",
+            fixedDelayString = "${demo.user-archive.interval-seconds:3600}", timeUnit = TimeUnit.SECONDS)
+    public void scheduledRun() {
+        if (enabled) {
+            runOnce();
+        }
+    }
+
+    /**
+     * 立即执行一次归档：归档删除时间早于保留期的用户
+     *
+     * @return 本次归档的行数，已有归档在执行时返回0
+     */
+    public int runOnce() {
+        return archiveDeletedBefore(new Date(System.currentTimeMillis() - retentionMillis));
+    }
+
+    /**
+     * 归档删除时间早于cutoff的用户
+     *
+     * @param cutoff 删除时间（update_time）早于该时间的用户会被归档
+     * @return 本次归档的行数，已有归档在执行时返回0
+     */
+    public int archiveDeletedBefore(Date cutoff) {
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        int total = 0;
+        position = 0;
+        rowsPerSecond = 0;
+        try {
+            clearArchivedPasswords();
+            while (true) {
+                long batchStart = System.nanoTime();
+                int afterId = position;
+                List<Integer> ids;
+                try {
+                    ids = transactionTemplate.execute(status -> archiveBatch(afterId, cutoff));
+                } catch (RuntimeException e) {
+                    failures.increment();
+                    log.warn("用户归档失败，本次归档结束 position={} archived={}", afterId, total, e);
+                    break;
+                }
+                if (ids == null || ids.isEmpty()) {
+                    break;
+                }
+                total += ids.size();
+                archivedRows.add(ids.size());
+                batches.increment();
+                position = ids.get(ids.size() - 1);
+                rowsPerSecond = total / Math.max(1e-9, (System.nanoTime() - start) / 1e9);
+                if (ids.size() < batchSize) {
+                    break;
+                }
+                long batchMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - batchStart);
+                Thread.sleep(Math.max(pauseMillis, batchMillis));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            running.set(false);
+        }
+        if (total > 0) {
+            userVersionCache.evict(null);
+            log.info("用户归档完成 archived={} elapsedMs={} rowsPerSecond={}",
+                    total, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), Math.round(rowsPerSecond));
+        }
+        return total;
+    }
+
+    /**
+     * 清空此前版本复制到归档表的密码，失败时下次归档重试
+     */
+    private void clearArchivedPasswords() {
+        if (archivedPasswordsCleared) {
+            return;
+        }
+        try {
+            Integer cleared = transactionTemplate.execute(status -> archiveMapper.clearArchivedPasswords());
+            archivedPasswordsCleared = true;
+            if (cleared != null && cleared > 0) {
+                log.info("已清空归档用户的密码 rows={}", cleared);
+            }
+        } catch (RuntimeException e) {
+            log.warn("清空归档用户的密码失败，下次归档时重试", e);
+        }
+    }
+
+    /**
+     * 在当前事务中归档一批用户
+     *
+     * @return 本批归档的用户ID，没有更多数据时返回空列表
+     */
+    private List<Integer> archiveBatch(int afterId, Date cutoff) {
+        List<Integer> ids = archiveMapper.findArchivableIds(afterId, cutoff, batchSize);
+        if (!ids.isEmpty()) {
+            archiveMapper.copyToArchive(ids);
+            archiveMapper.deleteByIds(ids);
+        }
+        return ids;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("user.archive.rows", archivedRows, LongAdder::sum)
+                .description("累计归档的已删除用户数")
+                .register(registry);
+        FunctionCounter.builder("user.archive.batches", batches, LongAdder::sum)
+                .description("累计执行的归档批次数")
+                .register(registry);
+        FunctionCounter.builder("user.archive.failures", failures, LongAdder::sum)
+                .description("失败的归档批次数")
+                .register(registry);
+        Gauge.builder("user.archive.running", running, r -> r.get() ? 1 : 0)
+                .description("是否正在归档")
+                .register(registry);
+        Gauge.builder("user.archive.position", this, archiver -> archiver.position)
+                .description("当前（或最近一次）归档已处理到的用户ID")
+                .register(registry);
+        Gauge.builder("user.archive.rate", this, archiver -> archiver.rowsPerSecond)
+                .description("当前（或最近一次）归档的速度（行/秒）")
+                .register(registry);
+    }
+}
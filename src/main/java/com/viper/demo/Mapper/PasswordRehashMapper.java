@@ -0,0 +1,86 @@
+package com.viper.demo.Mapper;
+
+import org.apache.ibatis.annotations.Arg;
+import org.apache.ibatis.annotations.ConstructorArgs;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import com.viper.demo.Pojo.RehashedPassword;
+import com.viper.demo.Pojo.StoredPassword;
+import com.viper.demo.Utils.PasswordUtil;
+
+import java.util.List;
+
+/**
+ * 密码迁移的MyBatis映射器
+ *
+ * 为PasswordRehashMigrator提供按批读取和写回密码的手写SQL
+ *
+ * keyset分页：
+ * 每批从上一批最大的ID之后开始（id > afterId ORDER BY id LIMIT n），沿主键索引顺序扫描，
+ * 不使用OFFSET，也不加锁；读取和计算哈希期间不占用事务
+ *
+ * 批量写回：
+ * 一批的所有更新合并为一条UPDATE语句（CASE按ID取新值），一次网络往返；
+ * ELSE password让CASE的结果类型取自password列，H2不需要推断参数类型
+ * 每行都带上读取时的旧密码作为条件，读取之后被修改过的行不会被更新，也不计入返回的行数
+ *
+ * 补扫：
+ * findPlaintextPasswords只返回不是PBKDF2格式的行，LIKE前缀条件无法使用索引，
+ * 沿主键范围扫描整张表一次；迁移结束时执行，用于找回检查点之前又被写回明文的行
+ *
+ * 注意事项：
+ * - 列名遵循JPA默认命名策略（驼峰转下划线）
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+@Mapper
+public interface PasswordRehashMapper {
+
+    /**
+     * 读取一批用户的ID和存储的密码（包括已删除的用户）
+     *
+     * @param afterId 上一批最大的用户ID，第一批传检查点位置或0
+     * @param limit 批大小
+     * @return 按ID升序排列，没有更多数据时返回空列表
+     */
+    @Select("SELECT id, password FROM user WHERE id > #{afterId} ORDER BY id LIMIT #{limit}")
+    @ConstructorArgs({
+        @Arg(column = "id", javaType = Integer.class),
+        @Arg(column = "password", javaType = String.class)
+    })
+    List<StoredPassword> findPasswords(@Param("afterId") int afterId, @Param("limit") int limit);
+
+    /**
+     * 读取一批密码不是PBKDF2格式的用户（包括已删除的用户，password为NULL的行不返回）
+     *
+     * @param afterId 上一批最大的用户ID，第一批传0
+     * @param limit 批大小
+     * @return 按ID升序排列，没有更多数据时返回空列表
+     */
+    @Select("SELECT id, password FROM user WHERE id > #{afterId} AND password NOT LIKE '"
+            + PasswordUtil.PBKDF2_PREFIX + "%' ORDER BY id LIMIT #{limit}")
+    @ConstructorArgs({
+        @Arg(column = "id", javaType = Integer.class),
+        @Arg(column = "password", javaType = String.class)
+    })
+    List<StoredPassword> findPlaintextPasswords(@Param("afterId") int afterId, @Param("limit") int limit);
+
+    /**
+     * 批量写回新的密码哈希
+     *
+     * @param rows 迁移结果，不能为空列表
+     * @return 实际更新的行数（密码已被修改的行不计入）
+     */
+    @Update({"<script>",
+            "UPDATE user SET password = CASE id",
+            "<foreach collection='rows' item='row'>WHEN #{row.id} THEN #{row.hash} </foreach>",
+            "ELSE password END WHERE",
+            "<foreach collection='rows' item='row' separator=' OR '>(id = #{row.id} AND password = #{row.previous})</foreach>",
+            "</script>"})
+    int updatePasswords(@Param("rows") List<RehashedPassword> rows);
+}
@@ -0,0 +1,85 @@
+package com.viper.demo.Mapper;
+
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 用户归档的MyBatis映射器
+ *
+ * 为UserArchiver提供按批次移动已删除用户的手写SQL，三条语句在同一个事务中执行：
+ * 1. findArchivableIds：按主键keyset分页取出一批符合条件的用户ID，并加行锁
+ * 2. copyToArchive：把这批用户复制到user_archive表
+ * 3. deleteByIds：从user表删除这批用户
+ *
+ * keyset分页：
+ * 每批从上一批最大的ID之后开始（id > afterId ORDER BY id LIMIT n），沿主键索引顺序扫描，
+ * 不使用OFFSET，扫描量不随已处理的行数增长；每批只锁住本批的行，事务很短
+ *
+ * 密码：
+ * 归档用户不能登录，归档表不保存password列（复制时不写入，保持NULL）；
+ * PasswordRehashMigrator只迁移user表，复制过去的明文会永久留在归档表中
+ * 此前已归档的密码由clearArchivedPasswords清空
+ *
+ * 注意事项：
+ * - 列名遵循JPA默认命名策略（驼峰转下划线）
+ * - update_time为NULL的历史数据不会被归档
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+@Mapper
+public interface UserArchiveMapper {
+
+    /**
+     * 取出一批可以归档的用户ID并加行锁
+     *
+     * @param afterId 上一批最大的用户ID，第一批传0
+     * @param cutoff 删除时间早于该时间的用户才会被归档
+     * @param limit 批大小
+     * @return 按ID升序排列的用户ID，没有更多数据时返回空列表
+     */
+    @Select("SELECT id FROM user WHERE id > #{afterId} AND is_delete = 1 AND update_time < #{cutoff} "
+            + "ORDER BY id LIMIT #{limit} FOR UPDATE")
+    List<Integer> findArchivableIds(@Param("afterId") int afterId, @Param("cutoff") Date cutoff,
+                                    @Param("limit") int limit);
+
+    /**
+     * 把一批用户复制到归档表（不复制密码），归档时间取数据库当前时间
+     *
+     * @param ids 用户ID（findArchivableIds的结果）
+     * @return 写入的行数
+     */
+    @Insert({"<script>",
+            "INSERT INTO user_archive (id, username, email, phone, is_delete, create_time, update_time, archive_time)",
+            "SELECT id, username, email, phone, is_delete, create_time, update_time, CURRENT_TIMESTAMP FROM user",
+            "WHERE id IN <foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>",
+            "</script>"})
+    int copyToArchive(@Param("ids") List<Integer> ids);
+
+    /**
+     * 从user表删除一批用户
+     *
+     * @param ids 用户ID（findArchivableIds的结果）
+     * @return 删除的行数
+     */
+    @Delete({"<script>",
+            "DELETE FROM user WHERE id IN <foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>",
+            "</script>"})
+    int deleteByIds(@Param("ids") List<Integer> ids);
+
+    /**
+     * 清空归档表中此前复制过去的密码
+     *
+     * @return 清空的行数
+     */
+    @Update("UPDATE user_archive SET password = NULL WHERE password IS NOT NULL")
+    int clearArchivedPasswords();
+}
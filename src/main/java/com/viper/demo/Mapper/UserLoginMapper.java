@@ -0,0 +1,57 @@
+package com.viper.demo.Mapper;
+
+import org.apache.ibatis.annotations.Arg;
+import org.apache.ibatis.annotations.ConstructorArgs;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import com.viper.demo.Pojo.LoginCredential;
+
+import java.util.Date;
+
+/**
+ * 登录热路径的MyBatis映射器
+ *
+ * 该接口为登录流程提供手写SQL的查询，作为JPA查询的可替换实现
+ * 通过配置项 demo.login.lookup=mybatis 启用
+ *
+ * 与JPA实现的区别：
+ * - 手写SQL，只查询LoginCredential需要的列（登录校验和会话资料快照）
+ * - 结果直接通过构造函数映射为不可变的LoginCredential
+ * - 不经过Hibernate持久化上下文，没有实体快照和脏检查开销
+ *
+ * 查询语义与UserRepository.findByUsernameAndNotDeleted保持一致：
+ * - 用户名精确匹配
+ * - 自动过滤已逻辑删除的用户（is_delete为NULL视为未删除）
+ *
+ * 注意事项：
+ * - 使用@Mapper注解由MyBatis自动配置扫描，不使用@MapperScan，避免影响WebMvcTest等切片测试
+ * - 列名遵循JPA默认命名策略（驼峰转下划线）
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+@Mapper
+public interface UserLoginMapper {
+
+    /**
+     * 根据用户名查询登录凭证（排除已删除的用户）
+     *
+     * @param username 用户名，精确匹配
+     * @return 登录凭证，用户不存在或已删除时返回null
+     */
+    @Select("SELECT id, password, is_delete, email, phone, create_time, update_time FROM user "
+            + "WHERE username = #{username} AND (is_delete IS NULL OR is_delete = 0)")
+    @ConstructorArgs({
+        @Arg(column = "id", javaType = Integer.class),
+        @Arg(column = "password", javaType = String.class),
+        @Arg(column = "is_delete", javaType = Integer.class),
+        @Arg(column = "email", javaType = String.class),
+        @Arg(column = "phone", javaType = String.class),
+        @Arg(column = "create_time", javaType = Date.class),
+        @Arg(column = "update_time", javaType = Date.class)
+    })
+    LoginCredential findLoginCredential(@Param("username") String username);
+}
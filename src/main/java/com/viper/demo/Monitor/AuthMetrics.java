@@ -0,0 +1,146 @@
+package com.viper.demo.Monitor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 认证相关的业务指标
+ *
+ * 集中定义登录、注册、权限解析各阶段的计时器和结果计数器，
+ * 各阶段的计时器和每种结果的计数器在创建时即注册，热路径上不再按名称和标签查找
+ *
+ * 指标说明：
+ * - auth.login.stage{stage=lookup|verify|session}：登录各阶段耗时
+ *   lookup为查询登录凭证，verify为密码校验，session为StpUtil.login创建会话
+ * - auth.login.attempts{outcome=...}：登录结果计数
+ *   outcome取值：success、invalid_request、throttled、unknown_user、disabled、bad_password、error
+ * - auth.register.stage{stage=check|save}：注册各阶段耗时
+ *   check为用户名和邮箱唯一性检查，save为写入数据库
+ * - auth.register.attempts{outcome=...}：注册结果计数
+ *   outcome取值：success、invalid_request、duplicate_username、duplicate_email、error
+ * - auth.grants.load：StpInterfaceImpl缓存未命中时查询账号状态并计算授权信息的耗时
+ *
+ * 以auth开头的计时器开启了百分位直方图（见application.properties），可以在Prometheus中计算p99等分位数
+ *
+ * MeterRegistry不可用时（如@WebMvcTest切片测试）使用Micrometer全局注册表，
+ * 全局注册表中没有实际的注册表时所有指标均为空操作
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+@Component
+public class AuthMetrics {
+
+    public static final String LOGIN_STAGE = "auth.login.stage";
+    public static final String LOGIN_ATTEMPTS = "auth.login.attempts";
+    public static final String REGISTER_STAGE = "auth.register.stage";
+    public static final String REGISTER_ATTEMPTS = "auth.register.attempts";
+    public static final String GRANTS_LOAD = "auth.grants.load";
+
+    /**
+     * 登录结果取值
+     */
+    static final String[] LOGIN_OUTCOMES = {
+            "success", "invalid_request", "throttled", "unknown_user", "disabled", "bad_password", "error"};
+
+    /**
+     * 注册结果取值
+     */
+    static final String[] REGISTER_OUTCOMES = {
+            "success", "invalid_request", "duplicate_username", "duplicate_email", "error"};
+
+    private final MeterRegistry registry;
+
+    private final Timer loginLookup;
+    private final Timer loginVerify;
+    private final Timer loginSession;
+    private final Timer registerCheck;
+    private final Timer registerSave;
+    private final Timer grantsLoad;
+    private final Map<String, Counter> loginAttempts;
+    private final Map<String, Counter> registerAttempts;
+
+    @Autowired
+    public AuthMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+        this(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    public AuthMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.loginLookup = registry.timer(LOGIN_STAGE, "stage", "lookup");
+        this.loginVerify = registry.timer(LOGIN_STAGE, "stage", "verify");
+        this.loginSession = registry.timer(LOGIN_STAGE, "stage", "session");
+        this.registerCheck = registry.timer(REGISTER_STAGE, "stage", "check");
+        this.registerSave = registry.timer(REGISTER_STAGE, "stage", "save");
+        this.grantsLoad = registry.timer(GRANTS_LOAD);
+        this.loginAttempts = counters(LOGIN_ATTEMPTS, LOGIN_OUTCOMES);
+        this.registerAttempts = counters(REGISTER_ATTEMPTS, REGISTER_OUTCOMES);
+    }
+
+    private Map<String, Counter> counters(String name, String[] outcomes) {
+        Map<String, Counter> counters = new HashMap<>();
+        for (String outcome : outcomes) {
+            counters.put(outcome, registry.counter(name, "outcome", outcome));
+        }
+        return Map.copyOf(counters);
+    }
+
+    /**
+     * 取预先注册的计数器，未列出的结果取值（新增取值但忘记登记时）才按名称查找
+     */
+    private Counter counter(Map<String, Counter> counters, String name, String outcome) {
+        Counter counter = counters.get(outcome);
+        return counter != null ? counter : registry.counter(name, "outcome", outcome);
+    }
+
+    public Timer loginLookup() {
+        return loginLookup;
+    }
+
+    public Timer loginVerify() {
+        return loginVerify;
+    }
+
+    public Timer loginSession() {
+        return loginSession;
+    }
+
+    public Timer registerCheck() {
+        return registerCheck;
+    }
+
+    public Timer registerSave() {
+        return registerSave;
+    }
+
+    public Timer grantsLoad() {
+        return grantsLoad;
+    }
+
+    /**
+     * 记录一次登录结果
+     *
+     * @param outcome 登录结果，取值见类注释
+     */
+    public void loginOutcome(String outcome) {
+        counter(loginAttempts, LOGIN_ATTEMPTS, outcome).increment();
+    }
+
+    /**
+     * 记录一次注册结果
+     *
+     * @param outcome 注册结果，取值见类注释
+     */
+    public void registerOutcome(String outcome) {
+        counter(registerAttempts, REGISTER_ATTEMPTS, outcome).increment();
+    }
+}
@@ -0,0 +1,52 @@
+package com.viper.demo.Monitor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * 数据源监控后置处理器
+ *
+ * 在Spring容器创建DataSource Bean之后，将其包装为MonitoredDataSource
+ * 这样无需修改任何数据源配置，JPA、MyBatis等所有数据访问都会被统一计时
+ *
+ * 注意事项：
+ * - 已经是MonitoredDataSource的Bean不会被重复包装
+ * - MeterRegistry和SlowQueryLog通过ObjectProvider延迟获取，避免后置处理器提前初始化监控组件
+ * - Spring Boot的DataSourceUnwrapper可以穿透DelegatingDataSource，
+ *   HikariCP连接池指标不受影响
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+@Component
+public class DataSourceMonitorPostProcessor implements BeanPostProcessor {
+
+    /**
+     * 指标注册表的延迟获取器
+     */
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    /**
+     * 慢SQL日志的延迟获取器
+     */
+    private final ObjectProvider<SlowQueryLog> slowQueryLog;
+
+    public DataSourceMonitorPostProcessor(ObjectProvider<MeterRegistry> meterRegistry,
+                                          ObjectProvider<SlowQueryLog> slowQueryLog) {
+        this.meterRegistry = meterRegistry;
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof MonitoredDataSource)) {
+            return new MonitoredDataSource(dataSource, meterRegistry::getIfAvailable, slowQueryLog::getIfAvailable);
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,53 @@
+package com.viper.demo.Monitor.Jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR事件：强制用户下线
+ *
+ * 由AuthController.kickout提交，持续时间包括删除被踢用户全部token的耗时
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+@Name("com.viper.demo.Kickout")
+@Label("Kickout")
+@Category({"Sa-Token Demo", "Authentication"})
+@Description("管理员强制用户下线的结果和耗时")
+@StackTrace(false)
+public class KickoutEvent extends Event {
+
+    @Label("Login ID")
+    @Description("被踢下线的用户ID")
+    String loginId;
+
+    @Label("Operator ID")
+    @Description("执行操作的用户ID")
+    String operatorId;
+
+    @Label("Outcome")
+    @Description("success、invalid_request、error")
+    String outcome;
+
+    /**
+     * 填充字段并提交事件
+     *
+     * @param outcome 操作结果
+     * @param loginId 被踢下线的用户ID
+     * @param operatorId 执行操作的用户ID
+     */
+    public void complete(String outcome, Object loginId, Object operatorId) {
+        if (shouldCommit()) {
+            this.outcome = outcome;
+            this.loginId = String.valueOf(loginId);
+            this.operatorId = String.valueOf(operatorId);
+            commit();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.viper.demo.Monitor.Jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR事件：一次登录请求
+ *
+ * 由AuthController.doLogin在方法开始时begin()，在每个返回分支调用complete()提交，
+ * 事件的持续时间即整个登录处理耗时（包括凭证查询、密码校验和创建会话）
+ *
+ * 使用方式：
+ * ```java
+ * LoginAttemptEvent event = new LoginAttemptEvent();
+ * event.begin();
+ * ...
+ * event.complete("success", username, userId);
+ * ```
+ *
+ * 未开启JFR录制或事件被禁用时，shouldCommit()返回false，不会填充字段也不会写入缓冲区，
+ * 事件对象不逃逸，JIT可以通过逃逸分析消除分配
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+@Name("com.viper.demo.LoginAttempt")
+@Label("Login Attempt")
+@Category({"Sa-Token Demo", "Authentication"})
+@Description("一次登录请求的处理结果和耗时")
+@StackTrace(false)
+public class LoginAttemptEvent extends Event {
+
+    @Label("Username")
+    String username;
+
+    @Label("Login ID")
+    String loginId;
+
+    @Label("Outcome")
+    @Description("success、invalid_request、unknown_user、disabled、bad_password、error")
+    String outcome;
+
+    /**
+     * 填充字段并提交事件
+     *
+     * @param outcome 登录结果
+     * @param username 用户名，参数校验失败时可以为null
+     * @param loginId 登录ID，查到用户之前为null
+     */
+    public void complete(String outcome, String username, Object loginId) {
+        if (shouldCommit()) {
+            this.outcome = outcome;
+            this.username = username;
+            this.loginId = loginId != null ? loginId.toString() : null;
+            commit();
+        }
+    }
+}
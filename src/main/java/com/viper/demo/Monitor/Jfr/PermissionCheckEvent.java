@@ -0,0 +1,63 @@
+package com.viper.demo.Monitor.Jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR事件：一次权限解析
+ *
+ * 由StpInterfaceImpl.getPermissionList提交，对应@SaCheckPermission注解校验或StpUtil的权限判断
+ * cacheHit为false表示本次解析查询了数据库（GrantCache未命中或已过期）
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+@Name("com.viper.demo.PermissionCheck")
+@Label("Permission Check")
+@Category({"Sa-Token Demo", "Authorization"})
+@Description("一次权限解析的结果、耗时和缓存命中情况")
+@StackTrace(false)
+public class PermissionCheckEvent extends Event {
+
+    @Label("Login ID")
+    String loginId;
+
+    @Label("Outcome")
+    @Description("resolved：正常返回；invalid_login_id：登录ID格式错误；unavailable：数据库访问已熔断且无旧数据；error：解析异常")
+    String outcome;
+
+    @Label("Grant Count")
+    @Description("解析出的权限数量")
+    int grantCount;
+
+    @Label("Cache Hit")
+    boolean cacheHit = true;
+
+    /**
+     * 标记本次解析未命中缓存
+     */
+    public void cacheMiss() {
+        this.cacheHit = false;
+    }
+
+    /**
+     * 填充字段并提交事件
+     *
+     * @param outcome 解析结果
+     * @param loginId 登录ID
+     * @param grantCount 解析出的权限数量
+     */
+    public void complete(String outcome, Object loginId, int grantCount) {
+        if (shouldCommit()) {
+            this.outcome = outcome;
+            this.loginId = String.valueOf(loginId);
+            this.grantCount = grantCount;
+            commit();
+        }
+    }
+}
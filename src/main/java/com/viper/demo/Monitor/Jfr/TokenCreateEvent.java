@@ -0,0 +1,52 @@
+package com.viper.demo.Monitor.Jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR事件：写入一个token -> loginId映射
+ *
+ * 由MonitoredTokenDao在写入token键时提交，持续时间为存储写入耗时
+ * 登录（StpUtil.login）时产生，可与LoginAttempt事件对照
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+@Name("com.viper.demo.TokenCreate")
+@Label("Token Create")
+@Category({"Sa-Token Demo", "Token Store"})
+@Description("token写入存储的耗时")
+@StackTrace(false)
+public class TokenCreateEvent extends Event {
+
+    @Label("Login ID")
+    String loginId;
+
+    @Label("Timeout")
+    @Description("有效期（秒），-1表示永不过期")
+    long timeout;
+
+    @Label("Outcome")
+    String outcome;
+
+    /**
+     * 填充字段并提交事件
+     *
+     * @param outcome 写入结果：success或error
+     * @param loginId token对应的登录ID
+     * @param timeout 有效期（秒）
+     */
+    public void complete(String outcome, String loginId, long timeout) {
+        if (shouldCommit()) {
+            this.outcome = outcome;
+            this.loginId = loginId;
+            this.timeout = timeout;
+            commit();
+        }
+    }
+}
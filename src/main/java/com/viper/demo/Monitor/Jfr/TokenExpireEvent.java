@@ -0,0 +1,61 @@
+package com.viper.demo.Monitor.Jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR事件：修改或清除一个token的有效期
+ *
+ * 由MonitoredTokenDao在token键上执行以下操作时提交：
+ * - updateTimeout：续期，timeout为新的有效期（秒）
+ * - delete：注销、踢人下线、顶人下线时删除token，timeout为0
+ *
+ * 存储内部定时清理到期数据时不经过这两个方法，不会产生该事件
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+@Name("com.viper.demo.TokenExpire")
+@Label("Token Expire")
+@Category({"Sa-Token Demo", "Token Store"})
+@Description("token续期或删除的耗时")
+@StackTrace(false)
+public class TokenExpireEvent extends Event {
+
+    @Label("Login ID")
+    String loginId;
+
+    @Label("Timeout")
+    @Description("新的有效期（秒），删除时为0")
+    long timeout;
+
+    @Label("Outcome")
+    @Description("renewed：续期；deleted：删除；missing：token不存在")
+    String outcome;
+
+    @Label("Token Found")
+    @Description("操作时token是否存在于存储中")
+    boolean tokenFound;
+
+    /**
+     * 填充字段并提交事件
+     *
+     * @param outcome 操作结果
+     * @param loginId token对应的登录ID，token不存在时为null
+     * @param timeout 新的有效期（秒）
+     */
+    public void complete(String outcome, String loginId, long timeout) {
+        if (shouldCommit()) {
+            this.outcome = outcome;
+            this.loginId = loginId;
+            this.timeout = timeout;
+            this.tokenFound = loginId != null;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.viper.demo.Monitor;
+
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+/**
+ * 日志标记常量
+ *
+ * 用于在日志调用处声明事件的性质，由logback-spring.xml中的过滤器统一处理
+ *
+ * 使用示例：
+ * ```java
+ * log.warn(LogMarkers.SAMPLED, "登录失败：用户名或密码错误 username={}", username);
+ * ```
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+public final class LogMarkers {
+
+    /**
+     * 高频事件标记
+     *
+     * 带有该标记的日志会被LogSamplingFilter按比例采样（每个Logger每N条保留1条），
+     * 适用于登录失败、权限解析失败等在攻击或故障期间可能每个请求都会触发的事件
+     */
+    public static final Marker SAMPLED = MarkerFactory.getMarker("SAMPLED");
+
+    private LogMarkers() {
+    }
+}
@@ -0,0 +1,77 @@
+package com.viper.demo.Monitor;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.filter.Filter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 高频日志采样过滤器（Logback）
+ *
+ * 对带有LogMarkers.SAMPLED标记的日志事件按Logger分别计数，每rate条只保留第1条
+ * 不带该标记的日志不受影响
+ *
+ * 设计说明：
+ * - 过滤器挂在AsyncAppender上，在请求线程入队之前执行，被采样丢弃的事件不会占用队列
+ * - 每个Logger一个AtomicLong计数器，计数器数量受Logger数量限制，内存有界
+ * - 保留下来的事件乘以rate即可估算真实频率
+ *
+ * 配置示例（logback-spring.xml）：
+ * ```xml
+ * <filter class="com.viper.demo.Monitor.LogSamplingFilter">
+ *     <rate>100</rate>
+ * </filter>
+ * ```
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+public class LogSamplingFilter extends Filter<ILoggingEvent> {
+
+    /**
+     * 采样比例：每rate条保留1条，小于等于1表示不采样
+     */
+    private int rate = 100;
+
+    /**
+     * 每个Logger的事件计数器
+     */
+    private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+
+    public int getRate() {
+        return rate;
+    }
+
+    public void setRate(int rate) {
+        this.rate = rate;
+    }
+
+    @Override
+    public FilterReply decide(ILoggingEvent event) {
+        if (rate <= 1 || !isSampled(event)) {
+            return FilterReply.NEUTRAL;
+        }
+        long count = counters.computeIfAbsent(event.getLoggerName(), name -> new AtomicLong())
+                .getAndIncrement();
+        return count % rate == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    private static boolean isSampled(ILoggingEvent event) {
+        List<Marker> markers = event.getMarkerList();
+        if (markers == null) {
+            return false;
+        }
+        for (Marker marker : markers) {
+            if (marker.contains(LogMarkers.SAMPLED)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,166 @@
+package com.viper.demo.Monitor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 带监控的数据源包装器
+ *
+ * 该类包装应用的真实数据源（HikariCP），对借出的每个连接进行计时
+ * 从getConnection()开始，到连接close()归还连接池为止，记录为一次"连接持有时间"
+ *
+ * 指标说明：
+ * - 名称：jdbc.connection.hold
+ * - 标签：method、uri，表示持有连接的Controller接口（见RequestEndpoint）
+ * - 用途：对比开启/关闭open-in-view、调整事务边界前后，各接口占用连接池的时间
+ *
+ * 实现说明：
+ * - 使用JDK动态代理包装Connection，代理同时实现Spring的ConnectionProxy接口，
+ *   Spring事务管理可以通过getTargetConnection()拿到原始连接
+ * - 同一个连接多次调用close()只记录一次
+ * - 配置了SlowQueryLog时，连接创建的每个Statement也会被包装，对语句执行计时（见TimedStatementHandler）
+ * - MeterRegistry延迟获取，避免数据源初始化时依赖尚未创建的监控组件
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+public class MonitoredDataSource extends DelegatingDataSource {
+
+    /**
+     * 连接持有时间指标名称
+     */
+    public static final String HOLD_METRIC = "jdbc.connection.hold";
+
+    /**
+     * 指标注册表的延迟获取方式，获取不到时不记录指标
+     */
+    private final Supplier<MeterRegistry> meterRegistry;
+
+    /**
+     * 慢SQL日志的延迟获取方式，获取不到或未启用时不包装Statement
+     */
+    private final Supplier<SlowQueryLog> slowQueryLog;
+
+    /**
+     * 创建带监控的数据源（只记录连接持有时间）
+     *
+     * @param targetDataSource 被包装的真实数据源
+     * @param meterRegistry 指标注册表的获取方式，允许返回null
+     */
+    public MonitoredDataSource(DataSource targetDataSource, Supplier<MeterRegistry> meterRegistry) {
+        this(targetDataSource, meterRegistry, () -> null);
+    }
+
+    /**
+     * 创建带监控的数据源
+     *
+     * @param targetDataSource 被包装的真实数据源
+     * @param meterRegistry 指标注册表的获取方式，允许返回null
+     * @param slowQueryLog 慢SQL日志的获取方式，允许返回null
+     */
+    public MonitoredDataSource(DataSource targetDataSource, Supplier<MeterRegistry> meterRegistry,
+                               Supplier<SlowQueryLog> slowQueryLog) {
+        super(targetDataSource);
+        this.meterRegistry = meterRegistry;
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    /**
+     * 为借出的连接创建计时代理
+     *
+     * @param target 连接池返回的原始连接
+     * @return 计时代理连接
+     */
+    protected Connection wrap(Connection target) {
+        return (Connection) Proxy.newProxyInstance(
+                ConnectionProxy.class.getClassLoader(),
+                new Class<?>[]{ConnectionProxy.class},
+                new HoldTimeHandler(target, slowQueryLog.get()));
+    }
+
+    /**
+     * 记录一次连接持有时间
+     *
+     * @param holdNanos 持有时长（纳秒）
+     */
+    private void recordHold(long holdNanos) {
+        MeterRegistry registry = meterRegistry.get();
+        if (registry == null) {
+            return;
+        }
+        RequestEndpoint endpoint = RequestEndpoint.current();
+        registry.timer(HOLD_METRIC, "method", endpoint.method(), "uri", endpoint.uri())
+                .record(holdNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 连接代理的调用处理器：转发所有调用，在close()时记录持有时间，并为创建的Statement添加计时代理
+     */
+    private class HoldTimeHandler implements InvocationHandler {
+
+        private final Connection target;
+        private final SlowQueryLog slowQueryLog;
+        private final long acquiredAt = System.nanoTime();
+        private boolean closed;
+
+        HoldTimeHandler(Connection target, SlowQueryLog slowQueryLog) {
+            this.target = target;
+            this.slowQueryLog = slowQueryLog != null && slowQueryLog.isEnabled() ? slowQueryLog : null;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "getTargetConnection":
+                    return target;
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        recordHold(System.nanoTime() - acquiredAt);
+                    }
+                    break;
+                default:
+                    break;
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+            if (slowQueryLog != null && result instanceof Statement statement) {
+                // prepareStatement/prepareCall的第一个参数是SQL，createStatement在执行时才提供SQL
+                String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+                return TimedStatementHandler.wrap(statement, sql, slowQueryLog);
+            }
+            return result;
+        }
+    }
+}
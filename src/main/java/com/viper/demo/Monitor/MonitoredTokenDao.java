@@ -0,0 +1,139 @@
+package com.viper.demo.Monitor;
+
+import cn.dev33.satoken.dao.SaTokenDaoDefaultImpl;
+import com.viper.demo.Monitor.Jfr.TokenCreateEvent;
+import com.viper.demo.Monitor.Jfr.TokenExpireEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * 带监控的SA-Token存储实现
+ *
+ * 继承SA-Token默认的内存存储实现，对热路径上的读写操作计时
+ * 注册为Spring Bean后，SA-Token会自动使用它替换默认的SaTokenDao
+ *
+ * 监控指标（实现MeterBinder，由Spring Boot自动注册）：
+ * - satoken.dao.operation{op=get|set|update_timeout|delete|get_object|set_object}：各操作耗时
+ *   get为token -> loginId查找，每个需要登录的请求都会执行；get_object为读取会话对象
+ *
+ * 不提供键数量指标：统计键数量需要遍历全部键（searchData），换成Redis存储时相当于KEYS *，
+ * 每次采集都执行一次全量扫描；在线人数等统计请使用业务侧的计数
+ *
+ * JFR事件（只针对token键，即 {tokenName}:{loginType}:token:{tokenValue}）：
+ * - TokenCreate：写入token（登录）
+ * - TokenExpire：续期或删除token（注销、踢人下线、顶人下线）
+ *
+ * 注意事项：
+ * - 绑定指标之前（应用启动早期）的操作不计时
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+@Component
+public class MonitoredTokenDao extends SaTokenDaoDefaultImpl implements MeterBinder {
+
+    public static final String OPERATION_METRIC = "satoken.dao.operation";
+
+    /**
+     * token键中的类型段，用于区分token映射和会话等其他数据
+     */
+    private static final String TOKEN_SEGMENT = ":token:";
+
+    private volatile Timer getTimer;
+    private volatile Timer setTimer;
+    private volatile Timer updateTimeoutTimer;
+    private volatile Timer deleteTimer;
+    private volatile Timer getObjectTimer;
+    private volatile Timer setObjectTimer;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        getTimer = registry.timer(OPERATION_METRIC, "op", "get");
+        setTimer = registry.timer(OPERATION_METRIC, "op", "set");
+        updateTimeoutTimer = registry.timer(OPERATION_METRIC, "op", "update_timeout");
+        deleteTimer = registry.timer(OPERATION_METRIC, "op", "delete");
+        getObjectTimer = registry.timer(OPERATION_METRIC, "op", "get_object");
+        setObjectTimer = registry.timer(OPERATION_METRIC, "op", "set_object");
+    }
+
+    @Override
+    public String get(String key) {
+        return time(getTimer, () -> super.get(key));
+    }
+
+    @Override
+    public void set(String key, String value, long timeout) {
+        if (!isTokenKey(key)) {
+            time(setTimer, () -> super.set(key, value, timeout));
+            return;
+        }
+        TokenCreateEvent event = new TokenCreateEvent();
+        event.begin();
+        try {
+            time(setTimer, () -> super.set(key, value, timeout));
+        } catch (RuntimeException e) {
+            event.complete("error", value, timeout);
+            throw e;
+        }
+        event.complete("success", value, timeout);
+    }
+
+    @Override
+    public void updateTimeout(String key, long timeout) {
+        if (!isTokenKey(key)) {
+            time(updateTimeoutTimer, () -> super.updateTimeout(key, timeout));
+            return;
+        }
+        TokenExpireEvent event = new TokenExpireEvent();
+        event.begin();
+        // 只有开启录制时才额外读取一次token对应的登录ID
+        String loginId = event.isEnabled() ? super.get(key) : null;
+        time(updateTimeoutTimer, () -> super.updateTimeout(key, timeout));
+        event.complete(loginId != null ? "renewed" : "missing", loginId, timeout);
+    }
+
+    @Override
+    public void delete(String key) {
+        if (!isTokenKey(key)) {
+            time(deleteTimer, () -> super.delete(key));
+            return;
+        }
+        TokenExpireEvent event = new TokenExpireEvent();
+        event.begin();
+        // 只有开启录制时才额外读取一次token对应的登录ID
+        String loginId = event.isEnabled() ? super.get(key) : null;
+        time(deleteTimer, () -> super.delete(key));
+        event.complete(loginId != null ? "deleted" : "missing", loginId, 0);
+    }
+
+    @Override
+    public Object getObject(String key) {
+        return time(getObjectTimer, () -> super.getObject(key));
+    }
+
+    @Override
+    public void setObject(String key, Object object, long timeout) {
+        time(setObjectTimer, () -> super.setObject(key, object, timeout));
+    }
+
+    private static boolean isTokenKey(String key) {
+        return key != null && key.contains(TOKEN_SEGMENT);
+    }
+
+    private static <T> T time(Timer timer, Supplier<T> operation) {
+        return timer == null ? operation.get() : timer.record(operation);
+    }
+
+    private static void time(Timer timer, Runnable operation) {
+        if (timer == null) {
+            operation.run();
+        } else {
+            timer.record(operation);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.viper.demo.Monitor;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * 当前请求的接口标识
+ *
+ * 用于把数据库访问等底层操作归属到具体的Controller接口上
+ * 接口路径使用Spring MVC匹配到的路径模板（如 /user/{userId}），而不是原始URI，
+ * 避免路径参数导致指标标签数量无限增长
+ *
+ * 取值规则：
+ * - 不在HTTP请求线程中（如后台任务）：method和uri均为"none"
+ * - 在请求中但尚未完成接口匹配（如过滤器阶段）：uri为"UNKNOWN"
+ *
+ * @param method HTTP方法，如GET、POST
+ * @param uri 接口路径模板，如/user/list
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+public record RequestEndpoint(String method, String uri) {
+
+    /**
+     * 非HTTP请求上下文时使用的标识
+     */
+    public static final RequestEndpoint NONE = new RequestEndpoint("none", "none");
+
+    /**
+     * 获取当前线程所处理请求的接口标识
+     *
+     * @return 接口标识，不在请求上下文中时返回 {@link #NONE}
+     */
+    public static RequestEndpoint current() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return NONE;
+        }
+        HttpServletRequest request = servletAttributes.getRequest();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return new RequestEndpoint(request.getMethod(), pattern != null ? pattern.toString() : "UNKNOWN");
+    }
+}
@@ -0,0 +1,199 @@
+package com.viper.demo.Monitor;
+
+import cn.dev33.satoken.stp.StpUtil;
+import com.viper.demo.Pojo.SlowQuery;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 慢SQL日志
+ *
+ * MonitoredDataSource对每条JDBC语句计时，执行时间超过阈值的语句交给该类处理：
+ * 1. 归属到当前Controller接口（RequestEndpoint）和当前登录用户
+ * 2. 输出一条WARN日志，包含耗时、行数、SQL和绑定参数
+ * 3. 写入固定容量的环形缓冲区，管理员接口从中取出最慢的top-n条
+ *
+ * 设计说明：
+ * - 未超过阈值的语句只有一次计时和比较，不创建记录、不读取登录信息
+ * - 环形缓冲区写入无锁，容量固定，新记录覆盖最旧的记录
+ * - 查询语句的行数在结果集关闭时才能确定，因此慢查询的日志在结果集关闭时输出
+ *
+ * 绑定参数：
+ * - 默认不记录，需要排查时通过include-parameters临时开启
+ * - 开启时，SQL中出现password列的语句（注册INSERT、修改密码、密码迁移的批量UPDATE、查询User实体的SELECT等）
+ *   所有参数都替换为***：按位置无法可靠判断哪个参数属于password列，整条语句的参数一律不输出，只保留参数个数
+ *
+ * 配置项（application.properties）：
+ * - demo.slow-query.enabled：是否启用语句计时
+ * - demo.slow-query.threshold-ms：慢SQL阈值（毫秒）
+ * - demo.slow-query.buffer-size：环形缓冲区容量
+ * - demo.slow-query.top-n：管理员接口返回的条数
+ * - demo.slow-query.include-parameters：是否记录绑定参数（默认false）
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+@Slf4j
+@Component
+public class SlowQueryLog {
+
+    /**
+     * 单个参数值记录的最大长度，超出部分截断
+     */
+    private static final int MAX_PARAMETER_LENGTH = 64;
+
+    /**
+     * 脱敏后的参数值
+     */
+    static final String REDACTED = "***";
+
+    /**
+     * 出现该列名的语句，参数全部脱敏
+     */
+    private static final String SENSITIVE_COLUMN = "password";
+
+    private final boolean enabled;
+    private final long thresholdNanos;
+    private final int topN;
+    private final boolean includeParameters;
+
+    /**
+     * 最近的慢SQL记录（环形缓冲区）
+     */
+    private final AtomicReferenceArray<SlowQuery> buffer;
+
+    /**
+     * 下一个写入位置（单调递增，对容量取模）
+     */
+    private final AtomicLong cursor = new AtomicLong();
+
+    public SlowQueryLog(@Value("${demo.slow-query.enabled:true}") boolean enabled,
+                        @Value("${demo.slow-query.threshold-ms:100}") long thresholdMillis,
+                        @Value("${demo.slow-query.buffer-size:256}") int bufferSize,
+                        @Value("${demo.slow-query.top-n:20}") int topN,
+                        @Value("${demo.slow-query.include-parameters:false}") boolean includeParameters) {
+        this.enabled = enabled;
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.buffer = new AtomicReferenceArray<>(bufferSize);
+        this.topN = topN;
+        this.includeParameters = includeParameters;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isIncludeParameters() {
+        return includeParameters;
+    }
+
+    /**
+     * 判断一条语句是否为慢SQL
+     *
+     * @param elapsedNanos 执行耗时（纳秒）
+     * @return 超过阈值返回true
+     */
+    public boolean isSlow(long elapsedNanos) {
+        return elapsedNanos >= thresholdNanos;
+    }
+
+    /**
+     * 记录一条慢SQL
+     *
+     * 需要在执行语句的线程中调用，以便归属到当前接口和用户
+     *
+     * @param sql SQL语句
+     * @param parameters 绑定参数，下标为参数位置减1
+     * @param elapsedNanos 执行耗时（纳秒）
+     * @param rows 返回或影响的行数，未知时为-1
+     * @param startedAt 开始执行的时间
+     */
+    public void record(String sql, Object[] parameters, long elapsedNanos, long rows, Instant startedAt) {
+        RequestEndpoint endpoint = RequestEndpoint.current();
+        SlowQuery query = new SlowQuery(
+                sql,
+                formatParameters(sql, parameters),
+                elapsedNanos / 1_000_000.0,
+                rows,
+                endpoint.method(),
+                endpoint.uri(),
+                currentLoginId(endpoint),
+                startedAt);
+        buffer.set((int) (cursor.getAndIncrement() % buffer.length()), query);
+        log.warn("慢SQL {}ms rows={} endpoint={} {} loginId={} sql={} params={}",
+                String.format("%.1f", query.durationMs()), rows, query.method(), query.uri(),
+                query.loginId(), sql, query.parameters());
+    }
+
+    /**
+     * 获取缓冲区中最慢的top-n条记录
+     *
+     * @return 按耗时从高到低排列的慢SQL记录
+     */
+    public List<SlowQuery> slowest() {
+        List<SlowQuery> queries = new ArrayList<>(buffer.length());
+        for (int i = 0; i < buffer.length(); i++) {
+            SlowQuery query = buffer.get(i);
+            if (query != null) {
+                queries.add(query);
+            }
+        }
+        queries.sort(Comparator.comparingDouble(SlowQuery::durationMs).reversed());
+        return queries.size() > topN ? List.copyOf(queries.subList(0, topN)) : queries;
+    }
+
+    /**
+     * 清空缓冲区
+     */
+    public void clear() {
+        for (int i = 0; i < buffer.length(); i++) {
+            buffer.set(i, null);
+        }
+    }
+
+    private List<String> formatParameters(String sql, Object[] parameters) {
+        if (!includeParameters || parameters == null || parameters.length == 0) {
+            return List.of();
+        }
+        List<String> values = new ArrayList<>(parameters.length);
+        if (isSensitive(sql)) {
+            for (int i = 0; i < parameters.length; i++) {
+                values.add(REDACTED);
+            }
+            return values;
+        }
+        for (Object parameter : parameters) {
+            String value = String.valueOf(parameter);
+            values.add(value.length() > MAX_PARAMETER_LENGTH ? value.substring(0, MAX_PARAMETER_LENGTH) + "..." : value);
+        }
+        return values;
+    }
+
+    private static boolean isSensitive(String sql) {
+        return sql != null && sql.toLowerCase(Locale.ROOT).contains(SENSITIVE_COLUMN);
+    }
+
+    private static String currentLoginId(RequestEndpoint endpoint) {
+        if (endpoint == RequestEndpoint.NONE) {
+            return null;
+        }
+        try {
+            Object loginId = StpUtil.getLoginIdDefaultNull();
+            return loginId != null ? loginId.toString() : null;
+        } catch (RuntimeException e) {
+            // 没有SA-Token上下文（如异步线程复制了请求属性）时不归属用户
+            return null;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.viper.demo.Monitor;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * JDBC语句计时代理
+ *
+ * 由MonitoredDataSource为连接创建的每个Statement生成，负责：
+ * - 记录PreparedStatement按位置绑定的参数（setXxx(int, value, ...)）
+ * - 对每次execute*调用计时，超过阈值时交给SlowQueryLog
+ * - 慢查询返回的ResultSet再包装一层，统计读取的行数，在结果集或语句关闭时输出记录
+ *
+ * 未超过阈值的语句直接返回原始结果，不包装结果集
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+final class TimedStatementHandler implements InvocationHandler {
+
+    private static final Object[] NO_PARAMETERS = new Object[0];
+
+    private final Statement target;
+    private final String sql;
+    private final SlowQueryLog slowQueryLog;
+
+    /**
+     * 当前绑定的参数，下标为参数位置减1
+     */
+    private Object[] parameters = NO_PARAMETERS;
+
+    /**
+     * 等待结果集关闭后输出的慢查询
+     */
+    private PendingQuery pending;
+
+    private TimedStatementHandler(Statement target, String sql, SlowQueryLog slowQueryLog) {
+        this.target = target;
+        this.sql = sql;
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    /**
+     * 为语句创建计时代理
+     *
+     * @param statement 连接创建的原始语句
+     * @param sql 预编译的SQL，createStatement()创建的语句为null，执行时再从参数中获取
+     * @param slowQueryLog 慢SQL日志
+     * @return 与原始语句类型一致的代理
+     */
+    static Statement wrap(Statement statement, String sql, SlowQueryLog slowQueryLog) {
+        Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                : statement instanceof PreparedStatement ? PreparedStatement.class
+                : Statement.class;
+        return (Statement) Proxy.newProxyInstance(
+                TimedStatementHandler.class.getClassLoader(),
+                new Class<?>[]{type},
+                new TimedStatementHandler(statement, sql, slowQueryLog));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        switch (name) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "clearParameters":
+                parameters = NO_PARAMETERS;
+                break;
+            case "close":
+                flushPending();
+                break;
+            default:
+                if (name.startsWith("execute")) {
+                    return execute(method, args);
+                }
+                if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                    bindParameter(index, "setNull".equals(name) ? null : args[1]);
+                }
+                break;
+        }
+        return invokeTarget(target, method, args);
+    }
+
+    private Object execute(Method method, Object[] args) throws Throwable {
+        long start = System.nanoTime();
+        Object result = invokeTarget(target, method, args);
+        long elapsed = System.nanoTime() - start;
+        if (!slowQueryLog.isSlow(elapsed)) {
+            return result;
+        }
+
+        // 只有慢SQL才需要墙钟时间，由结束时间倒推开始时间
+        Instant startedAt = Instant.now().minusNanos(elapsed);
+        String executedSql = args != null && args.length > 0 && args[0] instanceof String text ? text : sql;
+        Object[] boundParameters = parameters.clone();
+        if (result instanceof ResultSet resultSet) {
+            flushPending();
+            pending = new PendingQuery(executedSql, boundParameters, elapsed, startedAt);
+            return Proxy.newProxyInstance(
+                    TimedStatementHandler.class.getClassLoader(),
+                    new Class<?>[]{ResultSet.class},
+                    new RowCountingHandler(resultSet, pending));
+        }
+        slowQueryLog.record(executedSql, boundParameters, elapsed, rowCount(result), startedAt);
+        return result;
+    }
+
+    private void bindParameter(int index, Object value) {
+        if (!slowQueryLog.isIncludeParameters() || index < 1) {
+            return;
+        }
+        if (index > parameters.length) {
+            parameters = Arrays.copyOf(parameters, Math.max(index, parameters.length * 2));
+        }
+        parameters[index - 1] = value;
+    }
+
+    private void flushPending() {
+        if (pending != null) {
+            pending.flush();
+            pending = null;
+        }
+    }
+
+    private static long rowCount(Object result) {
+        if (result instanceof Integer count) {
+            return count;
+        }
+        if (result instanceof Long count) {
+            return count;
+        }
+        if (result instanceof int[] counts) {
+            return Arrays.stream(counts).filter(count -> count >= 0).asLongStream().sum();
+        }
+        if (result instanceof long[] counts) {
+            return Arrays.stream(counts).filter(count -> count >= 0).sum();
+        }
+        return -1;
+    }
+
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    /**
+     * 等待统计行数的慢查询
+     */
+    private final class PendingQuery {
+
+        private final String sql;
+        private final Object[] parameters;
+        private final long elapsedNanos;
+        private final Instant startedAt;
+        private long rows;
+        private boolean flushed;
+
+        PendingQuery(String sql, Object[] parameters, long elapsedNanos, Instant startedAt) {
+            this.sql = sql;
+            this.parameters = parameters;
+            this.elapsedNanos = elapsedNanos;
+            this.startedAt = startedAt;
+        }
+
+        void flush() {
+            if (!flushed) {
+                flushed = true;
+                slowQueryLog.record(sql, parameters, elapsedNanos, rows, startedAt);
+            }
+        }
+    }
+
+    /**
+     * 结果集代理：统计next()读取到的行数，关闭时输出慢查询记录
+     */
+    private static final class RowCountingHandler implements InvocationHandler {
+
+        private final ResultSet target;
+        private final PendingQuery pending;
+
+        RowCountingHandler(ResultSet target, PendingQuery pending) {
+            this.target = target;
+            this.pending = pending;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "next": {
+                    Object hasRow = invokeTarget(target, method, args);
+                    if (Boolean.TRUE.equals(hasRow)) {
+                        pending.rows++;
+                    }
+                    return hasRow;
+                }
+                case "close":
+                    pending.flush();
+                    break;
+                default:
+                    break;
+            }
+            return invokeTarget(target, method, args);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.viper.demo.Pojo;
+
+/**
+ * 账号状态投影（只读）
+ *
+ * 权限和角色解析（StpInterfaceImpl）专用的最小数据视图
+ * 当前的权限分配策略只依赖用户名和删除标记，因此只查询这两列
+ *
+ * 与User实体的区别：
+ * - 不读取密码、邮箱、手机号、时间戳等无关列
+ * - 不是JPA实体，不进入持久化上下文
+ * - 不可变，可以安全地在线程间共享
+ *
+ * @param username 用户名
+ * @param isDelete 删除标记：0表示正常，1表示已删除
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+public record AccountStatus(String username, Integer isDelete) {
+
+    /**
+     * 判断账号是否已被逻辑删除（禁用）
+     *
+     * @return true表示已删除，false表示正常（isDelete为null视为正常）
+     */
+    public boolean deleted() {
+        return isDelete != null && isDelete == 1;
+    }
+
+    /**
+     * 从完整的User实体构建账号状态
+     *
+     * @param user 用户实体，可以为null
+     * @return 账号状态，user为null时返回null
+     */
+    public static AccountStatus of(User user) {
+        if (user == null) {
+            return null;
+        }
+        return new AccountStatus(user.getUsername(), user.getIsDelete());
+    }
+}
@@ -0,0 +1,96 @@
+package com.viper.demo.Pojo;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 用户的紧凑缓存表示（不可变）
+ *
+ * 内存缓存中保存大量用户时使用，代替直接缓存User实体或UserProfile
+ *
+ * 与User实体相比节省的内存（64位JVM、压缩指针）：
+ * - id、删除标记使用基本类型，不再有Integer装箱对象（id超过127时每个用户一个Integer对象）
+ * - 时间使用epoch毫秒的long，不再有两个可变的java.util.Date对象（每个24字节）
+ * - 不保存密码，缓存中不会出现密码或密码哈希
+ * - 只有一个对象头：User实体 + 2个Date + Integer约104字节，本记录48字节（字符串另计）
+ *
+ * 字符串：
+ * 直接引用来源对象的字符串，不复制；用户名、邮箱、手机号基本每个用户都不同，
+ * 放入JVM字符串常量池（String.intern）不会减少内存，反而让常量池随用户数增长，
+ * 重复的字符串内容交给G1的字符串去重（-XX:+UseStringDeduplication）处理
+ *
+ * 时间字段为null时保存为NO_TIME，转换回UserProfile时还原为null；
+ * 删除标记为null时视为未删除
+ *
+ * 内存占用的对比见CachedUserTest.testFootprintPerUser
+ *
+ * @param id 用户ID
+ * @param username 用户名
+ * @param email 邮箱地址
+ * @param phone 手机号码
+ * @param deleted 是否已被逻辑删除
+ * @param createTimeMillis 创建时间（epoch毫秒），没有时为NO_TIME
+ * @param updateTimeMillis 更新时间（epoch毫秒），没有时为NO_TIME
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+public record CachedUser(int id, String username, String email, String phone, boolean deleted,
+                         long createTimeMillis, long updateTimeMillis) implements Serializable {
+
+    /**
+     * 没有时间值时的占位
+     */
+    public static final long NO_TIME = Long.MIN_VALUE;
+
+    /**
+     * 从User实体构建（不包含密码）
+     *
+     * @param user 用户实体，可以为null
+     * @return 紧凑表示，user为null时返回null
+     */
+    public static CachedUser of(User user) {
+        if (user == null) {
+            return null;
+        }
+        return new CachedUser(user.getId(), user.getUsername(), user.getEmail(), user.getPhone(),
+                isDeleted(user.getIsDelete()), toMillis(user.getCreateTime()), toMillis(user.getUpdateTime()));
+    }
+
+    /**
+     * 从用户资料构建
+     *
+     * @param profile 用户资料，可以为null
+     * @return 紧凑表示，profile为null时返回null
+     */
+    public static CachedUser of(UserProfile profile) {
+        if (profile == null) {
+            return null;
+        }
+        return new CachedUser(profile.id(), profile.username(), profile.email(), profile.phone(),
+                isDeleted(profile.isDelete()), toMillis(profile.createTime()), toMillis(profile.updateTime()));
+    }
+
+    /**
+     * 转换为接口返回的用户资料，每次调用都创建新的Date对象，调用方可以随意修改
+     *
+     * @return 用户资料
+     */
+    public UserProfile toProfile() {
+        return new UserProfile(id, username, email, phone, deleted ? 1 : 0,
+                toDate(createTimeMillis), toDate(updateTimeMillis));
+    }
+
+    private static boolean isDeleted(Integer isDelete) {
+        return isDelete != null && isDelete == 1;
+    }
+
+    private static long toMillis(Date date) {
+        return date == null ? NO_TIME : date.getTime();
+    }
+
+    private static Date toDate(long millis) {
+        return millis == NO_TIME ? null : new Date(millis);
+    }
+}
@@ -0,0 +1,27 @@
+package com.viper.demo.Pojo;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * 管理员控制台响应数据（不可变DTO）
+ *
+ * JSON格式示例：
+ * ```json
+ * {
+ *   "message": "欢迎进入管理员控制台",
+ *   "totalUsers": 5,
+ *   "currentAdmin": 1
+ * }
+ * ```
+ *
+ * @param message 欢迎信息
+ * @param totalUsers 系统用户总数
+ * @param currentAdmin 当前管理员用户ID
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+@JsonPropertyOrder({"message", "totalUsers", "currentAdmin"})
+public record DashboardInfo(String message, long totalUsers, Integer currentAdmin) {
+}
@@ -0,0 +1,48 @@
+package com.viper.demo.Pojo;
+
+import java.util.Date;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 后台任务检查点实体类
+ *
+ * 长时间运行、按主键顺序处理数据的后台任务（如PasswordRehashMigrator）在每批提交时记录处理到的位置，
+ * 应用重启或任务中断后从该位置继续，不需要从头扫描
+ *
+ * 数据库映射：
+ * - 表名：job_checkpoint
+ * - 主键：name（任务名称）
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+@Data
+@Table(name = "job_checkpoint")
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+public class JobCheckpoint {
+
+    /**
+     * 任务名称
+     */
+    @Id
+    private String name;
+
+    /**
+     * 已处理到的主键（该主键及之前的行都已处理）
+     */
+    private Integer position;
+
+    /**
+     * 检查点的更新时间
+     */
+    private Date updateTime;
+}
@@ -0,0 +1,73 @@
+package com.viper.demo.Pojo;
+
+import java.util.Date;
+
+/**
+ * 登录凭证投影（只读）
+ *
+ * 登录热路径专用的最小数据视图，只包含校验账号和构建登录响应所需的字段
+ * 不是JPA实体，不会进入持久化上下文，也不会产生脏检查快照
+ *
+ * 字段说明：
+ * - id：用户ID，作为SA-Token的登录标识
+ * - password：存储的密码（或密码哈希）
+ * - isDelete：删除标记，用于判断账号是否被禁用
+ * - email、phone：登录接口响应中需要返回给前端的字段
+ * - createTime、updateTime：登录成功后写入会话的资料快照需要（见ProfileSnapshotStore）
+ *
+ * 与User实体的区别：
+ * - 不是受管实体，没有实体快照和脏检查
+ * - 不可变，可以安全地在线程间共享
+ *
+ * 数据来源：
+ * - JPA模式：UserRepository查询
+ * - MyBatis模式：UserLoginMapper手写SQL查询
+ *
+ * @param id 用户ID
+ * @param password 存储的密码
+ * @param isDelete 删除标记：0表示正常，1表示已删除
+ * @param email 邮箱地址
+ * @param phone 手机号码
+ * @param createTime 创建时间
+ * @param updateTime 更新时间
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+public record LoginCredential(Integer id, String password, Integer isDelete, String email, String phone,
+                              Date createTime, Date updateTime) {
+
+    /**
+     * 判断账号是否已被逻辑删除（禁用）
+     *
+     * @return true表示已删除，false表示正常（isDelete为null视为正常）
+     */
+    public boolean deleted() {
+        return isDelete != null && isDelete == 1;
+    }
+
+    /**
+     * 从完整的User实体构建登录凭证
+     *
+     * @param user 用户实体，可以为null
+     * @return 登录凭证，user为null时返回null
+     */
+    public static LoginCredential of(User user) {
+        if (user == null) {
+            return null;
+        }
+        return new LoginCredential(user.getId(), user.getPassword(), user.getIsDelete(),
+                user.getEmail(), user.getPhone(), user.getCreateTime(), user.getUpdateTime());
+    }
+
+    /**
+     * 构建不含密码的用户资料，登录成功后写入会话快照
+     *
+     * @param username 用户名（登录按用户名精确匹配，与请求中的用户名一致）
+     * @return 用户资料
+     */
+    public UserProfile toProfile(String username) {
+        return new UserProfile(id, username, email, phone, isDelete, createTime, updateTime);
+    }
+}
@@ -0,0 +1,35 @@
+package com.viper.demo.Pojo;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * 登录成功响应数据（不可变DTO）
+ *
+ * 替代原来的HashMap<String, Object>响应体
+ * 字段类型在编译期确定，Jackson可以为该类型缓存固定的序列化器，
+ * 避免每次响应都创建HashMap、对基本类型装箱以及按值类型动态查找序列化器
+ *
+ * JSON格式示例：
+ * ```json
+ * {
+ *   "token": "uuid-token-value",
+ *   "userId": 1,
+ *   "username": "admin",
+ *   "email": "admin@example.com",
+ *   "phone": "13800138000"
+ * }
+ * ```
+ *
+ * @param token SA-Token生成的会话令牌
+ * @param userId 用户ID
+ * @param username 用户名
+ * @param email 邮箱地址
+ * @param phone 手机号码
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+@JsonPropertyOrder({"token", "userId", "username", "email", "phone"})
+public record LoginResponse(String token, Integer userId, String username, String email, String phone) {
+}
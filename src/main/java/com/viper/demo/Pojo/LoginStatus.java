@@ -0,0 +1,35 @@
+package com.viper.demo.Pojo;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * 登录状态响应数据（不可变DTO）
+ *
+ * 未登录时userId和token为null，不会输出到JSON中，
+ * 与原来HashMap响应只包含isLogin字段的格式保持一致
+ *
+ * JSON格式示例：
+ * ```json
+ * { "isLogin": true, "userId": 1, "token": "uuid-token-value" }
+ * { "isLogin": false }
+ * ```
+ *
+ * @param isLogin 是否已登录
+ * @param userId 当前登录用户ID，未登录时为null
+ * @param token 当前会话Token，未登录时为null
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({"isLogin", "userId", "token"})
+public record LoginStatus(@JsonProperty("isLogin") boolean isLogin, Integer userId, String token) {
+
+    /**
+     * 未登录状态的共享实例
+     */
+    public static final LoginStatus ANONYMOUS = new LoginStatus(false, null, null);
+}
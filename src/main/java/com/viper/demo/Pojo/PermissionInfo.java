@@ -0,0 +1,29 @@
+package com.viper.demo.Pojo;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.util.List;
+
+/**
+ * 当前用户权限和角色响应数据（不可变DTO）
+ *
+ * JSON格式示例：
+ * ```json
+ * {
+ *   "permissions": ["user:info", "user:update"],
+ *   "roles": ["user"],
+ *   "userId": 2
+ * }
+ * ```
+ *
+ * @param permissions 权限码列表
+ * @param roles 角色标识列表
+ * @param userId 当前登录用户ID
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+@JsonPropertyOrder({"permissions", "roles", "userId"})
+public record PermissionInfo(List<String> permissions, List<String> roles, Integer userId) {
+}
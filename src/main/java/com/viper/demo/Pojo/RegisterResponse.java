@@ -0,0 +1,29 @@
+package com.viper.demo.Pojo;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * 注册成功响应数据（不可变DTO）
+ *
+ * JSON格式示例：
+ * ```json
+ * {
+ *   "userId": 3,
+ *   "username": "newuser",
+ *   "email": "newuser@example.com",
+ *   "message": "注册成功"
+ * }
+ * ```
+ *
+ * @param userId 新用户ID
+ * @param username 用户名
+ * @param email 邮箱地址
+ * @param message 成功提示信息
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+@JsonPropertyOrder({"userId", "username", "email", "message"})
+public record RegisterResponse(Integer userId, String username, String email, String message) {
+}
@@ -0,0 +1,18 @@
+package com.viper.demo.Pojo;
+
+/**
+ * 一条待写回的密码迁移结果（只读）
+ *
+ * previous是读取时的明文，写回时作为乐观条件：
+ * 读取之后密码被用户修改过的行不会被覆盖
+ *
+ * @param id 用户ID
+ * @param previous 读取时存储的密码
+ * @param hash 新的PBKDF2哈希
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+public record RehashedPassword(Integer id, String previous, String hash) {
+}
@@ -0,0 +1,44 @@
+package com.viper.demo.Pojo;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * 慢SQL记录（只读DTO）
+ *
+ * 由SlowQueryLog在语句执行时间超过阈值时创建，
+ * 通过 GET /user/admin/slow-queries 返回给管理员
+ *
+ * JSON格式示例：
+ * ```json
+ * {
+ *   "sql": "select u1_0.id,u1_0.password from user u1_0 where u1_0.username=?",
+ *   "parameters": ["admin"],
+ *   "durationMs": 152.3,
+ *   "rows": 1,
+ *   "method": "POST",
+ *   "uri": "/auth/login",
+ *   "loginId": null,
+ *   "executedAt": "2024-01-01T00:00:00Z"
+ * }
+ * ```
+ *
+ * @param sql 执行的SQL语句
+ * @param parameters 绑定参数（按参数位置排列），未开启参数记录时为空列表
+ * @param durationMs 语句执行耗时（毫秒），不包括读取结果集的时间
+ * @param rows 查询返回的行数或更新影响的行数，无法确定时为-1
+ * @param method 发起语句的HTTP方法，非请求线程为none
+ * @param uri 发起语句的接口路径模板，非请求线程为none
+ * @param loginId 当前登录用户ID，未登录或非请求线程为null
+ * @param executedAt 语句开始执行的时间
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+@JsonPropertyOrder({"sql", "parameters", "durationMs", "rows", "method", "uri", "loginId", "executedAt"})
+public record SlowQuery(String sql, List<String> parameters, double durationMs, long rows,
+                        String method, String uri, String loginId, Instant executedAt) {
+}
@@ -0,0 +1,16 @@
+package com.viper.demo.Pojo;
+
+/**
+ * 用户ID和存储的密码（只读）
+ *
+ * PasswordRehashMigrator按批读取user表时使用的最小投影，不是JPA实体，不进入持久化上下文
+ *
+ * @param id 用户ID
+ * @param password 存储的密码：PBKDF2哈希或历史明文
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+public record StoredPassword(Integer id, String password) {
+}
@@ -0,0 +1,66 @@
+package com.viper.demo.Pojo;
+
+import java.util.Date;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 已归档用户实体类
+ *
+ * 逻辑删除超过保留期的用户由UserArchiver从user表移动到该表，
+ * user表只保留正常用户和最近删除的用户，登录等热点查询依赖的索引不会随已删除用户无限增长
+ *
+ * 数据库映射：
+ * - 表名：user_archive
+ * - 主键：id（沿用原user表的ID，不自增）
+ * - 字段与User实体一一对应，额外记录归档时间
+ * - password列保留但始终为NULL：归档用户不能登录，不保存密码（见UserArchiveMapper）
+ *
+ * 业务规则：
+ * - 归档用户的用户名和邮箱仍然占用，注册时一并检查（见UserServiceImpl.existsByUsername）
+ * - 归档数据只用于审计和恢复，不参与登录、权限等业务查询
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+@Data
+@Table(name = "user_archive")
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserArchive {
+
+    /**
+     * 用户ID，沿用原user表的主键
+     */
+    @Id
+    private Integer id;
+
+    private String username;
+
+    private String password;
+
+    private String email;
+
+    private String phone;
+
+    private Integer isDelete;
+
+    private Date createTime;
+
+    /**
+     * 原user表的更新时间，即逻辑删除的时间
+     */
+    private Date updateTime;
+
+    /**
+     * 归档时间
+     */
+    private Date archiveTime;
+}
@@ -0,0 +1,30 @@
+package com.viper.demo.Pojo;
+
+import java.util.List;
+
+/**
+ * 用户授权信息（不可变）
+ *
+ * 一次性保存某个用户的权限码和角色标识
+ * StpInterfaceImpl通过一次账号状态查询同时计算出两者，并放入GrantCache，
+ * 之后的@SaCheckPermission、@SaCheckRole校验都直接读取缓存，不再访问数据库
+ *
+ * @param permissions 权限码列表，如["user:info", "user:update"]
+ * @param roles 角色标识列表，如["admin"]
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+public record UserGrants(List<String> permissions, List<String> roles) {
+
+    /**
+     * 没有任何权限和角色（用户不存在或已删除）
+     */
+    public static final UserGrants NONE = new UserGrants(List.of(), List.of());
+
+    public UserGrants {
+        permissions = List.copyOf(permissions);
+        roles = List.copyOf(roles);
+    }
+}
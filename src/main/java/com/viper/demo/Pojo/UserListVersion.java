@@ -0,0 +1,42 @@
+package com.viper.demo.Pojo;
+
+import java.util.Date;
+
+/**
+ * 用户列表的聚合版本
+ *
+ * 由一条聚合查询得到：用户总数和所有用户中最新的更新时间
+ * 注册会增加总数，修改资料和逻辑删除都会刷新updateTime，
+ * 因此只要列表内容发生变化，两个值中至少有一个会改变
+ *
+ * 用途：
+ * - GET /user/list 的ETag和Last-Modified
+ * - 客户端版本与当前版本一致时直接返回304，不查询和序列化完整列表
+ *
+ * @param count 用户总数（包含已删除用户，与findAllProfiles()的范围一致）
+ * @param lastModified 最新的更新时间，没有用户时为null
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+public record UserListVersion(Long count, Date lastModified) {
+
+    /**
+     * 最新更新时间的毫秒值
+     *
+     * @return 毫秒时间戳，没有用户时为0
+     */
+    public long lastModifiedMillis() {
+        return lastModified != null ? lastModified.getTime() : 0L;
+    }
+
+    /**
+     * 列表的实体标签
+     *
+     * @return ETag值（不含引号），如users-5-1704067200000
+     */
+    public String etag() {
+        return "users-" + count + "-" + lastModifiedMillis();
+    }
+}
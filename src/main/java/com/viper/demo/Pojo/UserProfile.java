@@ -0,0 +1,64 @@
+package com.viper.demo.Pojo;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 用户资料响应对象（只读DTO）
+ *
+ * 该类用于向前端返回用户信息，替代直接返回User实体
+ * 不包含密码字段，从结构上保证敏感信息不会被序列化到响应中
+ *
+ * 设计目的：
+ * 1. 安全隔离：不再需要在受管实体上调用setPassword(null)
+ * 2. 性能优化：由JPQL构造函数表达式直接创建，不进入持久化上下文
+ * 3. 生命周期清晰：查询在只读事务内完成，JSON序列化时不再占用数据库连接
+ * 4. 会话快照：登录后转换为紧凑的CachedUser保存在SA-Token账号会话中，读取时再转换回来（见ProfileSnapshotStore）
+ *
+ * 使用场景：
+ * - GET /auth/userInfo
+ * - GET /user/profile
+ * - GET /user/list
+ *
+ * JSON格式示例：
+ * ```json
+ * {
+ *   "id": 1,
+ *   "username": "admin",
+ *   "email": "admin@example.com",
+ *   "phone": "13800138000",
+ *   "isDelete": 0,
+ *   "createTime": "2024-01-01T00:00:00",
+ *   "updateTime": "2024-01-01T00:00:00"
+ * }
+ * ```
+ *
+ * @param id 用户ID
+ * @param username 用户名
+ * @param email 邮箱地址
+ * @param phone 手机号码
+ * @param isDelete 删除标记：0表示正常，1表示已删除
+ * @param createTime 创建时间
+ * @param updateTime 更新时间
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+public record UserProfile(Integer id, String username, String email, String phone,
+                          Integer isDelete, Date createTime, Date updateTime) implements Serializable {
+
+    /**
+     * 从完整的User实体构建用户资料
+     *
+     * @param user 用户实体，可以为null
+     * @return 用户资料（不含密码），user为null时返回null
+     */
+    public static UserProfile of(User user) {
+        if (user == null) {
+            return null;
+        }
+        return new UserProfile(user.getId(), user.getUsername(), user.getEmail(), user.getPhone(),
+                user.getIsDelete(), user.getCreateTime(), user.getUpdateTime());
+    }
+}
@@ -0,0 +1,19 @@
+package com.viper.demo.Repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.viper.demo.Pojo.JobCheckpoint;
+
+/**
+ * 后台任务检查点数据访问层接口
+ *
+ * 按任务名称读取和保存检查点，使用JpaRepository提供的findById和save即可
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+@Repository
+public interface JobCheckpointRepository extends JpaRepository<JobCheckpoint, String> {
+}
@@ -0,0 +1,39 @@
+package com.viper.demo.Repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.viper.demo.Pojo.UserArchive;
+
+/**
+ * 已归档用户数据访问层接口
+ *
+ * 归档数据的写入由UserArchiveMapper按批次完成，该接口只提供查询
+ *
+ * 使用场景：
+ * - 注册时检查用户名、邮箱是否被已归档用户占用（保持与归档前一致的全局唯一规则）
+ * - 审计和数据恢复
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+@Repository
+public interface UserArchiveRepository extends JpaRepository<UserArchive, Integer> {
+
+    /**
+     * 检查用户名是否被已归档用户占用
+     *
+     * @param username 用户名，精确匹配
+     * @return true表示已被占用
+     */
+    boolean existsByUsername(String username);
+
+    /**
+     * 检查邮箱地址是否被已归档用户占用
+     *
+     * @param email 邮箱地址，精确匹配
+     * @return true表示已被占用
+     */
+    boolean existsByEmail(String email);
+}
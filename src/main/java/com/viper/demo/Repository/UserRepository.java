@@ -1,12 +1,19 @@
 package com.viper.demo.Repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.viper.demo.Pojo.AccountStatus;
+import com.viper.demo.Pojo.LoginCredential;
 import com.viper.demo.Pojo.User;
+import com.viper.demo.Pojo.UserListVersion;
+import com.viper.demo.Pojo.UserProfile;
 
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -26,6 +33,7 @@ import java.util.Optional;
  * - 逻辑删除支持：过滤已删除用户的查询
  * - 存在性检查：用户名、邮箱唯一性验证
  * - 自定义JPQL查询：复杂业务逻辑查询
+ * - 定向更新：修改资料和逻辑删除只写被修改的列，不整行保存实体
  *
  * 命名规范：
  * - findBy*：查询方法，返回Optional<User>或List<User>
@@ -106,6 +114,115 @@ public interface UserRepository extends JpaRepository<User, Integer> {
     @Query("SELECT u FROM User u WHERE u.username = :username AND (u.isDelete IS NULL OR u.isDelete = 0)")
     Optional<User> findByUsernameAndNotDeleted(@Param("username") String username);
 
+    /**
+     * 根据用户名查询登录凭证投影（排除已删除的用户）
+     *
+     * 该方法使用JPQL构造函数表达式，只查询登录需要的列
+     * 查询结果直接构造为不可变的LoginCredential，不会创建受管实体
+     *
+     * 与findByUsernameAndNotDeleted的区别：
+     * - 只读取登录和构建会话资料快照需要的列
+     * - 不进入持久化上下文，没有实体快照和脏检查开销
+     * - 查询条件完全一致，已删除用户不会被返回
+     *
+     * 使用场景：
+     * - 用户登录验证（JPA模式）
+     *
+     * @param username 用户名，精确匹配，区分大小写
+     * @return Optional<LoginCredential> 登录凭证的Optional包装，已删除用户不会被返回
+     */
+    @Query("SELECT new com.viper.demo.Pojo.LoginCredential(u.id, u.password, u.isDelete, u.email, u.phone, u.createTime, u.updateTime) "
+            + "FROM User u WHERE u.username = :username AND (u.isDelete IS NULL OR u.isDelete = 0)")
+    Optional<LoginCredential> findLoginCredentialByUsername(@Param("username") String username);
+
+    /**
+     * 根据用户ID查询账号状态投影（包含已删除用户）
+     *
+     * 该方法只查询用户名和删除标记两列，供权限和角色解析使用
+     * 删除状态由调用方根据isDelete字段判断
+     *
+     * 生成的SQL类似：
+     * SELECT username, is_delete FROM user WHERE id = ?
+     *
+     * 使用场景：
+     * - StpInterfaceImpl获取权限列表和角色列表
+     *
+     * @param id 用户ID
+     * @return Optional<AccountStatus> 账号状态的Optional包装，用户不存在时为空
+     */
+    @Query("SELECT new com.viper.demo.Pojo.AccountStatus(u.username, u.isDelete) FROM User u WHERE u.id = :id")
+    Optional<AccountStatus> findAccountStatusById(@Param("id") Integer id);
+
+    /**
+     * 根据用户ID查询用户资料投影（排除已删除的用户）
+     *
+     * 该方法直接构造不含密码的UserProfile，用于个人资料类接口的响应
+     * 查询结果不是受管实体，序列化前无需再清空密码字段
+     *
+     * @param id 用户ID
+     * @return Optional<UserProfile> 用户资料的Optional包装，用户不存在或已删除时为空
+     */
+    @Query("SELECT new com.viper.demo.Pojo.UserProfile(u.id, u.username, u.email, u.phone, u.isDelete, u.createTime, u.updateTime) "
+            + "FROM User u WHERE u.id = :id AND (u.isDelete IS NULL OR u.isDelete = 0)")
+    Optional<UserProfile> findProfileById(@Param("id") Integer id);
+
+    /**
+     * 查询所有用户的资料投影（包含已删除用户）
+     *
+     * 与findAll()返回的数据范围一致，但不加载密码列，也不创建受管实体
+     *
+     * @return List<UserProfile> 所有用户资料列表，没有用户时返回空列表
+     */
+    @Query("SELECT new com.viper.demo.Pojo.UserProfile(u.id, u.username, u.email, u.phone, u.isDelete, u.createTime, u.updateTime) "
+            + "FROM User u")
+    List<UserProfile> findAllProfiles();
+
+    /**
+     * 查询用户列表的聚合版本（用户总数和最新更新时间）
+     *
+     * 数据范围与findAllProfiles()一致，只返回一行聚合结果，
+     * 用于GET /user/list的条件请求判断，代价远小于查询完整列表
+     *
+     * @return UserListVersion 用户列表版本，没有用户时lastModified为null
+     */
+    @Query("SELECT new com.viper.demo.Pojo.UserListVersion(COUNT(u), MAX(u.updateTime)) FROM User u")
+    UserListVersion findListVersion();
+
+    /**
+     * 只更新用户的邮箱和手机号（排除已删除的用户）
+     *
+     * 与先查询实体再save()不同，该语句只写email、phone和update_time三列：
+     * 实体整行保存会把读取时的password等列原样写回，覆盖其间由密码迁移任务等写入的新值
+     *
+     * 生成的SQL类似：
+     * UPDATE user SET email = ?, phone = ?, update_time = ? WHERE id = ? AND (is_delete IS NULL OR is_delete = 0)
+     *
+     * @param id 用户ID
+     * @param email 新邮箱地址
+     * @param phone 新手机号码，可以为null
+     * @param updateTime 更新时间
+     * @return 更新的行数，用户不存在或已删除时为0
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE User u SET u.email = :email, u.phone = :phone, u.updateTime = :updateTime "
+            + "WHERE u.id = :id AND (u.isDelete IS NULL OR u.isDelete = 0)")
+    int updateProfile(@Param("id") Integer id, @Param("email") String email, @Param("phone") String phone,
+                      @Param("updateTime") Date updateTime);
+
+    /**
+     * 逻辑删除用户：只更新is_delete和update_time两列
+     *
+     * 生成的SQL类似：
+     * UPDATE user SET is_delete = 1, update_time = ? WHERE id = ?
+     *
+     * @param id 用户ID
+     * @param updateTime 更新时间
+     * @return 更新的行数，用户不存在时为0（已删除的用户同样返回1）
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE User u SET u.isDelete = 1, u.updateTime = :updateTime WHERE u.id = :id")
+    int markDeleted(@Param("id") Integer id, @Param("updateTime") Date updateTime);
+
     /**
      * 根据邮箱地址查询用户
      *
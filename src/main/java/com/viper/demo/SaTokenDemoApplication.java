@@ -1,6 +1,7 @@
 package com.viper.demo;
 
 import cn.dev33.satoken.SaManager;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
@@ -46,6 +47,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * @version 1.0
  * @since 2024
  */
+@Slf4j
 @SpringBootApplication
 public class SaTokenDemoApplication {
 
@@ -59,7 +61,7 @@ public class SaTokenDemoApplication {
 	 * 2. 自动配置各种组件（数据源、JPA、SA-Token等）
 	 * 3. 执行CommandLineRunner实现类（如DataInitializer）
 	 * 4. 启动内嵌的Tomcat服务器
-	 * 5. 输出SA-Token配置信息用于调试
+	 * 5. 通过日志输出SA-Token配置信息用于调试
 	 *
 	 * @param args 命令行参数，可用于传递启动参数
 	 *             例如：--server.port=8080 --spring.profiles.active=dev
@@ -70,11 +72,11 @@ public class SaTokenDemoApplication {
 
 		// 输出SA-Token配置信息，便于开发调试
 		// 包含token名称、超时时间、并发登录设置等重要配置
-		System.out.println("🚀 应用启动成功！");
-		System.out.println("📋 SA-Token 配置信息：" + SaManager.getConfig());
-		System.out.println("🌐 访问地址：http://localhost:9191");
-		System.out.println("📖 API文档："+"http://localhost:9191/swagger-ui/index.html");
-		System.out.println("🧪 测试账户：admin/123456 或 test/123456");
+		log.info("应用启动成功");
+		log.info("SA-Token 配置信息：{}", SaManager.getConfig());
+		log.info("访问地址：http://localhost:9191");
+		log.info("API文档：http://localhost:9191/swagger-ui/index.html");
+		log.info("测试账户：admin/123456 或 test/123456");
 	}
 
 }
@@ -1,11 +1,26 @@
 package com.viper.demo.Service.Impl;
 
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.viper.demo.Cache.GrantCache;
+import com.viper.demo.Cache.ProfileSnapshotStore;
+import com.viper.demo.Cache.UserVersionCache;
+import com.viper.demo.Mapper.UserLoginMapper;
+import com.viper.demo.Pojo.AccountStatus;
+import com.viper.demo.Pojo.LoginCredential;
 import com.viper.demo.Pojo.User;
+import com.viper.demo.Pojo.UserListVersion;
+import com.viper.demo.Pojo.UserProfile;
+import com.viper.demo.Repository.UserArchiveRepository;
 import com.viper.demo.Repository.UserRepository;
 import com.viper.demo.Service.UserService;
+import com.viper.demo.Utils.PasswordUtil;
 
 import java.util.Date;
 import java.util.List;
@@ -39,11 +54,20 @@ import java.util.Optional;
  * - 合理的数据库查询策略
  * - 避免不必要的数据库操作
  *
+ * 事务边界：
+ * - 类级别默认只读事务：Hibernate不保存实体快照、不做脏检查、不自动flush
+ * - 写操作（save、update、deleteById）单独声明读写事务
+ * - 已关闭open-in-view，数据库连接只在Service方法内持有，不会延续到JSON序列化阶段
+ * - 写操作对缓存的失效在事务提交后执行（见afterCommit）：提交前失效的话，并发请求会在提交前
+ *   把旧数据重新加载进缓存，之后一直命中旧数据；事务回滚时缓存保持不变
+ *
  * @author Viper
  * @version 1.0
  * @since 2024
  */
+@Slf4j
 @Service
+@Transactional(readOnly = true)
 public class UserServiceImpl implements UserService {
 
     /**
@@ -53,6 +77,47 @@ public class UserServiceImpl implements UserService {
     @Autowired
     private UserRepository userRepository;
 
+    /**
+     * 已归档用户数据访问层对象
+     * 用户名、邮箱的唯一性检查需要包含已归档的用户
+     */
+    @Autowired
+    private UserArchiveRepository userArchiveRepository;
+
+    /**
+     * 登录热路径的MyBatis映射器
+     * 仅在 demo.login.lookup=mybatis 时使用
+     */
+    @Autowired(required = false)
+    private UserLoginMapper userLoginMapper;
+
+    /**
+     * 用户授权信息缓存
+     * 用户信息修改或删除后需要使对应的缓存失效
+     */
+    @Autowired
+    private GrantCache grantCache;
+
+    /**
+     * 用户资料版本号缓存，用户数据变化时使其失效
+     */
+    @Autowired
+    private UserVersionCache userVersionCache;
+
+    /**
+     * 会话资料快照，资料接口优先从这里读取
+     */
+    @Autowired
+    private ProfileSnapshotStore profileSnapshots;
+
+    /**
+     * 登录凭证查询方式
+     * jpa：使用UserRepository（默认）
+     * mybatis：使用UserLoginMapper手写SQL
+     */
+    @Value("${demo.login.lookup:jpa}")
+    private String loginLookup;
+
     /**
      * 根据用户名查询用户信息的具体实现
      *
@@ -87,6 +152,62 @@ public class UserServiceImpl implements UserService {
         return userOpt.orElse(null);
     }
 
+    /**
+     * 根据用户名查询登录凭证的具体实现
+     *
+     * 实现逻辑：
+     * 1. 参数验证：检查用户名是否为空或null
+     * 2. 数据清理：自动去除用户名首尾空格
+     * 3. 根据配置选择查询方式：
+     *    - mybatis：调用UserLoginMapper，只查询需要的列并直接映射为不可变对象
+     *    - jpa：调用Repository层的投影查询，只读取需要的列
+     *
+     * @param username 用户名，会自动去除首尾空格
+     * @return 登录凭证，如果用户不存在、已删除或参数无效则返回null
+     */
+    @Override
+    public LoginCredential findLoginCredential(String username) {
+        // 参数验证：检查用户名是否为空
+        if (username == null || username.trim().isEmpty()) {
+            return null;
+        }
+
+        // MyBatis模式：手写SQL，不经过持久化上下文
+        if ("mybatis".equalsIgnoreCase(loginLookup) && userLoginMapper != null) {
+            return userLoginMapper.findLoginCredential(username.trim());
+        }
+
+        // JPA模式：构造函数表达式投影，不创建受管实体
+        return userRepository.findLoginCredentialByUsername(username.trim()).orElse(null);
+    }
+
+    /**
+     * 根据用户ID查询账号状态的具体实现
+     *
+     * 实现逻辑：
+     * 1. 参数验证：检查用户ID是否为null
+     * 2. 投影查询：只读取用户名和删除标记两列
+     * 3. 删除状态检查：已删除用户返回null
+     *
+     * @param id 用户ID，不能为null
+     * @return 账号状态，如果用户不存在、已删除或ID无效则返回null
+     */
+    @Override
+    public AccountStatus findAccountStatus(Integer id) {
+        // 参数验证：检查用户ID是否为null
+        if (id == null) {
+            return null;
+        }
+
+        // 投影查询，已删除用户返回null
+        AccountStatus status = userRepository.findAccountStatusById(id).orElse(null);
+        if (status == null || status.deleted()) {
+            return null;
+        }
+
+        return status;
+    }
+
     /**
      * 根据用户ID查询用户信息的具体实现
      *
@@ -130,6 +251,35 @@ public class UserServiceImpl implements UserService {
         return null;  // 用户不存在
     }
 
+    /**
+     * 根据用户ID查询用户资料的具体实现
+     *
+     * 在只读事务内通过投影查询直接构造DTO，不加载密码列
+     *
+     * @param id 用户ID，不能为null
+     * @return 用户资料，如果用户不存在、已删除或ID无效则返回null
+     */
+    @Override
+    public UserProfile findProfileById(Integer id) {
+        // 参数验证：检查用户ID是否为null
+        if (id == null) {
+            return null;
+        }
+
+        // 优先使用登录时写入会话的资料快照，不查询数据库
+        UserProfile snapshot = profileSnapshots.get(id);
+        if (snapshot != null) {
+            return snapshot;
+        }
+
+        // 没有快照时回退到数据库查询，会话存在且仍没有快照时补写（不覆盖并发修改刷新的快照）
+        UserProfile profile = userRepository.findProfileById(id).orElse(null);
+        if (profile != null) {
+            profileSnapshots.fill(profile);
+        }
+        return profile;
+    }
+
     /**
      * 根据邮箱地址查询用户信息的具体实现
      *
@@ -245,6 +395,7 @@ public class UserServiceImpl implements UserService {
      * @return 保存后的用户对象（包含自动生成的ID和时间字段），保存失败返回null
      */
     @Override
+    @Transactional
     public User save(User user) {
         // 参数验证：检查用户对象是否为null
         if (user == null) {
@@ -265,7 +416,12 @@ public class UserServiceImpl implements UserService {
         }
 
         // 调用Repository层保存用户到数据库
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+
+        // 新用户改变了用户列表，提交后使版本号缓存失效
+        Integer userId = saved.getId();
+        afterCommit(() -> userVersionCache.evict(userId));
+        return saved;
     }
 
     /**
@@ -278,12 +434,15 @@ public class UserServiceImpl implements UserService {
      * 1. 参数验证：检查用户对象和用户ID是否为null
      * 2. 更新时间设置：自动设置为当前时间
      * 3. 数据库更新：调用Repository层更新用户信息
+     * 4. 缓存失效：清除该用户的授权信息缓存
      *
      * 业务规则：
      * - 用户ID不能为null（必须是已存在的用户）
      * - 自动更新修改时间
      * - 不会修改创建时间
      * - 使用JPA的save方法，会根据ID判断是更新还是插入
+     * - 整行保存：实体中的所有列（包括password）都会写回，
+     *   只修改部分字段时使用updateProfile等定向更新，避免覆盖读取后被其他流程修改的列
      *
      * 安全考虑：
      * - 不允许修改用户名（业务规则，可在Controller层控制）
@@ -294,6 +453,7 @@ public class UserServiceImpl implements UserService {
      * @return 更新后的用户对象，更新失败返回null
      */
     @Override
+    @Transactional
     public User update(User user) {
         // 参数验证：检查用户对象和用户ID
         if (user == null || user.getId() == null) {
@@ -304,7 +464,47 @@ public class UserServiceImpl implements UserService {
         user.setUpdateTime(new Date());
 
         // 调用Repository层更新用户信息
-        return userRepository.save(user);
+        User updated = userRepository.save(user);
+
+        // 用户名等信息可能影响权限和角色，提交后使授权缓存失效
+        Integer userId = user.getId();
+        afterCommit(() -> grantCache.evict(userId));
+
+        // 资料已变化，提交后使客户端持有的ETag失效
+        afterCommit(() -> userVersionCache.evict(userId));
+
+        // 提交后刷新在线用户会话中的资料快照（快照没有过期时间，不能写入未提交的数据）
+        UserProfile profile = UserProfile.of(updated);
+        afterCommit(() -> profileSnapshots.refresh(profile));
+        return updated;
+    }
+
+    /**
+     * 更新用户邮箱和手机号的具体实现
+     *
+     * 实现逻辑：
+     * 1. 定向UPDATE只写email、phone、update_time，用户不存在或已删除时返回null
+     * 2. 重新查询用户资料投影作为返回值和会话快照
+     * 3. 提交后使ETag失效并刷新会话资料快照；邮箱和手机号不影响授权信息，不失效授权缓存
+     *
+     * @param id 用户ID
+     * @param email 新邮箱地址
+     * @param phone 新手机号码
+     * @return 更新后的用户资料，更新失败返回null
+     */
+    @Override
+    @Transactional
+    public UserProfile updateProfile(Integer id, String email, String phone) {
+        if (id == null || userRepository.updateProfile(id, email, phone, new Date()) == 0) {
+            return null;
+        }
+        UserProfile profile = userRepository.findProfileById(id).orElse(null);
+        if (profile == null) {
+            return null;
+        }
+        afterCommit(() -> userVersionCache.evict(id));
+        afterCommit(() -> profileSnapshots.refresh(profile));
+        return profile;
     }
 
     /**
@@ -315,11 +515,9 @@ public class UserServiceImpl implements UserService {
      *
      * 实现逻辑：
      * 1. 参数验证：检查用户ID是否为null
-     * 2. 用户查询：根据ID查找要删除的用户
-     * 3. 逻辑删除：设置删除标记为1
-     * 4. 时间更新：设置更新时间为当前时间
-     * 5. 数据保存：保存更新后的用户信息
-     * 6. 异常处理：捕获并处理可能的异常
+     * 2. 逻辑删除：定向UPDATE只写删除标记和更新时间，不读取、不整行保存用户实体
+     * 3. 缓存失效：提交后清除该用户的授权信息缓存、ETag和会话资料快照
+     * 4. 异常处理：捕获并处理可能的异常
      *
      * 逻辑删除的优势：
      * - 保留数据用于审计和分析
@@ -329,13 +527,14 @@ public class UserServiceImpl implements UserService {
      *
      * 异常处理：
      * - 捕获所有可能的异常
-     * - 打印异常堆栈信息用于调试
+     * - 记录错误日志（含异常堆栈）用于排查
      * - 返回false表示删除失败
      *
      * @param id 要删除的用户ID，不能为null
      * @return true表示删除成功，false表示用户不存在或删除失败
      */
     @Override
+    @Transactional
     public boolean deleteById(Integer id) {
         // 参数验证：检查用户ID是否为null
         if (id == null) {
@@ -343,19 +542,12 @@ public class UserServiceImpl implements UserService {
         }
 
         try {
-            // 根据ID查找要删除的用户
-            Optional<User> userOpt = userRepository.findById(id);
-            if (userOpt.isPresent()) {
-                User user = userOpt.get();
-
-                // 执行逻辑删除：设置删除标记
-                user.setIsDelete(1);  // 1表示已删除
-
-                // 更新修改时间
-                user.setUpdateTime(new Date());
-
-                // 保存更新后的用户信息
-                userRepository.save(user);
+            // 执行逻辑删除：只写删除标记和更新时间，其他列保持数据库中的当前值
+            if (userRepository.markDeleted(id, new Date()) > 0) {
+                // 已删除用户不再拥有任何权限，提交后使授权缓存失效
+                afterCommit(() -> grantCache.evict(id));
+                afterCommit(() -> userVersionCache.evict(id));
+                afterCommit(() -> profileSnapshots.evict(id));
 
                 return true;  // 删除成功
             }
@@ -363,7 +555,7 @@ public class UserServiceImpl implements UserService {
             return false;  // 用户不存在
         } catch (Exception e) {
             // 异常处理：记录错误信息
-            e.printStackTrace();
+            log.error("删除用户失败 id={}", id, e);
             return false;  // 删除失败
         }
     }
@@ -381,6 +573,7 @@ public class UserServiceImpl implements UserService {
      *
      * 业务规则：
      * - 包括已删除用户的用户名检查（防止用户名重复使用）
+     * - 包括已归档用户（见UserArchiver），归档前后唯一性规则不变
      * - 不区分大小写（可在Repository层处理）
      * - 空用户名返回false（表示可用）
      *
@@ -399,8 +592,9 @@ public class UserServiceImpl implements UserService {
             return false;  // 空用户名视为可用
         }
 
-        // 调用Repository层检查用户名是否存在
-        return userRepository.existsByUsername(username.trim());
+        // 调用Repository层检查用户名是否存在，user表中没有时再检查归档表
+        String trimmed = username.trim();
+        return userRepository.existsByUsername(trimmed) || userArchiveRepository.existsByUsername(trimmed);
     }
 
     /**
@@ -416,6 +610,7 @@ public class UserServiceImpl implements UserService {
      *
      * 业务规则：
      * - 包括已删除用户的邮箱检查（防止邮箱重复使用）
+     * - 包括已归档用户（见UserArchiver），归档前后唯一性规则不变
      * - 不区分大小写（可在Repository层处理）
      * - 空邮箱返回false（表示可用）
      *
@@ -434,8 +629,9 @@ public class UserServiceImpl implements UserService {
             return false;  // 空邮箱视为可用
         }
 
-        // 调用Repository层检查邮箱是否存在
-        return userRepository.existsByEmail(email.trim());
+        // 调用Repository层检查邮箱是否存在，user表中没有时再检查归档表
+        String trimmed = email.trim();
+        return userRepository.existsByEmail(trimmed) || userArchiveRepository.existsByEmail(trimmed);
     }
 
     /**
@@ -473,6 +669,35 @@ public class UserServiceImpl implements UserService {
         return userRepository.findAll();
     }
 
+    /**
+     * 统计用户总数的具体实现
+     *
+     * 使用Repository的count()，数据库只返回一个数字，避免为了计数而加载全部用户实体
+     *
+     * @return 用户总数
+     */
+    @Override
+    public long countUsers() {
+        return userRepository.count();
+    }
+
+    /**
+     * 获取所有用户资料列表的具体实现
+     *
+     * 在只读事务内通过投影查询直接构造DTO，不需要在Controller层清空密码
+     *
+     * @return 所有用户资料列表，如果没有用户则返回空列表（不会返回null）
+     */
+    @Override
+    public List<UserProfile> findAllProfiles() {
+        return userRepository.findAllProfiles();
+    }
+
+    @Override
+    public UserListVersion findListVersion() {
+        return userRepository.findListVersion();
+    }
+
     /**
      * 验证用户密码的具体实现
      *
@@ -486,12 +711,10 @@ public class UserServiceImpl implements UserService {
      * 4. 密码比较：比较输入密码与存储密码
      *
      * 当前实现：
-     * - 使用明文密码比较（仅用于演示）
+     * - 通过PasswordUtil.matches验证，同时支持PBKDF2哈希和尚未迁移的历史明文密码
      * - 自动过滤已删除用户（通过findByUsername实现）
      *
      * 生产环境改进建议：
-     * - 使用加密密码存储和验证
-     * - 集成PasswordUtil工具类进行密码验证
      * - 添加密码错误次数限制
      * - 添加账户锁定机制
      * - 记录登录尝试日志
@@ -499,13 +722,6 @@ public class UserServiceImpl implements UserService {
      * 安全考虑：
      * - 密码验证失败时不要透露具体原因
      * - 防止暴力破解攻击
-     * - 使用安全的密码哈希算法
-     *
-     * 示例改进代码：
-     * ```java
-     * // 使用加密密码验证
-     * return PasswordUtil.verifyPassword(password, user.getPassword(), user.getSalt());
-     * ```
      *
      * @param username 用户名，不能为null
      * @param password 要验证的密码，不能为null
@@ -524,10 +740,28 @@ public class UserServiceImpl implements UserService {
             return false;  // 用户不存在或已删除
         }
 
-        // 密码比较
-        // 注意：这里使用明文比较，仅用于演示
-        // 实际项目中应该使用加密后的密码比较：
-        // return PasswordUtil.verifyPassword(password, user.getPassword(), user.getSalt());
-        return password.equals(user.getPassword());
+        // 密码比较（PBKDF2哈希或历史明文）
+        return PasswordUtil.matches(password, user.getPassword());
+    }
+
+    /**
+     * 在当前事务提交后执行缓存失效等操作
+     *
+     * 没有活动的事务同步（例如单元测试中直接调用）时立即执行
+     * 事务回滚时不执行，缓存中仍是与数据库一致的旧数据
+     *
+     * @param action 提交后执行的操作
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 }
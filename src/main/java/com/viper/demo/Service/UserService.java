@@ -1,6 +1,10 @@
 package com.viper.demo.Service;
 
+import com.viper.demo.Pojo.AccountStatus;
+import com.viper.demo.Pojo.LoginCredential;
 import com.viper.demo.Pojo.User;
+import com.viper.demo.Pojo.UserListVersion;
+import com.viper.demo.Pojo.UserProfile;
 
 import java.util.List;
 
@@ -62,6 +66,25 @@ public interface UserService {
      */
     User findByUsername(String username);
 
+    /**
+     * 根据用户名查询登录凭证
+     *
+     * 该方法是登录热路径专用的查询，只返回校验账号所需的最小字段集
+     * 底层实现可以通过配置项 demo.login.lookup 在JPA和MyBatis之间切换
+     *
+     * 业务规则：
+     * - 用户名会自动去除首尾空格
+     * - 自动过滤已删除的用户
+     * - 用户名为空或null时返回null
+     *
+     * 使用场景：
+     * - 用户登录验证（AuthController.doLogin）
+     *
+     * @param username 用户名，不能为空
+     * @return 登录凭证，如果用户不存在或已删除则返回null
+     */
+    LoginCredential findLoginCredential(String username);
+
     /**
      * 根据用户ID查询用户信息
      *
@@ -83,6 +106,66 @@ public interface UserService {
      */
     User findById(Integer id);
 
+    /**
+     * 根据用户ID查询账号状态
+     *
+     * 该方法是权限和角色解析专用的查询，只返回用户名和删除标记
+     * 不加载完整的用户实体，减少每次权限校验读取的数据量
+     *
+     * 业务规则：
+     * - ID为null时返回null
+     * - 自动过滤已删除的用户
+     * - ID不存在时返回null
+     *
+     * 使用场景：
+     * - StpInterfaceImpl获取权限列表和角色列表
+     *
+     * @param id 用户ID，不能为null
+     * @return 账号状态，如果用户不存在或已删除则返回null
+     */
+    AccountStatus findAccountStatus(Integer id);
+
+    /**
+     * 根据用户ID查询用户资料
+     *
+     * 该方法返回不含密码的只读DTO，供接口直接序列化返回
+     *
+     * 业务规则：
+     * - ID为null时返回null
+     * - 自动过滤已删除的用户
+     *
+     * 使用场景：
+     * - 获取当前登录用户的个人资料
+     *
+     * @param id 用户ID，不能为null
+     * @return 用户资料，如果用户不存在或已删除则返回null
+     */
+    UserProfile findProfileById(Integer id);
+
+    /**
+     * 获取所有用户的资料列表
+     *
+     * 数据范围与findAll()一致（包含已删除用户），但不包含密码字段
+     *
+     * 使用场景：
+     * - 管理员查看用户列表
+     *
+     * @return 所有用户资料列表，如果没有用户则返回空列表
+     */
+    List<UserProfile> findAllProfiles();
+
+    /**
+     * 获取用户列表的聚合版本
+     *
+     * 只执行一条COUNT/MAX聚合查询，数据范围与findAllProfiles()一致
+     *
+     * 使用场景：
+     * - 用户列表接口生成ETag/Last-Modified，判断能否返回304
+     *
+     * @return 用户列表版本（用户总数和最新更新时间）
+     */
+    UserListVersion findListVersion();
+
     /**
      * 根据邮箱地址查询用户信息
      *
@@ -170,6 +253,22 @@ public interface UserService {
      */
     User update(User user);
 
+    /**
+     * 更新用户的邮箱和手机号
+     *
+     * 只写这两列和更新时间，不整行保存用户实体，
+     * 不会把读取时的密码等其他列写回数据库
+     *
+     * 使用场景：
+     * - 用户个人信息修改（PUT /user/profile）
+     *
+     * @param id 用户ID，不能为null
+     * @param email 新邮箱地址
+     * @param phone 新手机号码，可以为null
+     * @return 更新后的用户资料，用户不存在或已删除时返回null
+     */
+    UserProfile updateProfile(Integer id, String email, String phone);
+
     /**
      * 删除用户（逻辑删除）
      *
@@ -254,6 +353,18 @@ public interface UserService {
      */
     List<User> findAll();
 
+    /**
+     * 统计用户总数
+     *
+     * 数据范围与findAll()一致（包含已删除用户），但只执行COUNT查询，不加载任何实体
+     *
+     * 使用场景：
+     * - 管理员控制台显示系统用户总数
+     *
+     * @return 用户总数
+     */
+    long countUsers();
+
     /**
      * 验证用户密码
      *
@@ -0,0 +1,179 @@
+package com.viper.demo.Utils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 熔断器
+ *
+ * 下游（如数据库）连续失败或持续变慢时暂停调用，让请求快速失败或走降级逻辑，
+ * 而不是每个请求都阻塞到超时；一段时间后自动放行一次试探调用，成功即恢复
+ *
+ * 状态流转：
+ * ```
+ * CLOSED --连续failureThreshold次失败--> OPEN --openDuration后--> HALF_OPEN
+ * HALF_OPEN --试探成功--> CLOSED
+ * HALF_OPEN --试探失败--> OPEN
+ * ```
+ *
+ * 失败的判定：
+ * - 调用抛出异常（onFailure）
+ * - 调用成功但耗时超过slowCallThreshold（onSuccess时按慢调用计为失败），数据库卡顿时调用往往不是报错而是变慢
+ *
+ * 半开状态只放行一个试探调用，其余调用仍按熔断处理，避免恢复瞬间大量请求同时压到刚恢复的下游
+ *
+ * 线程安全：状态和进入熔断的时间放在同一个不可变的Snapshot里，由一个AtomicReference做CAS切换，
+ * 其他线程看到OPEN时一定同时看到对应的openedAt；若分成两个字段，在CAS之后、写入时间之前读到的是旧时间，
+ * 刚熔断就会被误判为熔断已到期而放行试探调用。计数使用原子类
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+public class CircuitBreaker {
+
+    /**
+     * 熔断器状态
+     */
+    public enum State {
+        /**
+         * 正常放行
+         */
+        CLOSED,
+        /**
+         * 熔断中，拒绝调用
+         */
+        OPEN,
+        /**
+         * 放行一次试探调用
+         */
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openDurationNanos;
+    private final long slowCallThresholdNanos;
+
+    private static final Snapshot CLOSED = new Snapshot(State.CLOSED, 0);
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+    private final LongAdder notPermitted = new LongAdder();
+    private final LongAdder transitionsToOpen = new LongAdder();
+
+    /**
+     * 创建熔断器
+     *
+     * @param failureThreshold 连续失败多少次后熔断
+     * @param openDurationNanos 熔断持续时间（纳秒），之后进入半开状态
+     * @param slowCallThresholdNanos 慢调用阈值（纳秒），超过该耗时的成功调用也计为失败
+     */
+    public CircuitBreaker(int failureThreshold, long openDurationNanos, long slowCallThresholdNanos) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("failureThreshold必须大于0");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = openDurationNanos;
+        this.slowCallThresholdNanos = slowCallThresholdNanos;
+    }
+
+    /**
+     * 判断是否允许本次调用
+     *
+     * 允许时调用方必须在调用结束后调用onSuccess()或onFailure()
+     *
+     * @return CLOSED时返回true；OPEN且熔断时间已到时切换为HALF_OPEN并只放行这一次调用；其余情况返回false
+     */
+    public boolean tryAcquirePermission() {
+        return tryAcquirePermission(System.nanoTime());
+    }
+
+    boolean tryAcquirePermission(long nowNanos) {
+        Snapshot current = snapshot.get();
+        if (current.state() == State.CLOSED) {
+            return true;
+        }
+        if (current.state() == State.OPEN && nowNanos - current.openedAt() >= openDurationNanos
+                && snapshot.compareAndSet(current, new Snapshot(State.HALF_OPEN, current.openedAt()))) {
+            return true;
+        }
+        notPermitted.increment();
+        return false;
+    }
+
+    /**
+     * 记录一次成功调用
+     *
+     * @param durationNanos 调用耗时（纳秒），超过慢调用阈值时按失败处理
+     */
+    public void onSuccess(long durationNanos) {
+        if (durationNanos > slowCallThresholdNanos) {
+            onFailure();
+            return;
+        }
+        consecutiveFailures.set(0);
+        Snapshot current = snapshot.get();
+        if (current.state() == State.HALF_OPEN) {
+            snapshot.compareAndSet(current, CLOSED);
+        }
+    }
+
+    /**
+     * 记录一次失败调用（异常或慢调用）
+     */
+    public void onFailure() {
+        onFailure(System.nanoTime());
+    }
+
+    void onFailure(long nowNanos) {
+        Snapshot current = snapshot.get();
+        if (current.state() == State.HALF_OPEN
+                && snapshot.compareAndSet(current, new Snapshot(State.OPEN, nowNanos))) {
+            transitionsToOpen.increment();
+            return;
+        }
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold
+                && snapshot.compareAndSet(CLOSED, new Snapshot(State.OPEN, nowNanos))) {
+            consecutiveFailures.set(0);
+            transitionsToOpen.increment();
+        }
+    }
+
+    /**
+     * 当前状态
+     *
+     * @return 熔断器状态
+     */
+    public State getState() {
+        return snapshot.get().state();
+    }
+
+    /**
+     * 因熔断被拒绝的调用次数
+     *
+     * @return 拒绝次数
+     */
+    public long getNotPermittedCount() {
+        return notPermitted.sum();
+    }
+
+    /**
+     * 进入熔断状态的次数
+     *
+     * @return 熔断次数
+     */
+    public long getOpenCount() {
+        return transitionsToOpen.sum();
+    }
+
+    /**
+     * 状态与进入熔断时间的不可变组合，整体CAS替换
+     *
+     * @param state 熔断器状态
+     * @param openedAt 最近一次进入OPEN的时间（纳秒），CLOSED时无意义
+     */
+    private record Snapshot(State state, long openedAt) {
+    }
+}
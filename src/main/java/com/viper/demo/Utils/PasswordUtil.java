@@ -1,5 +1,9 @@
 package com.viper.demo.Utils;
 
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
@@ -65,6 +69,26 @@ public class PasswordUtil {
      */
     private static final int SALT_LENGTH = 16;
 
+    /**
+     * 自描述密码哈希的前缀
+     *
+     * 存储格式：$pbkdf2-sha256$迭代次数$Base64盐值$Base64哈希值
+     * 迭代次数和盐值都保存在字符串中，不需要额外的salt列，以后调整迭代次数也不影响已有数据的验证
+     */
+    public static final String PBKDF2_PREFIX = "$pbkdf2-sha256$";
+
+    /**
+     * PBKDF2默认迭代次数（参考OWASP对PBKDF2-HMAC-SHA256的建议量级）
+     */
+    public static final int DEFAULT_ITERATIONS = 210_000;
+
+    /**
+     * PBKDF2输出长度（位）
+     */
+    private static final int PBKDF2_KEY_BITS = 256;
+
+    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+
     /**
      * 生成随机盐值
      *
@@ -246,6 +270,88 @@ public class PasswordUtil {
         return hashedPassword.equals(encryptedPassword);
     }
 
+    /**
+     * 生成自描述的PBKDF2密码哈希（默认迭代次数）
+     *
+     * 用于注册、初始化用户和后台迁移（PasswordRehashMigrator），结果可以直接存入password列
+     *
+     * @param password 明文密码，不能为null
+     * @return 格式为 $pbkdf2-sha256$迭代次数$盐值$哈希值 的字符串
+     */
+    public static String hashPassword(String password) {
+        return hashPassword(password, DEFAULT_ITERATIONS);
+    }
+
+    /**
+     * 生成自描述的PBKDF2密码哈希
+     *
+     * @param password 明文密码，不能为null
+     * @param iterations 迭代次数，越大越安全、越耗CPU
+     * @return 格式为 $pbkdf2-sha256$迭代次数$盐值$哈希值 的字符串
+     */
+    public static String hashPassword(String password, int iterations) {
+        byte[] salt = new byte[SALT_LENGTH];
+        SECURE_RANDOM.nextBytes(salt);
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return PBKDF2_PREFIX + iterations + "$" + encoder.encodeToString(salt)
+                + "$" + encoder.encodeToString(pbkdf2(password, salt, iterations));
+    }
+
+    /**
+     * 判断存储的密码是否已经是PBKDF2哈希
+     *
+     * @param storedPassword 数据库中的password列
+     * @return true表示已是哈希，false表示明文（历史数据）或null
+     */
+    public static boolean isHashed(String storedPassword) {
+        return storedPassword != null && storedPassword.startsWith(PBKDF2_PREFIX);
+    }
+
+    /**
+     * 验证输入的密码与数据库中存储的密码是否匹配
+     *
+     * 同时支持两种存储形式，迁移期间新旧数据可以共存：
+     * - PBKDF2哈希：按哈希中记录的迭代次数和盐值重新计算后比较
+     * - 明文（历史数据）：直接比较
+     * 比较使用MessageDigest.isEqual，耗时与内容无关
+     *
+     * @param password 用户输入的明文密码
+     * @param storedPassword 数据库中的password列
+     * @return true表示匹配，任意参数为null或哈希格式错误时返回false
+     */
+    public static boolean matches(String password, String storedPassword) {
+        if (password == null || storedPassword == null) {
+            return false;
+        }
+        if (!isHashed(storedPassword)) {
+            return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8),
+                    storedPassword.getBytes(StandardCharsets.UTF_8));
+        }
+        String[] parts = storedPassword.substring(PBKDF2_PREFIX.length()).split("\\$");
+        if (parts.length != 3) {
+            return false;
+        }
+        try {
+            int iterations = Integer.parseInt(parts[0]);
+            Base64.Decoder decoder = Base64.getDecoder();
+            byte[] expected = decoder.decode(parts[2]);
+            return MessageDigest.isEqual(pbkdf2(password, decoder.decode(parts[1]), iterations), expected);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static byte[] pbkdf2(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, PBKDF2_KEY_BITS);
+        try {
+            return SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256").generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("密码加密失败：PBKDF2WithHmacSHA256算法不可用", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
     /**
      * MD5密码加密方法（不推荐用于生产环境）
      *
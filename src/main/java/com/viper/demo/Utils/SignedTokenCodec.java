@@ -0,0 +1,170 @@
+package com.viper.demo.Utils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * 自包含签名令牌编解码器
+ *
+ * 令牌本身携带验证所需的全部信息，服务端只需校验HMAC签名，无需查询Token存储
+ * 适用于多节点部署：任意节点持有相同密钥即可独立验证，不再为每个请求访问共享存储
+ *
+ * 令牌格式（各段以"."分隔）：
+ * ```
+ * s1.<loginId>.<过期时间>.<权限版本>.<令牌ID>.<签名>
+ * ```
+ * - s1：格式版本，便于日后调整格式时区分新旧令牌
+ * - loginId：登录标识（十进制）
+ * - 过期时间：Unix时间戳（秒，36进制）
+ * - 权限版本：签发时用户的权限版本（36进制），用于批量作废旧令牌（见TokenRevocationList）
+ * - 令牌ID：随机生成的唯一标识，注销时按ID作废单个令牌
+ * - 签名：对前面所有内容计算HMAC-SHA256，Base64URL编码（不含填充）
+ *
+ * 安全说明：
+ * - 签名比较使用MessageDigest.isEqual，耗时与内容无关，防止时序攻击
+ * - 令牌内容未加密，不要放入敏感信息
+ * - 密钥至少32字节，多节点部署时所有节点必须配置相同的密钥
+ *
+ * 线程安全：Mac实例按线程缓存，编解码器可以被多个线程共享
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+public class SignedTokenCodec {
+
+    /**
+     * 签名算法
+     */
+    private static final String ALGORITHM = "HmacSHA256";
+
+    /**
+     * 令牌格式版本前缀
+     */
+    public static final String PREFIX = "s1.";
+
+    /**
+     * 密钥最小长度（字节），与HMAC-SHA256的输出长度一致
+     */
+    public static final int MIN_SECRET_LENGTH = 32;
+
+    /**
+     * 令牌ID的随机字节数，Base64URL编码后为12个字符
+     */
+    private static final int TOKEN_ID_BYTES = 9;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final SecretKeySpec key;
+
+    /**
+     * 每个线程复用一个已初始化的Mac实例，避免每次签名都查找算法提供者
+     */
+    private final ThreadLocal<Mac> macs;
+
+    /**
+     * 创建编解码器
+     *
+     * @param secret HMAC密钥，至少32字节
+     * @throws IllegalArgumentException 密钥为null或长度不足
+     */
+    public SignedTokenCodec(byte[] secret) {
+        if (secret == null || secret.length < MIN_SECRET_LENGTH) {
+            throw new IllegalArgumentException("签名密钥至少需要" + MIN_SECRET_LENGTH + "字节");
+        }
+        this.key = new SecretKeySpec(secret.clone(), ALGORITHM);
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    /**
+     * 签发令牌
+     *
+     * @param loginId 登录标识，不能包含"."
+     * @param expiresAtSeconds 过期时间（Unix时间戳，秒）
+     * @param permissionVersion 用户当前的权限版本
+     * @return 签名后的令牌
+     */
+    public String issue(String loginId, long expiresAtSeconds, long permissionVersion) {
+        if (loginId == null || loginId.isEmpty() || loginId.indexOf('.') >= 0) {
+            throw new IllegalArgumentException("loginId不能为空且不能包含'.'");
+        }
+        byte[] tokenId = new byte[TOKEN_ID_BYTES];
+        RANDOM.nextBytes(tokenId);
+        String payload = PREFIX + loginId
+                + '.' + Long.toString(expiresAtSeconds, 36)
+                + '.' + Long.toString(permissionVersion, 36)
+                + '.' + ENCODER.encodeToString(tokenId);
+        return payload + '.' + ENCODER.encodeToString(sign(payload));
+    }
+
+    /**
+     * 校验签名并解析令牌
+     *
+     * 只校验格式和签名，是否过期、是否已被作废由调用方判断
+     *
+     * @param token 令牌
+     * @return 令牌内容，格式错误或签名不匹配时返回null
+     */
+    public Claims verify(String token) {
+        if (token == null || !token.startsWith(PREFIX)) {
+            return null;
+        }
+        int signatureStart = token.lastIndexOf('.');
+        if (signatureStart <= PREFIX.length()) {
+            return null;
+        }
+        String payload = token.substring(0, signatureStart);
+        byte[] signature;
+        try {
+            signature = DECODER.decode(token.substring(signatureStart + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (!MessageDigest.isEqual(sign(payload), signature)) {
+            return null;
+        }
+
+        // 签名正确说明内容由本服务签发，格式一定合法；这里仍然防御性地检查段数
+        String[] parts = payload.substring(PREFIX.length()).split("\\.");
+        if (parts.length != 4) {
+            return null;
+        }
+        try {
+            return new Claims(parts[0], Long.parseLong(parts[1], 36), Long.parseLong(parts[2], 36), parts[3]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private byte[] sign(String payload) {
+        return macs.get().doFinal(payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("无法初始化" + ALGORITHM, e);
+        }
+    }
+
+    /**
+     * 令牌内容
+     *
+     * @param loginId 登录标识
+     * @param expiresAtSeconds 过期时间（Unix时间戳，秒）
+     * @param permissionVersion 签发时的权限版本
+     * @param tokenId 令牌唯一标识
+     */
+    public record Claims(String loginId, long expiresAtSeconds, long permissionVersion, String tokenId) {
+    }
+}
@@ -0,0 +1,205 @@
+package com.viper.demo.Utils;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 滑动窗口Count-Min Sketch计数器
+ *
+ * 用固定大小的内存统计"每个键在最近一段时间内出现了多少次"，键的数量再多内存也不会增长，
+ * 适合按用户名、客户端IP统计登录失败次数这类键空间不受控制的场景
+ *
+ * 结构：
+ * - 时间窗口划分为slotCount个时间片，组成环形数组，每个时间片是一个depth x width的计数矩阵
+ * - 计数时只写入当前时间片；时间片被新的时间段重新使用时换上一个新的计数矩阵，过期数据自然淘汰，不需要定时任务
+ * - 估算时对窗口内的时间片逐行求和，再取各行的最小值
+ *
+ * 保守更新（conservative update）：
+ * 计数时只给当前时间片中值最小的那几行加1，其余行的值已经大于该键在本时间片的计数，不再叠加
+ * 每个时间片内各行仍不小于键的实际计数，估算值依然不会偏小，但哈希冲突带来的偏大明显减少：
+ * 大量不同的键各出现一次时，普通更新会把所有计数器都推高，保守更新下计数器的值增长慢得多
+ *
+ * 精度：
+ * - 估算值只会偏大不会偏小（哈希冲突只会叠加计数），用于限流时可能误伤、不会漏放
+ * - 窗口内总计数为N时，每行的冲突误差期望不超过N/width；width应明显大于N/阈值，
+ *   否则大量不同的键会把所有计数器推到阈值以上，对所有键都判定为超限（见LoginThrottle的宽度计算）
+ * - 窗口按时间片滑动，最早的时间片整体过期，实际窗口长度在(slotCount-1)到slotCount个时间片之间
+ *
+ * 哈希使用每个实例随机生成的种子，外部无法预先构造与某个用户名冲突的键来恶意推高其计数
+ *
+ * 线程安全：
+ * - 计数使用AtomicIntegerArray；保守更新需要先读后写，同一个键的计数按哈希分段加锁串行执行，
+ *   不同的键只在落入同一分段时才互相等待
+ * - 时间片轮换通过CAS替换整个计数矩阵，不在原数组上清零：读写线程拿到的要么是旧矩阵要么是新矩阵，
+ *   不会出现清零到一半时写入、新时间段混入旧计数的情况
+ * - 时间稍早的线程遇到已经轮换的时间片时计入新矩阵（只会偏大，不会丢失计数）
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+public class SlidingWindowSketch {
+
+    /**
+     * 哈希行数
+     */
+    private static final int DEPTH = 4;
+
+    /**
+     * 计数锁的分段数（2的STRIPE_BITS次方）
+     */
+    private static final int STRIPE_BITS = 6;
+
+    private static final SecureRandom SEED_RANDOM = new SecureRandom();
+
+    private final int width;
+    private final int mask;
+    private final long slotMillis;
+    private final Slot[] slots;
+    private final long seed = SEED_RANDOM.nextLong();
+    private final Object[] stripes = new Object[1 << STRIPE_BITS];
+
+    /**
+     * 创建滑动窗口计数器
+     *
+     * @param windowMillis 窗口长度（毫秒）
+     * @param slotCount 时间片数量，越多窗口滑动越平滑
+     * @param width 每行的计数器数量，向上取整为2的幂
+     */
+    public SlidingWindowSketch(long windowMillis, int slotCount, int width) {
+        if (windowMillis <= 0 || slotCount <= 0 || width <= 0) {
+            throw new IllegalArgumentException("窗口长度、时间片数量和宽度必须大于0");
+        }
+        this.width = width == 1 ? 1 : Integer.highestOneBit(width - 1) << 1;
+        this.mask = this.width - 1;
+        this.slotMillis = Math.max(1, windowMillis / slotCount);
+        this.slots = new Slot[slotCount];
+        for (int i = 0; i < slotCount; i++) {
+            slots[i] = new Slot();
+        }
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Object();
+        }
+    }
+
+    /**
+     * 给键计数加1
+     *
+     * @param key 键
+     * @param nowMillis 当前时间（毫秒）
+     */
+    public void increment(String key, long nowMillis) {
+        long epoch = nowMillis / slotMillis;
+        AtomicIntegerArray counts = slots[(int) (epoch % slots.length)].countsFor(epoch, DEPTH * width);
+        long hash = hash(key);
+        // 同一个键的计数串行执行：两个线程同时读到相同的最小值时，会互相跳过对方刚加过的行而少计一次
+        synchronized (stripes[(int) (hash >>> (Long.SIZE - STRIPE_BITS))]) {
+            int min = Integer.MAX_VALUE;
+            for (int row = 0; row < DEPTH; row++) {
+                min = Math.min(min, counts.get(index(hash, row)));
+            }
+            // 保守更新：只增加值最小的行；其他行已经不小于min+1，计数器在同一矩阵中只增不减
+            for (int row = 0; row < DEPTH; row++) {
+                int index = index(hash, row);
+                if (counts.get(index) == min) {
+                    counts.incrementAndGet(index);
+                }
+            }
+        }
+    }
+
+    /**
+     * 估算键在窗口内的计数
+     *
+     * @param key 键
+     * @param nowMillis 当前时间（毫秒）
+     * @return 估算值，不小于实际计数
+     */
+    public int estimate(String key, long nowMillis) {
+        long epoch = nowMillis / slotMillis;
+        long hash = hash(key);
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            int index = index(hash, row);
+            int sum = 0;
+            for (Slot slot : slots) {
+                Generation generation = slot.generation.get();
+                long age = epoch - generation.epoch;
+                if (age >= 0 && age < slots.length) {
+                    sum += generation.counts.get(index);
+                }
+            }
+            estimate = Math.min(estimate, sum);
+        }
+        return estimate;
+    }
+
+    /**
+     * 计数器占用的内存（字节，不含对象头）
+     *
+     * @return slotCount * depth * width * 4
+     */
+    public long memoryBytes() {
+        return (long) slots.length * DEPTH * width * Integer.BYTES;
+    }
+
+    private int index(long hash, int row) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        return row * width + ((h1 + row * h2) & mask);
+    }
+
+    /**
+     * 带随机种子的64位哈希（FNV-1a逐字符累加，再做一次MurmurHash3的终结混合）
+     */
+    private long hash(String key) {
+        long h = seed ^ 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * 某个时间段的计数矩阵，时间段不变
+     */
+    private record Generation(long epoch, AtomicIntegerArray counts) {
+    }
+
+    /**
+     * 环形数组中的一个时间片，持有当前时间段的计数矩阵
+     */
+    private static final class Slot {
+
+        private static final Generation EMPTY = new Generation(Long.MIN_VALUE, new AtomicIntegerArray(0));
+
+        private final AtomicReference<Generation> generation = new AtomicReference<>(EMPTY);
+
+        /**
+         * 取epoch时间段用于计数的矩阵，时间片仍属于更早的时间段时换上新矩阵
+         *
+         * @param epoch 时间段编号
+         * @param size 矩阵大小
+         * @return 计数矩阵；时间片已属于更新的时间段时返回新时间段的矩阵
+         */
+        AtomicIntegerArray countsFor(long epoch, int size) {
+            while (true) {
+                Generation existing = generation.get();
+                if (existing.epoch >= epoch) {
+                    return existing.counts;
+                }
+                Generation fresh = new Generation(epoch, new AtomicIntegerArray(size));
+                if (generation.compareAndSet(existing, fresh)) {
+                    return fresh.counts;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.viper.demo.Utils;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 高并发Token生成器
+ *
+ * SA-Token的uuid风格每次登录都调用UUID.randomUUID()，所有线程共用同一个SecureRandom，
+ * 登录高峰时在随机数生成器上排队，生成的36位字符串还带有对Token毫无意义的"-"
+ *
+ * 该生成器的做法：
+ * - 每个线程持有独立的DRBG随机数生成器和随机字节缓冲区，线程之间没有共享状态
+ * - 缓冲区一次批量填充可生成64个Token的随机字节，用完后再整体刷新，摊薄每次调用的开销
+ * - 随机部分至少128位，以URL安全的Base64编码（无填充），16字节时为22个字符
+ * - 可选的分片前缀（如"n3."），网关可以按前缀把请求路由到签发Token的节点或存储分片
+ *
+ * 虚拟线程：
+ * 虚拟线程数量可能极多且生命周期很短，为每个虚拟线程创建生成器和缓冲区反而更慢，
+ * 因此虚拟线程改用固定数量的共享分段，随机选择一个分段并加锁取用
+ *
+ * 生成格式：
+ * ```
+ * [分片前缀.]<Base64URL随机串>
+ * ```
+ *
+ * @author Viper
+ * @version 1.0
+ * @since 2024
+ */
+public class TokenGenerator {
+
+    /**
+     * 默认随机字节数（128位）
+     */
+    public static final int DEFAULT_RANDOM_BYTES = 16;
+
+    /**
+     * 每次批量填充可以生成的Token数量
+     */
+    private static final int TOKENS_PER_REFILL = 64;
+
+    /**
+     * 分片前缀与随机串之间的分隔符，不在Base64URL字母表中
+     */
+    public static final char PREFIX_SEPARATOR = '.';
+
+    private static final char[] ALPHABET =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".toCharArray();
+
+    private final String prefix;
+    private final int randomBytes;
+    private final int encodedLength;
+
+    /**
+     * 平台线程各自的缓冲区
+     */
+    private final ThreadLocal<RandomBuffer> buffers;
+
+    /**
+     * 虚拟线程共用的缓冲区分段
+     */
+    private final RandomBuffer[] sharedBuffers;
+
+    /**
+     * 创建不带分片前缀、128位随机数的生成器
+     */
+    public TokenGenerator() {
+        this("", DEFAULT_RANDOM_BYTES);
+    }
+
+    /**
+     * 创建Token生成器
+     *
+     * @param shardPrefix 分片前缀，只能包含字母、数字和"-"，为空时不添加前缀
+     * @param randomBytes 随机字节数，不能少于16（128位）
+     * @throws IllegalArgumentException 参数不合法
+     */
+    public TokenGenerator(String shardPrefix, int randomBytes) {
+        if (randomBytes < DEFAULT_RANDOM_BYTES) {
+            throw new IllegalArgumentException("随机字节数不能少于" + DEFAULT_RANDOM_BYTES);
+        }
+        if (shardPrefix != null && !shardPrefix.matches("[A-Za-z0-9-]*")) {
+            throw new IllegalArgumentException("分片前缀只能包含字母、数字和'-'：" + shardPrefix);
+        }
+        this.prefix = shardPrefix == null || shardPrefix.isEmpty() ? "" : shardPrefix + PREFIX_SEPARATOR;
+        this.randomBytes = randomBytes;
+        this.encodedLength = (randomBytes * 8 + 5) / 6;
+        this.buffers = ThreadLocal.withInitial(() -> new RandomBuffer(randomBytes * TOKENS_PER_REFILL));
+        this.sharedBuffers = new RandomBuffer[Math.max(2, Runtime.getRuntime().availableProcessors())];
+        for (int i = 0; i < sharedBuffers.length; i++) {
+            sharedBuffers[i] = new RandomBuffer(randomBytes * TOKENS_PER_REFILL);
+        }
+    }
+
+    /**
+     * 生成一个新的Token
+     *
+     * @return [分片前缀.]随机串
+     */
+    public String next() {
+        char[] chars = new char[prefix.length() + encodedLength];
+        prefix.getChars(0, prefix.length(), chars, 0);
+        if (Thread.currentThread().isVirtual()) {
+            RandomBuffer buffer = sharedBuffers[ThreadLocalRandom.current().nextInt(sharedBuffers.length)];
+            synchronized (buffer) {
+                buffer.encodeNext(randomBytes, chars, prefix.length());
+            }
+        } else {
+            buffers.get().encodeNext(randomBytes, chars, prefix.length());
+        }
+        return new String(chars);
+    }
+
+    /**
+     * 生成的Token长度
+     *
+     * @return 前缀加随机串的总字符数
+     */
+    public int length() {
+        return prefix.length() + encodedLength;
+    }
+
+    private static SecureRandom newRandom() {
+        try {
+            // DRBG实例之间没有共享锁，NativePRNG的所有实例共用一把全局锁
+            return SecureRandom.getInstance("DRBG");
+        } catch (NoSuchAlgorithmException e) {
+            return new SecureRandom();
+        }
+    }
+
+    /**
+     * 随机字节缓冲区：批量填充，按顺序取用
+     */
+    private static final class RandomBuffer {
+
+        private final SecureRandom random = newRandom();
+        private final byte[] bytes;
+        private int position;
+
+        RandomBuffer(int size) {
+            this.bytes = new byte[size];
+            this.position = size;
+        }
+
+        /**
+         * 取出length个随机字节，以Base64URL（无填充）编码写入目标数组
+         */
+        void encodeNext(int length, char[] target, int offset) {
+            if (position + length > bytes.length) {
+                random.nextBytes(bytes);
+                position = 0;
+            }
+            int end = position + length;
+            int out = offset;
+            int i = position;
+            while (i + 3 <= end) {
+                int chunk = (bytes[i] & 0xff) << 16 | (bytes[i + 1] & 0xff) << 8 | (bytes[i + 2] & 0xff);
+                target[out++] = ALPHABET[chunk >>> 18];
+                target[out++] = ALPHABET[(chunk >>> 12) & 0x3f];
+                target[out++] = ALPHABET[(chunk >>> 6) & 0x3f];
+                target[out++] = ALPHABET[chunk & 0x3f];
+                i += 3;
+            }
+            int remaining = end - i;
+            if (remaining == 1) {
+                int chunk = (bytes[i] & 0xff) << 16;
+                target[out++] = ALPHABET[chunk >>> 18];
+                target[out] = ALPHABET[(chunk >>> 12) & 0x3f];
+            } else if (remaining == 2) {
+                int chunk = (bytes[i] & 0xff) << 16 | (bytes[i + 1] & 0xff) << 8;
+                target[out++] = ALPHABET[chunk >>> 18];
+                target[out++] = ALPHABET[(chunk >>> 12) & 0x3f];
+                target[out] = ALPHABET[(chunk >>> 6) & 0x3f];
+            }
+            position = end;
+        }
+    }
+}
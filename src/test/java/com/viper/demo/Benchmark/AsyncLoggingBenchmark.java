@@ -0,0 +1,129 @@
+package com.viper.demo.Benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 日志输出方式基准测试：同步Appender vs 异步队列
+ *
+ * 使用独立的LoggerContext，输出目标是一个每次flush都停顿约20微秒的慢速流，
+ * 模拟容器环境下stdout被日志采集器读取时的写入延迟
+ * - sync：业务线程直接写输出流，4个线程争用同一把Appender锁
+ * - async：业务线程只把事件放入队列（neverBlock，队列满时丢弃），由后台线程写出
+ *
+ * 使用SampleTime模式，重点对比p99/p999延迟，而不是平均值
+ *
+ * 运行方式：直接执行main方法
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class AsyncLoggingBenchmark {
+
+    @Param({"sync", "async"})
+    public String mode;
+
+    private LoggerContext context;
+    private Logger logger;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new LoggerContext();
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d %level [%thread] %logger - %msg%n");
+        encoder.start();
+
+        OutputStreamAppender<ILoggingEvent> output = new OutputStreamAppender<>();
+        output.setContext(context);
+        output.setEncoder(encoder);
+        output.setOutputStream(new SlowOutputStream());
+        output.start();
+
+        Appender<ILoggingEvent> appender = output;
+        if ("async".equals(mode)) {
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            async.setQueueSize(8192);
+            async.setNeverBlock(true);
+            async.setIncludeCallerData(false);
+            async.addAppender(output);
+            async.start();
+            appender = async;
+        }
+
+        logger = context.getLogger("bench");
+        logger.setAdditive(false);
+        logger.addAppender(appender);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.stop();
+    }
+
+    @Benchmark
+    public void logLoginFailure() {
+        logger.info("登录失败：密码错误 userId={}", 42);
+    }
+
+    /**
+     * 每次flush停顿约20微秒的输出流
+     */
+    private static class SlowOutputStream extends OutputStream {
+
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+
+        @Override
+        public void flush() {
+            LockSupport.parkNanos(20_000);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(AsyncLoggingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,108 @@
+package com.viper.demo.Benchmark;
+
+import com.viper.demo.Pojo.User;
+import com.viper.demo.Repository.UserRepository;
+import com.viper.demo.SaTokenDemoApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 基准测试公共支持类
+ *
+ * 为JMH基准测试启动一个基于H2内存数据库（MySQL兼容模式）的Spring上下文
+ * 并提供批量造数方法，保证各个基准测试使用一致的运行环境
+ *
+ * 注意：基准测试不依赖外部MySQL，也不需要网络
+ */
+public final class BenchmarkSupport {
+
+    /**
+     * 基准测试用户的用户名前缀
+     */
+    public static final String USERNAME_PREFIX = "bench_user_";
+
+    /**
+     * 基准测试用户的统一密码
+     */
+    public static final String PASSWORD = "123456";
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * 启动不带Web服务器的应用上下文
+     *
+     * @param extraProperties 额外的配置项，格式为"key=value"，会覆盖默认值
+     * @return 已启动的应用上下文，调用方负责关闭
+     */
+    public static ConfigurableApplicationContext start(String... extraProperties) {
+        return start(WebApplicationType.NONE, extraProperties);
+    }
+
+    /**
+     * 启动应用上下文
+     *
+     * @param webApplicationType Web应用类型，需要真实HTTP请求时使用SERVLET
+     * @param extraProperties 额外的配置项，格式为"key=value"，会覆盖默认值
+     * @return 已启动的应用上下文，调用方负责关闭
+     */
+    public static ConfigurableApplicationContext start(WebApplicationType webApplicationType, String... extraProperties) {
+        List<String> properties = new ArrayList<>(List.of(
+                "spring.datasource.url=jdbc:h2:mem:bench;MODE=MySQL;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1",
+                "spring.datasource.driver-class-name=org.h2.Driver",
+                "spring.datasource.username=sa",
+                "spring.datasource.password=",
+                "spring.jpa.hibernate.ddl-auto=create-drop",
+                "spring.jpa.show-sql=false",
+                "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "sa-token.is-log=false",
+                "logging.level.root=WARN"
+        ));
+        properties.addAll(List.of(extraProperties));
+        return new SpringApplicationBuilder(SaTokenDemoApplication.class)
+                .web(webApplicationType)
+                .properties(properties.toArray(new String[0]))
+                .run();
+    }
+
+    /**
+     * 批量插入基准测试用户
+     *
+     * 用户名格式为 bench_user_{序号}，密码统一为 {@link #PASSWORD}
+     *
+     * @param context 应用上下文
+     * @param count 用户数量
+     * @return 插入的用户名数组，下标与序号一致
+     */
+    public static String[] seedUsers(ConfigurableApplicationContext context, int count) {
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        String[] usernames = new String[count];
+        List<User> batch = new ArrayList<>(1000);
+        Date now = new Date();
+        for (int i = 0; i < count; i++) {
+            User user = new User();
+            user.setUsername(USERNAME_PREFIX + i);
+            user.setPassword(PASSWORD);
+            user.setEmail(USERNAME_PREFIX + i + "@example.com");
+            user.setPhone(String.format("138%08d", i));
+            user.setIsDelete(0);
+            user.setCreateTime(now);
+            user.setUpdateTime(now);
+            batch.add(user);
+            usernames[i] = user.getUsername();
+            if (batch.size() == 1000) {
+                userRepository.saveAll(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            userRepository.saveAll(batch);
+        }
+        return usernames;
+    }
+}
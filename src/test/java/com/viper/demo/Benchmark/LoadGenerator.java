@@ -0,0 +1,292 @@
+package com.viper.demo.Benchmark;
+
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 内嵌的闭环压测工具
+ *
+ * 启动完整的应用（内嵌Tomcat，随机端口，H2内存数据库MySQL兼容模式），造N个用户，
+ * 然后由多个虚拟线程客户端按权重混合请求以下接口：
+ * - login：POST /auth/login，随机选择一个测试用户登录
+ *   （前clients个用户留给各客户端自身的会话，避免同一账号登录次数超过上限后客户端的token被挤下线）
+ * - isLogin：GET /auth/isLogin，携带客户端自己的token
+ * - profile：GET /user/profile，携带客户端自己的token
+ * - list：GET /user/list，携带管理员token（需要admin角色）
+ *
+ * 闭环模型：每个客户端收到上一个响应后才发出下一个请求（可选思考时间），
+ * 并发度固定为客户端数量，吞吐量由系统的响应速度决定
+ *
+ * 延迟使用HdrHistogram记录（微秒精度，3位有效数字），每个客户端独立记录，结束后合并，
+ * 预热阶段的请求不计入结果
+ *
+ * 所有请求只经过本机回环地址，不需要外部工具或网络
+ *
+ * 运行方式：
+ * ```bash
+ * ./mvnw -Pload-test verify
+ * ./mvnw -Pload-test verify -Dload.args="users=5000 clients=128 duration=60 mix=login:5,isLogin:45,profile:40,list:10"
+ * ```
+ *
+ * 参数（key=value）：
+ * - users：造数用户数量，默认1000
+ * - clients：并发客户端（虚拟线程）数量，默认64
+ * - warmup：预热时长（秒），默认5
+ * - duration：测量时长（秒），默认30
+ * - think：每次请求后的思考时间（毫秒），默认0
+ * - mix：接口权重，默认login:10,isLogin:40,profile:30,list:20
+ */
+public class LoadGenerator {
+
+    /**
+     * 延迟记录上限：60秒（微秒）
+     */
+    private static final long MAX_LATENCY_MICROS = TimeUnit.SECONDS.toMicros(60);
+
+    private final Map<String, String> options;
+    private final HttpClient client;
+    private final String baseUrl;
+    private final String[] usernames;
+    private final int loginUserFrom;
+    private final String adminToken;
+    private final String[] endpoints;
+    private final int[] cumulativeWeights;
+
+    private LoadGenerator(Map<String, String> options, int port, String[] usernames) throws Exception {
+        this.options = options;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.baseUrl = "http://127.0.0.1:" + port;
+        this.usernames = usernames;
+        int clients = Integer.parseInt(options.get("clients"));
+        this.loginUserFrom = usernames.length > clients ? clients : 0;
+        this.adminToken = login("admin");
+
+        Map<String, Integer> mix = parseMix(options.get("mix"));
+        this.endpoints = mix.keySet().toArray(new String[0]);
+        this.cumulativeWeights = new int[endpoints.length];
+        int total = 0;
+        for (int i = 0; i < endpoints.length; i++) {
+            total += mix.get(endpoints[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>(Map.of(
+                "users", "1000",
+                "clients", "64",
+                "warmup", "5",
+                "duration", "30",
+                "think", "0",
+                "mix", "login:10,isLogin:40,profile:30,list:20"));
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq > 0) {
+                options.put(arg.substring(0, eq), arg.substring(eq + 1));
+            }
+        }
+
+        try (ConfigurableApplicationContext context = BenchmarkSupport.start(WebApplicationType.SERVLET,
+                "server.port=0")) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String[] usernames = BenchmarkSupport.seedUsers(context, Integer.parseInt(options.get("users")));
+            new LoadGenerator(options, port, usernames).run();
+        }
+    }
+
+    private void run() throws Exception {
+        int clients = Integer.parseInt(options.get("clients"));
+        long warmupNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(options.get("warmup")));
+        long durationNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(options.get("duration")));
+        long thinkMillis = Long.parseLong(options.get("think"));
+
+        System.out.printf("压测参数：%s%n", options);
+
+        long start = System.nanoTime();
+        long measureFrom = start + warmupNanos;
+        long measureUntil = measureFrom + durationNanos;
+
+        List<Future<ClientStats>> futures = new ArrayList<>(clients);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                String sessionUser = usernames[i % usernames.length];
+                futures.add(executor.submit(() -> runClient(sessionUser, measureFrom, measureUntil, thinkMillis)));
+            }
+        }
+
+        ClientStats total = new ClientStats(endpoints.length);
+        for (Future<ClientStats> future : futures) {
+            total.add(future.get());
+        }
+        report(total, TimeUnit.NANOSECONDS.toSeconds(durationNanos));
+    }
+
+    /**
+     * 单个客户端的闭环请求循环
+     */
+    private ClientStats runClient(String sessionUser, long measureFrom, long measureUntil, long thinkMillis)
+            throws Exception {
+        ClientStats stats = new ClientStats(endpoints.length);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String token = login(sessionUser);
+
+        long now;
+        while ((now = System.nanoTime()) < measureUntil) {
+            int endpoint = pickEndpoint(random);
+            boolean ok;
+            long begin = System.nanoTime();
+            try {
+                ok = call(endpoints[endpoint], token, random);
+            } catch (IOException e) {
+                ok = false;
+            }
+            long elapsed = System.nanoTime() - begin;
+            if (now >= measureFrom) {
+                stats.record(endpoint, elapsed, ok);
+            }
+            if (thinkMillis > 0) {
+                Thread.sleep(thinkMillis);
+            }
+        }
+        return stats;
+    }
+
+    private boolean call(String endpoint, String token, ThreadLocalRandom random) throws Exception {
+        return switch (endpoint) {
+            case "login" -> login(usernames[loginUserFrom + random.nextInt(usernames.length - loginUserFrom)]) != null;
+            case "isLogin" -> isSuccess(get("/auth/isLogin", token));
+            case "profile" -> isSuccess(get("/user/profile", token));
+            case "list" -> isSuccess(get("/user/list", adminToken));
+            default -> throw new IllegalArgumentException("未知接口：" + endpoint);
+        };
+    }
+
+    private String login(String username) throws Exception {
+        String body = "{\"username\":\"" + username + "\",\"password\":\"" + BenchmarkSupport.PASSWORD + "\"}";
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (!isSuccess(response)) {
+            return null;
+        }
+        String json = response.body();
+        int start = json.indexOf("\"token\":\"") + 9;
+        return json.substring(start, json.indexOf('"', start));
+    }
+
+    private HttpResponse<String> get(String path, String token) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("satoken", token)
+                .GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static boolean isSuccess(HttpResponse<String> response) {
+        return response.statusCode() == 200 && response.body().contains("\"code\":200");
+    }
+
+    private int pickEndpoint(ThreadLocalRandom random) {
+        int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return i;
+            }
+        }
+        return cumulativeWeights.length - 1;
+    }
+
+    private static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split(":");
+            int weight = Integer.parseInt(pair[1]);
+            if (weight > 0) {
+                weights.put(pair[0], weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("mix中至少需要一个权重大于0的接口");
+        }
+        return weights;
+    }
+
+    private void report(ClientStats total, long seconds) {
+        System.out.printf("%n%-10s %10s %10s %8s %10s %10s %10s %10s%n",
+                "endpoint", "requests", "req/s", "errors", "p50(ms)", "p99(ms)", "p999(ms)", "max(ms)");
+        Histogram all = new Histogram(MAX_LATENCY_MICROS, 3);
+        long errors = 0;
+        for (int i = 0; i < endpoints.length; i++) {
+            printRow(endpoints[i], total.latencies[i], total.errors[i], seconds);
+            all.add(total.latencies[i]);
+            errors += total.errors[i];
+        }
+        printRow("total", all, errors, seconds);
+    }
+
+    private static void printRow(String name, Histogram histogram, long errors, long seconds) {
+        System.out.printf("%-10s %10d %10.1f %8d %10.3f %10.3f %10.3f %10.3f%n",
+                name,
+                histogram.getTotalCount(),
+                histogram.getTotalCount() / (double) seconds,
+                errors,
+                histogram.getValueAtPercentile(50) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0);
+    }
+
+    /**
+     * 单个客户端的统计数据，每个接口一个延迟直方图和一个错误计数
+     */
+    private static class ClientStats {
+
+        final Histogram[] latencies;
+        final long[] errors;
+
+        ClientStats(int endpointCount) {
+            latencies = new Histogram[endpointCount];
+            errors = new long[endpointCount];
+            for (int i = 0; i < endpointCount; i++) {
+                latencies[i] = new Histogram(MAX_LATENCY_MICROS, 3);
+            }
+        }
+
+        void record(int endpoint, long elapsedNanos, boolean ok) {
+            latencies[endpoint].recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(elapsedNanos), MAX_LATENCY_MICROS));
+            if (!ok) {
+                errors[endpoint]++;
+            }
+        }
+
+        void add(ClientStats other) {
+            for (int i = 0; i < latencies.length; i++) {
+                latencies[i].add(other.latencies[i]);
+                errors[i] += other.errors[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.viper.demo.Benchmark;
+
+import com.viper.demo.Mapper.UserLoginMapper;
+import com.viper.demo.Pojo.LoginCredential;
+import com.viper.demo.Repository.UserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 登录凭证查询基准测试：JPA vs MyBatis
+ *
+ * 对比两种登录查询方式的单次延迟和每次调用的内存分配：
+ * - jpaEntity：UserRepository.findByUsernameAndNotDeleted，加载完整实体后转换
+ * - jpaProjection：UserRepository.findLoginCredentialByUsername，JPQL构造函数投影
+ * - mybatisProjection：UserLoginMapper，只查询需要的列并直接映射
+ *
+ * 运行方式：直接执行main方法，结果中的gc.alloc.rate.norm即每次调用分配的字节数
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoginLookupBenchmark {
+
+    /**
+     * 表中的用户数量
+     */
+    @Param({"10000"})
+    public int userCount;
+
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+    private UserLoginMapper userLoginMapper;
+    private String[] usernames;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.start();
+        userRepository = context.getBean(UserRepository.class);
+        userLoginMapper = context.getBean(UserLoginMapper.class);
+        usernames = BenchmarkSupport.seedUsers(context, userCount);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public LoginCredential jpaEntity() {
+        return LoginCredential.of(userRepository.findByUsernameAndNotDeleted(nextUsername()).orElse(null));
+    }
+
+    @Benchmark
+    public LoginCredential jpaProjection() {
+        return userRepository.findLoginCredentialByUsername(nextUsername()).orElse(null);
+    }
+
+    @Benchmark
+    public LoginCredential mybatisProjection() {
+        return userLoginMapper.findLoginCredential(nextUsername());
+    }
+
+    private String nextUsername() {
+        return usernames[ThreadLocalRandom.current().nextInt(usernames.length)];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(LoginLookupBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
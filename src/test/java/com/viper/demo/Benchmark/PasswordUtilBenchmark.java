@@ -0,0 +1,75 @@
+package com.viper.demo.Benchmark;
+
+import com.viper.demo.Utils.PasswordUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PasswordUtil基准测试
+ *
+ * - generateSalt：SecureRandom生成盐值
+ * - encryptPassword：注册时的密码加密（SHA-256 + 盐值）
+ * - verifyPasswordMatch / verifyPasswordMismatch：登录时的密码验证，分别对应正确和错误密码
+ *
+ * 运行方式：直接执行main方法，或通过Maven的benchmark profile统一运行
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordUtilBenchmark {
+
+    private String salt;
+    private String encrypted;
+
+    @Setup
+    public void setUp() {
+        salt = PasswordUtil.generateSalt();
+        encrypted = PasswordUtil.encryptPassword(BenchmarkSupport.PASSWORD, salt);
+    }
+
+    @Benchmark
+    public String generateSalt() {
+        return PasswordUtil.generateSalt();
+    }
+
+    @Benchmark
+    public String encryptPassword() {
+        return PasswordUtil.encryptPassword(BenchmarkSupport.PASSWORD, salt);
+    }
+
+    @Benchmark
+    public boolean verifyPasswordMatch() {
+        return PasswordUtil.verifyPassword(BenchmarkSupport.PASSWORD, salt, encrypted);
+    }
+
+    @Benchmark
+    public boolean verifyPasswordMismatch() {
+        return PasswordUtil.verifyPassword("wrong-password", salt, encrypted);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(PasswordUtilBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
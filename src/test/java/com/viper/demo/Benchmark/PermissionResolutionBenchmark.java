@@ -0,0 +1,105 @@
+package com.viper.demo.Benchmark;
+
+import com.viper.demo.Cache.GrantCache;
+import com.viper.demo.Config.StpInterfaceImpl;
+import com.viper.demo.Pojo.User;
+import com.viper.demo.Repository.UserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * StpInterfaceImpl权限解析基准测试
+ *
+ * - permissionsCold：每次调用前清除该用户的缓存，等同于每次都查询数据库
+ * - permissionsCached：缓存已预热，直接读取GrantCache
+ * - rolesCached：角色校验与权限校验共用同一个缓存条目
+ *
+ * 运行方式：直接执行main方法，或通过Maven的benchmark profile统一运行
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PermissionResolutionBenchmark {
+
+    /**
+     * 表中的用户数量
+     */
+    @Param({"10000"})
+    public int userCount;
+
+    private ConfigurableApplicationContext context;
+    private StpInterfaceImpl stpInterface;
+    private GrantCache grantCache;
+    private Integer[] userIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.start("demo.grant-cache.max-size=" + (userCount * 2));
+        stpInterface = context.getBean(StpInterfaceImpl.class);
+        grantCache = context.getBean(GrantCache.class);
+        BenchmarkSupport.seedUsers(context, userCount);
+        List<User> users = context.getBean(UserRepository.class).findAll();
+        userIds = users.stream().map(User::getId).toArray(Integer[]::new);
+        for (Integer userId : userIds) {
+            stpInterface.getPermissionList(userId, "login");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<String> permissionsCold() {
+        Integer userId = nextUserId();
+        grantCache.evict(userId);
+        return stpInterface.getPermissionList(userId, "login");
+    }
+
+    @Benchmark
+    public List<String> permissionsCached() {
+        return stpInterface.getPermissionList(nextUserId(), "login");
+    }
+
+    @Benchmark
+    public List<String> rolesCached() {
+        return stpInterface.getRoleList(nextUserId(), "login");
+    }
+
+    private Integer nextUserId() {
+        return userIds[ThreadLocalRandom.current().nextInt(userIds.length)];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(PermissionResolutionBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,91 @@
+package com.viper.demo.Benchmark;
+
+import jakarta.servlet.Filter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * 未登录请求拒绝吞吐量基准测试
+ *
+ * 以未携带Token的方式请求需要登录的接口，对比两种拒绝路径：
+ * - fastReject=false：由SaInterceptor校验注解，抛出带堆栈的NotLoginException
+ * - fastReject=true：由FastRejectInterceptor提前拒绝，抛出预分配的无堆栈异常
+ *
+ * 两种路径最终都由GlobalExceptionHandler转换为401响应
+ * 请求经过完整的Spring MVC调度链和应用中注册的所有过滤器（不经过网络）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class RejectedRequestBenchmark {
+
+    @Param({"false", "true"})
+    public boolean fastReject;
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.start(WebApplicationType.SERVLET,
+                "server.port=0",
+                "demo.auth.fast-reject=" + fastReject);
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context)
+                .addFilters(context.getBeansOfType(Filter.class).values().toArray(new Filter[0]))
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MvcResult rejectProfile() throws Exception {
+        return mockMvc.perform(get("/user/profile")).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult rejectUserList() throws Exception {
+        return mockMvc.perform(get("/user/list")).andReturn();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(RejectedRequestBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,99 @@
+package com.viper.demo.Benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.viper.demo.Pojo.LoginResponse;
+import com.viper.demo.Pojo.LoginStatus;
+import com.viper.demo.Pojo.Result;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Result响应序列化基准测试：HashMap vs record DTO
+ *
+ * 每次调用都包含构建响应数据和序列化两步，模拟一次完整的接口响应：
+ * - loginMap / loginRecord：登录成功响应
+ * - isLoginMap / isLoginRecord：已登录状态响应
+ * - loginRecordBlackbird：record DTO + Blackbird模块（与应用实际配置一致）
+ *
+ * 运行方式：直接执行main方法，对比吞吐量和gc.alloc.rate.norm
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResultSerializationBenchmark {
+
+    private final ObjectMapper plainMapper = JsonMapper.builder().build();
+
+    private final ObjectMapper blackbirdMapper = JsonMapper.builder()
+            .addModule(new BlackbirdModule())
+            .build();
+
+    private final String token = "2f1c8e3a-6b7d-4c5e-9f0a-1b2c3d4e5f60";
+
+    @Benchmark
+    public byte[] loginMap() throws JsonProcessingException {
+        Map<String, Object> data = new HashMap<>();
+        data.put("token", token);
+        data.put("userId", 1);
+        data.put("username", "admin");
+        data.put("email", "admin@example.com");
+        data.put("phone", "13800138000");
+        return plainMapper.writeValueAsBytes(Result.success(data));
+    }
+
+    @Benchmark
+    public byte[] loginRecord() throws JsonProcessingException {
+        return plainMapper.writeValueAsBytes(Result.success(
+                new LoginResponse(token, 1, "admin", "admin@example.com", "13800138000")));
+    }
+
+    @Benchmark
+    public byte[] loginRecordBlackbird() throws JsonProcessingException {
+        return blackbirdMapper.writeValueAsBytes(Result.success(
+                new LoginResponse(token, 1, "admin", "admin@example.com", "13800138000")));
+    }
+
+    @Benchmark
+    public byte[] isLoginMap() throws JsonProcessingException {
+        Map<String, Object> data = new HashMap<>();
+        data.put("isLogin", true);
+        data.put("userId", 1);
+        data.put("token", token);
+        return plainMapper.writeValueAsBytes(Result.success(data));
+    }
+
+    @Benchmark
+    public byte[] isLoginRecord() throws JsonProcessingException {
+        return plainMapper.writeValueAsBytes(Result.success(new LoginStatus(true, 1, token)));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ResultSerializationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,69 @@
+package com.viper.demo.Benchmark;
+
+import com.viper.demo.Utils.TokenGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token生成基准测试：UUID vs TokenGenerator
+ *
+ * 模拟登录高峰时多个线程同时生成Token：
+ * - uuid：UUID.randomUUID().toString()，即SA-Token uuid风格的实现，所有线程共用一个SecureRandom
+ * - generator：TokenGenerator，每个线程独立的DRBG和批量填充的随机字节缓冲区
+ * - generatorWithPrefix：带分片前缀的TokenGenerator，衡量前缀拼接的额外开销
+ *
+ * 使用8个线程运行以放大争用；单线程的对比可以通过 -t 1 参数运行
+ *
+ * 运行方式：直接执行main方法，或通过Maven的benchmark profile统一运行
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class TokenGenerationBenchmark {
+
+    private final TokenGenerator generator = new TokenGenerator();
+    private final TokenGenerator prefixedGenerator = new TokenGenerator("n3", TokenGenerator.DEFAULT_RANDOM_BYTES);
+
+    @Benchmark
+    public String uuid() {
+        return UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    public String generator() {
+        return generator.next();
+    }
+
+    @Benchmark
+    public String generatorWithPrefix() {
+        return prefixedGenerator.next();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(TokenGenerationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,101 @@
+package com.viper.demo.Benchmark;
+
+import cn.dev33.satoken.dao.SaTokenDao;
+import cn.dev33.satoken.dao.SaTokenDaoDefaultImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token存储基准测试（SA-Token默认内存实现）
+ *
+ * 预先写入tokenCount个 token -> loginId 映射，4个线程随机访问：
+ * - get：每个需要登录的请求都会执行的token查找
+ * - set：登录时写入token
+ * - expire：续期（updateTimeout），开启自动续签时每个请求都会执行
+ *
+ * 运行方式：直接执行main方法，或通过Maven的benchmark profile统一运行
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class TokenStoreBenchmark {
+
+    /**
+     * 预先写入的token数量
+     */
+    @Param({"10000"})
+    public int tokenCount;
+
+    private SaTokenDao tokenDao;
+    private String[] keys;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        tokenDao = new SaTokenDaoDefaultImpl();
+        tokenDao.init();
+        keys = new String[tokenCount];
+        for (int i = 0; i < tokenCount; i++) {
+            keys[i] = "satoken:login:token:" + UUID.randomUUID();
+            tokenDao.set(keys[i], String.valueOf(i), 2592000);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        tokenDao.destroy();
+    }
+
+    @Benchmark
+    public String get() {
+        return tokenDao.get(nextKey());
+    }
+
+    @Benchmark
+    public void set() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int index = random.nextInt(keys.length);
+        tokenDao.set(keys[index], String.valueOf(index), 2592000);
+    }
+
+    @Benchmark
+    public void expire() {
+        tokenDao.updateTimeout(nextKey(), 2592000);
+    }
+
+    private String nextKey() {
+        return keys[ThreadLocalRandom.current().nextInt(keys.length)];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(TokenStoreBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,113 @@
+package com.viper.demo.Benchmark;
+
+import cn.dev33.satoken.SaManager;
+import cn.dev33.satoken.stp.StpLogic;
+import cn.dev33.satoken.stp.StpUtil;
+import com.viper.demo.Cache.TokenRevocationList;
+import com.viper.demo.Config.StatelessStpLogic;
+import com.viper.demo.Utils.SignedTokenCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 令牌验证基准测试：Token存储模式 vs 无状态签名令牌模式
+ *
+ * 两种模式都调用StpLogic.getLoginIdNotHandle()，即isLogin()和@SaCheckLogin解析登录标识的一步：
+ * - store：默认StpLogic，查询SA-Token默认的内存Token存储
+ * - stateless：StatelessStpLogic，校验HMAC签名并检查作废列表（包含一定数量的已注销令牌）
+ *
+ * 注意：store模式这里是进程内ConcurrentHashMap，是存储模式的最好情况；
+ * 换成Redis等外部存储后每次验证还要加上一次网络往返（通常为数百微秒），
+ * 而stateless模式的耗时与部署方式无关
+ *
+ * 运行方式：直接执行main方法，或通过Maven的benchmark profile统一运行
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class TokenVerificationBenchmark {
+
+    /**
+     * 每种模式预先签发的令牌数量
+     */
+    @Param({"10000"})
+    public int tokenCount;
+
+    /**
+     * 作废列表中已注销令牌的数量
+     */
+    @Param({"1000"})
+    public int revokedCount;
+
+    private StpLogic storeLogic;
+    private StpLogic statelessLogic;
+    private String[] storeTokens;
+    private String[] statelessTokens;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        storeLogic = new StpLogic(StpUtil.TYPE);
+        storeTokens = new String[tokenCount];
+        for (int i = 0; i < tokenCount; i++) {
+            storeTokens[i] = UUID.randomUUID().toString();
+            SaManager.getSaTokenDao().set(storeLogic.splicingKeyTokenValue(storeTokens[i]), String.valueOf(i), 2592000);
+        }
+
+        byte[] secret = new byte[SignedTokenCodec.MIN_SECRET_LENGTH];
+        new SecureRandom().nextBytes(secret);
+        SignedTokenCodec codec = new SignedTokenCodec(secret);
+        TokenRevocationList revocations = new TokenRevocationList();
+        long expiresAt = System.currentTimeMillis() / 1000 + 86400;
+        for (int i = 0; i < revokedCount; i++) {
+            revocations.revoke(codec.verify(codec.issue(String.valueOf(tokenCount + i), expiresAt, 0)));
+        }
+        statelessLogic = new StatelessStpLogic(codec, revocations, 86400);
+        statelessTokens = new String[tokenCount];
+        for (int i = 0; i < tokenCount; i++) {
+            statelessTokens[i] = codec.issue(String.valueOf(i), expiresAt, 0);
+        }
+    }
+
+    @Benchmark
+    public String store() {
+        return storeLogic.getLoginIdNotHandle(storeTokens[ThreadLocalRandom.current().nextInt(storeTokens.length)]);
+    }
+
+    @Benchmark
+    public String stateless() {
+        return statelessLogic.getLoginIdNotHandle(statelessTokens[ThreadLocalRandom.current().nextInt(statelessTokens.length)]);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(TokenVerificationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,418 @@
+package com.viper.demo.Cache;
+
+import com.viper.demo.Pojo.UserGrants;
+import com.viper.demo.Utils.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GrantCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final Function<Integer, UserGrants> loader = userId -> {
+        loads.incrementAndGet();
+        return new UserGrants(List.of("user:info"), List.of("user"));
+    };
+
+    @Test
+    void testCachesWithinTtl() {
+        // Given
+        GrantCache cache = new GrantCache(true, 60, 100);
+
+        // When
+        cache.get(1, loader);
+        UserGrants grants = cache.get(1, loader);
+
+        // Then
+        assertEquals(1, loads.get());
+        assertEquals(List.of("user"), grants.roles());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testExpiredEntryIsReloaded() {
+        // Given
+        GrantCache cache = new GrantCache(true, 0, 100);
+
+        // When
+        cache.get(1, loader);
+        cache.get(1, loader);
+
+        // Then
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testDisabledAlwaysLoads() {
+        // Given
+        GrantCache cache = new GrantCache(false, 60, 100);
+
+        // When
+        cache.get(1, loader);
+        cache.get(1, loader);
+
+        // Then
+        assertEquals(2, loads.get());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testFullCacheSkipsNewEntries() {
+        // Given
+        GrantCache cache = new GrantCache(true, 60, 2);
+        cache.get(1, loader);
+        cache.get(2, loader);
+
+        // When
+        cache.get(3, loader);
+        cache.get(3, loader);
+
+        // Then
+        assertEquals(2, cache.size());
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void testEvictAndClear() {
+        // Given
+        GrantCache cache = new GrantCache(true, 60, 100);
+        cache.get(1, loader);
+        cache.get(2, loader);
+
+        // When
+        cache.evict(1);
+        cache.evict(null);
+
+        // Then
+        assertEquals(1, cache.size());
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testBindsHitMissAndSizeMetrics() {
+        // Given
+        GrantCache cache = new GrantCache(true, 60, 100);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+
+        // When
+        cache.get(1, loader);
+        cache.get(1, loader);
+        cache.get(2, loader);
+
+        // Then
+        assertEquals(1.0, registry.get("grant.cache.requests").tag("result", "hit").functionCounter().count());
+        assertEquals(2.0, registry.get("grant.cache.requests").tag("result", "miss").functionCounter().count());
+        assertEquals(2.0, registry.get("grant.cache.size").gauge().value());
+    }
+
+    private final Function<Integer, UserGrants> failingLoader = userId -> {
+        loads.incrementAndGet();
+        throw new IllegalStateException("数据库不可用");
+    };
+
+    /**
+     * 立即过期、旧数据保留60秒、失败1次即熔断的缓存
+     */
+    private static GrantCache degradableCache() {
+        return new GrantCache(true, 0, 100, 60,
+                new CircuitBreaker(1, TimeUnit.SECONDS.toNanos(60), TimeUnit.SECONDS.toNanos(1)));
+    }
+
+    @Test
+    void testServesStaleWhenLoaderFails() {
+        // Given
+        GrantCache cache = degradableCache();
+        cache.get(1, loader);
+
+        // When
+        UserGrants grants = cache.get(1, failingLoader);
+
+        // Then
+        assertEquals(List.of("user"), grants.roles());
+        assertEquals(CircuitBreaker.State.OPEN, cache.breakerState());
+    }
+
+    @Test
+    void testOpenBreakerSkipsLoaderAndServesStale() {
+        // Given
+        GrantCache cache = degradableCache();
+        cache.get(1, loader);
+        cache.get(1, failingLoader);
+        int loadsBefore = loads.get();
+
+        // When
+        UserGrants grants = cache.get(1, loader);
+
+        // Then
+        assertEquals(loadsBefore, loads.get());
+        assertEquals(List.of("user:info"), grants.permissions());
+    }
+
+    @Test
+    void testUnavailableWithoutStaleEntry() {
+        // Given
+        GrantCache cache = degradableCache();
+        assertThrows(IllegalStateException.class, () -> cache.get(1, failingLoader));
+
+        // When & Then
+        GrantCache.UnavailableException e = assertThrows(GrantCache.UnavailableException.class,
+                () -> cache.get(2, loader));
+        assertSame(GrantCache.UnavailableException.INSTANCE, e);
+        assertEquals(0, e.getStackTrace().length);
+    }
+
+    @Test
+    void testStaleBeyondMaxAgeIsNotServed() {
+        // Given
+        GrantCache cache = new GrantCache(true, 0, 100, 0,
+                new CircuitBreaker(5, TimeUnit.SECONDS.toNanos(60), TimeUnit.SECONDS.toNanos(1)));
+        cache.get(1, loader);
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> cache.get(1, failingLoader));
+    }
+
+    @Test
+    void testEvictDuringLoadIsNotCached() throws Exception {
+        // Given：加载在事务提交前开始，阻塞到evict()之后才返回旧的授权信息
+        GrantCache cache = new GrantCache(true, 60, 100);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch evicted = new CountDownLatch(1);
+        Function<Integer, UserGrants> blockingLoader = userId -> {
+            loading.countDown();
+            try {
+                evicted.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return loader.apply(userId);
+        };
+        CompletableFuture<UserGrants> pending = CompletableFuture.supplyAsync(() -> cache.get(1, blockingLoader));
+        loading.await();
+
+        // When
+        cache.evict(1);
+        evicted.countDown();
+        UserGrants loaded = pending.get(5, TimeUnit.SECONDS);
+
+        // Then：本次结果返回给调用方，但不写入缓存，下一次访问重新加载
+        assertEquals(List.of("user"), loaded.roles());
+        assertNull(cache.peek(1));
+        cache.get(1, loader);
+        assertEquals(2, loads.get());
+        assertNotNull(cache.peek(1));
+    }
+
+    @Test
+    void testPeekNeverLoads() {
+        // Given
+        GrantCache cache = new GrantCache(true, 60, 100);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+
+        // When
+        UserGrants missing = cache.peek(1);
+        cache.get(1, loader);
+        UserGrants cached = cache.peek(1);
+
+        // Then
+        assertNull(missing);
+        assertEquals(List.of("user"), cached.roles());
+        assertEquals(1, loads.get());
+        assertEquals(0.0, registry.get("grant.cache.requests").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("grant.cache.requests").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void testPeekReturnsStaleUntilMaxAge() {
+        // Given
+        GrantCache cache = new GrantCache(true, 60, 100, 600,
+                new CircuitBreaker(5, TimeUnit.SECONDS.toNanos(10), TimeUnit.SECONDS.toNanos(1)));
+        long now = System.nanoTime();
+        cache.get(1, loader, now);
+
+        // When & Then
+        assertNotNull(cache.peek(1, now + TimeUnit.SECONDS.toNanos(120)));
+        assertNull(cache.peek(1, now + TimeUnit.SECONDS.toNanos(600)));
+        assertNull(new GrantCache(false, 60, 100).peek(1));
+        assertNull(cache.peek(null));
+    }
+
+    @Test
+    void testBindsDegradationAndBreakerMetrics() {
+        // Given
+        GrantCache cache = degradableCache();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+        cache.get(1, loader);
+
+        // When
+        cache.get(1, failingLoader);
+        cache.get(1, loader);
+        assertThrows(GrantCache.UnavailableException.class, () -> cache.get(2, loader));
+
+        // Then
+        assertEquals(2.0, registry.get("grant.cache.requests").tag("result", "stale").functionCounter().count());
+        assertEquals(1.0, registry.get("grant.cache.requests").tag("result", "unavailable").functionCounter().count());
+        assertEquals(1.0, registry.get("grant.breaker.state").tag("state", "open").gauge().value());
+        assertEquals(0.0, registry.get("grant.breaker.state").tag("state", "closed").gauge().value());
+        assertEquals(1.0, registry.get("grant.breaker.opened").functionCounter().count());
+        assertEquals(2.0, registry.get("grant.breaker.not_permitted").functionCounter().count());
+    }
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final List<Runnable> refreshTasks = new ArrayList<>();
+
+    /**
+     * 60秒过期、年龄达到48秒后提前刷新的缓存，刷新任务放入refreshTasks由测试手动执行
+     */
+    private GrantCache refreshAheadCache(Executor executor) {
+        return new GrantCache(true, 60, 100, 600,
+                new CircuitBreaker(5, TimeUnit.SECONDS.toNanos(10), TimeUnit.SECONDS.toNanos(1)), 0.8, executor);
+    }
+
+    private final Function<Integer, UserGrants> versionedLoader = userId ->
+            new UserGrants(List.of("v" + loads.incrementAndGet()), List.of("user"));
+
+    @Test
+    void testRefreshAheadReloadsInBackground() {
+        // Given
+        GrantCache cache = refreshAheadCache(refreshTasks::add);
+        long start = System.nanoTime();
+        cache.get(1, versionedLoader, start);
+
+        // When
+        UserGrants young = cache.get(1, versionedLoader, start + 30 * SECOND);
+        UserGrants old = cache.get(1, versionedLoader, start + 50 * SECOND);
+
+        // Then：触发刷新时仍返回当前值，刷新完成后返回新值
+        assertEquals(List.of("v1"), young.permissions());
+        assertEquals(List.of("v1"), old.permissions());
+        assertEquals(1, refreshTasks.size());
+        assertEquals(1, loads.get());
+        refreshTasks.get(0).run();
+        assertEquals(2, loads.get());
+        assertEquals(List.of("v2"), cache.get(1, versionedLoader).permissions());
+    }
+
+    @Test
+    void testConcurrentAccessSubmitsSingleRefresh() {
+        // Given
+        GrantCache cache = refreshAheadCache(refreshTasks::add);
+        long start = System.nanoTime();
+        cache.get(1, versionedLoader, start);
+
+        // When
+        cache.get(1, versionedLoader, start + 50 * SECOND);
+        cache.get(1, versionedLoader, start + 51 * SECOND);
+        cache.get(1, versionedLoader, start + 52 * SECOND);
+
+        // Then
+        assertEquals(1, refreshTasks.size());
+        refreshTasks.get(0).run();
+        cache.get(1, versionedLoader, start + 53 * SECOND);
+        assertEquals(2, refreshTasks.size());
+    }
+
+    @Test
+    void testRefreshFailureKeepsCurrentValue() {
+        // Given
+        GrantCache cache = refreshAheadCache(refreshTasks::add);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+        long start = System.nanoTime();
+        cache.get(1, loader, start);
+
+        // When
+        cache.get(1, failingLoader, start + 50 * SECOND);
+        refreshTasks.get(0).run();
+
+        // Then
+        assertEquals(List.of("user"), cache.get(1, failingLoader, start + 55 * SECOND).roles());
+        assertEquals(1.0, registry.get("grant.cache.refresh.failures").tag("reason", "error").functionCounter().count());
+        assertEquals(0.0, registry.get("grant.cache.refresh").functionTimer().count());
+    }
+
+    @Test
+    void testEvictDuringRefreshDiscardsResult() {
+        // Given
+        GrantCache cache = refreshAheadCache(refreshTasks::add);
+        long start = System.nanoTime();
+        cache.get(1, versionedLoader, start);
+        cache.get(1, versionedLoader, start + 50 * SECOND);
+
+        // When
+        cache.evict(1);
+        refreshTasks.get(0).run();
+
+        // Then
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testRejectedRefreshIsCounted() {
+        // Given
+        GrantCache cache = refreshAheadCache(task -> {
+            throw new RejectedExecutionException();
+        });
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+        long start = System.nanoTime();
+        cache.get(1, versionedLoader, start);
+
+        // When
+        UserGrants first = cache.get(1, versionedLoader, start + 50 * SECOND);
+        UserGrants second = cache.get(1, versionedLoader, start + 51 * SECOND);
+
+        // Then：放弃刷新不影响本次访问，下次访问会再次尝试
+        assertEquals(List.of("v1"), first.permissions());
+        assertEquals(List.of("v1"), second.permissions());
+        assertEquals(2.0, registry.get("grant.cache.refresh.failures").tag("reason", "rejected").functionCounter().count());
+    }
+
+    @Test
+    void testRefreshMetrics() {
+        // Given
+        GrantCache cache = refreshAheadCache(Runnable::run);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+        long start = System.nanoTime();
+        cache.get(1, versionedLoader, start);
+
+        // When
+        cache.get(1, versionedLoader, start + 50 * SECOND);
+
+        // Then
+        assertEquals(1.0, registry.get("grant.cache.refresh").functionTimer().count());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testRefreshAheadDisabledByDefault() {
+        // Given
+        GrantCache cache = new GrantCache(true, 60, 100);
+        long start = System.nanoTime();
+        cache.get(1, versionedLoader, start);
+
+        // When
+        cache.get(1, versionedLoader, start + 59 * SECOND);
+
+        // Then
+        assertEquals(1, loads.get());
+    }
+}
@@ -0,0 +1,143 @@
+package com.viper.demo.Cache;
+
+import cn.dev33.satoken.stp.StpUtil;
+import com.viper.demo.Pojo.CachedUser;
+import com.viper.demo.Pojo.UserProfile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProfileSnapshotStoreTest {
+
+    private static final int USER_ID = 900_001;
+
+    private ProfileSnapshotStore store;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        store = new ProfileSnapshotStore();
+        registry = new SimpleMeterRegistry();
+        store.bindTo(registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (StpUtil.getSessionByLoginId(USER_ID, false) != null) {
+            StpUtil.getSessionByLoginId(USER_ID).logout();
+        }
+    }
+
+    private static UserProfile profile(String email) {
+        return new UserProfile(USER_ID, "snapshot", email, null, 0, new Date(), new Date());
+    }
+
+    private static UserProfile profile(String email, long updateTime) {
+        return new UserProfile(USER_ID, "snapshot", email, null, 0, new Date(0), new Date(updateTime));
+    }
+
+    private double count(String result) {
+        return registry.get("user.profile.snapshot.requests").tag("result", result).functionCounter().count();
+    }
+
+    @Test
+    void testStoreAndGet() {
+        // Given
+        store.store(profile("a@example.com"));
+
+        // When
+        UserProfile snapshot = store.get(USER_ID);
+
+        // Then
+        assertEquals("a@example.com", snapshot.email());
+        assertEquals(1.0, count("hit"));
+        assertEquals(0.0, count("fallback"));
+    }
+
+    @Test
+    void testMissingSessionCountsFallback() {
+        // When
+        UserProfile snapshot = store.get(USER_ID);
+
+        // Then
+        assertNull(snapshot);
+        assertEquals(1.0, count("fallback"));
+    }
+
+    @Test
+    void testRefreshOnlyWritesExistingSession() {
+        // When
+        store.refresh(profile("offline@example.com"));
+
+        // Then
+        assertNull(StpUtil.getSessionByLoginId(USER_ID, false));
+
+        // Given
+        store.store(profile("a@example.com"));
+
+        // When
+        store.refresh(profile("b@example.com"));
+
+        // Then
+        assertEquals("b@example.com", store.get(USER_ID).email());
+    }
+
+    @Test
+    void testRefreshNeverReplacesNewerSnapshot() {
+        // Given
+        store.store(profile("new@example.com", 2_000L));
+
+        // When
+        store.refresh(profile("old@example.com", 1_000L));
+
+        // Then
+        assertEquals("new@example.com", store.get(USER_ID).email());
+    }
+
+    @Test
+    void testFillOnlyWritesMissingSnapshot() {
+        // Given：回退查询期间，并发的资料修改已经刷新了快照
+        store.fill(profile("offline@example.com"));
+        assertNull(StpUtil.getSessionByLoginId(USER_ID, false));
+        StpUtil.getSessionByLoginId(USER_ID);
+        store.fill(profile("first@example.com", 1_000L));
+
+        // When
+        store.refresh(profile("updated@example.com", 3_000L));
+        store.fill(profile("fallback@example.com", 2_000L));
+
+        // Then
+        assertEquals("updated@example.com", store.get(USER_ID).email());
+    }
+
+    @Test
+    void testEvictRemovesSnapshot() {
+        // Given
+        store.store(profile("a@example.com"));
+
+        // When
+        store.evict(USER_ID);
+
+        // Then
+        assertNull(store.get(USER_ID));
+    }
+
+    @Test
+    void testSessionHoldsCompactSnapshot() {
+        // Given
+        UserProfile profile = profile("a@example.com");
+
+        // When
+        store.store(profile);
+
+        // Then
+        Object stored = StpUtil.getSessionByLoginId(USER_ID).get(ProfileSnapshotStore.SESSION_KEY);
+        assertInstanceOf(CachedUser.class, stored);
+        assertEquals(profile, store.get(USER_ID));
+    }
+}
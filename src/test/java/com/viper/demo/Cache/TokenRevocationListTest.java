@@ -0,0 +1,76 @@
+package com.viper.demo.Cache;
+
+import com.viper.demo.Utils.SignedTokenCodec;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenRevocationListTest {
+
+    private static long inOneHour() {
+        return System.currentTimeMillis() / 1000 + 3600;
+    }
+
+    @Test
+    void testRevokeSingleToken() {
+        // Given
+        TokenRevocationList revocations = new TokenRevocationList();
+        SignedTokenCodec.Claims revoked = new SignedTokenCodec.Claims("1", inOneHour(), 0, "a");
+        SignedTokenCodec.Claims other = new SignedTokenCodec.Claims("1", inOneHour(), 0, "b");
+
+        // When
+        revocations.revoke(revoked);
+
+        // Then
+        assertTrue(revocations.isRevoked(revoked));
+        assertFalse(revocations.isRevoked(other));
+        assertEquals(1, revocations.revokedTokenCount());
+    }
+
+    @Test
+    void testExpiredTokenIsNotRecorded() {
+        // Given
+        TokenRevocationList revocations = new TokenRevocationList();
+        SignedTokenCodec.Claims expired = new SignedTokenCodec.Claims("1", 1L, 0, "a");
+
+        // When
+        revocations.revoke(expired);
+
+        // Then
+        assertEquals(0, revocations.revokedTokenCount());
+    }
+
+    @Test
+    void testRevokeAllBumpsPermissionVersion() {
+        // Given
+        TokenRevocationList revocations = new TokenRevocationList();
+        SignedTokenCodec.Claims before = new SignedTokenCodec.Claims("1", inOneHour(), revocations.currentVersion("1"), "a");
+
+        // When
+        revocations.revokeAll("1");
+        SignedTokenCodec.Claims after = new SignedTokenCodec.Claims("1", inOneHour(), revocations.currentVersion("1"), "b");
+
+        // Then
+        assertEquals(1, revocations.currentVersion("1"));
+        assertEquals(0, revocations.currentVersion("2"));
+        assertTrue(revocations.isKickedOut(before));
+        assertFalse(revocations.isKickedOut(after));
+    }
+
+    @Test
+    void testBindToRegistersGauges() {
+        // Given
+        TokenRevocationList revocations = new TokenRevocationList();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        revocations.bindTo(registry);
+
+        // When
+        revocations.revoke(new SignedTokenCodec.Claims("1", inOneHour(), 0, "a"));
+        revocations.revokeAll("2");
+
+        // Then
+        assertEquals(1.0, registry.get("satoken.revocation.size").tag("type", "token").gauge().value());
+        assertEquals(1.0, registry.get("satoken.revocation.size").tag("type", "user").gauge().value());
+    }
+}
@@ -0,0 +1,172 @@
+package com.viper.demo.Cache;
+
+import com.viper.demo.Pojo.UserListVersion;
+import com.viper.demo.Pojo.UserProfile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserVersionCacheTest {
+
+    private final AtomicInteger listLoads = new AtomicInteger();
+
+    private final Supplier<UserListVersion> listLoader = () -> {
+        listLoads.incrementAndGet();
+        return new UserListVersion(2L, new Date(1_000L));
+    };
+
+    @Test
+    void testProfileVersionCachedWithinTtl() {
+        // Given
+        UserVersionCache cache = new UserVersionCache(true, 60, 100);
+
+        // When
+        Long before = cache.getProfileVersion(1);
+        cache.putProfileVersion(1, 42L, cache.profileGeneration(1));
+
+        // Then
+        assertNull(before);
+        assertEquals(42L, cache.getProfileVersion(1));
+    }
+
+    @Test
+    void testExpiredProfileVersionIsIgnored() {
+        // Given
+        UserVersionCache cache = new UserVersionCache(true, 0, 100);
+
+        // When
+        cache.putProfileVersion(1, 42L, cache.profileGeneration(1));
+
+        // Then
+        assertNull(cache.getProfileVersion(1));
+    }
+
+    @Test
+    void testListVersionLoadedOnce() {
+        // Given
+        UserVersionCache cache = new UserVersionCache(true, 60, 100);
+
+        // When
+        cache.getListVersion(listLoader);
+        UserListVersion version = cache.getListVersion(listLoader);
+
+        // Then
+        assertEquals(1, listLoads.get());
+        assertEquals("users-2-1000", version.etag());
+    }
+
+    @Test
+    void testEvictClearsProfileAndListVersion() {
+        // Given
+        UserVersionCache cache = new UserVersionCache(true, 60, 100);
+        cache.putProfileVersion(1, 42L, cache.profileGeneration(1));
+        cache.putProfileVersion(2, 43L, cache.profileGeneration(2));
+        cache.getListVersion(listLoader);
+
+        // When
+        cache.evict(1);
+        cache.getListVersion(listLoader);
+
+        // Then
+        assertNull(cache.getProfileVersion(1));
+        assertEquals(43L, cache.getProfileVersion(2));
+        assertEquals(2, listLoads.get());
+    }
+
+    @Test
+    void testProfileVersionReadBeforeEvictIsNotCached() {
+        // Given：查询数据库之前读取代数，查询期间事务提交并失效
+        UserVersionCache cache = new UserVersionCache(true, 60, 100);
+        long generation = cache.profileGeneration(1);
+        cache.evict(1);
+
+        // When
+        cache.putProfileVersion(1, 42L, generation);
+
+        // Then
+        assertNull(cache.getProfileVersion(1));
+    }
+
+    @Test
+    void testListVersionLoadedAcrossEvictIsNotCached() {
+        // Given：加载期间事务提交并失效
+        UserVersionCache cache = new UserVersionCache(true, 60, 100);
+        Supplier<UserListVersion> racingLoader = () -> {
+            UserListVersion version = listLoader.get();
+            cache.evict(1);
+            return version;
+        };
+
+        // When
+        cache.getListVersion(racingLoader);
+        cache.getListVersion(listLoader);
+
+        // Then
+        assertEquals(2, listLoads.get());
+    }
+
+    @Test
+    void testFullCacheSkipsNewEntries() {
+        // Given
+        UserVersionCache cache = new UserVersionCache(true, 60, 1);
+        cache.putProfileVersion(1, 42L, cache.profileGeneration(1));
+
+        // When
+        cache.putProfileVersion(2, 43L, cache.profileGeneration(2));
+
+        // Then
+        assertEquals(42L, cache.getProfileVersion(1));
+        assertNull(cache.getProfileVersion(2));
+    }
+
+    @Test
+    void testDisabledCacheAlwaysLoads() {
+        // Given
+        UserVersionCache cache = new UserVersionCache(false, 60, 100);
+
+        // When
+        cache.putProfileVersion(1, 42L, cache.profileGeneration(1));
+        cache.getListVersion(listLoader);
+        cache.getListVersion(listLoader);
+
+        // Then
+        assertNull(cache.getProfileVersion(1));
+        assertEquals(2, listLoads.get());
+    }
+
+    @Test
+    void testVersionOfFallsBackToCreateTime() {
+        // Given
+        UserProfile updated = new UserProfile(1, "u", null, null, 0, new Date(1_000L), new Date(2_000L));
+        UserProfile neverUpdated = new UserProfile(2, "v", null, null, 0, new Date(1_000L), null);
+
+        // When & Then
+        assertEquals(2_000L, UserVersionCache.versionOf(updated));
+        assertEquals(1_000L, UserVersionCache.versionOf(neverUpdated));
+        assertEquals("user-1-2000", UserVersionCache.profileEtag(1, 2_000L));
+    }
+
+    @Test
+    void testBindToRegistersRequestCounters() {
+        // Given
+        UserVersionCache cache = new UserVersionCache(true, 60, 100);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+
+        // When
+        cache.getProfileVersion(1);
+        cache.putProfileVersion(1, 42L, cache.profileGeneration(1));
+        cache.getProfileVersion(1);
+
+        // Then
+        assertEquals(1.0, registry.get("user.version.cache.requests")
+                .tag("type", "profile").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("user.version.cache.requests")
+                .tag("type", "profile").tag("result", "miss").functionCounter().count());
+    }
+}
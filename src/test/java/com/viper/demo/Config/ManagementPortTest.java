@@ -0,0 +1,58 @@
+package com.viper.demo.Config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "management.server.port=0")
+@ActiveProfiles("test")
+public class ManagementPortTest {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int serverPort;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @Test
+    public void testActuatorIsNotServedOnApplicationPort() throws Exception {
+        // Given
+        assertNotEquals(serverPort, managementPort);
+
+        // When
+        int metrics = get(serverPort, "/actuator/metrics");
+        int prometheus = get(serverPort, "/actuator/prometheus");
+
+        // Then
+        assertNotEquals(200, metrics);
+        assertNotEquals(200, prometheus);
+    }
+
+    @Test
+    public void testActuatorIsServedOnManagementPort() throws Exception {
+        // When
+        int health = get(managementPort, "/actuator/health");
+        int prometheus = get(managementPort, "/actuator/prometheus");
+
+        // Then
+        assertEquals(200, health);
+        assertEquals(200, prometheus);
+    }
+
+    private int get(int port, String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + path)).GET().build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -0,0 +1,82 @@
+package com.viper.demo.Config;
+
+import cn.dev33.satoken.exception.NotLoginException;
+import com.viper.demo.Cache.TokenRevocationList;
+import com.viper.demo.Utils.SignedTokenCodec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StatelessStpLogicTest {
+
+    private SignedTokenCodec codec;
+    private TokenRevocationList revocations;
+    private StatelessStpLogic stpLogic;
+
+    @BeforeEach
+    void setUp() {
+        codec = new SignedTokenCodec("0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8));
+        revocations = new TokenRevocationList();
+        stpLogic = new StatelessStpLogic(codec, revocations, 3600);
+    }
+
+    private static long inOneHour() {
+        return System.currentTimeMillis() / 1000 + 3600;
+    }
+
+    @Test
+    void testValidTokenResolvesLoginId() {
+        // Given
+        String token = codec.issue("7", inOneHour(), 0);
+
+        // When & Then
+        assertEquals("7", stpLogic.getLoginIdNotHandle(token));
+    }
+
+    @Test
+    void testInvalidTokenResolvesNull() {
+        // When & Then
+        assertNull(stpLogic.getLoginIdNotHandle("not-a-signed-token"));
+        assertNull(stpLogic.getLoginIdNotHandle(codec.issue("7", inOneHour(), 0) + "x"));
+    }
+
+    @Test
+    void testExpiredTokenResolvesTimeout() {
+        // Given
+        String token = codec.issue("7", System.currentTimeMillis() / 1000 - 1, 0);
+
+        // When & Then
+        assertEquals(NotLoginException.TOKEN_TIMEOUT, stpLogic.getLoginIdNotHandle(token));
+    }
+
+    @Test
+    void testLoggedOutTokenResolvesNull() {
+        // Given
+        String token = codec.issue("7", inOneHour(), 0);
+
+        // When
+        revocations.revoke(codec.verify(token));
+
+        // Then
+        assertNull(stpLogic.getLoginIdNotHandle(token));
+    }
+
+    @Test
+    void testKickedOutUserTokensResolveKickOut() {
+        // Given
+        String oldToken = codec.issue("7", inOneHour(), revocations.currentVersion("7"));
+        String otherUser = codec.issue("8", inOneHour(), revocations.currentVersion("8"));
+
+        // When
+        revocations.revokeAll("7");
+        String newToken = codec.issue("7", inOneHour(), revocations.currentVersion("7"));
+
+        // Then
+        assertEquals(NotLoginException.KICK_OUT, stpLogic.getLoginIdNotHandle(oldToken));
+        assertEquals("7", stpLogic.getLoginIdNotHandle(newToken));
+        assertEquals("8", stpLogic.getLoginIdNotHandle(otherUser));
+    }
+}
@@ -1,12 +1,17 @@
 package com.viper.demo.Config;
 
+import com.viper.demo.Cache.GrantCache;
+import com.viper.demo.Monitor.AuthMetrics;
+import com.viper.demo.Pojo.AccountStatus;
 import com.viper.demo.Pojo.User;
 import com.viper.demo.Service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.Date;
@@ -21,6 +26,12 @@ public class StpInterfaceImplTest {
     @Mock
     private UserService userService;
 
+    @Spy
+    private GrantCache grantCache = new GrantCache(true, 60, 100);
+
+    @Spy
+    private AuthMetrics authMetrics = new AuthMetrics(new SimpleMeterRegistry());
+
     @InjectMocks
     private StpInterfaceImpl stpInterface;
 
@@ -53,7 +64,7 @@ public class StpInterfaceImplTest {
     @Test
     void testGetPermissionList_AdminUser() {
         // Given
-        when(userService.findById(1)).thenReturn(adminUser);
+        when(userService.findAccountStatus(1)).thenReturn(AccountStatus.of(adminUser));
 
         // When
         List<String> permissions = stpInterface.getPermissionList(1, "login");
@@ -67,13 +78,13 @@ public class StpInterfaceImplTest {
         assertTrue(permissions.contains("admin:dashboard"));
         assertEquals(5, permissions.size());
 
-        verify(userService).findById(1);
+        verify(userService).findAccountStatus(1);
     }
 
     @Test
     void testGetPermissionList_NormalUser() {
         // Given
-        when(userService.findById(2)).thenReturn(normalUser);
+        when(userService.findAccountStatus(2)).thenReturn(AccountStatus.of(normalUser));
 
         // When
         List<String> permissions = stpInterface.getPermissionList(2, "login");
@@ -87,13 +98,13 @@ public class StpInterfaceImplTest {
         assertFalse(permissions.contains("admin:dashboard"));
         assertEquals(2, permissions.size());
 
-        verify(userService).findById(2);
+        verify(userService).findAccountStatus(2);
     }
 
     @Test
     void testGetPermissionList_UserNotFound() {
         // Given
-        when(userService.findById(999)).thenReturn(null);
+        when(userService.findAccountStatus(999)).thenReturn(null);
 
         // When
         List<String> permissions = stpInterface.getPermissionList(999, "login");
@@ -102,7 +113,7 @@ public class StpInterfaceImplTest {
         assertNotNull(permissions);
         assertTrue(permissions.isEmpty());
 
-        verify(userService).findById(999);
+        verify(userService).findAccountStatus(999);
     }
 
     @Test
@@ -114,7 +125,7 @@ public class StpInterfaceImplTest {
         assertNotNull(permissions);
         assertTrue(permissions.isEmpty());
 
-        verify(userService, never()).findById(any());
+        verify(userService, never()).findAccountStatus(any());
     }
 
     @Test
@@ -126,13 +137,13 @@ public class StpInterfaceImplTest {
         assertNotNull(permissions);
         assertTrue(permissions.isEmpty());
 
-        verify(userService, never()).findById(any());
+        verify(userService, never()).findAccountStatus(any());
     }
 
     @Test
     void testGetRoleList_AdminUser() {
         // Given
-        when(userService.findById(1)).thenReturn(adminUser);
+        when(userService.findAccountStatus(1)).thenReturn(AccountStatus.of(adminUser));
 
         // When
         List<String> roles = stpInterface.getRoleList(1, "login");
@@ -142,13 +153,13 @@ public class StpInterfaceImplTest {
         assertTrue(roles.contains("admin"));
         assertEquals(1, roles.size());
 
-        verify(userService).findById(1);
+        verify(userService).findAccountStatus(1);
     }
 
     @Test
     void testGetRoleList_NormalUser() {
         // Given
-        when(userService.findById(2)).thenReturn(normalUser);
+        when(userService.findAccountStatus(2)).thenReturn(AccountStatus.of(normalUser));
 
         // When
         List<String> roles = stpInterface.getRoleList(2, "login");
@@ -159,13 +170,13 @@ public class StpInterfaceImplTest {
         assertFalse(roles.contains("admin"));
         assertEquals(1, roles.size());
 
-        verify(userService).findById(2);
+        verify(userService).findAccountStatus(2);
     }
 
     @Test
     void testGetRoleList_UserNotFound() {
         // Given
-        when(userService.findById(999)).thenReturn(null);
+        when(userService.findAccountStatus(999)).thenReturn(null);
 
         // When
         List<String> roles = stpInterface.getRoleList(999, "login");
@@ -174,7 +185,7 @@ public class StpInterfaceImplTest {
         assertNotNull(roles);
         assertTrue(roles.isEmpty());
 
-        verify(userService).findById(999);
+        verify(userService).findAccountStatus(999);
     }
 
     @Test
@@ -186,7 +197,7 @@ public class StpInterfaceImplTest {
         assertNotNull(roles);
         assertTrue(roles.isEmpty());
 
-        verify(userService, never()).findById(any());
+        verify(userService, never()).findAccountStatus(any());
     }
 
     @Test
@@ -198,13 +209,13 @@ public class StpInterfaceImplTest {
         assertNotNull(roles);
         assertTrue(roles.isEmpty());
 
-        verify(userService, never()).findById(any());
+        verify(userService, never()).findAccountStatus(any());
     }
 
     @Test
     void testGetPermissionList_ServiceException() {
         // Given
-        when(userService.findById(1)).thenThrow(new RuntimeException("Database error"));
+        when(userService.findAccountStatus(1)).thenThrow(new RuntimeException("Database error"));
 
         // When
         List<String> permissions = stpInterface.getPermissionList(1, "login");
@@ -213,13 +224,13 @@ public class StpInterfaceImplTest {
         assertNotNull(permissions);
         assertTrue(permissions.isEmpty());
 
-        verify(userService).findById(1);
+        verify(userService).findAccountStatus(1);
     }
 
     @Test
     void testGetRoleList_ServiceException() {
         // Given
-        when(userService.findById(1)).thenThrow(new RuntimeException("Database error"));
+        when(userService.findAccountStatus(1)).thenThrow(new RuntimeException("Database error"));
 
         // When
         List<String> roles = stpInterface.getRoleList(1, "login");
@@ -228,13 +239,13 @@ public class StpInterfaceImplTest {
         assertNotNull(roles);
         assertTrue(roles.isEmpty());
 
-        verify(userService).findById(1);
+        verify(userService).findAccountStatus(1);
     }
 
     @Test
     void testGetPermissionList_StringLoginId() {
         // Given
-        when(userService.findById(1)).thenReturn(adminUser);
+        when(userService.findAccountStatus(1)).thenReturn(AccountStatus.of(adminUser));
 
         // When
         List<String> permissions = stpInterface.getPermissionList("1", "login");
@@ -244,13 +255,13 @@ public class StpInterfaceImplTest {
         assertTrue(permissions.contains("user:info"));
         assertTrue(permissions.contains("admin:dashboard"));
 
-        verify(userService).findById(1);
+        verify(userService).findAccountStatus(1);
     }
 
     @Test
     void testGetRoleList_StringLoginId() {
         // Given
-        when(userService.findById(2)).thenReturn(normalUser);
+        when(userService.findAccountStatus(2)).thenReturn(AccountStatus.of(normalUser));
 
         // When
         List<String> roles = stpInterface.getRoleList("2", "login");
@@ -260,6 +271,70 @@ public class StpInterfaceImplTest {
         assertTrue(roles.contains("user"));
         assertFalse(roles.contains("admin"));
 
-        verify(userService).findById(2);
+        verify(userService).findAccountStatus(2);
+    }
+
+    @Test
+    void testPermissionsAndRolesShareCachedLookup() {
+        // Given
+        when(userService.findAccountStatus(1)).thenReturn(AccountStatus.of(adminUser));
+
+        // When
+        List<String> permissions = stpInterface.getPermissionList(1, "login");
+        List<String> roles = stpInterface.getRoleList(1, "login");
+        stpInterface.getPermissionList("1", "login");
+
+        // Then
+        assertTrue(permissions.contains("admin:dashboard"));
+        assertTrue(roles.contains("admin"));
+        verify(userService, times(1)).findAccountStatus(1);
+    }
+
+    @Test
+    void testEvictReloadsGrants() {
+        // Given
+        when(userService.findAccountStatus(2)).thenReturn(AccountStatus.of(normalUser));
+        stpInterface.getRoleList(2, "login");
+
+        // When
+        grantCache.evict(2);
+        stpInterface.getRoleList(2, "login");
+
+        // Then
+        verify(userService, times(2)).findAccountStatus(2);
+    }
+
+    @Test
+    void testServiceExceptionIsNotCached() {
+        // Given
+        when(userService.findAccountStatus(1))
+                .thenThrow(new RuntimeException("Database error"))
+                .thenReturn(AccountStatus.of(adminUser));
+
+        // When
+        List<String> first = stpInterface.getPermissionList(1, "login");
+        List<String> second = stpInterface.getPermissionList(1, "login");
+
+        // Then
+        assertTrue(first.isEmpty());
+        assertTrue(second.contains("user:info"));
+    }
+
+    @Test
+    void testOpenBreakerStopsQueryingDatabase() {
+        // Given：默认连续5次失败后熔断
+        when(userService.findAccountStatus(1)).thenThrow(new RuntimeException("Database error"));
+        for (int i = 0; i < 5; i++) {
+            stpInterface.getRoleList(1, "login");
+        }
+
+        // When
+        List<String> roles = stpInterface.getRoleList(1, "login");
+        List<String> permissions = stpInterface.getPermissionList(1, "login");
+
+        // Then
+        assertTrue(roles.isEmpty());
+        assertTrue(permissions.isEmpty());
+        verify(userService, times(5)).findAccountStatus(1);
     }
 }
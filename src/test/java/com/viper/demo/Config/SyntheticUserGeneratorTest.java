@@ -0,0 +1,159 @@
+package com.viper.demo.Config;
+
+import com.viper.demo.Pojo.User;
+import com.viper.demo.Pojo.UserArchive;
+import com.viper.demo.Repository.UserArchiveRepository;
+import com.viper.demo.Repository.UserRepository;
+import com.viper.demo.Service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class SyntheticUserGeneratorTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserArchiveRepository userArchiveRepository;
+
+    @Autowired
+    private UserService userService;
+
+    private Set<Integer> existingIds;
+
+    @BeforeEach
+    void setUp() {
+        existingIds = new HashSet<>();
+        userRepository.findAll().forEach(user -> existingIds.add(user.getId()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        // 生成器自己提交事务，测试结束后只删除本测试生成的用户
+        userRepository.deleteAll(generatedUsers());
+    }
+
+    private List<User> generatedUsers() {
+        return userRepository.findAll().stream()
+                .filter(user -> !existingIds.contains(user.getId()))
+                .toList();
+    }
+
+    private SyntheticUserGenerator generator(double deletedRatio) {
+        return new SyntheticUserGenerator(0, 3, 50, deletedRatio, 0.85, 3, 42L, "123456", 1000, 1, false,
+                dataSource, applicationContext);
+    }
+
+    @Test
+    void testGeneratesRequestedUsers() throws Exception {
+        // When
+        SyntheticUserGenerator.Report report = generator(0.2).generate(1000);
+
+        // Then
+        List<User> users = generatedUsers();
+        assertEquals(1000, report.rows());
+        assertEquals(1000, users.size());
+        assertEquals(report.deleted(), users.stream().filter(user -> user.getIsDelete() == 1).count());
+        assertTrue(report.deleted() > 120 && report.deleted() < 280, "删除比例应接近20%：" + report.deleted());
+        assertTrue(report.rowsPerSecond() > 0);
+    }
+
+    @Test
+    void testGeneratedRowsLookRealistic() throws Exception {
+        // When
+        generator(0.1).generate(500);
+
+        // Then
+        List<User> users = generatedUsers();
+        assertEquals(500, users.stream().map(User::getUsername).distinct().count());
+        assertEquals(500, users.stream().map(User::getEmail).distinct().count());
+        long withPhone = users.stream().filter(user -> user.getPhone() != null).count();
+        assertTrue(withPhone > 350 && withPhone < 480, "手机号比例应接近85%：" + withPhone);
+        for (User user : users) {
+            assertTrue(user.getEmail().startsWith(user.getUsername() + "@"));
+            assertTrue(user.getPhone() == null || user.getPhone().matches("1[3-9]\\d{9}"), user.getPhone());
+            assertFalse(user.getUpdateTime().before(user.getCreateTime()));
+        }
+    }
+
+    @Test
+    void testRepeatedRunsDoNotDuplicateUsernames() throws Exception {
+        // When
+        generator(0.0).generate(200);
+        generator(0.0).generate(200);
+
+        // Then
+        assertEquals(400, generatedUsers().stream().map(User::getUsername).distinct().count());
+    }
+
+    @Test
+    void testIndexStartsAfterArchivedUsers() throws Exception {
+        // Given：ID最大的用户已被归档，不在user表中
+        int maxUserId = userRepository.findAll().stream().mapToInt(User::getId).max().orElse(0);
+        int archivedId = maxUserId + 1000;
+        userArchiveRepository.saveAndFlush(new UserArchive(archivedId, "archived", "x", "archived@example.com",
+                null, 1, new Date(), new Date(), new Date()));
+
+        // When
+        long nextIndex;
+        try {
+            nextIndex = generator(0.0).nextIndex();
+        } finally {
+            userArchiveRepository.deleteById(archivedId);
+        }
+
+        // Then
+        assertEquals(archivedId + 1, nextIndex);
+    }
+
+    @Test
+    void testGeneratedUsersCanLogIn() throws Exception {
+        // Given
+        generator(0.0).generate(10);
+        String username = generatedUsers().get(0).getUsername();
+
+        // When & Then
+        assertTrue(userService.validatePassword(username, "123456"));
+        assertFalse(userService.validatePassword(username, "654321"));
+    }
+
+    @Test
+    void testUsernamesAndPhonesAreUniquePerIndex() {
+        // Given
+        SplittableRandom random = new SplittableRandom(42);
+        Set<String> usernames = new HashSet<>();
+        Set<String> phoneSuffixes = new HashSet<>();
+
+        // When
+        for (long index = 1; index <= 10_000; index++) {
+            usernames.add(SyntheticUserGenerator.username(index, random));
+            phoneSuffixes.add(SyntheticUserGenerator.phone(index, random).substring(3));
+        }
+
+        // Then
+        assertEquals(10_000, usernames.size());
+        assertEquals(10_000, phoneSuffixes.size());
+    }
+}
@@ -1,26 +1,35 @@
 package com.viper.demo.Controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.viper.demo.Cache.ProfileSnapshotStore;
+import com.viper.demo.Cache.UserVersionCache;
+import com.viper.demo.Handler.LoginThrottle;
+import com.viper.demo.Monitor.AuthMetrics;
+import com.viper.demo.Pojo.LoginCredential;
 import com.viper.demo.Pojo.LoginRequest;
 import com.viper.demo.Pojo.RegisterRequest;
 import com.viper.demo.Pojo.User;
 import com.viper.demo.Service.UserService;
+import com.viper.demo.Utils.PasswordUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Date;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(AuthController.class)
+@Import({AuthMetrics.class, UserVersionCache.class, ProfileSnapshotStore.class, LoginThrottle.class})
 public class AuthControllerTest {
 
     @Autowired
@@ -62,7 +71,7 @@ public class AuthControllerTest {
     @Test
     void testDoLogin_Success() throws Exception {
         // Given
-        when(userService.findByUsername("testuser")).thenReturn(testUser);
+        when(userService.findLoginCredential("testuser")).thenReturn(LoginCredential.of(testUser));
 
         // When & Then
         mockMvc.perform(post("/auth/login")
@@ -76,13 +85,13 @@ public class AuthControllerTest {
                 .andExpect(jsonPath("$.data.email").value("test@example.com"))
                 .andExpect(jsonPath("$.data.token").exists());
 
-        verify(userService).findByUsername("testuser");
+        verify(userService).findLoginCredential("testuser");
     }
 
     @Test
     void testDoLogin_UserNotFound() throws Exception {
         // Given
-        when(userService.findByUsername("nonexistent")).thenReturn(null);
+        when(userService.findLoginCredential("nonexistent")).thenReturn(null);
         loginRequest.setUsername("nonexistent");
 
         // When & Then
@@ -93,13 +102,21 @@ public class AuthControllerTest {
                 .andExpect(jsonPath("$.code").value(401))
                 .andExpect(jsonPath("$.message").value("用户名或密码错误"));
 
-        verify(userService).findByUsername("nonexistent");
+        verify(userService).findLoginCredential("nonexistent");
+    }
+
+    @Test
+    void testDummyHashCostsAsMuchAsStoredPasswords() {
+        // Then：用户不存在时比对的哈希与迁移后的密码使用相同的迭代次数
+        assertTrue(AuthController.DUMMY_HASH.startsWith(
+                PasswordUtil.PBKDF2_PREFIX + PasswordUtil.DEFAULT_ITERATIONS + "$"));
+        assertFalse(PasswordUtil.matches("password123", AuthController.DUMMY_HASH));
     }
 
     @Test
     void testDoLogin_WrongPassword() throws Exception {
         // Given
-        when(userService.findByUsername("testuser")).thenReturn(testUser);
+        when(userService.findLoginCredential("testuser")).thenReturn(LoginCredential.of(testUser));
         loginRequest.setPassword("wrongpassword");
 
         // When & Then
@@ -110,14 +127,36 @@ public class AuthControllerTest {
                 .andExpect(jsonPath("$.code").value(401))
                 .andExpect(jsonPath("$.message").value("用户名或密码错误"));
 
-        verify(userService).findByUsername("testuser");
+        verify(userService).findLoginCredential("testuser");
+    }
+
+    @Test
+    void testDoLogin_ThrottledAfterRepeatedFailures() throws Exception {
+        // Given
+        when(userService.findLoginCredential("bruteforce")).thenReturn(null);
+        loginRequest.setUsername("bruteforce");
+        String body = objectMapper.writeValueAsString(loginRequest);
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(post("/auth/login").contentType(MediaType.APPLICATION_JSON).content(body))
+                    .andExpect(jsonPath("$.code").value(401));
+        }
+
+        // When & Then
+        mockMvc.perform(post("/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.code").value(429))
+                .andExpect(jsonPath("$.message").value("登录失败次数过多，请稍后再试"));
+
+        verify(userService, times(5)).findLoginCredential("bruteforce");
     }
 
     @Test
     void testDoLogin_DeletedUser() throws Exception {
         // Given
         testUser.setIsDelete(1);
-        when(userService.findByUsername("testuser")).thenReturn(testUser);
+        when(userService.findLoginCredential("testuser")).thenReturn(LoginCredential.of(testUser));
 
         // When & Then
         mockMvc.perform(post("/auth/login")
@@ -127,7 +166,7 @@ public class AuthControllerTest {
                 .andExpect(jsonPath("$.code").value(403))
                 .andExpect(jsonPath("$.message").value("账号已被禁用"));
 
-        verify(userService).findByUsername("testuser");
+        verify(userService).findLoginCredential("testuser");
     }
 
     @Test
@@ -143,7 +182,7 @@ public class AuthControllerTest {
                 .andExpect(jsonPath("$.code").value(400))
                 .andExpect(jsonPath("$.message").value("用户名不能为空"));
 
-        verify(userService, never()).findByUsername(any());
+        verify(userService, never()).findLoginCredential(any());
     }
 
     @Test
@@ -159,7 +198,7 @@ public class AuthControllerTest {
                 .andExpect(jsonPath("$.code").value(400))
                 .andExpect(jsonPath("$.message").value("密码不能为空"));
 
-        verify(userService, never()).findByUsername(any());
+        verify(userService, never()).findLoginCredential(any());
     }
 
     @Test
@@ -172,7 +211,7 @@ public class AuthControllerTest {
                 .andExpect(jsonPath("$.code").value(400))
                 .andExpect(jsonPath("$.message").value("请求参数不能为空"));
 
-        verify(userService, never()).findByUsername(any());
+        verify(userService, never()).findLoginCredential(any());
     }
 
     @Test
@@ -325,4 +364,16 @@ public class AuthControllerTest {
                 .andExpect(jsonPath("$.message").value("success"))
                 .andExpect(jsonPath("$.data").value("注销成功"));
     }
+
+    @Test
+    void testGetUserInfo_NotLogin() throws Exception {
+        // When & Then
+        // 未登录时由GlobalExceptionHandler统一转换为401响应
+        mockMvc.perform(get("/auth/userInfo"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.code").value(401))
+                .andExpect(jsonPath("$.message").value("请先登录"));
+
+        verify(userService, never()).findProfileById(any());
+    }
 }
@@ -1,13 +1,17 @@
 package com.viper.demo.Controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.viper.demo.Cache.UserVersionCache;
+import com.viper.demo.Monitor.SlowQueryLog;
 import com.viper.demo.Pojo.User;
+import com.viper.demo.Pojo.UserProfile;
 import com.viper.demo.Service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -21,6 +25,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(UserController.class)
+@Import({SlowQueryLog.class, UserVersionCache.class})
 public class UserControllerTest {
 
     @Autowired
@@ -61,7 +66,7 @@ public class UserControllerTest {
     @Test
     void testGetUserProfile_Success() throws Exception {
         // Given
-        when(userService.findById(1)).thenReturn(testUser);
+        when(userService.findProfileById(1)).thenReturn(UserProfile.of(testUser));
 
         // When & Then
         // 注意：由于SA-Token的注解需要实际的登录状态，这里的测试可能需要模拟登录
@@ -76,8 +81,8 @@ public class UserControllerTest {
     @Test
     void testGetUserList_Success() throws Exception {
         // Given
-        List<User> users = Arrays.asList(testUser, adminUser);
-        when(userService.findAll()).thenReturn(users);
+        List<UserProfile> users = Arrays.asList(UserProfile.of(testUser), UserProfile.of(adminUser));
+        when(userService.findAllProfiles()).thenReturn(users);
 
         // When & Then
         mockMvc.perform(get("/user/list")
@@ -92,8 +97,8 @@ public class UserControllerTest {
         updateUser.setEmail("updated@example.com");
         updateUser.setPhone("13800138999");
 
-        when(userService.findById(1)).thenReturn(testUser);
-        when(userService.update(any(User.class))).thenReturn(testUser);
+        when(userService.updateProfile(1, "updated@example.com", "13800138999"))
+                .thenReturn(UserProfile.of(testUser));
 
         // When & Then
         mockMvc.perform(put("/user/profile")
@@ -125,8 +130,7 @@ public class UserControllerTest {
     @Test
     void testAdminDashboard() throws Exception {
         // Given
-        List<User> users = Arrays.asList(testUser, adminUser);
-        when(userService.findAll()).thenReturn(users);
+        when(userService.countUsers()).thenReturn(2L);
 
         // When & Then
         mockMvc.perform(get("/user/admin/dashboard")
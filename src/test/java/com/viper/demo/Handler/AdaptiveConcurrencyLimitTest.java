@@ -0,0 +1,203 @@
+package com.viper.demo.Handler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdaptiveConcurrencyLimitTest {
+
+    private static final long WINDOW = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(50);
+
+    /**
+     * 以满并发运行一个窗口：占满所有名额，全部以给定的响应时间释放
+     */
+    private static void runSaturatedWindow(AdaptiveConcurrencyLimit limit, long rttNanos, long windowEnd) {
+        int acquired = 0;
+        while (limit.tryAcquire(RequestPriority.ADMIN)) {
+            acquired++;
+        }
+        for (int i = 0; i < acquired - 1; i++) {
+            limit.release(rttNanos, windowEnd - 1);
+        }
+        limit.release(rttNanos, windowEnd);
+    }
+
+    @Test
+    void testRejectsAboveLimit() {
+        // Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("test", 3, 1, 10, WINDOW);
+
+        // When
+        boolean first = limit.tryAcquire(RequestPriority.ADMIN);
+        boolean second = limit.tryAcquire(RequestPriority.ADMIN);
+        boolean third = limit.tryAcquire(RequestPriority.ADMIN);
+        boolean fourth = limit.tryAcquire(RequestPriority.ADMIN);
+
+        // Then
+        assertTrue(first && second && third);
+        assertFalse(fourth);
+        assertEquals(3, limit.getInFlight());
+        assertEquals(1, limit.getRejected());
+    }
+
+    @Test
+    void testReleaseFreesSlot() {
+        // Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("test", 1, 1, 10, WINDOW);
+        assertTrue(limit.tryAcquire(RequestPriority.ADMIN));
+
+        // When
+        limit.release(FAST);
+
+        // Then
+        assertEquals(0, limit.getInFlight());
+        assertTrue(limit.tryAcquire(RequestPriority.ADMIN));
+    }
+
+    @Test
+    void testLimitShrinksWhenLatencyRises() {
+        // Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("test", 40, 5, 100, WINDOW);
+        long now = System.nanoTime();
+        for (int i = 1; i <= 5; i++) {
+            runSaturatedWindow(limit, FAST, now + i * WINDOW);
+        }
+        int beforeSlowdown = limit.getLimit();
+
+        // When
+        for (int i = 6; i <= 15; i++) {
+            runSaturatedWindow(limit, SLOW, now + i * WINDOW);
+        }
+
+        // Then
+        assertTrue(limit.getLimit() < beforeSlowdown,
+                "上限应收缩：before=" + beforeSlowdown + " after=" + limit.getLimit());
+        assertTrue(limit.getLimit() >= 5);
+    }
+
+    @Test
+    void testLimitGrowsWhileLatencyIsStable() {
+        // Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("test", 10, 5, 100, WINDOW);
+        long now = System.nanoTime();
+
+        // When
+        for (int i = 1; i <= 10; i++) {
+            runSaturatedWindow(limit, FAST, now + i * WINDOW);
+        }
+
+        // Then
+        assertTrue(limit.getLimit() > 10);
+        assertTrue(limit.getLimit() <= 100);
+    }
+
+    @Test
+    void testLimitUnchangedWhenUnderused() {
+        // Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("test", 40, 5, 100, WINDOW);
+        long now = System.nanoTime();
+
+        // When
+        for (int i = 0; i < 20; i++) {
+            assertTrue(limit.tryAcquire(RequestPriority.ADMIN));
+            limit.release(SLOW, now + WINDOW + i);
+        }
+
+        // Then
+        assertEquals(40, limit.getLimit());
+    }
+
+    @Test
+    void testRejectsInvalidRange() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimit("test", 10, 0, 10, WINDOW));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimit("test", 10, 20, 10, WINDOW));
+    }
+
+    @Test
+    void testPriorityShares() {
+        // Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("test", 10, 1, 10, WINDOW);
+
+        // When
+        int anonymous = 0;
+        while (limit.tryAcquire(RequestPriority.ANONYMOUS)) {
+            anonymous++;
+        }
+        int user = 0;
+        while (limit.tryAcquire(RequestPriority.USER)) {
+            user++;
+        }
+        int admin = 0;
+        while (limit.tryAcquire(RequestPriority.ADMIN)) {
+            admin++;
+        }
+
+        // Then
+        assertEquals(5, anonymous);
+        assertEquals(4, user);
+        assertEquals(1, admin);
+        assertEquals(1, limit.getRejected(RequestPriority.ANONYMOUS));
+        assertEquals(1, limit.getRejected(RequestPriority.USER));
+        assertEquals(1, limit.getRejected(RequestPriority.ADMIN));
+        assertEquals(3, limit.getRejected());
+    }
+
+    @Test
+    void testOverloadedWorkerPoolShedsLowestPriorityFirst() throws Exception {
+        // Given：12个闭环客户端（每个优先级4个）争抢上限为8的名额，
+        // 被接纳的请求占用名额1ms，被拒绝后等待1ms再重试（模拟Retry-After）
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("test", 8, 8, 8, WINDOW);
+        RequestPriority[] priorities = RequestPriority.values();
+        int clientsPerPriority = 4;
+        ExecutorService workers = Executors.newFixedThreadPool(clientsPerPriority * priorities.length);
+        AtomicLongArray admitted = new AtomicLongArray(priorities.length);
+        CountDownLatch start = new CountDownLatch(1);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(300);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < clientsPerPriority * priorities.length; i++) {
+            RequestPriority priority = priorities[i % priorities.length];
+            futures.add(workers.submit(() -> {
+                start.await();
+                while (System.nanoTime() < deadline) {
+                    if (limit.tryAcquire(priority)) {
+                        admitted.incrementAndGet(priority.ordinal());
+                        Thread.sleep(1);
+                        limit.release(TimeUnit.MILLISECONDS.toNanos(1));
+                    } else {
+                        Thread.sleep(1);
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        workers.shutdown();
+
+        // Then
+        long adminAdmitted = admitted.get(RequestPriority.ADMIN.ordinal());
+        long userAdmitted = admitted.get(RequestPriority.USER.ordinal());
+        long anonymousAdmitted = admitted.get(RequestPriority.ANONYMOUS.ordinal());
+        assertTrue(adminAdmitted > userAdmitted && userAdmitted > anonymousAdmitted,
+                "接纳数应为 admin > user > anonymous：" + admitted);
+        assertTrue(limit.getRejected(RequestPriority.ANONYMOUS) > limit.getRejected(RequestPriority.USER));
+        assertTrue(limit.getRejected(RequestPriority.USER) > limit.getRejected(RequestPriority.ADMIN));
+        assertEquals(0, limit.getInFlight());
+    }
+}
@@ -0,0 +1,168 @@
+package com.viper.demo.Handler;
+
+import cn.dev33.satoken.annotation.SaCheckRole;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.method.HandlerMethod;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrencyLimitInterceptorTest {
+
+    @RequestMapping("/auth")
+    static class AuthEndpoints {
+        public void login() {
+        }
+    }
+
+    @RequestMapping("/user")
+    static class UserEndpoints {
+        public void profile() {
+        }
+
+        @SaCheckRole("admin")
+        public void list() {
+        }
+    }
+
+    static class OtherEndpoints {
+        public void docs() {
+        }
+    }
+
+    private static ConcurrencyLimitInterceptor interceptor(MockEnvironment environment) {
+        return new ConcurrencyLimitInterceptor(true, 1000, environment, () -> RequestPriority.ADMIN);
+    }
+
+    private HandlerMethod handler(Object bean, String name) throws NoSuchMethodException {
+        return new HandlerMethod(bean, bean.getClass().getMethod(name));
+    }
+
+    @Test
+    void testResolvesEndpointGroups() throws Exception {
+        // Given
+        ConcurrencyLimitInterceptor interceptor = interceptor(new MockEnvironment());
+
+        // Then
+        assertEquals("auth", interceptor.limitFor(handler(new AuthEndpoints(), "login")).getGroup());
+        assertEquals("user", interceptor.limitFor(handler(new UserEndpoints(), "profile")).getGroup());
+        assertEquals("admin", interceptor.limitFor(handler(new UserEndpoints(), "list")).getGroup());
+        assertNull(interceptor.limitFor(handler(new OtherEndpoints(), "docs")));
+    }
+
+    @Test
+    void testGroupLimitsFromProperties() {
+        // Given
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("demo.concurrency-limit.admin.initial-limit", "3")
+                .withProperty("demo.concurrency-limit.admin.max-limit", "4");
+
+        // When
+        ConcurrencyLimitInterceptor interceptor = interceptor(environment);
+
+        // Then
+        assertEquals(3, interceptor.getLimit("admin").getLimit());
+        assertEquals(20, interceptor.getLimit("auth").getLimit());
+    }
+
+    @Test
+    void testShedsRequestsAboveLimit() throws Exception {
+        // Given
+        ConcurrencyLimitInterceptor interceptor = interceptor(new MockEnvironment()
+                .withProperty("demo.concurrency-limit.admin.initial-limit", "2"));
+        HandlerMethod admin = handler(new UserEndpoints(), "list");
+        MockHttpServletRequest first = new MockHttpServletRequest();
+        MockHttpServletRequest second = new MockHttpServletRequest();
+        assertTrue(interceptor.preHandle(first, new MockHttpServletResponse(), admin));
+        assertTrue(interceptor.preHandle(second, new MockHttpServletResponse(), admin));
+
+        // When & Then
+        OverloadException shed = assertThrows(OverloadException.class,
+                () -> interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), admin));
+        assertSame(OverloadException.SHED, shed);
+        assertEquals(0, shed.getStackTrace().length);
+
+        // 其他分组不受影响
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(),
+                handler(new UserEndpoints(), "profile")));
+    }
+
+    @Test
+    void testAnonymousShedBeforeAuthenticated() throws Exception {
+        // Given
+        RequestPriority[] current = {RequestPriority.ANONYMOUS};
+        ConcurrencyLimitInterceptor interceptor = new ConcurrencyLimitInterceptor(true, 1000,
+                new MockEnvironment().withProperty("demo.concurrency-limit.auth.initial-limit", "4"),
+                () -> current[0]);
+        HandlerMethod login = handler(new AuthEndpoints(), "login");
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), login));
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), login));
+
+        // When & Then
+        assertThrows(OverloadException.class,
+                () -> interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), login));
+        current[0] = RequestPriority.USER;
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), login));
+        assertEquals(1, interceptor.getLimit("auth").getRejected(RequestPriority.ANONYMOUS));
+    }
+
+    @Test
+    void testAfterCompletionReleasesSlot() throws Exception {
+        // Given
+        ConcurrencyLimitInterceptor interceptor = interceptor(new MockEnvironment());
+        HandlerMethod login = handler(new AuthEndpoints(), "login");
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        interceptor.preHandle(request, new MockHttpServletResponse(), login);
+        assertEquals(1, interceptor.getLimit("auth").getInFlight());
+
+        // When
+        interceptor.afterCompletion(request, new MockHttpServletResponse(), login, null);
+        interceptor.afterCompletion(request, new MockHttpServletResponse(), login, null);
+
+        // Then
+        assertEquals(0, interceptor.getLimit("auth").getInFlight());
+    }
+
+    @Test
+    void testDisabled() throws Exception {
+        // Given
+        ConcurrencyLimitInterceptor interceptor = new ConcurrencyLimitInterceptor(false, 1000,
+                new MockEnvironment().withProperty("demo.concurrency-limit.admin.initial-limit", "1"),
+                () -> RequestPriority.ADMIN);
+        HandlerMethod admin = handler(new UserEndpoints(), "list");
+
+        // When & Then
+        for (int i = 0; i < 5; i++) {
+            assertTrue(interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), admin));
+        }
+        assertEquals(0, interceptor.getLimit("admin").getInFlight());
+    }
+
+    @Test
+    void testMetrics() throws Exception {
+        // Given
+        ConcurrencyLimitInterceptor interceptor = interceptor(new MockEnvironment()
+                .withProperty("demo.concurrency-limit.admin.initial-limit", "2"));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        interceptor.bindTo(registry);
+        HandlerMethod admin = handler(new UserEndpoints(), "list");
+
+        // When
+        interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), admin);
+        interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), admin);
+        assertThrows(OverloadException.class,
+                () -> interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), admin));
+
+        // Then
+        assertEquals(2.0, registry.get("http.concurrency.limit").tag("group", "admin").gauge().value());
+        assertEquals(2.0, registry.get("http.concurrency.inflight").tag("group", "admin").gauge().value());
+        assertEquals(1.0, registry.get("http.concurrency.rejected")
+                .tag("group", "admin").tag("priority", "admin").functionCounter().count());
+        assertEquals(0.0, registry.get("http.concurrency.rejected")
+                .tag("group", "admin").tag("priority", "anonymous").functionCounter().count());
+    }
+}
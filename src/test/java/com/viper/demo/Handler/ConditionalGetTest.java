@@ -0,0 +1,64 @@
+package com.viper.demo.Handler;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConditionalGetTest {
+
+    @Test
+    void testNotModifiedWhenEtagMatches() {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/user/profile");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"user-1-1000\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        ServletWebRequest webRequest = new ServletWebRequest(request, response);
+
+        // When
+        boolean hasVersion = ConditionalGet.clientHasVersion(webRequest, "user-1-1000");
+        boolean notModified = ConditionalGet.notModified(webRequest, "user-1-1000", 1000L);
+
+        // Then
+        assertTrue(hasVersion);
+        assertTrue(notModified);
+        assertEquals(304, response.getStatus());
+        assertEquals("\"user-1-1000\"", response.getHeader(HttpHeaders.ETAG));
+        assertEquals(ConditionalGet.CACHE_CONTROL, response.getHeader(HttpHeaders.CACHE_CONTROL));
+    }
+
+    @Test
+    void testModifiedWritesValidators() {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/user/profile");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"user-1-1000\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        ServletWebRequest webRequest = new ServletWebRequest(request, response);
+
+        // When
+        boolean hasVersion = ConditionalGet.clientHasVersion(webRequest, "user-1-2000");
+        boolean notModified = ConditionalGet.notModified(webRequest, "user-1-2000", 2000L);
+
+        // Then
+        assertFalse(hasVersion);
+        assertFalse(notModified);
+        assertEquals(200, response.getStatus());
+        assertEquals("\"user-1-2000\"", response.getHeader(HttpHeaders.ETAG));
+        assertNotNull(response.getHeader(HttpHeaders.LAST_MODIFIED));
+    }
+
+    @Test
+    void testNoConditionalHeaders() {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/user/list");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        ServletWebRequest webRequest = new ServletWebRequest(request, response);
+
+        // When & Then
+        assertFalse(ConditionalGet.clientHasVersion(webRequest, "users-2-1000"));
+        assertFalse(ConditionalGet.notModified(webRequest, "users-2-1000", 1000L));
+    }
+}
@@ -0,0 +1,68 @@
+package com.viper.demo.Handler;
+
+import cn.dev33.satoken.annotation.SaCheckLogin;
+import cn.dev33.satoken.annotation.SaCheckPermission;
+import cn.dev33.satoken.annotation.SaCheckRole;
+import cn.dev33.satoken.annotation.SaIgnore;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.method.HandlerMethod;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FastRejectInterceptorTest {
+
+    private final FastRejectInterceptor interceptor = new FastRejectInterceptor();
+
+    static class PlainController {
+        public void open() {
+        }
+
+        @SaCheckLogin
+        public void login() {
+        }
+
+        @SaCheckRole("admin")
+        public void role() {
+        }
+
+        @SaCheckPermission("user:update")
+        public void permission() {
+        }
+
+        @SaCheckLogin
+        @SaIgnore
+        public void ignored() {
+        }
+    }
+
+    @SaCheckLogin
+    static class LoginController {
+        public void inherited() {
+        }
+    }
+
+    private HandlerMethod handler(Object bean, String name) throws NoSuchMethodException {
+        return new HandlerMethod(bean, bean.getClass().getMethod(name));
+    }
+
+    @Test
+    void testRequiresLogin_MethodAnnotations() throws Exception {
+        PlainController controller = new PlainController();
+
+        assertFalse(interceptor.requiresLogin(handler(controller, "open")));
+        assertTrue(interceptor.requiresLogin(handler(controller, "login")));
+        assertTrue(interceptor.requiresLogin(handler(controller, "role")));
+        assertTrue(interceptor.requiresLogin(handler(controller, "permission")));
+        assertFalse(interceptor.requiresLogin(handler(controller, "ignored")));
+    }
+
+    @Test
+    void testRequiresLogin_ClassAnnotation() throws Exception {
+        assertTrue(interceptor.requiresLogin(handler(new LoginController(), "inherited")));
+    }
+
+    @Test
+    void testNonHandlerMethodPassesThrough() {
+        assertTrue(interceptor.preHandle(null, null, new Object()));
+    }
+}
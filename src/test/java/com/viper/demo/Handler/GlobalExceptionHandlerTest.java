@@ -0,0 +1,74 @@
+package com.viper.demo.Handler;
+
+import cn.dev33.satoken.exception.NotLoginException;
+import cn.dev33.satoken.exception.NotPermissionException;
+import cn.dev33.satoken.exception.NotRoleException;
+import com.viper.demo.Pojo.Result;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class GlobalExceptionHandlerTest {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+    @Test
+    void testHandleAuthRejected() {
+        // When
+        Result<Void> result = handler.handleAuthRejected(AuthRejectedException.NOT_LOGIN);
+
+        // Then
+        assertEquals(401, result.getCode());
+        assertEquals("请先登录", result.getMessage());
+        assertNull(result.getData());
+    }
+
+    @Test
+    void testHandleNotLogin() {
+        // When
+        Result<Void> result = handler.handleNotLogin(mock(NotLoginException.class));
+
+        // Then
+        assertEquals(401, result.getCode());
+        assertEquals("请先登录", result.getMessage());
+    }
+
+    @Test
+    void testHandleNoPermission() {
+        // When
+        Result<Void> permission = handler.handleNoPermission(mock(NotPermissionException.class));
+        Result<Void> role = handler.handleNoPermission(mock(NotRoleException.class));
+
+        // Then
+        assertEquals(403, permission.getCode());
+        assertEquals(403, role.getCode());
+        assertEquals("权限不足", role.getMessage());
+    }
+
+    @Test
+    void testAuthRejectedExceptionIsStackless() {
+        // When
+        AuthRejectedException e = new AuthRejectedException(401, "请先登录");
+
+        // Then
+        assertEquals(0, e.getStackTrace().length);
+        assertEquals(0, AuthRejectedException.NOT_LOGIN.getStackTrace().length);
+        e.addSuppressed(new RuntimeException("ignored"));
+        assertEquals(0, e.getSuppressed().length);
+    }
+
+    @Test
+    void testHandleOverload() {
+        // When
+        ResponseEntity<Result<Void>> response = handler.handleOverload(OverloadException.SHED);
+
+        // Then
+        assertEquals(503, response.getStatusCode().value());
+        assertEquals("1", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(503, response.getBody().getCode());
+        assertEquals("服务繁忙，请稍后重试", response.getBody().getMessage());
+    }
+}
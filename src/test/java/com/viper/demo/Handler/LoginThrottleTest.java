@@ -0,0 +1,97 @@
+package com.viper.demo.Handler;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoginThrottleTest {
+
+    @Test
+    void testUsernameLimit() {
+        // Given
+        LoginThrottle throttle = new LoginThrottle(true, 300, 3, 100, 1024);
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            assertFalse(throttle.isThrottled("alice", "10.0.0." + i));
+            throttle.recordFailure("alice", "10.0.0." + i);
+        }
+
+        // Then
+        assertTrue(throttle.isThrottled("alice", "10.0.0.99"));
+        assertFalse(throttle.isThrottled("bob", "10.0.0.99"));
+    }
+
+    @Test
+    void testIpLimit() {
+        // Given
+        LoginThrottle throttle = new LoginThrottle(true, 300, 100, 3, 1024);
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            throttle.recordFailure("user" + i, "10.0.0.1");
+        }
+
+        // Then
+        assertTrue(throttle.isThrottled("someone", "10.0.0.1"));
+        assertFalse(throttle.isThrottled("someone", "10.0.0.2"));
+        assertFalse(throttle.isThrottled("someone", null));
+    }
+
+    @Test
+    void testDisabled() {
+        // Given
+        LoginThrottle throttle = new LoginThrottle(false, 300, 1, 1, 1024);
+
+        // When
+        throttle.recordFailure("alice", "10.0.0.1");
+        throttle.recordFailure("alice", "10.0.0.1");
+
+        // Then
+        assertFalse(throttle.isThrottled("alice", "10.0.0.1"));
+    }
+
+    @Test
+    void testRejectionMetrics() {
+        // Given
+        LoginThrottle throttle = new LoginThrottle(true, 300, 1, 2, 1024);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        throttle.bindTo(registry);
+        throttle.recordFailure("alice", "10.0.0.1");
+        throttle.recordFailure("bob", "10.0.0.1");
+
+        // When
+        throttle.isThrottled("alice", "10.0.0.2");
+        throttle.isThrottled("carol", "10.0.0.1");
+        throttle.isThrottled("carol", "10.0.0.3");
+
+        // Then
+        assertEquals(1.0, registry.get("auth.login.throttled").tag("key", "username").functionCounter().count());
+        assertEquals(1.0, registry.get("auth.login.throttled").tag("key", "ip").functionCounter().count());
+    }
+
+    @Test
+    void testDistinctFailingUsernamesDoNotThrottleOthers() {
+        // Given：按默认配置，撞库流量分散在很多用户名和IP上，每个用户名只失败一次
+        LoginThrottle throttle = new LoginThrottle(true, 300, 5, 50, 50_000);
+
+        // When
+        for (int i = 0; i < 25_000; i++) {
+            throttle.recordFailure("victim" + i, "10.0." + (i / 40 / 256) + "." + (i / 40 % 256));
+        }
+
+        // Then
+        assertFalse(throttle.isThrottled("admin", "192.168.0.1"));
+        assertFalse(throttle.isThrottled("alice", "192.168.0.2"));
+    }
+
+    @Test
+    void testWidthFollowsExpectedFailures() {
+        // When & Then
+        assertEquals(40_000, LoginThrottle.width(50_000, 5));
+        assertEquals(4_000, LoginThrottle.width(50_000, 50));
+        assertEquals(1024, LoginThrottle.width(100, 5));
+        assertEquals(1 << 24, LoginThrottle.width(Integer.MAX_VALUE, 1));
+    }
+}
@@ -0,0 +1,49 @@
+package com.viper.demo.Handler;
+
+import com.viper.demo.Cache.GrantCache;
+import com.viper.demo.Pojo.UserGrants;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RequestPriorityTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private UserGrants load(List<String> roles) {
+        loads.incrementAndGet();
+        return new UserGrants(List.of(), roles);
+    }
+
+    @Test
+    void testClassifiesFromCachedGrants() {
+        // Given
+        GrantCache cache = new GrantCache(true, 60, 100);
+        cache.get(1, id -> load(List.of("admin")));
+        cache.get(2, id -> load(List.of("user")));
+
+        // When & Then
+        assertEquals(RequestPriority.ADMIN, RequestPriority.of(1, cache));
+        assertEquals(RequestPriority.USER, RequestPriority.of("2", cache));
+        assertEquals(RequestPriority.ANONYMOUS, RequestPriority.of(null, cache));
+    }
+
+    @Test
+    void testCacheMissIsUserWithoutLoading() {
+        // Given
+        GrantCache cache = new GrantCache(true, 60, 100);
+
+        // When
+        RequestPriority uncached = RequestPriority.of(3, cache);
+        RequestPriority malformed = RequestPriority.of("not-a-number", cache);
+
+        // Then
+        assertEquals(RequestPriority.USER, uncached);
+        assertEquals(RequestPriority.USER, malformed);
+        assertEquals(0, loads.get());
+        assertEquals(0, cache.size());
+    }
+}
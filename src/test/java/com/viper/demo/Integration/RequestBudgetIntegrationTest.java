@@ -0,0 +1,198 @@
+package com.viper.demo.Integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.viper.demo.Pojo.LoginRequest;
+import com.viper.demo.Pojo.User;
+import com.viper.demo.Repository.UserRepository;
+import com.viper.demo.Support.QueryCountingConfig;
+import com.viper.demo.Support.RequestBudget;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * 请求预算测试：限制热点接口的SQL语句数和内存分配，防止性能回退
+ *
+ * 每个接口先请求一次预热（类加载、查询计划缓存、授权缓存），再测量第二次请求
+ * 测试期间关闭SQL调试日志，只测量应用本身的分配
+ */
+@SpringBootTest(properties = {
+        "logging.level.com.viper.demo=INFO",
+        "logging.level.org.springframework.web=INFO",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO"
+})
+@AutoConfigureWebMvc
+@ActiveProfiles("test")
+@Transactional
+@Import(QueryCountingConfig.class)
+public class RequestBudgetIntegrationTest {
+
+    /**
+     * 额外造数的用户数量，用于放大"加载全部用户"类回退的分配量
+     */
+    private static final int EXTRA_USERS = 500;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        if (userRepository.findByUsername("admin").isEmpty()) {
+            userRepository.save(newUser("admin"));
+        }
+        if (userRepository.findByUsername("budgetuser").isEmpty()) {
+            userRepository.save(newUser("budgetuser"));
+        }
+        List<User> users = new ArrayList<>(EXTRA_USERS);
+        for (int i = 0; i < EXTRA_USERS; i++) {
+            users.add(newUser("budget_extra_" + i));
+        }
+        userRepository.saveAll(users);
+        // 把造数产生的SQL全部刷到数据库，避免计入第一个被测请求
+        userRepository.flush();
+    }
+
+    private User newUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("123456");
+        user.setEmail(username + "@example.com");
+        user.setIsDelete(0);
+        user.setCreateTime(new Date());
+        user.setUpdateTime(new Date());
+        return user;
+    }
+
+    private MvcResult login(String username) throws Exception {
+        LoginRequest request = new LoginRequest();
+        request.setUsername(username);
+        request.setPassword("123456");
+        return mockMvc.perform(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(jsonPath("$.code").value(200))
+                .andReturn();
+    }
+
+    private String token(MvcResult loginResult) throws Exception {
+        return objectMapper.readTree(loginResult.getResponse().getContentAsString())
+                .path("data").path("token").asText();
+    }
+
+    @Test
+    void testLoginBudget() throws Exception {
+        // Given
+        login("budgetuser");
+
+        // When & Then
+        RequestBudget.measure(() -> login("budgetuser")).assertWithin(1, 512);
+    }
+
+    @Test
+    void testIsLoginBudget() throws Exception {
+        // Given
+        String token = token(login("budgetuser"));
+        mockMvc.perform(get("/auth/isLogin").header("satoken", token));
+
+        // When & Then
+        RequestBudget.measure(() -> mockMvc.perform(get("/auth/isLogin").header("satoken", token))
+                        .andExpect(jsonPath("$.data.isLogin").value(true)))
+                .assertWithin(0, 256);
+    }
+
+    @Test
+    void testUserInfoBudget() throws Exception {
+        // Given
+        String token = token(login("budgetuser"));
+        mockMvc.perform(get("/auth/userInfo").header("satoken", token));
+
+        // When & Then
+        // 资料来自登录时写入会话的快照，不查询数据库
+        RequestBudget.measure(() -> mockMvc.perform(get("/auth/userInfo").header("satoken", token))
+                        .andExpect(jsonPath("$.data.username").value("budgetuser")))
+                .assertWithin(0, 256);
+    }
+
+    @Test
+    void testProfileBudget() throws Exception {
+        // Given
+        String token = token(login("budgetuser"));
+        mockMvc.perform(get("/user/profile").header("satoken", token));
+
+        // When & Then
+        RequestBudget.measure(() -> mockMvc.perform(get("/user/profile").header("satoken", token))
+                        .andExpect(jsonPath("$.code").value(200)))
+                .assertWithin(0, 256);
+    }
+
+    @Test
+    void testAdminDashboardBudget() throws Exception {
+        // Given
+        String token = token(login("admin"));
+        mockMvc.perform(get("/user/admin/dashboard").header("satoken", token));
+
+        // When & Then
+        // 统计用户数只允许一条COUNT查询，不允许加载全部用户实体
+        RequestBudget.measure(() -> mockMvc.perform(get("/user/admin/dashboard").header("satoken", token))
+                        .andExpect(jsonPath("$.data.totalUsers").isNumber()))
+                .assertWithin(1, 256);
+    }
+
+    @Test
+    void testUserInfoNotModifiedBudget() throws Exception {
+        // Given
+        String token = token(login("budgetuser"));
+        String etag = mockMvc.perform(get("/auth/userInfo").header("satoken", token))
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // When & Then
+        // 版本号缓存命中且客户端已持有最新版本：不查库、不序列化响应体
+        RequestBudget.measure(() -> mockMvc.perform(get("/auth/userInfo")
+                                .header("satoken", token)
+                                .header(HttpHeaders.IF_NONE_MATCH, etag))
+                        .andExpect(status().isNotModified())
+                        .andExpect(content().string("")))
+                .assertWithin(0, 256);
+    }
+
+    @Test
+    void testUserListNotModifiedBudget() throws Exception {
+        // Given
+        String token = token(login("admin"));
+        String etag = mockMvc.perform(get("/user/list").header("satoken", token))
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // When & Then
+        // 列表未变化时只比较缓存的聚合版本，不加载500多个用户
+        RequestBudget.measure(() -> mockMvc.perform(get("/user/list")
+                                .header("satoken", token)
+                                .header(HttpHeaders.IF_NONE_MATCH, etag))
+                        .andExpect(status().isNotModified()))
+                .assertWithin(0, 256);
+    }
+}
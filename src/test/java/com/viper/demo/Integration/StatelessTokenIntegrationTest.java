@@ -0,0 +1,131 @@
+package com.viper.demo.Integration;
+
+import cn.dev33.satoken.stp.StpLogic;
+import cn.dev33.satoken.stp.StpUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.viper.demo.Pojo.LoginRequest;
+import com.viper.demo.Pojo.User;
+import com.viper.demo.Repository.UserRepository;
+import com.viper.demo.Utils.SignedTokenCodec;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "demo.auth.stateless.enabled=true",
+        "demo.auth.stateless.secret=integration-test-secret-0123456789abcdef"
+})
+@AutoConfigureWebMvc
+@ActiveProfiles("test")
+@Transactional
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+public class StatelessTokenIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * StpUtil持有的StpLogic是全局静态的，测试结束后恢复默认实现，避免影响其他测试类
+     */
+    @AfterAll
+    static void restoreDefaultStpLogic() {
+        StpUtil.setStpLogic(new StpLogic(StpUtil.TYPE));
+    }
+
+    @BeforeEach
+    void setUp() {
+        if (userRepository.findByUsername("statelessuser").isEmpty()) {
+            User user = new User();
+            user.setUsername("statelessuser");
+            user.setPassword("123456");
+            user.setEmail("statelessuser@example.com");
+            user.setIsDelete(0);
+            user.setCreateTime(new Date());
+            user.setUpdateTime(new Date());
+            userRepository.save(user);
+        }
+    }
+
+    private String login() throws Exception {
+        LoginRequest request = new LoginRequest();
+        request.setUsername("statelessuser");
+        request.setPassword("123456");
+        String body = mockMvc.perform(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(jsonPath("$.code").value(200))
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).path("data").path("token").asText();
+    }
+
+    @Test
+    void testLoginIssuesSignedToken() throws Exception {
+        // When
+        String token = login();
+
+        // Then
+        assertTrue(token.startsWith(SignedTokenCodec.PREFIX));
+        mockMvc.perform(get("/auth/isLogin").header("satoken", token))
+                .andExpect(jsonPath("$.data.isLogin").value(true));
+        mockMvc.perform(get("/auth/userInfo").header("satoken", token))
+                .andExpect(jsonPath("$.data.username").value("statelessuser"));
+    }
+
+    @Test
+    void testLogoutRevokesToken() throws Exception {
+        // Given
+        String token = login();
+        String otherSession = login();
+
+        // When
+        mockMvc.perform(post("/auth/logout").header("satoken", token))
+                .andExpect(jsonPath("$.code").value(200));
+
+        // Then
+        mockMvc.perform(get("/auth/isLogin").header("satoken", token))
+                .andExpect(jsonPath("$.data.isLogin").value(false));
+        mockMvc.perform(get("/auth/isLogin").header("satoken", otherSession))
+                .andExpect(jsonPath("$.data.isLogin").value(true));
+    }
+
+    @Test
+    void testKickoutRevokesAllTokensOfUser() throws Exception {
+        // Given
+        String first = login();
+        String second = login();
+        Integer userId = userRepository.findByUsername("statelessuser").orElseThrow().getId();
+
+        // When
+        mockMvc.perform(post("/auth/kickout").param("userId", userId.toString()).header("satoken", first))
+                .andExpect(jsonPath("$.code").value(200));
+
+        // Then
+        mockMvc.perform(get("/auth/isLogin").header("satoken", first))
+                .andExpect(jsonPath("$.data.isLogin").value(false));
+        mockMvc.perform(get("/auth/isLogin").header("satoken", second))
+                .andExpect(jsonPath("$.data.isLogin").value(false));
+        String fresh = login();
+        mockMvc.perform(get("/auth/isLogin").header("satoken", fresh))
+                .andExpect(jsonPath("$.data.isLogin").value(true));
+    }
+}
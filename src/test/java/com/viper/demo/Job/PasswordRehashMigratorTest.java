@@ -0,0 +1,227 @@
+package com.viper.demo.Job;
+
+import com.viper.demo.Pojo.JobCheckpoint;
+import com.viper.demo.Pojo.User;
+import com.viper.demo.Repository.JobCheckpointRepository;
+import com.viper.demo.Repository.UserRepository;
+import com.viper.demo.Service.UserService;
+import com.viper.demo.Utils.PasswordUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "demo.password-rehash.batch-size=2",
+        "demo.password-rehash.iterations=1000",
+        "demo.password-rehash.pause-millis=0",
+        "demo.password-rehash.max-cpu-load=0.6",
+        "demo.password-rehash.max-db-latency-millis=200"
+})
+@ActiveProfiles("test")
+@Transactional
+public class PasswordRehashMigratorTest {
+
+    @Autowired
+    private PasswordRehashMigrator migrator;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JobCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        checkpointRepository.deleteAll();
+        registry = new SimpleMeterRegistry();
+        migrator.bindTo(registry);
+    }
+
+    private User saveUser(String username, String password) {
+        User user = new User(null, username, password, username + "@example.com", null,
+                0, new Date(), new Date());
+        // 立即刷新，保证MyBatis在同一事务连接上能查询到数据
+        return userRepository.saveAndFlush(user);
+    }
+
+    private double rows(String result) {
+        return registry.get("password.rehash.rows").tag("result", result).functionCounter().count();
+    }
+
+    @Test
+    void testRehashesPlaintextPasswords() {
+        // Given
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            users.add(saveUser("user" + i, "password" + i));
+        }
+
+        // When
+        int rehashed = migrator.runToCompletion();
+        entityManager.clear();
+
+        // Then
+        assertEquals(5, rehashed);
+        for (int i = 0; i < 5; i++) {
+            String stored = userRepository.findById(users.get(i).getId()).orElseThrow().getPassword();
+            assertTrue(stored.startsWith(PasswordUtil.PBKDF2_PREFIX + "1000$"));
+            assertTrue(PasswordUtil.matches("password" + i, stored));
+        }
+        assertTrue(userService.validatePassword("user0", "password0"));
+        assertFalse(userService.validatePassword("user0", "password1"));
+    }
+
+    @Test
+    void testSkipsAlreadyHashedPasswords() {
+        // Given
+        String hash = PasswordUtil.hashPassword("hashed123", 1000);
+        User hashed = saveUser("hashed", hash);
+        saveUser("plain", "plain123");
+        double skippedBefore = rows("skipped");
+
+        // When
+        int rehashed = migrator.runToCompletion();
+        entityManager.clear();
+
+        // Then
+        assertEquals(1, rehashed);
+        assertEquals(hash, userRepository.findById(hashed.getId()).orElseThrow().getPassword());
+        assertEquals(1.0, rows("skipped") - skippedBefore);
+    }
+
+    @Test
+    void testResumesFromCheckpoint() {
+        // Given：前两个用户已经处理过
+        User first = saveUser("first", PasswordUtil.hashPassword("password1", 1000));
+        User second = saveUser("second", PasswordUtil.hashPassword("password2", 1000));
+        User third = saveUser("third", "password3");
+        checkpointRepository.saveAndFlush(new JobCheckpoint(PasswordRehashMigrator.JOB_NAME, second.getId(), new Date()));
+        double skippedBefore = rows("skipped");
+
+        // When
+        int rehashed = migrator.runToCompletion();
+        entityManager.clear();
+
+        // Then：检查点之前的行不再读取，补扫也只读取明文的行
+        assertEquals(1, rehashed);
+        assertEquals(0.0, rows("skipped") - skippedBefore);
+        assertTrue(PasswordUtil.isHashed(userRepository.findById(first.getId()).orElseThrow().getPassword()));
+        assertTrue(PasswordUtil.isHashed(userRepository.findById(third.getId()).orElseThrow().getPassword()));
+    }
+
+    @Test
+    void testSweepRehashesPlaintextBehindCheckpoint() {
+        // Given：检查点已经越过前两个用户，但它们的密码之后又被写回了明文
+        User first = saveUser("first", "password1");
+        User second = saveUser("second", "password2");
+        User third = saveUser("third", "password3");
+        checkpointRepository.saveAndFlush(new JobCheckpoint(PasswordRehashMigrator.JOB_NAME, second.getId(), new Date()));
+
+        // When
+        int rehashed = migrator.runToCompletion();
+        entityManager.clear();
+
+        // Then：补扫不移动检查点
+        assertEquals(3, rehashed);
+        for (User user : List.of(first, second, third)) {
+            assertTrue(PasswordUtil.isHashed(userRepository.findById(user.getId()).orElseThrow().getPassword()));
+        }
+        assertEquals(third.getId(), checkpointRepository.findById(PasswordRehashMigrator.JOB_NAME).orElseThrow().getPosition());
+    }
+
+    @Test
+    void testProfileUpdateAfterMigratedBatchKeepsHash() {
+        // Given：资料修改请求已经读取了用户（持久化上下文中是明文），随后迁移写回了哈希
+        User user = saveUser("alice", "password1");
+        assertEquals("password1", userRepository.findById(user.getId()).orElseThrow().getPassword());
+        migrator.runToCompletion();
+
+        // When
+        userService.updateProfile(user.getId(), "alice@new.example.com", "13800138000");
+        entityManager.clear();
+
+        // Then：只写邮箱和手机号，迁移写入的哈希没有被覆盖
+        User stored = userRepository.findById(user.getId()).orElseThrow();
+        assertEquals("alice@new.example.com", stored.getEmail());
+        assertEquals("13800138000", stored.getPhone());
+        assertTrue(PasswordUtil.isHashed(stored.getPassword()));
+        assertTrue(userService.validatePassword("alice", "password1"));
+    }
+
+    @Test
+    void testSoftDeleteAfterMigratedBatchKeepsHash() {
+        // Given
+        User user = saveUser("bob", "password1");
+        assertEquals("password1", userRepository.findById(user.getId()).orElseThrow().getPassword());
+        migrator.runToCompletion();
+
+        // When
+        assertTrue(userService.deleteById(user.getId()));
+        entityManager.clear();
+
+        // Then
+        User stored = userRepository.findById(user.getId()).orElseThrow();
+        assertEquals(1, stored.getIsDelete());
+        assertTrue(PasswordUtil.isHashed(stored.getPassword()));
+    }
+
+    @Test
+    void testCheckpointAndMetricsAdvance() {
+        // Given
+        User last = null;
+        for (int i = 0; i < 3; i++) {
+            last = saveUser("user" + i, "password" + i);
+        }
+        double rehashedBefore = rows("rehashed");
+
+        // When
+        migrator.runToCompletion();
+
+        // Then：再次执行时从检查点之后开始，没有新数据
+        JobCheckpoint checkpoint = checkpointRepository.findById(PasswordRehashMigrator.JOB_NAME).orElseThrow();
+        assertEquals(last.getId(), checkpoint.getPosition());
+        assertEquals(3.0, rows("rehashed") - rehashedBefore);
+        assertEquals(last.getId(), (int) registry.get("password.rehash.position").gauge().value());
+        assertEquals(0.0, registry.get("password.rehash.running").gauge().value());
+        assertEquals(0, migrator.runToCompletion());
+    }
+
+    @Test
+    void testThrottleBacksOffAndRecovers() {
+        // Given
+        double throttledBefore = registry.get("password.rehash.throttled").functionCounter().count();
+
+        // When
+        long cpuBusy = migrator.nextPauseMillis(0, 0.9, 10);
+        long dbSlow = migrator.nextPauseMillis(cpuBusy, 0.1, 500);
+        long recovered = migrator.nextPauseMillis(dbSlow, 0.1, 10);
+        long unknownCpu = migrator.nextPauseMillis(0, -1, 10);
+
+        // Then
+        assertEquals(20, cpuBusy);
+        assertEquals(40, dbSlow);
+        assertEquals(20, recovered);
+        assertEquals(0, unknownCpu);
+        assertEquals(2.0, registry.get("password.rehash.throttled").functionCounter().count() - throttledBefore);
+    }
+}
@@ -0,0 +1,187 @@
+package com.viper.demo.Job;
+
+import com.viper.demo.Cache.UserVersionCache;
+import com.viper.demo.Mapper.UserArchiveMapper;
+import com.viper.demo.Pojo.User;
+import com.viper.demo.Pojo.UserArchive;
+import com.viper.demo.Repository.UserArchiveRepository;
+import com.viper.demo.Repository.UserRepository;
+import com.viper.demo.Service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "demo.user-archive.batch-size=2",
+        "demo.user-archive.pause-millis=0"
+})
+@ActiveProfiles("test")
+@Transactional
+public class UserArchiverTest {
+
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+    @Autowired
+    private UserArchiver archiver;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserArchiveRepository userArchiveRepository;
+
+    @Autowired
+    private UserArchiveMapper archiveMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserVersionCache userVersionCache;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        userArchiveRepository.deleteAll();
+        registry = new SimpleMeterRegistry();
+        archiver.bindTo(registry);
+    }
+
+    private User saveUser(String username, int isDelete, long updatedDaysAgo) {
+        Date updated = new Date(System.currentTimeMillis() - updatedDaysAgo * DAY);
+        User user = new User(null, username, "password123", username + "@example.com", null,
+                isDelete, updated, updated);
+        // 立即刷新，保证MyBatis在同一事务连接上能查询到数据
+        return userRepository.saveAndFlush(user);
+    }
+
+    private Date cutoff() {
+        return new Date(System.currentTimeMillis() - 30 * DAY);
+    }
+
+    @Test
+    void testArchivesOnlyUsersDeletedBeforeCutoff() {
+        // Given
+        for (int i = 0; i < 5; i++) {
+            saveUser("expired" + i, 1, 60);
+        }
+        User recent = saveUser("recent", 1, 1);
+        User active = saveUser("active", 0, 60);
+
+        // When
+        int archived = archiver.archiveDeletedBefore(cutoff());
+        entityManager.clear();
+
+        // Then
+        assertEquals(5, archived);
+        assertEquals(2, userRepository.count());
+        assertTrue(userRepository.existsById(recent.getId()));
+        assertTrue(userRepository.existsById(active.getId()));
+        assertEquals(5, userArchiveRepository.count());
+    }
+
+    @Test
+    void testArchivedRowKeepsOriginalData() {
+        // Given
+        User expired = saveUser("expired", 1, 60);
+
+        // When
+        archiver.archiveDeletedBefore(cutoff());
+        entityManager.clear();
+
+        // Then
+        UserArchive archive = userArchiveRepository.findById(expired.getId()).orElseThrow();
+        assertEquals("expired", archive.getUsername());
+        assertEquals("expired@example.com", archive.getEmail());
+        assertEquals(1, archive.getIsDelete());
+        assertNotNull(archive.getArchiveTime());
+        assertNull(archive.getPassword());
+    }
+
+    @Test
+    void testPreviouslyArchivedPasswordsAreCleared() {
+        // Given：旧版本归档时复制了明文密码
+        Date deleted = new Date(System.currentTimeMillis() - 60 * DAY);
+        userArchiveRepository.saveAndFlush(new UserArchive(900_001, "legacy", "password123",
+                "legacy@example.com", null, 1, deleted, deleted, deleted));
+
+        // 共享的archiver可能已在其他测试中清空过，这里使用新实例模拟应用重启后的第一次归档
+        UserArchiver freshArchiver = new UserArchiver(true, 30, 2, 0, archiveMapper, transactionManager,
+                userVersionCache);
+
+        // When
+        freshArchiver.archiveDeletedBefore(cutoff());
+        entityManager.clear();
+
+        // Then
+        assertNull(userArchiveRepository.findById(900_001).orElseThrow().getPassword());
+    }
+
+    @Test
+    void testArchivedUsernameAndEmailStayTaken() {
+        // Given
+        saveUser("expired", 1, 60);
+
+        // When
+        archiver.archiveDeletedBefore(cutoff());
+        entityManager.clear();
+
+        // Then
+        assertTrue(userRepository.findByUsername("expired").isEmpty());
+        assertTrue(userService.existsByUsername("expired"));
+        assertTrue(userService.existsByEmail("expired@example.com"));
+    }
+
+    @Test
+    void testNothingToArchive() {
+        // Given
+        saveUser("active", 0, 60);
+
+        // When
+        int archived = archiver.archiveDeletedBefore(cutoff());
+
+        // Then
+        assertEquals(0, archived);
+        assertEquals(0.0, registry.get("user.archive.rate").gauge().value());
+    }
+
+    @Test
+    void testProgressMetrics() {
+        // Given
+        double rowsBefore = registry.get("user.archive.rows").functionCounter().count();
+        double batchesBefore = registry.get("user.archive.batches").functionCounter().count();
+        User last = null;
+        for (int i = 0; i < 3; i++) {
+            last = saveUser("expired" + i, 1, 60);
+        }
+
+        // When
+        archiver.archiveDeletedBefore(cutoff());
+
+        // Then：批大小为2，3行分两批
+        assertEquals(3.0, registry.get("user.archive.rows").functionCounter().count() - rowsBefore);
+        assertEquals(2.0, registry.get("user.archive.batches").functionCounter().count() - batchesBefore);
+        assertEquals(last.getId(), (int) registry.get("user.archive.position").gauge().value());
+        assertTrue(registry.get("user.archive.rate").gauge().value() > 0);
+        assertEquals(0.0, registry.get("user.archive.running").gauge().value());
+    }
+}
@@ -0,0 +1,82 @@
+package com.viper.demo.Mapper;
+
+import com.viper.demo.Pojo.LoginCredential;
+import com.viper.demo.Pojo.User;
+import com.viper.demo.Repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class UserLoginMapperTest {
+
+    @Autowired
+    private UserLoginMapper userLoginMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+
+        testUser = new User();
+        testUser.setUsername("testuser");
+        testUser.setPassword("password123");
+        testUser.setEmail("test@example.com");
+        testUser.setPhone("13800138000");
+        testUser.setIsDelete(0);
+        testUser.setCreateTime(new Date());
+        testUser.setUpdateTime(new Date());
+        // 立即刷新，保证MyBatis在同一事务连接上能查询到数据
+        userRepository.saveAndFlush(testUser);
+
+        User deletedUser = new User();
+        deletedUser.setUsername("deleteduser");
+        deletedUser.setPassword("password123");
+        deletedUser.setEmail("deleted@example.com");
+        deletedUser.setIsDelete(1);
+        deletedUser.setCreateTime(new Date());
+        deletedUser.setUpdateTime(new Date());
+        userRepository.saveAndFlush(deletedUser);
+    }
+
+    @Test
+    void testFindLoginCredential_Success() {
+        // When
+        LoginCredential credential = userLoginMapper.findLoginCredential("testuser");
+
+        // Then
+        assertNotNull(credential);
+        assertEquals(testUser.getId(), credential.id());
+        assertEquals("password123", credential.password());
+        assertEquals("test@example.com", credential.email());
+        assertEquals("13800138000", credential.phone());
+        assertNotNull(credential.createTime());
+        assertNotNull(credential.updateTime());
+        assertFalse(credential.deleted());
+    }
+
+    @Test
+    void testFindLoginCredential_NotFound() {
+        // When & Then
+        assertNull(userLoginMapper.findLoginCredential("nonexistent"));
+    }
+
+    @Test
+    void testFindLoginCredential_DeletedUser() {
+        // 与JPA实现保持一致，已删除用户不返回
+        assertNull(userLoginMapper.findLoginCredential("deleteduser"));
+    }
+}
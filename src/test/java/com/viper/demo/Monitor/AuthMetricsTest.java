@@ -0,0 +1,65 @@
+package com.viper.demo.Monitor;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AuthMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private AuthMetrics authMetrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        authMetrics = new AuthMetrics(registry);
+    }
+
+    @Test
+    void testStageTimersAreRegisteredUpFront() {
+        // Then
+        assertNotNull(registry.find(AuthMetrics.LOGIN_STAGE).tag("stage", "lookup").timer());
+        assertNotNull(registry.find(AuthMetrics.LOGIN_STAGE).tag("stage", "verify").timer());
+        assertNotNull(registry.find(AuthMetrics.LOGIN_STAGE).tag("stage", "session").timer());
+        assertNotNull(registry.find(AuthMetrics.REGISTER_STAGE).tag("stage", "check").timer());
+        assertNotNull(registry.find(AuthMetrics.REGISTER_STAGE).tag("stage", "save").timer());
+        assertNotNull(registry.find(AuthMetrics.GRANTS_LOAD).timer());
+    }
+
+    @Test
+    void testOutcomeCountersAreRegisteredUpFront() {
+        // Then
+        for (String outcome : AuthMetrics.LOGIN_OUTCOMES) {
+            assertNotNull(registry.find(AuthMetrics.LOGIN_ATTEMPTS).tag("outcome", outcome).counter());
+        }
+        for (String outcome : AuthMetrics.REGISTER_OUTCOMES) {
+            assertNotNull(registry.find(AuthMetrics.REGISTER_ATTEMPTS).tag("outcome", outcome).counter());
+        }
+    }
+
+    @Test
+    void testStageTimerRecordsAndReturnsValue() {
+        // When
+        String result = authMetrics.loginLookup().record(() -> "credential");
+
+        // Then
+        assertEquals("credential", result);
+        assertEquals(1, registry.get(AuthMetrics.LOGIN_STAGE).tag("stage", "lookup").timer().count());
+    }
+
+    @Test
+    void testOutcomeCounters() {
+        // When
+        authMetrics.loginOutcome("success");
+        authMetrics.loginOutcome("success");
+        authMetrics.loginOutcome("bad_password");
+        authMetrics.registerOutcome("duplicate_email");
+
+        // Then
+        assertEquals(2.0, registry.get(AuthMetrics.LOGIN_ATTEMPTS).tag("outcome", "success").counter().count());
+        assertEquals(1.0, registry.get(AuthMetrics.LOGIN_ATTEMPTS).tag("outcome", "bad_password").counter().count());
+        assertEquals(1.0, registry.get(AuthMetrics.REGISTER_ATTEMPTS).tag("outcome", "duplicate_email").counter().count());
+    }
+}
@@ -0,0 +1,129 @@
+package com.viper.demo.Monitor.Jfr;
+
+import com.viper.demo.Cache.GrantCache;
+import com.viper.demo.Config.StpInterfaceImpl;
+import com.viper.demo.Monitor.AuthMetrics;
+import com.viper.demo.Monitor.MonitoredTokenDao;
+import com.viper.demo.Pojo.AccountStatus;
+import com.viper.demo.Service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class AuthJfrEventsTest {
+
+    private Recording recording;
+    private Path dumpFile;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        recording = new Recording();
+        recording.enable("com.viper.demo.LoginAttempt");
+        recording.enable("com.viper.demo.PermissionCheck");
+        recording.enable("com.viper.demo.TokenCreate");
+        recording.enable("com.viper.demo.TokenExpire");
+        recording.start();
+        dumpFile = Files.createTempFile("auth-events", ".jfr");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        recording.close();
+        Files.deleteIfExists(dumpFile);
+    }
+
+    private List<RecordedEvent> stopAndRead(String eventName) throws Exception {
+        recording.stop();
+        recording.dump(dumpFile);
+        return RecordingFile.readAllEvents(dumpFile).stream()
+                .filter(event -> event.getEventType().getName().equals(eventName))
+                .toList();
+    }
+
+    @Test
+    void testLoginAttemptEvent() throws Exception {
+        // Given
+        LoginAttemptEvent event = new LoginAttemptEvent();
+        event.begin();
+
+        // When
+        event.complete("bad_password", "admin", 1);
+
+        // Then
+        List<RecordedEvent> events = stopAndRead("com.viper.demo.LoginAttempt");
+        assertEquals(1, events.size());
+        assertEquals("bad_password", events.get(0).getString("outcome"));
+        assertEquals("admin", events.get(0).getString("username"));
+        assertEquals("1", events.get(0).getString("loginId"));
+    }
+
+    @Test
+    void testPermissionCheckRecordsCacheHitAndMiss() throws Exception {
+        // Given
+        UserService userService = mock(UserService.class);
+        when(userService.findAccountStatus(1)).thenReturn(new AccountStatus("admin", 0));
+        StpInterfaceImpl stpInterface = new StpInterfaceImpl();
+        ReflectionTestUtils.setField(stpInterface, "userService", userService);
+        ReflectionTestUtils.setField(stpInterface, "grantCache", new GrantCache(true, 60, 100));
+        ReflectionTestUtils.setField(stpInterface, "authMetrics", new AuthMetrics(new SimpleMeterRegistry()));
+
+        // When
+        stpInterface.getPermissionList(1, "login");
+        stpInterface.getPermissionList(1, "login");
+
+        // Then
+        List<RecordedEvent> events = stopAndRead("com.viper.demo.PermissionCheck");
+        assertEquals(2, events.size());
+        assertFalse(events.get(0).getBoolean("cacheHit"));
+        assertTrue(events.get(1).getBoolean("cacheHit"));
+        assertEquals("resolved", events.get(1).getString("outcome"));
+        assertEquals(6, events.get(1).getInt("grantCount"));
+    }
+
+    @Test
+    void testTokenCreateAndExpireEvents() throws Exception {
+        // Given
+        MonitoredTokenDao tokenDao = new MonitoredTokenDao();
+        tokenDao.init();
+
+        try {
+            // When
+            tokenDao.set("satoken:login:token:abc", "7", 60);
+            tokenDao.set("satoken:login:session:7", "ignored", 60);
+            tokenDao.updateTimeout("satoken:login:token:abc", 120);
+            tokenDao.delete("satoken:login:token:abc");
+        } finally {
+            tokenDao.destroy();
+        }
+
+        // Then
+        recording.stop();
+        recording.dump(dumpFile);
+        List<RecordedEvent> all = RecordingFile.readAllEvents(dumpFile);
+        List<RecordedEvent> created = all.stream()
+                .filter(event -> event.getEventType().getName().equals("com.viper.demo.TokenCreate"))
+                .toList();
+        List<RecordedEvent> expired = all.stream()
+                .filter(event -> event.getEventType().getName().equals("com.viper.demo.TokenExpire"))
+                .toList();
+        assertEquals(1, created.size());
+        assertEquals("7", created.get(0).getString("loginId"));
+        assertEquals(2, expired.size());
+        assertEquals("renewed", expired.get(0).getString("outcome"));
+        assertEquals("deleted", expired.get(1).getString("outcome"));
+        assertTrue(expired.get(0).getBoolean("tokenFound"));
+        assertFalse(created.get(0).hasField("cacheHit"));
+    }
+}
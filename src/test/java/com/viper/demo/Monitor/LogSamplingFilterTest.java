@@ -0,0 +1,77 @@
+package com.viper.demo.Monitor;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LogSamplingFilterTest {
+
+    private LoggerContext context;
+    private LogSamplingFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        context = new LoggerContext();
+        filter = new LogSamplingFilter();
+        filter.setRate(10);
+        filter.start();
+    }
+
+    private LoggingEvent event(String loggerName, boolean sampled) {
+        Logger logger = context.getLogger(loggerName);
+        LoggingEvent event = new LoggingEvent(Logger.class.getName(), logger, Level.WARN, "msg", null, null);
+        if (sampled) {
+            event.addMarker(LogMarkers.SAMPLED);
+        }
+        return event;
+    }
+
+    @Test
+    void testKeepsOneOfEveryRateSampledEvents() {
+        // When
+        int kept = 0;
+        for (int i = 0; i < 100; i++) {
+            if (filter.decide(event("auth", true)) == FilterReply.NEUTRAL) {
+                kept++;
+            }
+        }
+
+        // Then
+        assertEquals(10, kept);
+    }
+
+    @Test
+    void testUnmarkedEventsAreNeverDropped() {
+        // When & Then
+        for (int i = 0; i < 100; i++) {
+            assertEquals(FilterReply.NEUTRAL, filter.decide(event("auth", false)));
+        }
+    }
+
+    @Test
+    void testCountsPerLogger() {
+        // Given
+        filter.decide(event("auth", true));
+
+        // When & Then
+        assertEquals(FilterReply.NEUTRAL, filter.decide(event("permission", true)));
+        assertEquals(FilterReply.DENY, filter.decide(event("auth", true)));
+    }
+
+    @Test
+    void testRateOneDisablesSampling() {
+        // Given
+        filter.setRate(1);
+
+        // When & Then
+        for (int i = 0; i < 10; i++) {
+            assertEquals(FilterReply.NEUTRAL, filter.decide(event("auth", true)));
+        }
+    }
+}
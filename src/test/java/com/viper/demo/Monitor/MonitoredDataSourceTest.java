@@ -0,0 +1,175 @@
+package com.viper.demo.Monitor;
+
+import com.viper.demo.Pojo.SlowQuery;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class MonitoredDataSourceTest {
+
+    private SimpleMeterRegistry registry;
+    private DataSource target;
+    private Connection connection;
+    private MonitoredDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        registry = new SimpleMeterRegistry();
+        target = mock(DataSource.class);
+        connection = mock(Connection.class);
+        when(target.getConnection()).thenReturn(connection);
+        dataSource = new MonitoredDataSource(target, () -> registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void testRecordsHoldTimeWithEndpointTags() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/user/list");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/user/list");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        // When
+        Connection proxy = dataSource.getConnection();
+        proxy.close();
+
+        // Then
+        Timer timer = registry.find(MonitoredDataSource.HOLD_METRIC)
+                .tag("method", "GET").tag("uri", "/user/list").timer();
+        assertNotNull(timer);
+        assertEquals(1, timer.count());
+        verify(connection).close();
+    }
+
+    @Test
+    void testRecordsOnlyOnceWhenClosedTwice() throws Exception {
+        // When
+        Connection proxy = dataSource.getConnection();
+        proxy.close();
+        proxy.close();
+
+        // Then
+        Timer timer = registry.find(MonitoredDataSource.HOLD_METRIC).tag("uri", "none").timer();
+        assertNotNull(timer);
+        assertEquals(1, timer.count());
+    }
+
+    @Test
+    void testExposesTargetConnection() throws Exception {
+        // When
+        Connection proxy = dataSource.getConnection();
+
+        // Then
+        assertInstanceOf(ConnectionProxy.class, proxy);
+        assertSame(connection, ((ConnectionProxy) proxy).getTargetConnection());
+        assertEquals(proxy, proxy);
+        assertNotEquals(proxy, connection);
+    }
+
+    @Test
+    void testNoRegistryDoesNotFail() throws Exception {
+        // Given
+        MonitoredDataSource withoutRegistry = new MonitoredDataSource(target, () -> null);
+
+        // When & Then
+        assertDoesNotThrow(() -> withoutRegistry.getConnection().close());
+        verify(connection).close();
+    }
+
+    @Test
+    void testRecordsSlowQueryWithParametersAndRows() throws Exception {
+        // Given
+        SlowQueryLog slowQueryLog = new SlowQueryLog(true, 0, 8, 8, true);
+        MonitoredDataSource timed = new MonitoredDataSource(target, () -> registry, () -> slowQueryLog);
+        String sql = "select * from user where username = ?";
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(connection.prepareStatement(sql)).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, true, false);
+
+        // When
+        try (Connection proxy = timed.getConnection();
+             PreparedStatement prepared = proxy.prepareStatement(sql)) {
+            prepared.setString(1, "admin");
+            try (ResultSet rows = prepared.executeQuery()) {
+                while (rows.next()) {
+                    // 读取全部行
+                }
+            }
+        }
+
+        // Then
+        List<SlowQuery> slowest = slowQueryLog.slowest();
+        assertEquals(1, slowest.size());
+        assertEquals(sql, slowest.get(0).sql());
+        assertEquals(List.of("admin"), slowest.get(0).parameters());
+        assertEquals(2, slowest.get(0).rows());
+        verify(statement).setString(1, "admin");
+        verify(resultSet).close();
+    }
+
+    @Test
+    void testRecordsUpdateCountForSlowUpdate() throws Exception {
+        // Given
+        SlowQueryLog slowQueryLog = new SlowQueryLog(true, 0, 8, 8, false);
+        MonitoredDataSource timed = new MonitoredDataSource(target, () -> registry, () -> slowQueryLog);
+        String sql = "update user set is_delete = 1 where id = ?";
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(connection.prepareStatement(sql)).thenReturn(statement);
+        when(statement.executeUpdate()).thenReturn(1);
+
+        // When
+        try (Connection proxy = timed.getConnection();
+             PreparedStatement prepared = proxy.prepareStatement(sql)) {
+            prepared.setInt(1, 7);
+            prepared.executeUpdate();
+        }
+
+        // Then
+        SlowQuery query = slowQueryLog.slowest().get(0);
+        assertEquals(1, query.rows());
+        assertTrue(query.parameters().isEmpty());
+    }
+
+    @Test
+    void testFastStatementsAreNotRecorded() throws Exception {
+        // Given
+        SlowQueryLog slowQueryLog = new SlowQueryLog(true, 60_000, 8, 8, true);
+        MonitoredDataSource timed = new MonitoredDataSource(target, () -> registry, () -> slowQueryLog);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(connection.prepareStatement("select 1")).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+
+        // When
+        ResultSet result;
+        try (Connection proxy = timed.getConnection()) {
+            result = proxy.prepareStatement("select 1").executeQuery();
+        }
+
+        // Then
+        assertSame(resultSet, result);
+        assertTrue(slowQueryLog.slowest().isEmpty());
+    }
+}
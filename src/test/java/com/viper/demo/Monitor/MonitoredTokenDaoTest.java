@@ -0,0 +1,52 @@
+package com.viper.demo.Monitor;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MonitoredTokenDaoTest {
+
+    private MonitoredTokenDao tokenDao;
+
+    @BeforeEach
+    void setUp() {
+        tokenDao = new MonitoredTokenDao();
+        tokenDao.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        tokenDao.destroy();
+    }
+
+    @Test
+    void testOperationsWorkBeforeBinding() {
+        // When
+        tokenDao.set("satoken:login:token:abc", "1", 60);
+
+        // Then
+        assertEquals("1", tokenDao.get("satoken:login:token:abc"));
+    }
+
+    @Test
+    void testRecordsOperationTimers() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        tokenDao.bindTo(registry);
+
+        // When
+        tokenDao.set("satoken:login:token:abc", "1", 60);
+        tokenDao.get("satoken:login:token:abc");
+        tokenDao.get("satoken:login:token:missing");
+        tokenDao.updateTimeout("satoken:login:token:abc", 120);
+
+        // Then
+        assertEquals(1, registry.get(MonitoredTokenDao.OPERATION_METRIC).tag("op", "set").timer().count());
+        assertEquals(2, registry.get(MonitoredTokenDao.OPERATION_METRIC).tag("op", "get").timer().count());
+        assertEquals(1, registry.get(MonitoredTokenDao.OPERATION_METRIC).tag("op", "update_timeout").timer().count());
+        assertNull(registry.find("satoken.dao.keys").gauge()); // 不做全量扫描的键数量指标
+    }
+}
@@ -0,0 +1,119 @@
+package com.viper.demo.Monitor;
+
+import com.viper.demo.Pojo.SlowQuery;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SlowQueryLogTest {
+
+    private static long millis(long value) {
+        return TimeUnit.MILLISECONDS.toNanos(value);
+    }
+
+    @Test
+    void testIsSlowComparesWithThreshold() {
+        // Given
+        SlowQueryLog slowQueryLog = new SlowQueryLog(true, 100, 8, 5, true);
+
+        // When & Then
+        assertFalse(slowQueryLog.isSlow(millis(99)));
+        assertTrue(slowQueryLog.isSlow(millis(100)));
+    }
+
+    @Test
+    void testSlowestReturnsTopNOrderedByDuration() {
+        // Given
+        SlowQueryLog slowQueryLog = new SlowQueryLog(true, 0, 8, 2, true);
+        slowQueryLog.record("select 1", null, millis(10), 1, Instant.now());
+        slowQueryLog.record("select 2", null, millis(30), 1, Instant.now());
+        slowQueryLog.record("select 3", null, millis(20), 1, Instant.now());
+
+        // When
+        List<SlowQuery> slowest = slowQueryLog.slowest();
+
+        // Then
+        assertEquals(2, slowest.size());
+        assertEquals("select 2", slowest.get(0).sql());
+        assertEquals("select 3", slowest.get(1).sql());
+        assertEquals(30.0, slowest.get(0).durationMs(), 0.001);
+    }
+
+    @Test
+    void testRingBufferOverwritesOldestRecords() {
+        // Given
+        SlowQueryLog slowQueryLog = new SlowQueryLog(true, 0, 2, 10, true);
+
+        // When
+        slowQueryLog.record("select old", null, millis(50), 1, Instant.now());
+        slowQueryLog.record("select a", null, millis(10), 1, Instant.now());
+        slowQueryLog.record("select b", null, millis(20), 1, Instant.now());
+
+        // Then
+        List<SlowQuery> slowest = slowQueryLog.slowest();
+        assertEquals(2, slowest.size());
+        assertTrue(slowest.stream().noneMatch(query -> query.sql().equals("select old")));
+    }
+
+    @Test
+    void testRecordsParametersAndAttribution() {
+        // Given
+        SlowQueryLog slowQueryLog = new SlowQueryLog(true, 0, 4, 4, true);
+        String longValue = "x".repeat(100);
+
+        // When
+        slowQueryLog.record("select * from user where username = ? and email = ?",
+                new Object[]{longValue, null}, millis(5), 3, Instant.now());
+
+        // Then
+        SlowQuery query = slowQueryLog.slowest().get(0);
+        assertEquals(List.of("x".repeat(64) + "...", "null"), query.parameters());
+        assertEquals(3, query.rows());
+        assertEquals("none", query.method());
+        assertEquals("none", query.uri());
+        assertNull(query.loginId());
+    }
+
+    @Test
+    void testParametersOmittedWhenDisabled() {
+        // Given
+        SlowQueryLog slowQueryLog = new SlowQueryLog(true, 0, 4, 4, false);
+
+        // When
+        slowQueryLog.record("update user set password = ?", new Object[]{"secret"}, millis(5), 1, Instant.now());
+
+        // Then
+        assertTrue(slowQueryLog.slowest().get(0).parameters().isEmpty());
+    }
+
+    @Test
+    void testPasswordStatementParametersAreRedacted() {
+        // Given
+        SlowQueryLog slowQueryLog = new SlowQueryLog(true, 0, 4, 4, true);
+
+        // When
+        slowQueryLog.record("insert into user (username, PASSWORD, email) values (?, ?, ?)",
+                new Object[]{"alice", "secret", "alice@example.com"}, millis(5), 1, Instant.now());
+
+        // Then
+        assertEquals(List.of(SlowQueryLog.REDACTED, SlowQueryLog.REDACTED, SlowQueryLog.REDACTED),
+                slowQueryLog.slowest().get(0).parameters());
+    }
+
+    @Test
+    void testClearEmptiesBuffer() {
+        // Given
+        SlowQueryLog slowQueryLog = new SlowQueryLog(true, 0, 4, 4, true);
+        slowQueryLog.record("select 1", null, millis(5), 1, Instant.now());
+
+        // When
+        slowQueryLog.clear();
+
+        // Then
+        assertTrue(slowQueryLog.slowest().isEmpty());
+    }
+}
@@ -0,0 +1,124 @@
+package com.viper.demo.Pojo;
+
+import com.viper.demo.Support.RequestBudget;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CachedUserTest {
+
+    private static final int USERS = 10_000;
+
+    @Test
+    void testFromUser() {
+        // Given
+        Date created = new Date(1_700_000_000_000L);
+        Date updated = new Date(1_700_000_100_000L);
+        User user = new User(1, "admin", "hash", "admin@example.com", "13800138000", 0, created, updated);
+
+        // When
+        CachedUser cached = CachedUser.of(user);
+
+        // Then
+        assertEquals(1, cached.id());
+        assertEquals("admin", cached.username());
+        assertSame(user.getEmail(), cached.email());
+        assertEquals("13800138000", cached.phone());
+        assertFalse(cached.deleted());
+        assertEquals(created.getTime(), cached.createTimeMillis());
+        assertEquals(updated.getTime(), cached.updateTimeMillis());
+    }
+
+    @Test
+    void testNullSource() {
+        // When & Then
+        assertNull(CachedUser.of((User) null));
+        assertNull(CachedUser.of((UserProfile) null));
+    }
+
+    @Test
+    void testProfileRoundTrip() {
+        // Given
+        UserProfile profile = new UserProfile(2, "testuser", "test@example.com", null, 1,
+                new Date(1_700_000_000_000L), new Date(1_700_000_100_000L));
+
+        // When
+        UserProfile restored = CachedUser.of(profile).toProfile();
+
+        // Then
+        assertEquals(profile, restored);
+    }
+
+    @Test
+    void testMissingTimesAndDeleteFlag() {
+        // Given
+        User user = new User(3, "legacy", "hash", "legacy@example.com", null, null, null, null);
+
+        // When
+        CachedUser cached = CachedUser.of(user);
+        UserProfile profile = cached.toProfile();
+
+        // Then
+        assertEquals(CachedUser.NO_TIME, cached.createTimeMillis());
+        assertFalse(cached.deleted());
+        assertNull(profile.createTime());
+        assertNull(profile.updateTime());
+        assertEquals(0, profile.isDelete());
+    }
+
+    @Test
+    void testToProfileReturnsIndependentDates() {
+        // Given
+        CachedUser cached = new CachedUser(4, "user", "user@example.com", null, false, 1000L, 2000L);
+
+        // When
+        cached.toProfile().createTime().setTime(0);
+
+        // Then
+        assertEquals(1000L, cached.toProfile().createTime().getTime());
+    }
+
+    @Test
+    void testFootprintPerUser() throws Exception {
+        // Given：预先准备字符内容，两种表示都从字符数组新建字符串（与从JDBC结果集读取时一样）
+        // 会话快照本来就不保存密码，User实体一侧也不填充密码，只比较两种表示本身的结构开销
+        char[][] usernames = new char[USERS][];
+        char[][] emails = new char[USERS][];
+        char[][] phones = new char[USERS][];
+        for (int i = 0; i < USERS; i++) {
+            String suffix = String.format("%06d", i);
+            usernames[i] = ("user" + suffix).toCharArray();
+            emails[i] = ("user" + suffix + "@example.com").toCharArray();
+            phones[i] = ("13800" + suffix).toCharArray();
+        }
+        long millis = System.currentTimeMillis();
+        User[] entities = new User[USERS];
+        CachedUser[] compact = new CachedUser[USERS];
+        // 预热：类加载、String.valueOf等一次性开销不计入测量
+        new User(1, "u", null, "e", "t", 0, new Date(millis), new Date(millis));
+        new CachedUser(1, "u", "e", "t", false, millis, millis);
+
+        // When
+        long entityBytes = RequestBudget.measure(() -> {
+            for (int i = 0; i < USERS; i++) {
+                entities[i] = new User(1000 + i, String.valueOf(usernames[i]), null,
+                        String.valueOf(emails[i]), String.valueOf(phones[i]), 0, new Date(millis), new Date(millis));
+            }
+        }).allocatedBytes();
+        long compactBytes = RequestBudget.measure(() -> {
+            for (int i = 0; i < USERS; i++) {
+                compact[i] = new CachedUser(1000 + i, String.valueOf(usernames[i]), String.valueOf(emails[i]),
+                        String.valueOf(phones[i]), false, millis, millis);
+            }
+        }).allocatedBytes();
+
+        // Then：节省来自两个Date对象和装箱的id，压缩指针下约为22%
+        double entityPerUser = (double) entityBytes / USERS;
+        double compactPerUser = (double) compactBytes / USERS;
+        assertTrue(compactPerUser < entityPerUser * 0.85,
+                () -> String.format("CachedUser应明显小于User实体：每个用户 CachedUser %.1f 字节，User实体 %.1f 字节（节省 %.0f%%）",
+                        compactPerUser, entityPerUser, 100 * (1 - compactPerUser / entityPerUser)));
+    }
+}
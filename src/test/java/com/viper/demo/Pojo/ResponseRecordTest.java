@@ -0,0 +1,72 @@
+package com.viper.demo.Pojo;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResponseRecordTest {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .addModule(new BlackbirdModule())
+            .build();
+
+    @Test
+    void testLoginResponseSerialization() throws Exception {
+        // When
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(
+                Result.success(new LoginResponse("token-value", 1, "admin", "admin@example.com", "13800138000"))));
+
+        // Then
+        assertEquals(200, json.get("code").asInt());
+        assertEquals("token-value", json.at("/data/token").asText());
+        assertEquals(1, json.at("/data/userId").asInt());
+        assertEquals("admin", json.at("/data/username").asText());
+        assertEquals("admin@example.com", json.at("/data/email").asText());
+        assertEquals("13800138000", json.at("/data/phone").asText());
+    }
+
+    @Test
+    void testLoginStatusAnonymousOmitsNullFields() throws Exception {
+        // When
+        String json = objectMapper.writeValueAsString(LoginStatus.ANONYMOUS);
+
+        // Then
+        assertEquals("{\"isLogin\":false}", json);
+    }
+
+    @Test
+    void testLoginStatusLoggedIn() throws Exception {
+        // When
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(new LoginStatus(true, 1, "token-value")));
+
+        // Then
+        assertTrue(json.get("isLogin").asBoolean());
+        assertEquals(1, json.get("userId").asInt());
+        assertEquals("token-value", json.get("token").asText());
+    }
+
+    @Test
+    void testPermissionAndDashboardSerialization() throws Exception {
+        // When
+        JsonNode permissions = objectMapper.readTree(objectMapper.writeValueAsString(
+                new PermissionInfo(List.of("user:info"), List.of("user"), 2)));
+        JsonNode dashboard = objectMapper.readTree(objectMapper.writeValueAsString(
+                new DashboardInfo("欢迎进入管理员控制台", 5, 1)));
+        JsonNode register = objectMapper.readTree(objectMapper.writeValueAsString(
+                new RegisterResponse(3, "newuser", "newuser@example.com", "注册成功")));
+
+        // Then
+        assertEquals("user:info", permissions.at("/permissions/0").asText());
+        assertEquals("user", permissions.at("/roles/0").asText());
+        assertEquals(2, permissions.get("userId").asInt());
+        assertEquals(5, dashboard.get("totalUsers").asInt());
+        assertEquals(1, dashboard.get("currentAdmin").asInt());
+        assertEquals("注册成功", register.get("message").asText());
+    }
+}
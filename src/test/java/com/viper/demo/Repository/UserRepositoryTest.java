@@ -1,6 +1,9 @@
 package com.viper.demo.Repository;
 
+import com.viper.demo.Pojo.AccountStatus;
+import com.viper.demo.Pojo.LoginCredential;
 import com.viper.demo.Pojo.User;
+import com.viper.demo.Pojo.UserListVersion;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -288,4 +291,55 @@ public class UserRepositoryTest {
         assertTrue(result.isPresent()); // isDelete 为 null 的用户应该被找到
         assertEquals("nulldeleteuser", result.get().getUsername());
     }
+
+    @Test
+    void testFindLoginCredentialByUsername_Success() {
+        // When
+        Optional<LoginCredential> result = userRepository.findLoginCredentialByUsername("testuser");
+
+        // Then
+        assertTrue(result.isPresent());
+        assertEquals(testUser.getId(), result.get().id());
+        assertEquals("password123", result.get().password());
+        assertEquals("test@example.com", result.get().email());
+        assertFalse(result.get().deleted());
+    }
+
+    @Test
+    void testFindLoginCredentialByUsername_DeletedUser() {
+        // When
+        Optional<LoginCredential> result = userRepository.findLoginCredentialByUsername("deleteduser");
+
+        // Then
+        assertFalse(result.isPresent()); // 与findByUsernameAndNotDeleted一致，已删除用户不返回
+    }
+
+    @Test
+    void testFindAccountStatusById() {
+        // When
+        Optional<AccountStatus> active = userRepository.findAccountStatusById(testUser.getId());
+        Optional<AccountStatus> deleted = userRepository.findAccountStatusById(deletedUser.getId());
+
+        // Then
+        assertTrue(active.isPresent());
+        assertEquals("testuser", active.get().username());
+        assertFalse(active.get().deleted());
+        assertTrue(deleted.isPresent()); // 投影查询包含已删除用户，由调用方判断
+        assertTrue(deleted.get().deleted());
+        assertFalse(userRepository.findAccountStatusById(-1).isPresent());
+    }
+
+    @Test
+    void testFindListVersion() {
+        // When
+        UserListVersion version = userRepository.findListVersion();
+
+        // Then
+        // 与findAllProfiles()的范围一致，包含已删除用户
+        assertEquals(2L, version.count());
+        long latest = userRepository.findAllProfiles().stream()
+                .mapToLong(profile -> profile.updateTime().getTime())
+                .max().orElseThrow();
+        assertEquals(latest, version.lastModifiedMillis());
+    }
 }
@@ -1,6 +1,15 @@
 package com.viper.demo.Service;
 
+import com.viper.demo.Cache.GrantCache;
+import com.viper.demo.Cache.ProfileSnapshotStore;
+import com.viper.demo.Cache.UserVersionCache;
+import com.viper.demo.Mapper.UserLoginMapper;
+import com.viper.demo.Pojo.AccountStatus;
+import com.viper.demo.Pojo.LoginCredential;
 import com.viper.demo.Pojo.User;
+import com.viper.demo.Pojo.UserListVersion;
+import com.viper.demo.Pojo.UserProfile;
+import com.viper.demo.Repository.UserArchiveRepository;
 import com.viper.demo.Repository.UserRepository;
 import com.viper.demo.Service.Impl.UserServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,6 +18,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.Arrays;
 import java.util.Date;
@@ -25,6 +37,21 @@ public class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UserArchiveRepository userArchiveRepository;
+
+    @Mock
+    private UserLoginMapper userLoginMapper;
+
+    @Mock
+    private GrantCache grantCache;
+
+    @Mock
+    private UserVersionCache userVersionCache;
+
+    @Mock
+    private ProfileSnapshotStore profileSnapshots;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -93,6 +120,85 @@ public class UserServiceTest {
         verify(userRepository, never()).findByUsernameAndNotDeleted(any());
     }
 
+    @Test
+    void testFindLoginCredential_Jpa() {
+        // Given
+        when(userRepository.findLoginCredentialByUsername("testuser"))
+                .thenReturn(Optional.of(LoginCredential.of(testUser)));
+
+        // When
+        LoginCredential result = userService.findLoginCredential(" testuser ");
+
+        // Then
+        assertNotNull(result);
+        assertEquals(1, result.id());
+        assertEquals("password123", result.password());
+        assertFalse(result.deleted());
+        verify(userRepository).findLoginCredentialByUsername("testuser");
+        verify(userRepository, never()).findByUsernameAndNotDeleted(any());
+        verify(userLoginMapper, never()).findLoginCredential(any());
+    }
+
+    @Test
+    void testFindLoginCredential_MyBatis() {
+        // Given
+        ReflectionTestUtils.setField(userService, "loginLookup", "mybatis");
+        LoginCredential credential = new LoginCredential(1, "password123", 0, "test@example.com", "13800138000", null, null);
+        when(userLoginMapper.findLoginCredential("testuser")).thenReturn(credential);
+
+        // When
+        LoginCredential result = userService.findLoginCredential("testuser");
+
+        // Then
+        assertSame(credential, result);
+        verify(userLoginMapper).findLoginCredential("testuser");
+        verify(userRepository, never()).findLoginCredentialByUsername(any());
+    }
+
+    @Test
+    void testFindLoginCredential_NullInput() {
+        // When
+        LoginCredential result = userService.findLoginCredential(null);
+
+        // Then
+        assertNull(result);
+        verify(userRepository, never()).findLoginCredentialByUsername(any());
+        verify(userLoginMapper, never()).findLoginCredential(any());
+    }
+
+    @Test
+    void testFindAccountStatus_Success() {
+        // Given
+        when(userRepository.findAccountStatusById(1))
+                .thenReturn(Optional.of(new AccountStatus("testuser", 0)));
+
+        // When
+        AccountStatus result = userService.findAccountStatus(1);
+
+        // Then
+        assertNotNull(result);
+        assertEquals("testuser", result.username());
+        verify(userRepository).findAccountStatusById(1);
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    void testFindAccountStatus_DeletedUser() {
+        // Given
+        when(userRepository.findAccountStatusById(1))
+                .thenReturn(Optional.of(new AccountStatus("testuser", 1)));
+
+        // When & Then
+        assertNull(userService.findAccountStatus(1));
+    }
+
+    @Test
+    void testFindAccountStatus_NullInput() {
+        // When & Then
+        assertNull(userService.findAccountStatus(null));
+        verify(userRepository, never()).findAccountStatusById(any());
+    }
+
     @Test
     void testFindById_Success() {
         // Given
@@ -220,6 +326,7 @@ public class UserServiceTest {
         assertNotNull(result.getUpdateTime());
         assertEquals(0, result.getIsDelete());
         verify(userRepository).save(any(User.class));
+        verify(userVersionCache).evict(any());
     }
 
     @Test
@@ -246,6 +353,80 @@ public class UserServiceTest {
         assertEquals("updated@example.com", result.getEmail());
         assertNotNull(result.getUpdateTime());
         verify(userRepository).save(testUser);
+        verify(grantCache).evict(1);
+        verify(userVersionCache).evict(1);
+        verify(profileSnapshots).refresh(any(UserProfile.class));
+    }
+
+    /**
+     * 模拟事务：开启事务同步执行action，返回注册的同步回调，调用方决定提交或回滚
+     */
+    private List<TransactionSynchronization> inTransaction(Runnable action) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            action.run();
+            return TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testUpdate_GrantEvictionDeferredUntilCommit() {
+        // Given
+        when(userRepository.save(testUser)).thenReturn(testUser);
+
+        // When
+        List<TransactionSynchronization> synchronizations = inTransaction(() -> userService.update(testUser));
+
+        // Then：提交前不失效，提交后失效
+        verify(grantCache, never()).evict(any());
+        verify(userVersionCache, never()).evict(any());
+        verify(profileSnapshots, never()).refresh(any());
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        verify(grantCache).evict(1);
+        verify(userVersionCache).evict(1);
+        verify(profileSnapshots).refresh(any(UserProfile.class));
+    }
+
+    @Test
+    void testUpdate_RollbackKeepsSessionSnapshot() {
+        // Given
+        when(userRepository.save(testUser)).thenReturn(testUser);
+
+        // When：事务回滚（例如提交时违反约束），不调用afterCommit
+        inTransaction(() -> userService.update(testUser));
+
+        // Then
+        verify(profileSnapshots, never()).refresh(any());
+    }
+
+    @Test
+    void testSave_VersionEvictionDeferredUntilCommit() {
+        // Given
+        when(userRepository.save(testUser)).thenReturn(testUser);
+
+        // When
+        List<TransactionSynchronization> synchronizations = inTransaction(() -> userService.save(testUser));
+
+        // Then
+        verify(userVersionCache, never()).evict(any());
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        verify(userVersionCache).evict(1);
+    }
+
+    @Test
+    void testDeleteById_RollbackKeepsGrantCache() {
+        // Given
+        when(userRepository.markDeleted(eq(1), any(Date.class))).thenReturn(1);
+
+        // When：事务回滚，不调用afterCommit
+        inTransaction(() -> userService.deleteById(1));
+
+        // Then
+        verify(grantCache, never()).evict(any());
+        verify(userVersionCache, never()).evict(any());
+        verify(profileSnapshots, never()).evict(any());
     }
 
     @Test
@@ -271,33 +452,71 @@ public class UserServiceTest {
         verify(userRepository, never()).save(any());
     }
 
+    @Test
+    void testUpdateProfile_WritesOnlyProfileColumns() {
+        // Given
+        UserProfile profile = new UserProfile(1, "testuser", "updated@example.com", "13800138999",
+                0, testUser.getCreateTime(), new Date());
+        when(userRepository.updateProfile(eq(1), eq("updated@example.com"), eq("13800138999"), any(Date.class)))
+                .thenReturn(1);
+        when(userRepository.findProfileById(1)).thenReturn(Optional.of(profile));
+
+        // When
+        List<TransactionSynchronization> synchronizations =
+                inTransaction(() -> userService.updateProfile(1, "updated@example.com", "13800138999"));
+
+        // Then：不整行保存实体，提交后才失效ETag和刷新会话快照
+        verify(userRepository, never()).save(any());
+        verify(userVersionCache, never()).evict(any());
+        verify(profileSnapshots, never()).refresh(any());
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        verify(userVersionCache).evict(1);
+        verify(profileSnapshots).refresh(profile);
+    }
+
+    @Test
+    void testUpdateProfile_NotFound() {
+        // Given
+        when(userRepository.updateProfile(eq(999), any(), any(), any(Date.class))).thenReturn(0);
+
+        // When
+        UserProfile result = userService.updateProfile(999, "a@example.com", null);
+
+        // Then
+        assertNull(result);
+        verify(userRepository, never()).findProfileById(any());
+        verify(profileSnapshots, never()).refresh(any());
+    }
+
     @Test
     void testDeleteById_Success() {
         // Given
-        when(userRepository.findById(1)).thenReturn(Optional.of(testUser));
-        when(userRepository.save(any(User.class))).thenReturn(testUser);
+        when(userRepository.markDeleted(eq(1), any(Date.class))).thenReturn(1);
 
         // When
         boolean result = userService.deleteById(1);
 
-        // Then
+        // Then：只更新删除标记，不读取也不整行保存实体
         assertTrue(result);
-        verify(userRepository).findById(1);
-        verify(userRepository).save(any(User.class));
+        verify(userRepository).markDeleted(eq(1), any(Date.class));
+        verify(userRepository, never()).findById(any());
+        verify(userRepository, never()).save(any());
+        verify(grantCache).evict(1);
+        verify(userVersionCache).evict(1);
+        verify(profileSnapshots).evict(1);
     }
 
     @Test
     void testDeleteById_NotFound() {
         // Given
-        when(userRepository.findById(999)).thenReturn(Optional.empty());
+        when(userRepository.markDeleted(eq(999), any(Date.class))).thenReturn(0);
 
         // When
         boolean result = userService.deleteById(999);
 
         // Then
         assertFalse(result);
-        verify(userRepository).findById(999);
-        verify(userRepository, never()).save(any());
+        verify(grantCache, never()).evict(any());
     }
 
     @Test
@@ -307,7 +526,7 @@ public class UserServiceTest {
 
         // Then
         assertFalse(result);
-        verify(userRepository, never()).findById(any());
+        verify(userRepository, never()).markDeleted(any(), any());
     }
 
     @Test
@@ -336,6 +555,32 @@ public class UserServiceTest {
         verify(userRepository).existsByUsername("nonexistent");
     }
 
+    @Test
+    void testExistsByUsername_Archived() {
+        // Given
+        when(userRepository.existsByUsername("archived")).thenReturn(false);
+        when(userArchiveRepository.existsByUsername("archived")).thenReturn(true);
+
+        // When
+        boolean result = userService.existsByUsername(" archived ");
+
+        // Then
+        assertTrue(result);
+    }
+
+    @Test
+    void testExistsByEmail_Archived() {
+        // Given
+        when(userRepository.existsByEmail("archived@example.com")).thenReturn(false);
+        when(userArchiveRepository.existsByEmail("archived@example.com")).thenReturn(true);
+
+        // When
+        boolean result = userService.existsByEmail("archived@example.com");
+
+        // Then
+        assertTrue(result);
+    }
+
     @Test
     void testExistsByEmail_True() {
         // Given
@@ -364,6 +609,63 @@ public class UserServiceTest {
         verify(userRepository).findAll();
     }
 
+    @Test
+    void testCountUsers() {
+        // Given
+        when(userRepository.count()).thenReturn(42L);
+
+        // When
+        long result = userService.countUsers();
+
+        // Then
+        assertEquals(42L, result);
+        verify(userRepository, never()).findAll();
+    }
+
+    @Test
+    void testFindProfileById_FromSnapshot() {
+        // Given
+        UserProfile snapshot = UserProfile.of(testUser);
+        when(profileSnapshots.get(1)).thenReturn(snapshot);
+
+        // When
+        UserProfile result = userService.findProfileById(1);
+
+        // Then
+        assertSame(snapshot, result);
+        verify(userRepository, never()).findProfileById(any());
+    }
+
+    @Test
+    void testFindProfileById_FallbackFillsSnapshot() {
+        // Given
+        UserProfile profile = UserProfile.of(testUser);
+        when(profileSnapshots.get(1)).thenReturn(null);
+        when(userRepository.findProfileById(1)).thenReturn(Optional.of(profile));
+
+        // When
+        UserProfile result = userService.findProfileById(1);
+
+        // Then
+        assertEquals(profile, result);
+        verify(profileSnapshots).fill(profile);
+        verify(profileSnapshots, never()).refresh(any());
+    }
+
+    @Test
+    void testFindListVersion() {
+        // Given
+        UserListVersion version = new UserListVersion(3L, new Date(1_700_000_000_000L));
+        when(userRepository.findListVersion()).thenReturn(version);
+
+        // When
+        UserListVersion result = userService.findListVersion();
+
+        // Then
+        assertEquals("users-3-1700000000000", result.etag());
+        verify(userRepository, never()).findAllProfiles();
+    }
+
     @Test
     void testValidatePassword_Success() {
         // Given
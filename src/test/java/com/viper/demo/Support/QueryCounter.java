@@ -0,0 +1,119 @@
+package com.viper.demo.Support;
+
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 测试用SQL语句计数器
+ *
+ * 包装DataSource，对Statement、PreparedStatement、CallableStatement的每次execute*调用计数
+ * 计数按线程隔离：MockMvc在测试线程中同步执行请求，因此只统计当前请求执行的语句，
+ * 不受后台线程的数据库访问影响
+ *
+ * 批量执行（executeBatch）按一次数据库往返计数
+ *
+ * 通常不直接使用，而是通过RequestBudget测量一次请求
+ */
+public final class QueryCounter {
+
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+    private QueryCounter() {
+    }
+
+    /**
+     * 当前线程执行过的SQL语句数
+     */
+    public static long current() {
+        return COUNT.get()[0];
+    }
+
+    /**
+     * 包装数据源，统计经由它执行的SQL语句
+     *
+     * @param target 真实数据源
+     * @return 计数数据源
+     */
+    public static DataSource wrap(DataSource target) {
+        return new DelegatingDataSource(target) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return proxyConnection(obtainTargetDataSource().getConnection());
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return proxyConnection(obtainTargetDataSource().getConnection(username, password));
+            }
+        };
+    }
+
+    private static Connection proxyConnection(Connection target) {
+        return (Connection) Proxy.newProxyInstance(
+                QueryCounter.class.getClassLoader(),
+                new Class<?>[]{ConnectionProxy.class},
+                new ConnectionHandler(target));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    /**
+     * 连接代理：把创建出的Statement也包装为计数代理
+     */
+    private record ConnectionHandler(Connection target) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "getTargetConnection":
+                    return target;
+                default:
+                    break;
+            }
+            Object result = QueryCounter.invoke(target, method, args);
+            if (result instanceof Statement statement) {
+                Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                        : statement instanceof PreparedStatement ? PreparedStatement.class
+                        : Statement.class;
+                return Proxy.newProxyInstance(QueryCounter.class.getClassLoader(),
+                        new Class<?>[]{type}, new StatementHandler(statement));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Statement代理：每次execute*调用计数一次
+     */
+    private record StatementHandler(Statement target) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().startsWith("execute")) {
+                COUNT.get()[0]++;
+            }
+            return QueryCounter.invoke(target, method, args);
+        }
+    }
+}
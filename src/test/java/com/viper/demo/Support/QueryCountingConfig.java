@@ -0,0 +1,26 @@
+package com.viper.demo.Support;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+
+/**
+ * 测试配置：把应用的DataSource包装为QueryCounter计数数据源
+ *
+ * 在需要断言SQL语句数的集成测试上使用 @Import(QueryCountingConfig.class)
+ */
+@TestConfiguration
+public class QueryCountingConfig {
+
+    @Bean
+    static BeanPostProcessor queryCountingPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource ? QueryCounter.wrap(dataSource) : bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,77 @@
+package com.viper.demo.Support;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 单次请求的资源预算
+ *
+ * 在当前线程中执行一段操作（通常是一次mockMvc.perform），测量：
+ * - queries：执行的SQL语句数（需要测试上下文导入QueryCountingConfig）
+ * - allocatedBytes：当前线程分配的堆内存字节数（ThreadMXBean.getCurrentThreadAllocatedBytes）
+ *
+ * 使用示例：
+ * ```java
+ * RequestBudget.measure(() -> mockMvc.perform(post("/auth/login")...))
+ *         .assertWithin(1, 512);   // 最多1条SQL、512KB分配
+ * ```
+ *
+ * 注意事项：
+ * - 第一次请求包含类加载、缓存初始化等一次性开销，测量前应先预热一次
+ * - 分配量包含MockMvc自身构造请求和响应的开销，预算应按"当前实测值 + 余量"设置
+ */
+public final class RequestBudget {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private RequestBudget() {
+    }
+
+    /**
+     * 被测量的操作
+     */
+    @FunctionalInterface
+    public interface Action {
+        void run() throws Exception;
+    }
+
+    /**
+     * 测量一次操作的SQL语句数和内存分配
+     *
+     * @param action 被测量的操作
+     * @return 资源使用量
+     */
+    public static Usage measure(Action action) throws Exception {
+        long queriesBefore = QueryCounter.current();
+        long bytesBefore = THREADS.getCurrentThreadAllocatedBytes();
+        action.run();
+        long bytesAfter = THREADS.getCurrentThreadAllocatedBytes();
+        return new Usage(QueryCounter.current() - queriesBefore, bytesAfter - bytesBefore);
+    }
+
+    /**
+     * 一次操作的资源使用量
+     *
+     * @param queries 执行的SQL语句数
+     * @param allocatedBytes 分配的字节数
+     */
+    public record Usage(long queries, long allocatedBytes) {
+
+        /**
+         * 断言资源使用量不超过预算
+         *
+         * @param maxQueries 最多SQL语句数
+         * @param maxKilobytes 最多分配的KB数
+         * @return 当前对象，便于继续断言
+         */
+        public Usage assertWithin(long maxQueries, long maxKilobytes) {
+            assertTrue(queries <= maxQueries,
+                    () -> "SQL语句数超出预算：" + queries + " > " + maxQueries);
+            assertTrue(allocatedBytes <= maxKilobytes * 1024,
+                    () -> "内存分配超出预算：" + allocatedBytes / 1024 + "KB > " + maxKilobytes + "KB");
+            return this;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.viper.demo.Utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CircuitBreakerTest {
+
+    private static final long OPEN = TimeUnit.SECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    void testOpensAfterConsecutiveFailures() {
+        // Given
+        CircuitBreaker breaker = new CircuitBreaker(3, OPEN, SLOW);
+
+        // When
+        breaker.onFailure();
+        breaker.onFailure();
+        CircuitBreaker.State beforeThreshold = breaker.getState();
+        breaker.onFailure();
+
+        // Then
+        assertEquals(CircuitBreaker.State.CLOSED, beforeThreshold);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission());
+        assertEquals(1, breaker.getOpenCount());
+        assertEquals(1, breaker.getNotPermittedCount());
+    }
+
+    @Test
+    void testSuccessResetsFailureCount() {
+        // Given
+        CircuitBreaker breaker = new CircuitBreaker(3, OPEN, SLOW);
+
+        // When
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onSuccess(0);
+        breaker.onFailure();
+        breaker.onFailure();
+
+        // Then
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void testSlowCallsCountAsFailures() {
+        // Given
+        CircuitBreaker breaker = new CircuitBreaker(2, OPEN, SLOW);
+
+        // When
+        breaker.onSuccess(SLOW + 1);
+        breaker.onSuccess(SLOW + 1);
+
+        // Then
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void testHalfOpenAllowsSingleTrialAndRecovers() {
+        // Given
+        CircuitBreaker breaker = new CircuitBreaker(1, OPEN, SLOW);
+        long now = System.nanoTime();
+        breaker.onFailure(now);
+
+        // When
+        boolean tooEarly = breaker.tryAcquirePermission(now + OPEN - 1);
+        boolean trial = breaker.tryAcquirePermission(now + OPEN);
+        boolean secondTrial = breaker.tryAcquirePermission(now + OPEN);
+        breaker.onSuccess(0);
+
+        // Then
+        assertFalse(tooEarly);
+        assertTrue(trial);
+        assertFalse(secondTrial);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquirePermission());
+    }
+
+    @Test
+    void testFailedTrialReopens() {
+        // Given
+        CircuitBreaker breaker = new CircuitBreaker(1, OPEN, SLOW);
+        long now = System.nanoTime();
+        breaker.onFailure(now);
+        assertTrue(breaker.tryAcquirePermission(now + OPEN));
+
+        // When
+        breaker.onFailure(now + OPEN);
+
+        // Then
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission(now + OPEN + 1));
+        assertTrue(breaker.tryAcquirePermission(now + 2 * OPEN));
+        assertEquals(2, breaker.getOpenCount());
+    }
+
+    @Test
+    void testConcurrentReaderNeverSeesOpenWithoutOpenedAt() throws Exception {
+        // Given
+        int rounds = 20_000;
+        CircuitBreaker[] breakers = new CircuitBreaker[rounds];
+        for (int i = 0; i < rounds; i++) {
+            breakers[i] = new CircuitBreaker(1, OPEN, SLOW);
+        }
+        long now = System.nanoTime();
+        AtomicInteger earlyTrials = new AtomicInteger();
+        Thread reader = new Thread(() -> {
+            for (CircuitBreaker breaker : breakers) {
+                while (breaker.getState() == CircuitBreaker.State.CLOSED) {
+                    Thread.onSpinWait();
+                }
+                if (breaker.tryAcquirePermission(now)) {
+                    earlyTrials.incrementAndGet();
+                }
+            }
+        });
+
+        // When
+        reader.start();
+        for (CircuitBreaker breaker : breakers) {
+            breaker.onFailure(now);
+        }
+        reader.join(TimeUnit.SECONDS.toMillis(30));
+
+        // Then：刚熔断时距离openedAt为0，任何线程都不应被放行试探调用
+        assertFalse(reader.isAlive());
+        assertEquals(0, earlyTrials.get());
+    }
+
+    @Test
+    void testRejectsInvalidThreshold() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> new CircuitBreaker(0, OPEN, SLOW));
+    }
+}
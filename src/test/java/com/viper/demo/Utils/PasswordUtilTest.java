@@ -219,4 +219,55 @@ public class PasswordUtilTest {
         assertFalse(isInvalid);
         assertNotEquals(originalPassword, encryptedPassword);
     }
+
+    @Test
+    void testHashPassword_SelfDescribingFormat() {
+        // When
+        String hash1 = PasswordUtil.hashPassword("password123", 1000);
+        String hash2 = PasswordUtil.hashPassword("password123", 1000);
+
+        // Then
+        assertTrue(hash1.startsWith(PasswordUtil.PBKDF2_PREFIX + "1000$"));
+        assertEquals(3, hash1.substring(PasswordUtil.PBKDF2_PREFIX.length()).split("\\$").length);
+        assertNotEquals(hash1, hash2); // 每次使用新的盐值
+        assertTrue(PasswordUtil.isHashed(hash1));
+    }
+
+    @Test
+    void testMatches_Hashed() {
+        // Given
+        String hash = PasswordUtil.hashPassword("password123", 1000);
+
+        // When & Then
+        assertTrue(PasswordUtil.matches("password123", hash));
+        assertFalse(PasswordUtil.matches("password124", hash));
+    }
+
+    @Test
+    void testMatches_DefaultIterations() {
+        // Given
+        String hash = PasswordUtil.hashPassword("password123");
+
+        // When & Then
+        assertTrue(hash.startsWith(PasswordUtil.PBKDF2_PREFIX + PasswordUtil.DEFAULT_ITERATIONS + "$"));
+        assertTrue(PasswordUtil.matches("password123", hash));
+    }
+
+    @Test
+    void testMatches_LegacyPlaintext() {
+        // When & Then
+        assertFalse(PasswordUtil.isHashed("password123"));
+        assertTrue(PasswordUtil.matches("password123", "password123"));
+        assertFalse(PasswordUtil.matches("password12", "password123"));
+    }
+
+    @Test
+    void testMatches_InvalidInputs() {
+        // When & Then
+        assertFalse(PasswordUtil.matches(null, "password123"));
+        assertFalse(PasswordUtil.matches("password123", null));
+        assertFalse(PasswordUtil.matches("password123", PasswordUtil.PBKDF2_PREFIX + "1000$onlysalt"));
+        assertFalse(PasswordUtil.matches("password123", PasswordUtil.PBKDF2_PREFIX + "abc$c2FsdA$aGFzaA"));
+        assertFalse(PasswordUtil.isHashed(null));
+    }
 }
@@ -0,0 +1,78 @@
+package com.viper.demo.Utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SignedTokenCodecTest {
+
+    private static final byte[] SECRET = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+
+    private final SignedTokenCodec codec = new SignedTokenCodec(SECRET);
+
+    @Test
+    void testIssueAndVerify() {
+        // When
+        String token = codec.issue("42", 1_900_000_000L, 3);
+        SignedTokenCodec.Claims claims = codec.verify(token);
+
+        // Then
+        assertTrue(token.startsWith(SignedTokenCodec.PREFIX));
+        assertNotNull(claims);
+        assertEquals("42", claims.loginId());
+        assertEquals(1_900_000_000L, claims.expiresAtSeconds());
+        assertEquals(3, claims.permissionVersion());
+        assertFalse(claims.tokenId().isEmpty());
+    }
+
+    @Test
+    void testTokensAreUnique() {
+        // When
+        String first = codec.issue("42", 1_900_000_000L, 0);
+        String second = codec.issue("42", 1_900_000_000L, 0);
+
+        // Then
+        assertNotEquals(first, second);
+        assertNotEquals(codec.verify(first).tokenId(), codec.verify(second).tokenId());
+    }
+
+    @Test
+    void testTamperedPayloadIsRejected() {
+        // Given
+        String token = codec.issue("42", 1_900_000_000L, 0);
+
+        // When
+        String tampered = token.replaceFirst("^s1\\.42\\.", "s1.1.");
+
+        // Then
+        assertNull(codec.verify(tampered));
+    }
+
+    @Test
+    void testTokenFromOtherSecretIsRejected() {
+        // Given
+        SignedTokenCodec other = new SignedTokenCodec("fedcba9876543210fedcba9876543210".getBytes(StandardCharsets.UTF_8));
+
+        // When & Then
+        assertNull(codec.verify(other.issue("42", 1_900_000_000L, 0)));
+    }
+
+    @Test
+    void testMalformedTokensAreRejected() {
+        // When & Then
+        assertNull(codec.verify(null));
+        assertNull(codec.verify(""));
+        assertNull(codec.verify("0b6f6a0e-uuid-token"));
+        assertNull(codec.verify("s1."));
+        assertNull(codec.verify("s1.42.abc.0.id.%%%"));
+    }
+
+    @Test
+    void testRejectsShortSecretAndInvalidLoginId() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> new SignedTokenCodec(new byte[16]));
+        assertThrows(IllegalArgumentException.class, () -> codec.issue("a.b", 1_900_000_000L, 0));
+    }
+}
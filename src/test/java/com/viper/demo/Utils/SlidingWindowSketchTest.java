@@ -0,0 +1,145 @@
+package com.viper.demo.Utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SlidingWindowSketchTest {
+
+    private static final long WINDOW = 60_000;
+
+    @Test
+    void testCountsWithinWindow() {
+        // Given
+        SlidingWindowSketch sketch = new SlidingWindowSketch(WINDOW, 6, 1024);
+        long now = 1_000_000L;
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            sketch.increment("alice", now + i * 1000);
+        }
+        sketch.increment("bob", now);
+
+        // Then
+        assertEquals(3, sketch.estimate("alice", now + 5000));
+        assertEquals(1, sketch.estimate("bob", now + 5000));
+        assertEquals(0, sketch.estimate("carol", now + 5000));
+    }
+
+    @Test
+    void testOldSlotsExpire() {
+        // Given
+        SlidingWindowSketch sketch = new SlidingWindowSketch(WINDOW, 6, 1024);
+        long now = 1_000_000L;
+        sketch.increment("alice", now);
+        sketch.increment("alice", now + 30_000);
+
+        // When
+        int halfWay = sketch.estimate("alice", now + 40_000);
+        int afterWindow = sketch.estimate("alice", now + WINDOW + 20_000);
+        int muchLater = sketch.estimate("alice", now + 10 * WINDOW);
+
+        // Then
+        assertEquals(2, halfWay);
+        assertEquals(1, afterWindow);
+        assertEquals(0, muchLater);
+    }
+
+    @Test
+    void testReusedSlotIsCleared() {
+        // Given
+        SlidingWindowSketch sketch = new SlidingWindowSketch(WINDOW, 6, 1024);
+        long now = 1_000_000L;
+        sketch.increment("alice", now);
+
+        // When
+        sketch.increment("alice", now + WINDOW);
+
+        // Then
+        assertEquals(1, sketch.estimate("alice", now + WINDOW));
+    }
+
+    @Test
+    void testEstimateNeverUndercounts() {
+        // Given
+        SlidingWindowSketch sketch = new SlidingWindowSketch(WINDOW, 6, 64);
+        long now = 1_000_000L;
+
+        // When
+        for (int i = 0; i < 5_000; i++) {
+            sketch.increment("user" + i, now);
+        }
+        for (int i = 0; i < 7; i++) {
+            sketch.increment("target", now);
+        }
+
+        // Then
+        assertTrue(sketch.estimate("target", now) >= 7);
+    }
+
+    @Test
+    void testConservativeUpdateKeepsUnrelatedKeysLow() {
+        // Given：2万个不同的键各计一次，总量远大于宽度
+        SlidingWindowSketch sketch = new SlidingWindowSketch(WINDOW, 6, 8192);
+        long now = 1_000_000L;
+
+        // When
+        for (int i = 0; i < 20_000; i++) {
+            sketch.increment("user" + i, now);
+        }
+
+        // Then
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(sketch.estimate("other" + i, now) < 5);
+        }
+    }
+
+    @Test
+    void testConcurrentIncrementsAcrossRotationAreNotLost() throws InterruptedException {
+        // Given：旧周期的计数占着同一个槽位
+        SlidingWindowSketch sketch = new SlidingWindowSketch(WINDOW, 6, 1024);
+        long now = 1_000_000L;
+        for (int i = 0; i < 100; i++) {
+            sketch.increment("alice", now);
+        }
+        long reused = now + WINDOW;
+
+        // When：多个线程同时触发槽位轮换并计数
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 5_000; i++) {
+                    sketch.increment("alice", reused);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Then
+        assertEquals(40_000, sketch.estimate("alice", reused));
+    }
+
+    @Test
+    void testMemoryIsFixed() {
+        // Given
+        SlidingWindowSketch sketch = new SlidingWindowSketch(WINDOW, 6, 1000);
+
+        // Then
+        assertEquals(6L * 4 * 1024 * Integer.BYTES, sketch.memoryBytes());
+    }
+
+    @Test
+    void testRejectsInvalidArguments() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> new SlidingWindowSketch(0, 6, 1024));
+        assertThrows(IllegalArgumentException.class, () -> new SlidingWindowSketch(WINDOW, 0, 1024));
+        assertThrows(IllegalArgumentException.class, () -> new SlidingWindowSketch(WINDOW, 6, 0));
+    }
+}
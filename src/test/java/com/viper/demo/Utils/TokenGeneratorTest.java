@@ -0,0 +1,105 @@
+package com.viper.demo.Utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenGeneratorTest {
+
+    @Test
+    void testDefaultTokenIsUrlSafe128Bit() {
+        // Given
+        TokenGenerator generator = new TokenGenerator();
+
+        // When
+        String token = generator.next();
+
+        // Then
+        assertEquals(22, token.length());
+        assertEquals(generator.length(), token.length());
+        assertTrue(token.matches("[A-Za-z0-9_-]+"));
+    }
+
+    @Test
+    void testLongerRandomPart() {
+        // Given
+        TokenGenerator generator = new TokenGenerator("", 32);
+
+        // When
+        String token = generator.next();
+
+        // Then
+        assertEquals(43, token.length());
+        assertTrue(token.matches("[A-Za-z0-9_-]+"));
+    }
+
+    @Test
+    void testShardPrefix() {
+        // Given
+        TokenGenerator generator = new TokenGenerator("n3", TokenGenerator.DEFAULT_RANDOM_BYTES);
+
+        // When
+        String token = generator.next();
+
+        // Then
+        assertTrue(token.startsWith("n3."));
+        assertEquals(25, token.length());
+        assertTrue(token.substring(3).matches("[A-Za-z0-9_-]{22}"));
+    }
+
+    @Test
+    void testTokensAreUniqueAcrossBufferRefills() {
+        // Given
+        TokenGenerator generator = new TokenGenerator();
+        Set<String> tokens = ConcurrentHashMap.newKeySet();
+
+        // When
+        for (int i = 0; i < 10_000; i++) {
+            tokens.add(generator.next());
+        }
+
+        // Then
+        assertEquals(10_000, tokens.size());
+    }
+
+    @Test
+    void testTokensAreUniqueAcrossThreads() throws InterruptedException {
+        // Given
+        TokenGenerator generator = new TokenGenerator();
+        Set<String> tokens = ConcurrentHashMap.newKeySet();
+        ExecutorService platform = Executors.newFixedThreadPool(4);
+        ExecutorService virtual = Executors.newVirtualThreadPerTaskExecutor();
+
+        // When
+        for (int i = 0; i < 2_000; i++) {
+            platform.submit(() -> tokens.add(generator.next()));
+            virtual.submit(() -> tokens.add(generator.next()));
+        }
+        platform.shutdown();
+        virtual.shutdown();
+
+        // Then
+        assertTrue(platform.awaitTermination(10, TimeUnit.SECONDS));
+        assertTrue(virtual.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(4_000, tokens.size());
+    }
+
+    @Test
+    void testRejectsTooFewRandomBytes() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> new TokenGenerator("", 8));
+    }
+
+    @Test
+    void testRejectsInvalidPrefix() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> new TokenGenerator("n3.a", 16));
+        assertThrows(IllegalArgumentException.class, () -> new TokenGenerator("节点", 16));
+    }
+}